@@ -18,6 +18,13 @@
  */
 package org.apache.ambari.infra.conf.batch;
 
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.batch.admin.service.JdbcSearchableJobExecutionDao;
 import org.springframework.batch.admin.service.JdbcSearchableJobInstanceDao;
 import org.springframework.batch.admin.service.JdbcSearchableStepExecutionDao;
@@ -28,6 +35,7 @@ import org.springframework.batch.admin.service.SearchableStepExecutionDao;
 import org.springframework.batch.admin.service.SimpleJobService;
 import org.springframework.batch.core.configuration.JobRegistry;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.configuration.support.JobRegistryBeanPostProcessor;
 import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
@@ -41,19 +49,19 @@ import org.springframework.batch.core.repository.dao.ExecutionContextDao;
 import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
 import org.springframework.batch.core.repository.dao.JdbcExecutionContextDao;
 import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
-import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.Resource;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
-import org.springframework.jdbc.datasource.init.DataSourceInitializer;
-import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.sqlite.SQLiteConfig;
 
 import javax.inject.Inject;
 import javax.sql.DataSource;
@@ -64,17 +72,17 @@ import javax.sql.DataSource;
 @EnableAsync
 public class InfraManagerBatchConfig {
 
-  @Value("classpath:org/springframework/batch/core/schema-drop-sqlite.sql")
-  private Resource dropRepositoryTables;
-
-  @Value("classpath:org/springframework/batch/core/schema-sqlite.sql")
-  private Resource dataRepositorySchema;
-
   @Value("${infra-manager.batch.db.init:false}")
   private boolean dropDatabaseOnStartup;
 
+  @Value("${infra-manager.batch.db.type:SQLITE}")
+  private JobRepositoryDatabase databaseType;
+
   @Value("${infra-manager.batch.db.file:/etc/ambari-inra-manager/conf/repository.db}")
-  private String sqliteDbFileLocation;
+  private String dbFileLocation;
+
+  @Value("${infra-manager.batch.db.url:}")
+  private String databaseUrl;
 
   @Value("${infra-manager.batch.db.username}")
   private String databaseUsername;
@@ -82,34 +90,75 @@ public class InfraManagerBatchConfig {
   @Value("${infra-manager.batch.db.password}")
   private String databasePassword;
 
+  @Value("${infra-manager.batch.db.pool.max-active:8}")
+  private int maxActiveConnections;
+
+  @Value("${infra-manager.batch.db.pool.max-wait-ms:30000}")
+  private long maxWaitMillis;
+
+  @Value("${infra-manager.batch.db.journal-mode:WAL}")
+  private SQLiteConfig.JournalMode journalMode;
+
+  @Value("${infra-manager.batch.db.synchronous:NORMAL}")
+  private SQLiteConfig.SynchronousMode synchronousMode;
+
+  @Value("${infra-manager.batch.db.busy-timeout-ms:10000}")
+  private int busyTimeoutMillis;
+
   @Inject
   private JobRegistry jobRegistry;
 
+  @Bean(destroyMethod = "close")
+  public BasicDataSource connectionPool() {
+    Properties connectionProperties = new Properties();
+    if (databaseType == JobRepositoryDatabase.SQLITE) {
+      SQLiteConfig sqLiteConfig = new SQLiteConfig();
+      sqLiteConfig.setJournalMode(journalMode);
+      sqLiteConfig.setSynchronous(synchronousMode);
+      sqLiteConfig.setBusyTimeout(Integer.toString(busyTimeoutMillis));
+      connectionProperties = sqLiteConfig.toProperties();
+    }
+    return pooledDataSource(
+            databaseType.getDriverClassName(),
+            isBlank(databaseUrl) ? databaseType.url(dbFileLocation) : databaseUrl,
+            databaseUsername, databasePassword, connectionProperties, maxActiveConnections, maxWaitMillis);
+  }
+
+  /**
+   * The transactions of the steps span the whole tasklet. The connection of a transaction is taken from the pool at
+   * the first statement only, when the step persists its state at the end of the chunk: a running tasklet does not
+   * hold a connection and its checkpoints, committed in their own transactions, do not need a second one.
+   */
   @Bean
+  @Primary
   public DataSource dataSource() {
-    DriverManagerDataSource dataSource = new DriverManagerDataSource();
-    dataSource.setDriverClassName("org.sqlite.JDBC");
-    dataSource.setUrl("jdbc:sqlite:" + sqliteDbFileLocation);
-    dataSource.setUsername(databaseUsername);
-    dataSource.setPassword(databasePassword);
+    return new LazyConnectionDataSourceProxy(connectionPool());
+  }
+
+  /**
+   * Creates a bounded pool of connections to the job repository database. The specified properties are passed to the
+   * driver when a connection is opened. In case of SQLite these are the pragmas: in WAL journal mode the readers
+   * (REST listing, job explorer) are not blocked by the writer (job checkpoints) and concurrent writers wait up to
+   * the busy timeout for each other instead of failing.
+   */
+  public static BasicDataSource pooledDataSource(String driverClassName, String url, String username, String password,
+                                                 Properties connectionProperties, int maxActive, long maxWaitMillis) {
+    BasicDataSource dataSource = new BasicDataSource();
+    dataSource.setDriverClassName(driverClassName);
+    dataSource.setUrl(url);
+    dataSource.setUsername(username);
+    dataSource.setPassword(password);
+    for (Map.Entry<Object, Object> property : connectionProperties.entrySet())
+      dataSource.addConnectionProperty(property.getKey().toString(), property.getValue().toString());
+    dataSource.setMaxActive(maxActive);
+    dataSource.setMaxIdle(maxActive);
+    dataSource.setMaxWait(maxWaitMillis);
     return dataSource;
   }
 
   @Bean
-  public DataSourceInitializer dataSourceInitializer() {
-    ResourceDatabasePopulator databasePopulator = new ResourceDatabasePopulator();
-    if (dropDatabaseOnStartup) {
-      databasePopulator.addScript(dropRepositoryTables);
-      databasePopulator.setIgnoreFailedDrops(true);
-    }
-    databasePopulator.addScript(dataRepositorySchema);
-    databasePopulator.setContinueOnError(true);
-
-    DataSourceInitializer initializer = new DataSourceInitializer();
-    initializer.setDataSource(dataSource());
-    initializer.setDatabasePopulator(databasePopulator);
-
-    return initializer;
+  public SchemaMigrator schemaMigrator() {
+    return new SchemaMigrator(dataSource(), databaseType, dropDatabaseOnStartup);
   }
 
   @Bean
@@ -118,18 +167,31 @@ public class InfraManagerBatchConfig {
   }
 
   @Bean
+  @DependsOn("schemaMigrator")
   public JobRepository jobRepository() throws Exception {
     JobRepositoryFactoryBean factory = new JobRepositoryFactoryBean();
     factory.setDataSource(dataSource());
     factory.setTransactionManager(transactionManager());
     factory.setSerializer(executionContextSerializer());
     factory.afterPropertiesSet();
-    return factory.getObject();
+    return retryingOnBusy(factory.getObject());
+  }
+
+  public static JobRepository retryingOnBusy(JobRepository jobRepository) {
+    ProxyFactory proxyFactory = new ProxyFactory(jobRepository);
+    proxyFactory.addAdvice(new SQLiteBusyRetryInterceptor(5, 50));
+    return (JobRepository) proxyFactory.getProxy();
   }
 
   @Bean
   public PlatformTransactionManager transactionManager() {
-    return new ResourcelessTransactionManager();
+    return new DataSourceTransactionManager(dataSource());
+  }
+
+  @Bean
+  @Primary
+  public StepBuilderFactory stepBuilderFactory() throws Exception {
+    return new StepBuilderFactory(jobRepository(), transactionManager());
   }
 
   @Bean(name = "jobLauncher")
@@ -152,6 +214,7 @@ public class InfraManagerBatchConfig {
   }
 
   @Bean
+  @DependsOn("schemaMigrator")
   public JobExplorer jobExplorer() throws Exception {
     JobExplorerFactoryBean factoryBean = new JobExplorerFactoryBean();
     factoryBean.setSerializer(executionContextSerializer());
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.conf.batch;
+
+import java.io.File;
+
+/**
+ * Supported job repository backends. A new one needs its JDBC driver, the Spring Batch schema script of its platform
+ * and the migrations run against it in JobRepositoryDatabaseTest.
+ */
+public enum JobRepositoryDatabase {
+  /**
+   * Embedded SQLite database file.
+   */
+  SQLITE("org.sqlite.JDBC", "sqlite") {
+    @Override
+    public String url(String dbFile) {
+      return "jdbc:sqlite:" + dbFile;
+    }
+  },
+  /**
+   * Embedded H2 database file.
+   */
+  H2("org.h2.Driver", "h2") {
+    @Override
+    public String url(String dbFile) {
+      // H2 does not accept a path relative to the working directory without a leading ./
+      return "jdbc:h2:file:" + new File(dbFile).getAbsolutePath();
+    }
+  },
+  /**
+   * External PostgreSQL server: the url must be specified.
+   */
+  POSTGRESQL("org.postgresql.Driver", "postgresql") {
+    @Override
+    public String url(String dbFile) {
+      throw new IllegalArgumentException("The property infra-manager.batch.db.url is required when the database type is " + name());
+    }
+  };
+
+  private final String driverClassName;
+  private final String platform;
+
+  JobRepositoryDatabase(String driverClassName, String platform) {
+    this.driverClassName = driverClassName;
+    this.platform = platform;
+  }
+
+  public String getDriverClassName() {
+    return driverClassName;
+  }
+
+  /**
+   * @return the platform name used in the file names of the Spring Batch schema scripts
+   */
+  public String getPlatform() {
+    return platform;
+  }
+
+  /**
+   * @return the default JDBC url of the database stored in the specified file
+   */
+  public abstract String url(String dbFile);
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.conf.batch;
+
+import java.sql.SQLException;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.sqlite.SQLiteErrorCode;
+
+/**
+ * Retries job repository operations failed with SQLITE_BUSY. In WAL journal mode a transaction which reads before it
+ * writes fails immediately without waiting for the busy timeout if an other connection committed in the meantime.
+ * Only operations starting their own transaction are retried: the ones joining an outer transaction fail together
+ * with the outer transaction.
+ */
+public class SQLiteBusyRetryInterceptor implements MethodInterceptor {
+  private static final Logger logger = LogManager.getLogger(SQLiteBusyRetryInterceptor.class);
+  private static final String BUSY_MESSAGE = "database is locked";
+
+  private final int maxAttempts;
+  private final long backOffMillis;
+
+  public SQLiteBusyRetryInterceptor(int maxAttempts, long backOffMillis) {
+    this.maxAttempts = maxAttempts;
+    this.backOffMillis = backOffMillis;
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    if (TransactionSynchronizationManager.isActualTransactionActive())
+      return invocation.proceed();
+
+    for (int attempt = 1; ; ++attempt) {
+      try {
+        return ((ProxyMethodInvocation) invocation).invocableClone().proceed();
+      }
+      catch (RuntimeException e) {
+        if (attempt >= maxAttempts || !isBusy(e))
+          throw e;
+        logger.info("Database is busy while executing {}. Retrying... attempt {} of {}", invocation.getMethod().getName(), attempt + 1, maxAttempts);
+        Thread.sleep(backOffMillis * attempt);
+      }
+    }
+  }
+
+  static boolean isBusy(Throwable throwable) {
+    for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+      // some code paths of the driver do not set the error code
+      if (cause instanceof SQLException && (((SQLException) cause).getErrorCode() == SQLiteErrorCode.SQLITE_BUSY.code ||
+              (cause.getMessage() != null && cause.getMessage().contains(BUSY_MESSAGE))))
+        return true;
+      if (cause.getCause() == cause)
+        break;
+    }
+    return false;
+  }
+}
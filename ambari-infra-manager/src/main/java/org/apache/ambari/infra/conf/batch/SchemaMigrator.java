@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.conf.batch;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * Applies the versioned schema scripts of the job repository. The applied versions are recorded in the
+ * INFRA_SCHEMA_VERSION table, each migration is executed once. A repository created before the versioning
+ * (Spring Batch tables exist but there is no version) is treated as if the first version was applied.
+ */
+public class SchemaMigrator implements InitializingBean {
+  private static final Logger logger = LogManager.getLogger(SchemaMigrator.class);
+
+  static final String VERSION_TABLE = "INFRA_SCHEMA_VERSION";
+  private static final String JOB_INSTANCE_TABLE = "BATCH_JOB_INSTANCE";
+
+  private final DataSource dataSource;
+  private final JobRepositoryDatabase database;
+  private final boolean dropOnStartup;
+  private final JdbcTemplate jdbcTemplate;
+
+  public SchemaMigrator(DataSource dataSource, JobRepositoryDatabase database, boolean dropOnStartup) {
+    this.dataSource = dataSource;
+    this.database = database;
+    this.dropOnStartup = dropOnStartup;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  List<Migration> migrations() {
+    List<Migration> migrations = new ArrayList<>();
+    migrations.add(new Migration(1, "job repository tables",
+            new ClassPathResource(String.format("org/springframework/batch/core/schema-%s.sql", database.getPlatform()))));
+    migrations.add(new Migration(2, "job repository indexes",
+            new ClassPathResource("db/migration/V2__job_repository_indexes.sql")));
+    migrations.add(new Migration(3, "job execution fingerprint indexes",
+            new ClassPathResource("db/migration/V3__job_execution_fingerprint_indexes.sql")));
+    return Collections.unmodifiableList(migrations);
+  }
+
+  @Override
+  public void afterPropertiesSet() throws SQLException {
+    if (dropOnStartup)
+      drop();
+    migrate();
+  }
+
+  private void drop() {
+    logger.info("Dropping job repository tables");
+    ResourceDatabasePopulator databasePopulator = new ResourceDatabasePopulator(
+            new ClassPathResource(String.format("org/springframework/batch/core/schema-drop-%s.sql", database.getPlatform())));
+    databasePopulator.setIgnoreFailedDrops(true);
+    databasePopulator.execute(dataSource);
+    jdbcTemplate.execute("DROP TABLE IF EXISTS " + VERSION_TABLE);
+  }
+
+  public void migrate() throws SQLException {
+    jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + VERSION_TABLE +
+            " (VERSION INTEGER NOT NULL PRIMARY KEY, DESCRIPTION VARCHAR(200) NOT NULL, INSTALLED_ON TIMESTAMP NOT NULL)");
+    int currentVersion = getCurrentVersion();
+    if (currentVersion == 0 && tableExists(JOB_INSTANCE_TABLE)) {
+      logger.info("Job repository created by an earlier release was found: it is baselined at version 1");
+      recordVersion(migrations().get(0));
+      currentVersion = 1;
+    }
+
+    for (Migration migration : migrations()) {
+      if (migration.version <= currentVersion)
+        continue;
+      logger.info("Migrating job repository schema to version {}: {}", migration.version, migration.description);
+      new ResourceDatabasePopulator(migration.script).execute(dataSource);
+      recordVersion(migration);
+    }
+  }
+
+  public int getCurrentVersion() {
+    Integer version = jdbcTemplate.queryForObject("SELECT MAX(VERSION) FROM " + VERSION_TABLE, Integer.class);
+    return version == null ? 0 : version;
+  }
+
+  private void recordVersion(Migration migration) {
+    jdbcTemplate.update("INSERT INTO " + VERSION_TABLE + " (VERSION, DESCRIPTION, INSTALLED_ON) VALUES (?, ?, ?)",
+            migration.version, migration.description, new Timestamp(System.currentTimeMillis()));
+  }
+
+  private boolean tableExists(String tableName) throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      DatabaseMetaData metaData = connection.getMetaData();
+      // unquoted identifiers are stored in lower case by PostgreSQL
+      for (String name : new String[] {tableName, tableName.toLowerCase()}) {
+        try (ResultSet tables = metaData.getTables(null, null, name, null)) {
+          if (tables.next())
+            return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  static class Migration {
+    private final int version;
+    private final String description;
+    private final Resource script;
+
+    Migration(int version, String description, Resource script) {
+      this.version = version;
+      this.description = description;
+      this.script = script;
+    }
+  }
+}
@@ -41,4 +41,11 @@ public class SecretStoreConfig {
             hadoopCredentialStore.getSecret("infra_manager_keystore_password"),
             hadoopCredentialStore.getSecret("infra_manager_truststore_password"));
   }
+
+  @Bean
+  public S3Secrets s3Secrets(HadoopCredentialStore hadoopCredentialStore) {
+    return new S3Secrets(
+            new CompositeSecret(hadoopCredentialStore.getSecret("infra_manager_s3_access_key"), new EnvironmentalSecret("AWS_ACCESS_KEY_ID")),
+            new CompositeSecret(hadoopCredentialStore.getSecret("infra_manager_s3_secret_key"), new EnvironmentalSecret("AWS_SECRET_ACCESS_KEY")));
+  }
 }
@@ -21,6 +21,7 @@ package org.apache.ambari.infra.job;
 import java.util.Map;
 
 import javax.annotation.PostConstruct;
+import javax.inject.Inject;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -38,6 +39,8 @@ public abstract class AbstractJobsConfiguration<TProperties extends JobPropertie
   private final JobScheduler scheduler;
   private final JobBuilderFactory jobs;
   private final JobRegistryBeanPostProcessor jobRegistryBeanPostProcessor;
+  @Inject
+  private StopSignal stopSignal;
 
   protected AbstractJobsConfiguration(Map<String, TProperties> propertyMap, JobScheduler scheduler, JobBuilderFactory jobs, JobRegistryBeanPostProcessor jobRegistryBeanPostProcessor) {
     this.propertyMap = propertyMap;
@@ -57,7 +60,9 @@ public abstract class AbstractJobsConfiguration<TProperties extends JobPropertie
               try {
                 propertyMap.get(jobName).validate(jobName);
                 logger.info("Registering job {}", jobName);
-                JobBuilder jobBuilder = jobs.get(jobName).listener(new JobsPropertyMap<>(propertyMap));
+                JobBuilder jobBuilder = jobs.get(jobName)
+                        .listener(new JobsPropertyMap<>(propertyMap))
+                        .listener(stopSignal);
                 Job job = buildJob(jobBuilder);
                 jobRegistryBeanPostProcessor.postProcessAfterInitialization(job, jobName);
               }
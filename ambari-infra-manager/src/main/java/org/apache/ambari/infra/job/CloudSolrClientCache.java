@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.impl.CloudSolrClient;
+import org.apache.zookeeper.client.ConnectStringParser;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Keeps one {@link CloudSolrClient} per ZooKeeper ensemble (connect string + chroot) for the lifetime of the application.
+ * Clients are not bound to a collection: callers have to specify the collection for each request.
+ * Callers {@link #acquire(String) acquire} a client for the duration of their request and {@link CachedClient#release()
+ * release} it afterwards. An {@link CachedClient#invalidate() invalidated} client is removed from the cache immediately
+ * but it is closed only when the last caller which is still using it releases it.
+ */
+@Named
+public class CloudSolrClientCache {
+  private static final Logger logger = LogManager.getLogger(CloudSolrClientCache.class);
+
+  private final Map<String, CachedClient> clientMap = new ConcurrentHashMap<>();
+  private final Counter createdCounter;
+  private final Counter cacheHitCounter;
+
+  @Inject
+  public CloudSolrClientCache(MeterRegistry meterRegistry) {
+    createdCounter = meterRegistry.counter("infra.manager.solr.client.created");
+    cacheHitCounter = meterRegistry.counter("infra.manager.solr.client.cache.hit");
+  }
+
+  public CachedClient acquire(String zooKeeperConnectionString) {
+    ConnectStringParser connectStringParser = new ConnectStringParser(zooKeeperConnectionString);
+    List<String> zkHosts = connectStringParser.getServerAddresses().stream()
+            .map(InetSocketAddress::toString)
+            .sorted()
+            .collect(Collectors.toList());
+    Optional<String> chroot = Optional.ofNullable(connectStringParser.getChrootPath());
+    String key = String.join(",", zkHosts) + chroot.orElse("");
+
+    CachedClient cachedClient = clientMap.get(key);
+    if (cachedClient != null && cachedClient.retain()) {
+      cacheHitCounter.increment();
+      return cachedClient;
+    }
+
+    while (true) {
+      cachedClient = clientMap.computeIfAbsent(key, k -> {
+        logger.info("Creating solr client for zookeeper {}", k);
+        createdCounter.increment();
+        return new CachedClient(k, new CloudSolrClient.Builder(zkHosts, chroot).build());
+      });
+      // the client may have been invalidated and closed since it was looked up
+      if (cachedClient.retain())
+        return cachedClient;
+      clientMap.remove(key, cachedClient);
+    }
+  }
+
+  public double getCreatedCount() {
+    return createdCounter.count();
+  }
+
+  public double getCacheHitCount() {
+    return cacheHitCounter.count();
+  }
+
+  @PreDestroy
+  public void close() {
+    clientMap.values().forEach(this::invalidate);
+  }
+
+  private void invalidate(CachedClient cachedClient) {
+    if (clientMap.remove(cachedClient.key, cachedClient))
+      logger.info("Solr client for zookeeper {} was removed from cache", cachedClient.key);
+    cachedClient.evict();
+  }
+
+  public class CachedClient {
+    private final String key;
+    private final CloudSolrClient client;
+    private int references = 0;
+    private boolean evicted = false;
+    private boolean closed = false;
+
+    private CachedClient(String key, CloudSolrClient client) {
+      this.key = key;
+      this.client = client;
+    }
+
+    public CloudSolrClient getClient() {
+      return client;
+    }
+
+    /**
+     * Removes this client from the cache. The next {@link #acquire(String)} call creates a new client for the same
+     * ZooKeeper ensemble while the callers still using this client can finish their requests.
+     */
+    public void invalidate() {
+      CloudSolrClientCache.this.invalidate(this);
+    }
+
+    public synchronized void release() {
+      --references;
+      closeIfUnused();
+    }
+
+    private synchronized boolean retain() {
+      if (closed)
+        return false;
+      ++references;
+      return true;
+    }
+
+    private synchronized void evict() {
+      evicted = true;
+      closeIfUnused();
+    }
+
+    private void closeIfUnused() {
+      if (!evicted || references > 0 || closed)
+        return;
+      closed = true;
+      try {
+        client.close();
+      } catch (IOException e) {
+        logger.warn("Unable to close solr client", e);
+      }
+    }
+
+    synchronized boolean isClosed() {
+      return closed;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job;
+
+import javax.inject.Inject;
+
+import org.apache.ambari.infra.manager.Jobs;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.job.builder.FlowBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jobs launched with the job parameter dryRun=true only compute the estimate of the work and store it in the job
+ * execution context instead of executing it.
+ */
+@Configuration
+public class DryRunConfiguration {
+  public static final String DRY_RUN_PARAMETER = "dryRun";
+  public static final String ESTIMATE_CONTEXT_KEY = "estimate";
+  public static final FlowExecutionStatus DRY_RUN = new FlowExecutionStatus("DRY_RUN");
+
+  private final StepBuilderFactory steps;
+
+  @Inject
+  public DryRunConfiguration(StepBuilderFactory steps) {
+    this.steps = steps;
+  }
+
+  /**
+   * Creates a flow which executes the estimate step in case of dry run and the specified step otherwise.
+   */
+  public static Flow dryRunFlow(String name, JobExecutionDecider dryRunDecider, Step estimateStep, Step step) {
+    return new FlowBuilder<Flow>(name)
+            .start(dryRunDecider).on(DRY_RUN.getName()).to(estimateStep)
+            .from(dryRunDecider).on("*").to(step)
+            .build();
+  }
+
+  @Bean
+  public JobExecutionDecider dryRunDecider() {
+    return (JobExecution jobExecution, StepExecution stepExecution) ->
+            Boolean.parseBoolean(jobExecution.getJobParameters().getString(DRY_RUN_PARAMETER)) ? DRY_RUN : FlowExecutionStatus.COMPLETED;
+  }
+
+  @Bean
+  public Step estimateStep(Jobs jobs) {
+    return steps.get("estimate")
+            .tasklet((contribution, chunkContext) -> {
+              JobExecution jobExecution = chunkContext.getStepContext().getStepExecution().getJobExecution();
+              JobEstimate estimate = jobs.estimate(jobExecution.getJobInstance().getJobName(), jobExecution.getJobParameters());
+              jobExecution.getExecutionContext().put(ESTIMATE_CONTEXT_KEY, estimate);
+              return RepeatStatus.FINISHED;
+            })
+            .build();
+  }
+}
@@ -18,58 +18,302 @@
  */
 package org.apache.ambari.infra.job;
 
+import static java.util.stream.Collectors.toList;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
 import org.springframework.batch.core.repository.dao.AbstractJdbcBatchMetadataDao;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.TransactionTemplate;
 
 @Repository
 public class InfraJobExecutionDao extends AbstractJdbcBatchMetadataDao {
 
-  private final TransactionTemplate transactionTemplate;
+  public static final int DEFAULT_BATCH_SIZE = 100;
+
+  private final TransactionTemplate readTemplate;
+  private final TransactionTemplate deleteTemplate;
+  // changed by every deletion: removed executions do not change the maximum id and update time of the rest
+  // starts from the current time so a fingerprint of an earlier run is not repeated after a restart
+  private final AtomicLong deletionGeneration = new AtomicLong(System.currentTimeMillis());
 
   @Inject
   public InfraJobExecutionDao(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
     setJdbcTemplate(jdbcTemplate);
-    this.transactionTemplate = transactionTemplate;
+    // the ids are read outside of the transaction of the caller: a read followed by a write in the same transaction
+    // fails immediately on SQLite in WAL mode if an other connection committed in the meantime
+    this.readTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+    this.readTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+    // each batch is committed independently of the caller and starts with a write so it waits for the database lock
+    this.deleteTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+    this.deleteTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
   }
 
+  /**
+   * Deletes every job execution created before the specified time batch by batch, then the job instances left
+   * without execution.
+   */
   public void deleteJobExecutions(OffsetDateTime olderThan) {
-    transactionTemplate.execute(transactionStatus -> {
-      Date olderThanDate = Date.from(olderThan.toInstant());
-      deleteStepExecutionContexts(olderThanDate);
-      deleteStepExecutions(olderThanDate);
-      deleteJobExecutionParams(olderThanDate);
-      deleteJobExecutionContexts(olderThanDate);
-      getJdbcTemplate().update(getQuery("DELETE FROM %PREFIX%JOB_EXECUTION WHERE CREATE_TIME < ?"), olderThanDate);
-      getJdbcTemplate().update(getQuery("DELETE FROM %PREFIX%JOB_INSTANCE WHERE JOB_INSTANCE_ID NOT IN (SELECT JOB_INSTANCE_ID FROM %PREFIX%JOB_EXECUTION)"));
+    List<JobExecutionKey> keys;
+    while (!(keys = findJobExecutionsOlderThan(olderThan, DEFAULT_BATCH_SIZE)).isEmpty())
+      deleteJobExecutions(keys);
+    deleteJobInstancesWithoutExecution(DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * @return the ids of the oldest job executions created before the specified time in ascending order
+   */
+  public List<JobExecutionKey> findJobExecutionsOlderThan(OffsetDateTime olderThan, int limit) {
+    return readTemplate.execute(transactionStatus -> getJdbcTemplate().query(
+            getQuery("SELECT JOB_EXECUTION_ID, JOB_INSTANCE_ID FROM %PREFIX%JOB_EXECUTION WHERE CREATE_TIME < ? ORDER BY JOB_EXECUTION_ID LIMIT ?"),
+            (resultSet, rowNum) -> new JobExecutionKey(resultSet.getLong(1), resultSet.getLong(2)),
+            Date.from(olderThan.toInstant()), limit));
+  }
+
+  /**
+   * Deletes the specified job executions with their step executions, parameters and contexts in one transaction.
+   * Job instances left without execution are deleted too.
+   * @return the number of deleted rows by table name
+   */
+  public Map<String, Integer> deleteJobExecutions(List<JobExecutionKey> keys) {
+    Map<String, Integer> deletedRows = new LinkedHashMap<>();
+    if (keys.isEmpty())
+      return deletedRows;
+
+    MapSqlParameterSource parameters = new MapSqlParameterSource()
+            .addValue("jobExecutionIds", keys.stream().map(JobExecutionKey::getJobExecutionId).collect(toList()))
+            .addValue("jobInstanceIds", keys.stream().map(JobExecutionKey::getJobInstanceId).distinct().collect(toList()));
+    NamedParameterJdbcTemplate namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(getJdbcTemplate());
+    deleteTemplate.execute(transactionStatus -> {
+      delete(namedParameterJdbcTemplate, deletedRows, "STEP_EXECUTION_CONTEXT", "DELETE FROM %PREFIX%STEP_EXECUTION_CONTEXT WHERE STEP_EXECUTION_ID IN " +
+              "(SELECT STEP_EXECUTION_ID FROM %PREFIX%STEP_EXECUTION WHERE JOB_EXECUTION_ID IN (:jobExecutionIds))", parameters);
+      delete(namedParameterJdbcTemplate, deletedRows, "STEP_EXECUTION", "DELETE FROM %PREFIX%STEP_EXECUTION WHERE JOB_EXECUTION_ID IN (:jobExecutionIds)", parameters);
+      delete(namedParameterJdbcTemplate, deletedRows, "JOB_EXECUTION_PARAMS", "DELETE FROM %PREFIX%JOB_EXECUTION_PARAMS WHERE JOB_EXECUTION_ID IN (:jobExecutionIds)", parameters);
+      delete(namedParameterJdbcTemplate, deletedRows, "JOB_EXECUTION_CONTEXT", "DELETE FROM %PREFIX%JOB_EXECUTION_CONTEXT WHERE JOB_EXECUTION_ID IN (:jobExecutionIds)", parameters);
+      delete(namedParameterJdbcTemplate, deletedRows, "JOB_EXECUTION", "DELETE FROM %PREFIX%JOB_EXECUTION WHERE JOB_EXECUTION_ID IN (:jobExecutionIds)", parameters);
+      delete(namedParameterJdbcTemplate, deletedRows, "JOB_INSTANCE", "DELETE FROM %PREFIX%JOB_INSTANCE WHERE JOB_INSTANCE_ID IN (:jobInstanceIds) AND NOT EXISTS " +
+              "(SELECT 1 FROM %PREFIX%JOB_EXECUTION e WHERE e.JOB_INSTANCE_ID = %PREFIX%JOB_INSTANCE.JOB_INSTANCE_ID)", parameters);
       return null;
     });
+    deletionGeneration.incrementAndGet();
+    return deletedRows;
   }
 
-  private void deleteStepExecutionContexts(Date olderThan) {
-    getJdbcTemplate().update(getQuery("DELETE FROM %PREFIX%STEP_EXECUTION_CONTEXT WHERE STEP_EXECUTION_ID IN (SELECT STEP_EXECUTION_ID FROM %PREFIX%STEP_EXECUTION WHERE JOB_EXECUTION_ID IN (SELECT JOB_EXECUTION_ID FROM %PREFIX%JOB_EXECUTION WHERE CREATE_TIME < ?))"),
-            olderThan);
+  /**
+   * Deletes the job instances which have no execution at all batch by batch, each batch in its own transaction.
+   * The keyed deletions remove the instances of their own executions only: this sweep removes the instances which
+   * had no execution in the deleted batches, like the ones left by earlier clean ups.
+   * @return the number of deleted job instances
+   */
+  public int deleteJobInstancesWithoutExecution(int batchSize) {
+    int deletedCount = 0;
+    List<Long> jobInstanceIds;
+    do {
+      jobInstanceIds = readTemplate.execute(transactionStatus -> getJdbcTemplate().queryForList(getQuery(
+              "SELECT JOB_INSTANCE_ID FROM %PREFIX%JOB_INSTANCE I WHERE NOT EXISTS " +
+              "(SELECT 1 FROM %PREFIX%JOB_EXECUTION E WHERE E.JOB_INSTANCE_ID = I.JOB_INSTANCE_ID) " +
+              "ORDER BY JOB_INSTANCE_ID LIMIT ?"), Long.class, batchSize));
+      if (jobInstanceIds.isEmpty())
+        break;
+      MapSqlParameterSource parameters = new MapSqlParameterSource("jobInstanceIds", jobInstanceIds);
+      // an execution could be created for an instance since it was selected: the condition is checked again
+      deletedCount += deleteTemplate.execute(transactionStatus -> new NamedParameterJdbcTemplate(getJdbcTemplate()).update(getQuery(
+              "DELETE FROM %PREFIX%JOB_INSTANCE WHERE JOB_INSTANCE_ID IN (:jobInstanceIds) AND NOT EXISTS " +
+              "(SELECT 1 FROM %PREFIX%JOB_EXECUTION E WHERE E.JOB_INSTANCE_ID = %PREFIX%JOB_INSTANCE.JOB_INSTANCE_ID)"), parameters));
+    } while (jobInstanceIds.size() == batchSize);
+    if (deletedCount > 0)
+      deletionGeneration.incrementAndGet();
+    return deletedCount;
   }
 
-  private void deleteStepExecutions(Date olderThan) {
-    getJdbcTemplate().update(getQuery("DELETE FROM %PREFIX%STEP_EXECUTION WHERE JOB_EXECUTION_ID IN (SELECT JOB_EXECUTION_ID FROM %PREFIX%JOB_EXECUTION WHERE CREATE_TIME < ?)"),
-            olderThan);
+  /**
+   * @return the ids of the specified job instances which are in the job repository
+   */
+  public Set<Long> findExistingJobInstanceIds(Collection<Long> jobInstanceIds) {
+    Set<Long> existing = new HashSet<>();
+    if (jobInstanceIds.isEmpty())
+      return existing;
+    readTemplate.execute(transactionStatus -> {
+      new NamedParameterJdbcTemplate(getJdbcTemplate()).query(getQuery(
+              "SELECT JOB_INSTANCE_ID FROM %PREFIX%JOB_INSTANCE WHERE JOB_INSTANCE_ID IN (:jobInstanceIds)"),
+              new MapSqlParameterSource("jobInstanceIds", jobInstanceIds),
+              (RowCallbackHandler) resultSet -> existing.add(resultSet.getLong(1)));
+      return null;
+    });
+    return existing;
   }
 
-  private void deleteJobExecutionParams(Date olderThan) {
-    getJdbcTemplate().update(getQuery("DELETE FROM %PREFIX%JOB_EXECUTION_PARAMS WHERE JOB_EXECUTION_ID IN (SELECT JOB_EXECUTION_ID FROM %PREFIX%JOB_EXECUTION WHERE CREATE_TIME < ?)"),
-            olderThan);
+  private void delete(NamedParameterJdbcTemplate namedParameterJdbcTemplate, Map<String, Integer> deletedRows,
+                      String table, String sql, MapSqlParameterSource parameters) {
+    deletedRows.put(table, namedParameterJdbcTemplate.update(getQuery(sql), parameters));
   }
 
-  private void deleteJobExecutionContexts(Date olderThan) {
-    getJdbcTemplate().update(getQuery("DELETE FROM %PREFIX%JOB_EXECUTION_CONTEXT WHERE JOB_EXECUTION_ID IN (SELECT JOB_EXECUTION_ID FROM  %PREFIX%JOB_EXECUTION WHERE CREATE_TIME < ?)"),
-            olderThan);
+  /**
+   * Lists the latest instances of a job with all of their executions using two queries: one for the instances joined
+   * with their executions and one for the parameters of these executions.
+   * @param beforeJobInstanceId if not null only the instances with lower id are listed (keyset pagination): the
+   *                            next page starts before the last instance of the previous one
+   * @return the instances in descending id order, the executions of an instance in descending id order
+   */
+  public Map<JobInstance, List<JobExecution>> findJobInstancesWithExecutions(String jobName, Long beforeJobInstanceId, int offset, int limit) {
+    Map<JobInstance, List<JobExecution>> jobInstances = new LinkedHashMap<>();
+    Map<Long, JobParametersBuilder> jobParameters = new HashMap<>();
+    getJdbcTemplate().query(getQuery(
+            "SELECT I.JOB_INSTANCE_ID, I.VERSION, E.JOB_EXECUTION_ID, E.START_TIME, E.END_TIME, E.STATUS, E.EXIT_CODE, " +
+                    "E.EXIT_MESSAGE, E.CREATE_TIME, E.LAST_UPDATED, E.VERSION, E.JOB_CONFIGURATION_LOCATION " +
+            "FROM (SELECT JOB_INSTANCE_ID, VERSION FROM %PREFIX%JOB_INSTANCE WHERE JOB_NAME = ? AND JOB_INSTANCE_ID < ? " +
+                    "ORDER BY JOB_INSTANCE_ID DESC LIMIT ? OFFSET ?) I " +
+            "LEFT JOIN %PREFIX%JOB_EXECUTION E ON E.JOB_INSTANCE_ID = I.JOB_INSTANCE_ID " +
+            "ORDER BY I.JOB_INSTANCE_ID DESC, E.JOB_EXECUTION_ID DESC"),
+            (RowCallbackHandler) resultSet -> {
+              JobInstance jobInstance = new JobInstance(resultSet.getLong(1), jobName);
+              jobInstance.setVersion(resultSet.getInt(2));
+              List<JobExecution> jobExecutions = jobInstances.computeIfAbsent(jobInstance, key -> new ArrayList<>());
+              long jobExecutionId = resultSet.getLong(3);
+              if (resultSet.wasNull())
+                return;
+              jobExecutions.add(mapJobExecution(resultSet, jobInstance, jobExecutionId));
+              jobParameters.put(jobExecutionId, new JobParametersBuilder());
+            },
+            jobName, beforeJobInstanceId == null ? Long.MAX_VALUE : beforeJobInstanceId, limit, offset);
+
+    if (jobParameters.isEmpty())
+      return jobInstances;
+
+    new NamedParameterJdbcTemplate(getJdbcTemplate()).query(getQuery(
+            "SELECT JOB_EXECUTION_ID, KEY_NAME, TYPE_CD, STRING_VAL, DATE_VAL, LONG_VAL, DOUBLE_VAL, IDENTIFYING " +
+            "FROM %PREFIX%JOB_EXECUTION_PARAMS WHERE JOB_EXECUTION_ID IN (:jobExecutionIds)"),
+            new MapSqlParameterSource("jobExecutionIds", jobParameters.keySet()),
+            (RowCallbackHandler) resultSet -> addJobParameter(jobParameters.get(resultSet.getLong(1)), resultSet));
+    for (List<JobExecution> jobExecutions : jobInstances.values()) {
+      for (int i = 0; i < jobExecutions.size(); ++i) {
+        JobExecution jobExecution = jobExecutions.get(i);
+        jobExecutions.set(i, withJobParameters(jobExecution, jobParameters.get(jobExecution.getId()).toJobParameters()));
+      }
+    }
+    return jobInstances;
   }
 
+  private JobExecution mapJobExecution(ResultSet resultSet, JobInstance jobInstance, long jobExecutionId) throws SQLException {
+    JobExecution jobExecution = new JobExecution(jobInstance, jobExecutionId, null, resultSet.getString(12));
+    jobExecution.setStartTime(resultSet.getTimestamp(4));
+    jobExecution.setEndTime(resultSet.getTimestamp(5));
+    jobExecution.setStatus(BatchStatus.valueOf(resultSet.getString(6)));
+    jobExecution.setExitStatus(new ExitStatus(resultSet.getString(7), resultSet.getString(8)));
+    jobExecution.setCreateTime(resultSet.getTimestamp(9));
+    jobExecution.setLastUpdated(resultSet.getTimestamp(10));
+    jobExecution.setVersion(resultSet.getInt(11));
+    return jobExecution;
+  }
+
+  private void addJobParameter(JobParametersBuilder jobParametersBuilder, ResultSet resultSet) throws SQLException {
+    String key = resultSet.getString(2);
+    boolean identifying = "Y".equalsIgnoreCase(resultSet.getString(8));
+    switch (JobParameter.ParameterType.valueOf(resultSet.getString(3))) {
+      case STRING: jobParametersBuilder.addString(key, resultSet.getString(4), identifying); break;
+      case DATE: jobParametersBuilder.addDate(key, resultSet.getTimestamp(5), identifying); break;
+      case LONG: jobParametersBuilder.addLong(key, resultSet.getLong(6), identifying); break;
+      case DOUBLE: jobParametersBuilder.addDouble(key, resultSet.getDouble(7), identifying); break;
+    }
+  }
+
+  private JobExecution withJobParameters(JobExecution jobExecution, JobParameters jobParameters) {
+    JobExecution copy = new JobExecution(jobExecution.getJobInstance(), jobExecution.getId(), jobParameters, jobExecution.getJobConfigurationName());
+    copy.setStartTime(jobExecution.getStartTime());
+    copy.setEndTime(jobExecution.getEndTime());
+    copy.setStatus(jobExecution.getStatus());
+    copy.setExitStatus(jobExecution.getExitStatus());
+    copy.setCreateTime(jobExecution.getCreateTime());
+    copy.setLastUpdated(jobExecution.getLastUpdated());
+    copy.setVersion(jobExecution.getVersion());
+    return copy;
+  }
+
+  /**
+   * @return true if the job has at least one instance in the job repository independently from the paging
+   */
+  public boolean jobInstanceExists(String jobName) {
+    return getJdbcTemplate().queryForObject(getQuery(
+            "SELECT EXISTS (SELECT 1 FROM %PREFIX%JOB_INSTANCE WHERE JOB_NAME = ?)"), Boolean.class, jobName);
+  }
+
+  /**
+   * @return the number of executions by job name counted by one query
+   */
+  public Map<String, Integer> countJobExecutionsByJobName() {
+    Map<String, Integer> counts = new HashMap<>();
+    getJdbcTemplate().query(getQuery(
+            "SELECT I.JOB_NAME, COUNT(E.JOB_EXECUTION_ID) FROM %PREFIX%JOB_INSTANCE I " +
+            "JOIN %PREFIX%JOB_EXECUTION E ON E.JOB_INSTANCE_ID = I.JOB_INSTANCE_ID GROUP BY I.JOB_NAME"),
+            (RowCallbackHandler) resultSet -> counts.put(resultSet.getString(1), resultSet.getInt(2)));
+    return counts;
+  }
+
+  /**
+   * Summarizes the state of the executions of a job or all jobs if jobName is null: the highest execution id changes
+   * when an execution is created, the latest update time when one is updated and the deletion generation when
+   * executions are deleted. The maximums of all executions are looked up in the primary key and in
+   * BATCH_JOB_EXEC_LAST_UPDATED_IDX, the ones of a job in BATCH_JOB_EXEC_INST_UPDATED_IDX by instance: the execution
+   * rows are not read. The update time is stored in milliseconds: an update in the same millisecond as the latest one
+   * does not change the fingerprint.
+   */
+  public String fingerprint(String jobName) {
+    // separate subqueries: SQLite optimizes a single MIN/MAX aggregate into an index lookup only
+    String sql = "SELECT (SELECT MAX(JOB_EXECUTION_ID) FROM %PREFIX%JOB_EXECUTION), (SELECT MAX(LAST_UPDATED) FROM %PREFIX%JOB_EXECUTION)";
+    Object[] parameters = new Object[0];
+    if (jobName != null) {
+      sql = "SELECT MAX(E.JOB_EXECUTION_ID), MAX(E.LAST_UPDATED) FROM %PREFIX%JOB_EXECUTION E " +
+              "JOIN %PREFIX%JOB_INSTANCE I ON I.JOB_INSTANCE_ID = E.JOB_INSTANCE_ID WHERE I.JOB_NAME = ?";
+      parameters = new Object[] { jobName };
+    }
+    return getJdbcTemplate().queryForObject(getQuery(sql), (resultSet, rowNum) -> {
+      Timestamp lastUpdated = resultSet.getTimestamp(2);
+      return resultSet.getLong(1) + "-" + (lastUpdated == null ? 0 : lastUpdated.getTime()) + "-" + deletionGeneration.get();
+    }, parameters);
+  }
+
+  public static class JobExecutionKey {
+    private final long jobExecutionId;
+    private final long jobInstanceId;
+
+    public JobExecutionKey(long jobExecutionId, long jobInstanceId) {
+      this.jobExecutionId = jobExecutionId;
+      this.jobInstanceId = jobInstanceId;
+    }
+
+    public long getJobExecutionId() {
+      return jobExecutionId;
+    }
+
+    public long getJobInstanceId() {
+      return jobInstanceId;
+    }
+  }
 }
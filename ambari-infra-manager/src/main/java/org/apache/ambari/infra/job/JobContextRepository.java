@@ -23,4 +23,9 @@ import org.springframework.batch.core.StepExecution;
 public interface JobContextRepository {
   StepExecution getStepExecution(Long jobExecutionId, Long id);
   void updateExecutionContext(StepExecution stepExecution);
+
+  /**
+   * Checks whether the job of the step execution was requested to stop without reading the job repository.
+   */
+  boolean isStopRequested(StepExecution stepExecution);
 }
@@ -23,6 +23,9 @@ import org.springframework.batch.admin.service.NoSuchStepExecutionException;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.launch.NoSuchJobExecutionException;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -34,6 +37,10 @@ public class JobContextRepositoryImpl implements JobContextRepository {
   private JobRepository jobRepository;
   @Inject
   private JobService jobService;
+  @Inject
+  private StopSignal stopSignal;
+  @Inject
+  private PlatformTransactionManager transactionManager;
 
 
   @Override
@@ -47,6 +54,18 @@ public class JobContextRepositoryImpl implements JobContextRepository {
 
   @Override
   public void updateExecutionContext(StepExecution stepExecution) {
-    jobRepository.updateExecutionContext(stepExecution);
+    // committed immediately: joining the transaction of the running tasklet would hold the database lock until the
+    // tasklet returns and the checkpoint would be lost if the tasklet fails
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    transactionTemplate.execute(status -> {
+      jobRepository.updateExecutionContext(stepExecution);
+      return null;
+    });
+  }
+
+  @Override
+  public boolean isStopRequested(StepExecution stepExecution) {
+    return stepExecution.isTerminateOnly() || stopSignal.isRequested(stepExecution.getJobExecutionId());
   }
 }
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Result of a dry run: the expected amount of work of a job computed from the current content of the collection.
+ */
+public class JobEstimate {
+  private String jobName;
+  private long documentCount;
+  private Map<String, Long> documentCountPerShard = new TreeMap<>();
+  private Map<String, Long> estimatedBytesPerShard = new TreeMap<>();
+  private long estimatedBytes;
+  private Long fileCount;
+  private Long projectedDurationMillis;
+  @JsonIgnore
+  private String historyStepName;
+
+  public String getJobName() {
+    return jobName;
+  }
+
+  public void setJobName(String jobName) {
+    this.jobName = jobName;
+  }
+
+  public long getDocumentCount() {
+    return documentCount;
+  }
+
+  public void setDocumentCount(long documentCount) {
+    this.documentCount = documentCount;
+  }
+
+  public Map<String, Long> getDocumentCountPerShard() {
+    return documentCountPerShard;
+  }
+
+  public void setDocumentCountPerShard(Map<String, Long> documentCountPerShard) {
+    this.documentCountPerShard = documentCountPerShard;
+  }
+
+  public Map<String, Long> getEstimatedBytesPerShard() {
+    return estimatedBytesPerShard;
+  }
+
+  public void setEstimatedBytesPerShard(Map<String, Long> estimatedBytesPerShard) {
+    this.estimatedBytesPerShard = estimatedBytesPerShard;
+  }
+
+  public long getEstimatedBytes() {
+    return estimatedBytes;
+  }
+
+  public void setEstimatedBytes(long estimatedBytes) {
+    this.estimatedBytes = estimatedBytes;
+  }
+
+  /**
+   * Number of files the job would produce or null if the job does not produce files.
+   */
+  public Long getFileCount() {
+    return fileCount;
+  }
+
+  public void setFileCount(Long fileCount) {
+    this.fileCount = fileCount;
+  }
+
+  /**
+   * Projected duration based on the history of the previous executions or null if there is no history yet.
+   */
+  public Long getProjectedDurationMillis() {
+    return projectedDurationMillis;
+  }
+
+  public void setProjectedDurationMillis(Long projectedDurationMillis) {
+    this.projectedDurationMillis = projectedDurationMillis;
+  }
+
+  /**
+   * Name of the step whose history is used for projecting the duration.
+   */
+  public String getHistoryStepName() {
+    return historyStepName;
+  }
+
+  public void setHistoryStepName(String historyStepName) {
+    this.historyStepName = historyStepName;
+  }
+}
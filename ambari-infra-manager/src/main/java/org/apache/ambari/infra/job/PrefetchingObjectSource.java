@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Reads the blocks following the last opened one in the background. The query of a block is based on the last
+ * object of the previous block so the blocks are fetched one after the other on a single thread.
+ * At most prefetchDepth blocks are held in memory besides the opened one.
+ * If the requested block was not prefetched (e.g. after restart) it is read synchronously.
+ */
+public class PrefetchingObjectSource<T> implements ObjectSource<T>, Closeable {
+  private static final Logger logger = LogManager.getLogger(PrefetchingObjectSource.class);
+
+  private final ObjectSource<T> objectSource;
+  private final int prefetchDepth;
+  private final Deque<Future<List<T>>> prefetchedBlocks = new ArrayDeque<>();
+  private ExecutorService executorService;
+  private T lastOpened;
+  private int lastRows;
+
+  public PrefetchingObjectSource(ObjectSource<T> objectSource, int prefetchDepth) {
+    this.objectSource = objectSource;
+    this.prefetchDepth = prefetchDepth;
+  }
+
+  @Override
+  public CloseableIterator<T> open(T current, int rows) {
+    List<T> block;
+    if (!prefetchedBlocks.isEmpty() && current != null && current == lastOpened && rows == lastRows) {
+      block = get(prefetchedBlocks.poll());
+    }
+    else {
+      if (!prefetchedBlocks.isEmpty())
+        logger.info("Requested block does not follow the last opened one. Dropping prefetched blocks.");
+      cancelPrefetch();
+      block = fetch(current, rows);
+    }
+
+    lastOpened = lastOf(block);
+    lastRows = rows;
+    if (block.size() < rows)
+      cancelPrefetch();
+    else
+      schedulePrefetch(block, rows);
+    return new ListIterator<>(block);
+  }
+
+  private void schedulePrefetch(List<T> block, int rows) {
+    while (prefetchedBlocks.size() < prefetchDepth) {
+      Future<List<T>> previous = prefetchedBlocks.peekLast();
+      T from = lastOf(block);
+      prefetchedBlocks.add(executorService().submit(() -> {
+        if (previous == null)
+          return fetch(from, rows);
+        // single threaded executor: the previous block is already fetched
+        List<T> previousBlock = previous.get();
+        if (previousBlock.size() < rows)
+          return new ArrayList<>();
+        return fetch(lastOf(previousBlock), rows);
+      }));
+    }
+  }
+
+  private List<T> fetch(T current, int rows) {
+    List<T> block = new ArrayList<>();
+    try (CloseableIterator<T> iterator = objectSource.open(current, rows)) {
+      T next;
+      while ((next = iterator.next()) != null)
+        block.add(next);
+    }
+    catch (RuntimeException e) {
+      throw e;
+    }
+    catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+    return block;
+  }
+
+  private List<T> get(Future<List<T>> prefetchedBlock) {
+    try {
+      return prefetchedBlock.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for prefetched block", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException)
+        throw (RuntimeException) e.getCause();
+      throw new RuntimeException(e.getCause());
+    } catch (CancellationException e) {
+      throw new IllegalStateException("Prefetch of block was cancelled", e);
+    }
+  }
+
+  private static <T> T lastOf(List<T> block) {
+    return block.isEmpty() ? null : block.get(block.size() - 1);
+  }
+
+  private void cancelPrefetch() {
+    for (Future<List<T>> prefetchedBlock : prefetchedBlocks)
+      prefetchedBlock.cancel(true);
+    prefetchedBlocks.clear();
+  }
+
+  private ExecutorService executorService() {
+    if (executorService == null) {
+      executorService = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "prefetch-" + Thread.currentThread().getName());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return executorService;
+  }
+
+  @Override
+  public void close() {
+    cancelPrefetch();
+    lastOpened = null;
+    if (executorService != null) {
+      executorService.shutdownNow();
+      executorService = null;
+    }
+  }
+
+  private static class ListIterator<T> implements CloseableIterator<T> {
+    private final Iterator<T> iterator;
+
+    private ListIterator(List<T> list) {
+      this.iterator = list.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return iterator.hasNext();
+    }
+
+    @Override
+    public T next() {
+      return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -18,58 +18,205 @@
  */
 package org.apache.ambari.infra.job;
 
+import static java.util.Collections.singletonList;
+
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.net.InetSocketAddress;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.CloudSolrClient;
-import org.apache.zookeeper.client.ConnectStringParser;
+import org.apache.solr.client.solrj.impl.LBSolrClient;
+import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.cloud.DocCollection;
+import org.apache.solr.common.cloud.Replica;
+import org.apache.solr.common.cloud.Slice;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.ShardParams;
 
 public abstract class SolrDAOBase {
   private static final Logger logger = LogManager.getLogger(SolrDAOBase.class);
+  private static final int MAX_ROUTE_KEY_CANDIDATES = 100_000;
 
+  private final CloudSolrClientCache cloudSolrClientCache;
   private final String zooKeeperConnectionString;
   private final String defaultCollection;
 
-  protected SolrDAOBase(String zooKeeperConnectionString, String defaultCollection) {
+  protected SolrDAOBase(CloudSolrClientCache cloudSolrClientCache, String zooKeeperConnectionString, String defaultCollection) {
+    this.cloudSolrClientCache = cloudSolrClientCache;
     this.zooKeeperConnectionString = zooKeeperConnectionString;
     this.defaultCollection = defaultCollection;
   }
 
   protected void delete(String deleteQueryText) {
-    try (CloudSolrClient client = createClient()) {
+    delete(deleteQueryText, 0);
+  }
+
+  /**
+   * @param commitWithin if greater than 0 the deletion is committed by Solr within this many milliseconds instead of
+   *                     an immediate hard commit
+   */
+  protected void delete(String deleteQueryText, int commitWithin) {
+    if (commitWithin > 0) {
+      execute(client -> {
+        logger.info("Executing solr delete by query {} commitWithin {} ms", deleteQueryText, commitWithin);
+        client.deleteByQuery(defaultCollection, deleteQueryText, commitWithin);
+        return null;
+      });
+      return;
+    }
+
+    execute(client -> {
       try {
         logger.info("Executing solr delete by query {}", deleteQueryText);
-        client.deleteByQuery(deleteQueryText);
-        client.commit();
-      } catch (Exception e) {
+        client.deleteByQuery(defaultCollection, deleteQueryText);
+        client.commit(defaultCollection);
+      } catch (SolrServerException | IOException | RuntimeException e) {
         try {
-          client.rollback();
-        } catch (SolrServerException e1) {
+          client.rollback(defaultCollection);
+        } catch (SolrServerException | IOException | RuntimeException e1) {
           logger.warn("Unable to rollback after solr delete operation failure.", e1);
         }
-        throw new RuntimeException(e);
+        throw e;
       }
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
+      return null;
+    });
+  }
+
+  /**
+   * Deletes the matching documents of one shard without committing. The delete by query is restricted to the shard
+   * by the _route_ parameter so the other shards of the collection do not execute it.
+   */
+  protected void deleteOnShard(String shard, String deleteQueryText) {
+    execute(client -> {
+      String routeKey = routeKey(getCollectionState(client), shard);
+      logger.info("Executing solr delete by query {} on shard {} using route key {}", deleteQueryText, shard, routeKey);
+      UpdateRequest updateRequest = new UpdateRequest();
+      updateRequest.deleteByQuery(deleteQueryText);
+      updateRequest.setParam(ShardParams._ROUTE_, routeKey);
+      updateRequest.process(client, defaultCollection);
+      return null;
+    });
+  }
+
+  /**
+   * Finds a value for the _route_ parameter which the router of the collection maps to the specified shard only.
+   * The shard name itself is tried first (implicit router) then numeric keys until one hashes into the range of the
+   * shard (compositeId router).
+   */
+  static String routeKey(DocCollection collection, String shard) {
+    if (collection.getSlice(shard) == null)
+      throw new IllegalStateException(String.format("Shard %s not found in collection %s", shard, collection.getName()));
+    for (int i = -1; i < MAX_ROUTE_KEY_CANDIDATES; ++i) {
+      String key = i < 0 ? shard : Integer.toString(i);
+      Collection<Slice> slices = collection.getRouter().getSearchSlicesSingle(key, null, collection);
+      if (slices.size() == 1 && shard.equals(slices.iterator().next().getName()))
+        return key;
     }
+    throw new IllegalStateException(String.format("Unable to find a route key for shard %s of collection %s", shard, collection.getName()));
   }
 
-  protected CloudSolrClient createClient() {
-    ConnectStringParser connectStringParser = new ConnectStringParser(zooKeeperConnectionString);
-    List<String> zkHosts = connectStringParser.getServerAddresses().stream()
-            .map(InetSocketAddress::toString)
-            .collect(Collectors.toList());
-    CloudSolrClient client = new CloudSolrClient.Builder(
-            zkHosts, Optional.ofNullable(connectStringParser.getChrootPath())).build();
-    client.setDefaultCollection(defaultCollection);
-    return client;
+  public void commit() {
+    execute(client -> {
+      logger.info("Committing collection {}", defaultCollection);
+      client.commit(defaultCollection);
+      return null;
+    });
+  }
+
+  public List<String> getShardNames() {
+    return execute(client -> getCollectionState(client).getActiveSlices().stream()
+            .map(Slice::getName)
+            .sorted()
+            .collect(Collectors.toList()));
+  }
+
+  /**
+   * @param shard if specified the query is sent to the leader of this shard only and is not distributed
+   */
+  protected QueryResponse query(CloudSolrClient client, SolrQuery query, String shard) throws SolrServerException, IOException {
+    if (shard == null)
+      return client.query(defaultCollection, query);
+
+    SolrQuery shardQuery = query.getCopy();
+    shardQuery.set(CommonParams.DISTRIB, false);
+    return new QueryResponse(client.getLbClient().request(
+            new LBSolrClient.Req(new QueryRequest(shardQuery), singletonList(getShardLeader(client, shard).getCoreUrl()))).getResponse(), client);
+  }
+
+  protected Replica getShardLeader(CloudSolrClient client, String shard) throws SolrServerException {
+    Slice slice = getCollectionState(client).getSlice(shard);
+    if (slice == null)
+      throw new IllegalStateException(String.format("Shard %s not found in collection %s", shard, defaultCollection));
+    Replica leader = slice.getLeader();
+    if (leader == null)
+      throw new SolrServerException(String.format("No leader found for shard %s of collection %s", shard, defaultCollection));
+    return leader;
   }
-}
 
+  private DocCollection getCollectionState(CloudSolrClient client) {
+    DocCollection collection = client.getZkStateReader().getClusterState().getCollectionOrNull(defaultCollection);
+    if (collection == null)
+      throw new SolrException(SolrException.ErrorCode.BAD_REQUEST, "Collection not found: " + defaultCollection);
+    return collection;
+  }
+
+  /**
+   * Executes the specified action using the shared client of the ZooKeeper ensemble.
+   * If the action fails because the server can not be reached the client is dropped from the cache and the action is
+   * retried once with a newly created client. Other failures are not retried.
+   */
+  protected <T> T execute(SolrAction<T> action) {
+    CloudSolrClientCache.CachedClient cachedClient = cloudSolrClientCache.acquire(zooKeeperConnectionString);
+    try {
+      return action.execute(cachedClient.getClient());
+    } catch (SolrServerException | IOException e) {
+      if (!isConnectionFailure(e))
+        throw wrap(e);
+      logger.warn("Solr operation failed. Reconnecting and retrying...", e);
+      cachedClient.invalidate();
+    } finally {
+      cachedClient.release();
+    }
+
+    cachedClient = cloudSolrClientCache.acquire(zooKeeperConnectionString);
+    try {
+      return action.execute(cachedClient.getClient());
+    } catch (SolrServerException | IOException e) {
+      throw wrap(e);
+    } finally {
+      cachedClient.release();
+    }
+  }
+
+  static boolean isConnectionFailure(Exception e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof IOException)
+        return true;
+    }
+    return false;
+  }
+
+  private static RuntimeException wrap(Exception e) {
+    if (e instanceof IOException)
+      return new UncheckedIOException((IOException) e);
+    return new RuntimeException(e);
+  }
+
+  protected String getDefaultCollection() {
+    return defaultCollection;
+  }
+
+  @FunctionalInterface
+  protected interface SolrAction<T> {
+    T execute(CloudSolrClient client) throws SolrServerException, IOException;
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Counts the documents matching a query on each shard of a collection. The size of the documents is estimated from
+ * the JSON representation of a small sample taken from each shard.
+ */
+public class SolrEstimationDAO extends SolrDAOBase {
+  private static final Logger logger = LogManager.getLogger(SolrEstimationDAO.class);
+
+  public static final int DEFAULT_SAMPLE_SIZE = 100;
+  private static final ObjectWriter SAMPLE_WRITER = new ObjectMapper()
+          .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).writer();
+
+  private final int sampleSize;
+
+  public SolrEstimationDAO(CloudSolrClientCache cloudSolrClientCache, String zooKeeperConnectionString, String defaultCollection) {
+    this(cloudSolrClientCache, zooKeeperConnectionString, defaultCollection, DEFAULT_SAMPLE_SIZE);
+  }
+
+  public SolrEstimationDAO(CloudSolrClientCache cloudSolrClientCache, String zooKeeperConnectionString, String defaultCollection, int sampleSize) {
+    super(cloudSolrClientCache, zooKeeperConnectionString, defaultCollection);
+    this.sampleSize = sampleSize;
+  }
+
+  public JobEstimate estimate(SolrQuery query) {
+    SolrQuery countQuery = query.getCopy();
+    countQuery.setRows(0);
+    countQuery.clearSorts();
+
+    JobEstimate estimate = new JobEstimate();
+    for (String shard : getShardNames()) {
+      long count = execute(client -> query(client, countQuery, shard)).getResults().getNumFound();
+      long bytes = count == 0 ? 0 : Math.round(count * averageDocumentSize(query, shard));
+      estimate.getDocumentCountPerShard().put(shard, count);
+      estimate.getEstimatedBytesPerShard().put(shard, bytes);
+      estimate.setDocumentCount(estimate.getDocumentCount() + count);
+      estimate.setEstimatedBytes(estimate.getEstimatedBytes() + bytes);
+    }
+    logger.info("{} documents ({} bytes) are matching query {}", estimate.getDocumentCount(), estimate.getEstimatedBytes(), query);
+    return estimate;
+  }
+
+  private double averageDocumentSize(SolrQuery query, String shard) {
+    SolrQuery sampleQuery = query.getCopy();
+    sampleQuery.setRows(sampleSize);
+    SolrDocumentList sample = execute(client -> query(client, sampleQuery, shard)).getResults();
+    if (sample.isEmpty())
+      return 0;
+
+    long totalSize = 0;
+    for (SolrDocument document : sample)
+      totalSize += documentSize(document);
+    return (double) totalSize / sample.size();
+  }
+
+  static long documentSize(Map<String, Object> document) {
+    try {
+      // + 1 for the line separator
+      return SAMPLE_WRITER.writeValueAsBytes(document).length + 1;
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
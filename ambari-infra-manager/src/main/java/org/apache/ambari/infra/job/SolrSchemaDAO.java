@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job;
+
+import java.util.Map;
+
+import org.apache.solr.client.solrj.request.schema.FieldTypeDefinition;
+import org.apache.solr.client.solrj.request.schema.SchemaRequest;
+import org.apache.solr.client.solrj.response.schema.SchemaRepresentation;
+
+/**
+ * Looks up the field definitions of a collection in its Solr schema.
+ */
+public class SolrSchemaDAO extends SolrDAOBase {
+
+  public SolrSchemaDAO(CloudSolrClientCache cloudSolrClientCache, String zooKeeperConnectionString, String defaultCollection) {
+    super(cloudSolrClientCache, zooKeeperConnectionString, defaultCollection);
+  }
+
+  /**
+   * @return the class of the field type of the specified field or null if the schema has no field and no dynamic
+   * field matching the name
+   */
+  public String getFieldTypeClass(String fieldName) {
+    SchemaRepresentation schema = execute(client -> new SchemaRequest().process(client, getDefaultCollection())).getSchemaRepresentation();
+    return getFieldTypeClass(schema, fieldName);
+  }
+
+  static String getFieldTypeClass(SchemaRepresentation schema, String fieldName) {
+    String typeName = null;
+    for (Map<String, Object> field : schema.getFields()) {
+      if (fieldName.equals(field.get("name")))
+        typeName = (String) field.get("type");
+    }
+    if (typeName == null) {
+      // like in Solr the longest matching dynamic field pattern wins
+      String pattern = "";
+      for (Map<String, Object> dynamicField : schema.getDynamicFields()) {
+        String name = (String) dynamicField.get("name");
+        if (matches(name, fieldName) && name.length() > pattern.length()) {
+          pattern = name;
+          typeName = (String) dynamicField.get("type");
+        }
+      }
+    }
+    if (typeName == null)
+      return null;
+
+    for (FieldTypeDefinition fieldType : schema.getFieldTypes()) {
+      if (typeName.equals(fieldType.getAttributes().get("name")))
+        return (String) fieldType.getAttributes().get("class");
+    }
+    return null;
+  }
+
+  private static boolean matches(String dynamicFieldName, String fieldName) {
+    if (dynamicFieldName.startsWith("*"))
+      return fieldName.endsWith(dynamicFieldName.substring(1));
+    if (dynamicFieldName.endsWith("*"))
+      return fieldName.startsWith(dynamicFieldName.substring(0, dynamicFieldName.length() - 1));
+    return dynamicFieldName.equals(fieldName);
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Named;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+
+/**
+ * Stop requests of the running job executions of this process. Long running tasklets poll it between blocks
+ * instead of reloading the step execution from the job repository.
+ * Only the executions running in this process are tracked, from beforeJob to afterJob: a stop request of an
+ * execution which is not running here, or which is abandoned, is not retained.
+ */
+@Named
+public class StopSignal implements JobExecutionListener {
+  // job execution id -> stop requested
+  private final ConcurrentMap<Long, Boolean> runningExecutions = new ConcurrentHashMap<>();
+
+  public void request(Long jobExecutionId) {
+    runningExecutions.computeIfPresent(jobExecutionId, (id, stopRequested) -> Boolean.TRUE);
+  }
+
+  public boolean isRequested(Long jobExecutionId) {
+    return Boolean.TRUE.equals(runningExecutions.get(jobExecutionId));
+  }
+
+  @Override
+  public void beforeJob(JobExecution jobExecution) {
+    runningExecutions.put(jobExecution.getId(), Boolean.FALSE);
+  }
+
+  @Override
+  public void afterJob(JobExecution jobExecution) {
+    runningExecutions.remove(jobExecution.getId());
+  }
+}
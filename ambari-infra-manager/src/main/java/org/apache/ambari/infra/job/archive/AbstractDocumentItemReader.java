@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import org.apache.ambari.infra.job.CloseableIterator;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemStreamItemReader;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+
+/**
+ * Reads documents block by block and completes the chunk when the last document was read. Subclasses define how a block
+ * is queried and how the position of the last read document is stored in the execution context.
+ */
+public abstract class AbstractDocumentItemReader<T extends CloseableIterator<Document>> extends AbstractItemStreamItemReader<Document> implements CompletionPolicy {
+
+  private final int readBlockSize;
+
+  private T documentIterator = null;
+  private int count = 0;
+  private boolean eof = false;
+
+  protected AbstractDocumentItemReader(int readBlockSize) {
+    this.readBlockSize = readBlockSize;
+  }
+
+  @Override
+  public Document read() throws Exception {
+    if (documentIterator == null) {
+      openStream(openFirstBlock(readBlockSize));
+      for (int skip = getFirstBlockOffset(); skip > 0 && documentIterator.hasNext(); --skip)
+        getNext();
+    }
+    Document next = getNext();
+    if (next == null && count > readBlockSize) {
+      T finishedIterator = documentIterator;
+      closeStream();
+      T nextIterator = openNextBlock(finishedIterator, readBlockSize);
+      if (nextIterator != null) {
+        openStream(nextIterator);
+        next = getNext();
+      }
+    }
+    eof = next == null;
+    if (eof)
+      closeStream();
+
+    afterRead(next, count - 1);
+    return next;
+  }
+
+  /**
+   * Opens the block which contains the document at the position restored from the execution context.
+   */
+  protected abstract T openFirstBlock(int readBlockSize);
+
+  /**
+   * @return number of documents of the first block which were read before the position was stored
+   */
+  protected int getFirstBlockOffset() {
+    return 0;
+  }
+
+  /**
+   * @param finishedIterator the already closed iterator of the block which was read entirely
+   * @return the iterator of the block following the finished one or null if there are no more blocks
+   */
+  protected abstract T openNextBlock(T finishedIterator, int readBlockSize);
+
+  /**
+   * @param document the read document or null if there are no more documents
+   * @param offset   the index of the document within its block
+   */
+  protected abstract void afterRead(Document document, int offset);
+
+  protected abstract void restorePosition(ExecutionContext executionContext);
+
+  protected abstract void storePosition(ExecutionContext executionContext);
+
+  private Document getNext() {
+    ++count;
+    return documentIterator.next();
+  }
+
+  private void openStream(T iterator) {
+    closeStream();
+    documentIterator = iterator;
+    count = 0;
+  }
+
+  private void closeStream() {
+    if (documentIterator == null)
+      return;
+    try {
+      documentIterator.close();
+    }
+    catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+    documentIterator = null;
+  }
+
+  @Override
+  public void open(ExecutionContext executionContext) {
+    super.open(executionContext);
+    eof = false;
+    documentIterator = null;
+    restorePosition(executionContext);
+  }
+
+  @Override
+  public void update(ExecutionContext executionContext) throws ItemStreamException {
+    super.update(executionContext);
+    storePosition(executionContext);
+  }
+
+  @Override
+  public void close() {
+    closeStream();
+  }
+
+  @Override
+  public boolean isComplete(RepeatContext context, RepeatStatus result) {
+    return eof;
+  }
+
+  @Override
+  public boolean isComplete(RepeatContext context) {
+    return eof;
+  }
+
+  @Override
+  public RepeatContext start(RepeatContext parent) {
+    return new RepeatContextSupport(parent);
+  }
+
+  @Override
+  public void update(RepeatContext context) {
+    if (eof)
+      context.setCompleteOnly();
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Sidecar file which lists the blocks written to the destination by a step of a job instance, one JSON line per
+ * block. An entry is synced to disk before the documents of the block are deleted from Solr, so a restarted
+ * execution can continue after the recorded blocks without scanning the destination. The blocks post-processed
+ * in parallel may be recorded out of order: see {@link #getResumeEntry()}.
+ * The manifests of a job instance are stored in a folder named after the id of the job instance so the clean up job
+ * can delete them together with the job instance.
+ */
+public class ArchiveManifest implements Closeable {
+  private static final Logger logger = LogManager.getLogger(ArchiveManifest.class);
+  private static final ObjectMapper json = new ObjectMapper();
+
+  public static final String MANIFEST_FOLDER = "manifests";
+
+  private final File file;
+  private final List<ManifestEntry> entries;
+  private FileOutputStream outputStream;
+
+  public static File jobInstanceFolder(File manifestFolder, long jobInstanceId) {
+    return new File(manifestFolder, Long.toString(jobInstanceId));
+  }
+
+  public static File manifestFile(File manifestFolder, String jobName, long jobInstanceId, String stepName) {
+    String fileName = String.format("%s_%s.manifest", jobName, stepName).replaceAll("[^A-Za-z0-9_.-]", "_");
+    return new File(jobInstanceFolder(manifestFolder, jobInstanceId), fileName);
+  }
+
+  public ArchiveManifest(File file) {
+    this.file = file;
+    this.entries = load(file);
+  }
+
+  private static List<ManifestEntry> load(File file) {
+    List<ManifestEntry> entries = new ArrayList<>();
+    if (!file.exists())
+      return entries;
+
+    try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isEmpty())
+          continue;
+        try {
+          entries.add(json.readValue(line, ManifestEntry.class));
+        }
+        catch (IOException e) {
+          // the line of an interrupted write: the block is exported again
+          logger.warn("Ignoring incomplete manifest entry in {}", file);
+        }
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    logger.info("Loaded {} entries from manifest {}", entries.size(), file);
+    return entries;
+  }
+
+  public synchronized void record(ManifestEntry entry) {
+    try {
+      if (outputStream == null) {
+        File directory = file.getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs())
+          logger.warn("Unable to create directory {}", directory);
+        outputStream = new FileOutputStream(file, true);
+      }
+      byte[] line = (json.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+      outputStream.write(line);
+      outputStream.getFD().sync();
+      entries.add(entry);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public synchronized List<ManifestEntry> getEntries() {
+    return new ArrayList<>(entries);
+  }
+
+  public synchronized Optional<ManifestEntry> getLastEntry() {
+    return entries.isEmpty() ? Optional.empty() : Optional.of(entries.get(entries.size() - 1));
+  }
+
+  /**
+   * @return the entry of the last block before the first missing one: every document up to the last document of
+   * this block is archived. The blocks are numbered by job execution from the position where the execution started
+   * reading. If the first block of the last execution is missing the resume entry of the previous execution is
+   * returned because the last execution started from there.
+   */
+  public synchronized Optional<ManifestEntry> getResumeEntry() {
+    Map<Long, List<ManifestEntry>> entriesByExecution = new LinkedHashMap<>();
+    for (ManifestEntry entry : entries)
+      entriesByExecution.computeIfAbsent(entry.getJobExecutionId(), key -> new ArrayList<>()).add(entry);
+
+    List<List<ManifestEntry>> executions = new ArrayList<>(entriesByExecution.values());
+    for (int i = executions.size() - 1; i >= 0; --i) {
+      Optional<ManifestEntry> resumeEntry = lastContiguousEntry(executions.get(i));
+      if (resumeEntry.isPresent())
+        return resumeEntry;
+    }
+    return Optional.empty();
+  }
+
+  private Optional<ManifestEntry> lastContiguousEntry(List<ManifestEntry> executionEntries) {
+    Map<Long, ManifestEntry> entriesByBlock = new HashMap<>();
+    for (ManifestEntry entry : executionEntries) {
+      // the blocks of the manifests written without block numbers are recorded in order
+      if (entry.getBlock() == null)
+        return Optional.of(executionEntries.get(executionEntries.size() - 1));
+      entriesByBlock.put(entry.getBlock(), entry);
+    }
+
+    ManifestEntry lastContiguousEntry = null;
+    for (long block = 0; entriesByBlock.containsKey(block); ++block)
+      lastContiguousEntry = entriesByBlock.get(block);
+    return Optional.ofNullable(lastContiguousEntry);
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (outputStream != null)
+      outputStream.close();
+    outputStream = null;
+  }
+}
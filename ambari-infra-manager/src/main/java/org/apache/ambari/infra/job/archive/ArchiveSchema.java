@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static java.util.Collections.unmodifiableList;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.solr.client.solrj.request.schema.FieldTypeDefinition;
+import org.apache.solr.client.solrj.response.schema.SchemaRepresentation;
+
+/**
+ * Columns of the Avro and Parquet archive files derived from the schema of the archived collection: every field
+ * declared explicitly in the Solr schema becomes a column typed by the class of its field type. Multivalued fields are
+ * stored as strings. The values of dynamic fields and the values which can not be converted to the type of their
+ * column are stored as strings in the {@value #OTHER_FIELDS} map, so no data is lost.
+ */
+public class ArchiveSchema {
+  public static final String OTHER_FIELDS = "_other_fields";
+
+  private final List<Column> columns;
+  private final Set<String> solrNames;
+
+  public ArchiveSchema(List<Column> columns) {
+    this.columns = unmodifiableList(new ArrayList<>(columns));
+    this.solrNames = new HashSet<>();
+    for (Column column : columns)
+      solrNames.add(column.getSolrName());
+  }
+
+  public static ArchiveSchema from(SchemaRepresentation schemaRepresentation) {
+    Map<String, Map<String, Object>> fieldTypes = new HashMap<>();
+    for (FieldTypeDefinition fieldTypeDefinition : schemaRepresentation.getFieldTypes())
+      fieldTypes.put((String) fieldTypeDefinition.getAttributes().get("name"), fieldTypeDefinition.getAttributes());
+
+    List<Column> columns = new ArrayList<>();
+    Set<String> names = new HashSet<>();
+    names.add(OTHER_FIELDS);
+    for (Map<String, Object> field : schemaRepresentation.getFields()) {
+      String solrName = (String) field.get("name");
+      Map<String, Object> fieldType = fieldTypes.getOrDefault((String) field.get("type"), new HashMap<>());
+      boolean multiValued = Boolean.parseBoolean(String.valueOf(
+              field.getOrDefault("multiValued", fieldType.getOrDefault("multiValued", false))));
+      String columnName = toColumnName(solrName);
+      String uniqueColumnName = columnName;
+      for (int i = 2; names.contains(uniqueColumnName); ++i)
+        uniqueColumnName = columnName + "_" + i;
+      names.add(uniqueColumnName);
+      columns.add(new Column(solrName, uniqueColumnName,
+              multiValued ? ColumnType.STRING : ColumnType.of((String) fieldType.get("class"))));
+    }
+    return new ArchiveSchema(columns);
+  }
+
+  private static String toColumnName(String solrFieldName) {
+    String name = solrFieldName.replaceAll("[^A-Za-z0-9_]", "_");
+    if (name.isEmpty() || Character.isDigit(name.charAt(0)))
+      name = "_" + name;
+    return name;
+  }
+
+  public List<Column> getColumns() {
+    return columns;
+  }
+
+  /**
+   * @param otherFields the fields of the document which are not stored in their columns are put into this map
+   * @return the converted values of the columns in the order of the columns
+   */
+  public Object[] toColumnValues(Document document, Map<String, String> otherFields) {
+    Object[] values = new Object[columns.size()];
+    for (int i = 0; i < columns.size(); ++i) {
+      Column column = columns.get(i);
+      Object value = document.getFieldMap().get(column.getSolrName());
+      if (value == null)
+        continue;
+      values[i] = column.getType().convert(value);
+      if (values[i] == null)
+        otherFields.put(column.getSolrName(), value.toString());
+    }
+    for (Map.Entry<String, Object> entry : document.getFieldMap().entrySet()) {
+      if (!solrNames.contains(entry.getKey()) && entry.getValue() != null)
+        otherFields.put(entry.getKey(), entry.getValue().toString());
+    }
+    return values;
+  }
+
+  public static class Column {
+    private final String solrName;
+    private final String name;
+    private final ColumnType type;
+
+    public Column(String solrName, String name, ColumnType type) {
+      this.solrName = solrName;
+      this.name = name;
+      this.type = type;
+    }
+
+    public String getSolrName() {
+      return solrName;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public ColumnType getType() {
+      return type;
+    }
+  }
+
+  public enum ColumnType {
+    LONG {
+      @Override
+      Object convert(Object value) {
+        if (value instanceof Integer || value instanceof Long)
+          return ((Number) value).longValue();
+        return null;
+      }
+    },
+    DOUBLE {
+      @Override
+      Object convert(Object value) {
+        if (value instanceof Number)
+          return ((Number) value).doubleValue();
+        return null;
+      }
+    },
+    BOOLEAN {
+      @Override
+      Object convert(Object value) {
+        return value instanceof Boolean ? value : null;
+      }
+    },
+    /**
+     * Milliseconds since the epoch (UTC). The date values are formatted by {@link SolrDocumentIterator}.
+     */
+    TIMESTAMP {
+      @Override
+      Object convert(Object value) {
+        if (value instanceof Date)
+          return ((Date) value).getTime();
+        try {
+          return Instant.parse(value.toString()).toEpochMilli();
+        }
+        catch (DateTimeParseException e) {
+          return null;
+        }
+      }
+    },
+    STRING {
+      @Override
+      Object convert(Object value) {
+        return value.toString();
+      }
+    };
+
+    /**
+     * @return the value converted to the java type of the column or null if it can not be converted
+     */
+    abstract Object convert(Object value);
+
+    public static ColumnType of(String solrFieldTypeClass) {
+      if (solrFieldTypeClass == null)
+        return STRING;
+      String className = solrFieldTypeClass.substring(solrFieldTypeClass.lastIndexOf('.') + 1);
+      switch (className) {
+        case "IntPointField":
+        case "LongPointField":
+        case "TrieIntField":
+        case "TrieLongField":
+          return LONG;
+        case "FloatPointField":
+        case "DoublePointField":
+        case "TrieFloatField":
+        case "TrieDoubleField":
+          return DOUBLE;
+        case "BoolField":
+          return BOOLEAN;
+        case "DatePointField":
+        case "TrieDateField":
+          return TIMESTAMP;
+        default:
+          return STRING;
+      }
+    }
+  }
+}
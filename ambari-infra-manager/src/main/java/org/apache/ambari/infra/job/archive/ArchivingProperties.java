@@ -19,7 +19,6 @@
 package org.apache.ambari.infra.job.archive;
 
 import static java.util.Objects.requireNonNull;
-import static org.apache.ambari.infra.job.archive.ExportDestination.HDFS;
 import static org.apache.ambari.infra.job.archive.ExportDestination.LOCAL;
 import static org.apache.ambari.infra.json.StringToDurationConverter.toDuration;
 import static org.apache.ambari.infra.json.StringToFsPermissionConverter.toFsPermission;
@@ -43,6 +42,25 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 public class ArchivingProperties extends JobProperties<ArchivingProperties> implements Validatable {
   private int readBlockSize;
   private int writeBlockSize;
+  private long rolloverSize;
+  private boolean rolloverSizeUncompressed;
+  @JsonSerialize(converter = DurationToStringConverter.class)
+  @JsonDeserialize(converter = StringToDurationConverter.class)
+  private Duration rolloverInterval;
+  private boolean rolloverOnTimeBucket;
+  @JsonSerialize(converter = DurationToStringConverter.class)
+  @JsonDeserialize(converter = StringToDurationConverter.class)
+  private Duration checkpointInterval;
+  private ReadMode readMode = ReadMode.FILTER_QUERY;
+  private int prefetchDepth;
+  private PartitionMode partitionMode = PartitionMode.NONE;
+  private int partitionCount = 1;
+  private int partitionConcurrency = 1;
+  private int maxInFlightFiles;
+  private ArchiveFormat format = ArchiveFormat.JSON;
+  private Compression compression = Compression.BZIP2;
+  private int compressionLevel = -1;
+  private int compressionThreads;
   private ExportDestination destination;
   private String localDestinationDirectory;
   private String fileNameSuffixColumn;
@@ -55,6 +73,15 @@ public class ArchivingProperties extends JobProperties<ArchivingProperties> impl
   private FsPermission hdfsFilePermission;
   private String hdfsKerberosPrincipal;
   private String hdfsKerberosKeytabPath;
+  private int hdfsReplication;
+  private long hdfsBlockSize;
+  private String s3Endpoint;
+  private String s3Region;
+  private String s3BucketName;
+  private String s3KeyPrefix;
+  private int s3PartSize = 8 * 1024 * 1024;
+  private int s3UploadThreads = 4;
+  private int s3MaxRetries = 3;
   private String start;
   private String end;
   @JsonSerialize(converter = DurationToStringConverter.class)
@@ -77,6 +104,176 @@ public class ArchivingProperties extends JobProperties<ArchivingProperties> impl
     this.writeBlockSize = writeBlockSize;
   }
 
+  /**
+   * If greater than 0 a new file is started when the size of the current file reaches it.
+   */
+  public long getRolloverSize() {
+    return rolloverSize;
+  }
+
+  public void setRolloverSize(long rolloverSize) {
+    this.rolloverSize = rolloverSize;
+  }
+
+  /**
+   * If true rolloverSize is compared to the size of the documents before compression.
+   */
+  public boolean isRolloverSizeUncompressed() {
+    return rolloverSizeUncompressed;
+  }
+
+  public void setRolloverSizeUncompressed(boolean rolloverSizeUncompressed) {
+    this.rolloverSizeUncompressed = rolloverSizeUncompressed;
+  }
+
+  /**
+   * If specified a new file is started when the current file has been open for this interval.
+   */
+  public Duration getRolloverInterval() {
+    return rolloverInterval;
+  }
+
+  public void setRolloverInterval(Duration rolloverInterval) {
+    this.rolloverInterval = rolloverInterval;
+  }
+
+  /**
+   * If true a new file is started when the file name suffix of the next document is different: e.g. hourly files
+   * are created with fileNameSuffixDateFormat=yyyy-MM-dd'T'HH
+   */
+  public boolean isRolloverOnTimeBucket() {
+    return rolloverOnTimeBucket;
+  }
+
+  public void setRolloverOnTimeBucket(boolean rolloverOnTimeBucket) {
+    this.rolloverOnTimeBucket = rolloverOnTimeBucket;
+  }
+
+  /**
+   * If specified the reader position is persisted at most once in this interval instead of after every file.
+   */
+  public Duration getCheckpointInterval() {
+    return checkpointInterval;
+  }
+
+  public void setCheckpointInterval(Duration checkpointInterval) {
+    this.checkpointInterval = checkpointInterval;
+  }
+
+  /**
+   * The files are rolled over after writeBlockSize documents and when any of the optional rollover
+   * conditions is met.
+   */
+  public RolloverPolicy rolloverPolicy() {
+    CompositeRolloverPolicy rolloverPolicy = new CompositeRolloverPolicy(new DocumentCountRolloverPolicy(writeBlockSize));
+    if (rolloverSize > 0)
+      rolloverPolicy.add(new SizeRolloverPolicy(rolloverSize, rolloverSizeUncompressed));
+    if (rolloverInterval != null)
+      rolloverPolicy.add(new IntervalRolloverPolicy(rolloverInterval));
+    if (rolloverOnTimeBucket)
+      rolloverPolicy.add(new TimeBucketRolloverPolicy(FileNameSuffixFormatter.from(this)));
+    return rolloverPolicy;
+  }
+
+  public ReadMode getReadMode() {
+    return readMode;
+  }
+
+  public void setReadMode(ReadMode readMode) {
+    this.readMode = readMode;
+  }
+
+  public int getPrefetchDepth() {
+    return prefetchDepth;
+  }
+
+  public void setPrefetchDepth(int prefetchDepth) {
+    this.prefetchDepth = prefetchDepth;
+  }
+
+  public PartitionMode getPartitionMode() {
+    return partitionMode;
+  }
+
+  public void setPartitionMode(PartitionMode partitionMode) {
+    this.partitionMode = partitionMode;
+  }
+
+  public int getPartitionCount() {
+    return partitionCount;
+  }
+
+  public void setPartitionCount(int partitionCount) {
+    this.partitionCount = partitionCount;
+  }
+
+  public int getPartitionConcurrency() {
+    return partitionConcurrency;
+  }
+
+  public void setPartitionConcurrency(int partitionConcurrency) {
+    this.partitionConcurrency = partitionConcurrency;
+  }
+
+  public int getMaxInFlightFiles() {
+    return maxInFlightFiles;
+  }
+
+  public void setMaxInFlightFiles(int maxInFlightFiles) {
+    this.maxInFlightFiles = maxInFlightFiles;
+  }
+
+  public ArchiveFormat getFormat() {
+    return format;
+  }
+
+  public void setFormat(ArchiveFormat format) {
+    this.format = format;
+  }
+
+  public Compression getCompression() {
+    return compression;
+  }
+
+  public void setCompression(Compression compression) {
+    this.compression = compression;
+  }
+
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  public void setCompressionLevel(int compressionLevel) {
+    this.compressionLevel = compressionLevel;
+  }
+
+  public int getCompressionThreads() {
+    return compressionThreads;
+  }
+
+  public void setCompressionThreads(int compressionThreads) {
+    this.compressionThreads = compressionThreads;
+  }
+
+  public Optional<CompressionCodec> compressionCodec() {
+    switch (compression) {
+      case GZIP:
+        return Optional.of(new GzipCodec(compressionLevel));
+      case PARALLEL_GZIP:
+        return Optional.of(new ParallelGzipCodec(compressionLevel,
+                compressionThreads > 0 ? compressionThreads : Runtime.getRuntime().availableProcessors()));
+      case BZIP2:
+        return Optional.of(compressionLevel < 1 ? new BZip2Codec() : new BZip2Codec(compressionLevel));
+      case ZSTD:
+        return Optional.of(new ZstdCodec(compressionLevel,
+                compressionThreads > 0 ? compressionThreads : Runtime.getRuntime().availableProcessors()));
+      case LZ4:
+        return Optional.of(new Lz4Codec(compressionLevel));
+      default:
+        return Optional.empty();
+    }
+  }
+
   public ExportDestination getDestination() {
     return destination;
   }
@@ -157,6 +354,22 @@ public class ArchivingProperties extends JobProperties<ArchivingProperties> impl
     this.hdfsKerberosKeytabPath = hdfsKerberosKeytabPath;
   }
 
+  public int getHdfsReplication() {
+    return hdfsReplication;
+  }
+
+  public void setHdfsReplication(int hdfsReplication) {
+    this.hdfsReplication = hdfsReplication;
+  }
+
+  public long getHdfsBlockSize() {
+    return hdfsBlockSize;
+  }
+
+  public void setHdfsBlockSize(long hdfsBlockSize) {
+    this.hdfsBlockSize = hdfsBlockSize;
+  }
+
   public Optional<HdfsProperties> hdfsProperties() {
     if (isBlank(hdfsDestinationDirectory))
       return Optional.empty();
@@ -166,7 +379,79 @@ public class ArchivingProperties extends JobProperties<ArchivingProperties> impl
             hdfsDestinationDirectory,
             hdfsFilePermission,
             hdfsKerberosPrincipal,
-            hdfsKerberosKeytabPath));
+            hdfsKerberosKeytabPath,
+            (short) hdfsReplication,
+            hdfsBlockSize));
+  }
+
+  public String getS3Endpoint() {
+    return s3Endpoint;
+  }
+
+  public void setS3Endpoint(String s3Endpoint) {
+    this.s3Endpoint = s3Endpoint;
+  }
+
+  public String getS3Region() {
+    return s3Region;
+  }
+
+  public void setS3Region(String s3Region) {
+    this.s3Region = s3Region;
+  }
+
+  public String getS3BucketName() {
+    return s3BucketName;
+  }
+
+  public void setS3BucketName(String s3BucketName) {
+    this.s3BucketName = s3BucketName;
+  }
+
+  public String getS3KeyPrefix() {
+    return s3KeyPrefix;
+  }
+
+  public void setS3KeyPrefix(String s3KeyPrefix) {
+    this.s3KeyPrefix = s3KeyPrefix;
+  }
+
+  public int getS3PartSize() {
+    return s3PartSize;
+  }
+
+  public void setS3PartSize(int s3PartSize) {
+    this.s3PartSize = s3PartSize;
+  }
+
+  public int getS3UploadThreads() {
+    return s3UploadThreads;
+  }
+
+  public void setS3UploadThreads(int s3UploadThreads) {
+    this.s3UploadThreads = s3UploadThreads;
+  }
+
+  public int getS3MaxRetries() {
+    return s3MaxRetries;
+  }
+
+  public void setS3MaxRetries(int s3MaxRetries) {
+    this.s3MaxRetries = s3MaxRetries;
+  }
+
+  public Optional<S3Properties> s3Properties() {
+    if (isBlank(s3BucketName))
+      return Optional.empty();
+
+    return Optional.of(new S3Properties(
+            s3Endpoint,
+            s3Region,
+            s3BucketName,
+            s3KeyPrefix,
+            s3PartSize,
+            s3UploadThreads,
+            s3MaxRetries));
   }
 
   public String getStart() {
@@ -201,10 +486,59 @@ public class ArchivingProperties extends JobProperties<ArchivingProperties> impl
     if (writeBlockSize <= 0)
       throw new IllegalArgumentException("The property writeBlockSize must be greater than 0!");
 
+    if (rolloverSize < 0)
+      throw new IllegalArgumentException("The property rolloverSize can not be negative!");
+    if (rolloverInterval != null && (rolloverInterval.isNegative() || rolloverInterval.isZero()))
+      throw new IllegalArgumentException("The property rolloverInterval must be greater than 0!");
+    if (checkpointInterval != null && checkpointInterval.isNegative())
+      throw new IllegalArgumentException("The property checkpointInterval can not be negative!");
+
     if (isBlank(fileNameSuffixColumn)) {
       throw new IllegalArgumentException("The property fileNameSuffixColumn can not be null or empty string!");
     }
 
+    requireNonNull(readMode, "The property readMode can not be null!");
+    if (readMode != ReadMode.FILTER_QUERY && (solr == null || solr.getSortColumn() == null || solr.getSortColumn().length == 0))
+      throw new IllegalArgumentException(String.format(
+              "The property solr.sortColumn can not be empty when readMode is set to %s!", readMode.name()));
+    if (rolloverOnTimeBucket && (solr == null || solr.getSortColumn() == null || solr.getSortColumn().length == 0))
+      throw new IllegalArgumentException("The property solr.sortColumn can not be empty when rolloverOnTimeBucket is set!");
+    if (readMode == ReadMode.EXPORT && (solr.getExportColumn() == null || solr.getExportColumn().length == 0))
+      throw new IllegalArgumentException(String.format(
+              "The property solr.exportColumn can not be empty when readMode is set to %s!", ReadMode.EXPORT.name()));
+
+    if (prefetchDepth < 0)
+      throw new IllegalArgumentException("The property prefetchDepth can not be negative!");
+
+    requireNonNull(partitionMode, "The property partitionMode can not be null!");
+    if (partitionCount <= 0)
+      throw new IllegalArgumentException("The property partitionCount must be greater than 0!");
+    if (partitionConcurrency <= 0)
+      throw new IllegalArgumentException("The property partitionConcurrency must be greater than 0!");
+    if (partitionMode == PartitionMode.SHARD && readMode == ReadMode.EXPORT)
+      throw new IllegalArgumentException(String.format(
+              "The property partitionMode can not be set to %s when readMode is set to %s!", PartitionMode.SHARD.name(), ReadMode.EXPORT.name()));
+    // delete by query is distributed to all shards: it would remove documents of other, not yet archived shards
+    if (partitionMode == PartitionMode.SHARD && solr != null && !isBlank(solr.getDeleteQueryText()))
+      throw new IllegalArgumentException(String.format(
+              "The property solr.deleteQueryText must be empty when partitionMode is set to %s!", PartitionMode.SHARD.name()));
+
+    if (maxInFlightFiles < 0)
+      throw new IllegalArgumentException("The property maxInFlightFiles can not be negative!");
+
+    requireNonNull(format, "The property format can not be null!");
+    requireNonNull(compression, "The property compression can not be null!");
+    int maxCompressionLevel = compression == Compression.ZSTD ? 22 : compression == Compression.LZ4 ? 17 : 9;
+    if (compressionLevel < -1 || compressionLevel > maxCompressionLevel)
+      throw new IllegalArgumentException(String.format(
+              "The property compressionLevel must be between -1 and %d when compression is %s!", maxCompressionLevel, compression.name()));
+    if (compressionThreads < 0)
+      throw new IllegalArgumentException("The property compressionThreads can not be negative!");
+    if ((format == ArchiveFormat.AVRO && (compression == Compression.ZSTD || compression == Compression.LZ4)) ||
+            (format == ArchiveFormat.PARQUET && (compression == Compression.BZIP2 || compression == Compression.LZ4)))
+      throw new IllegalArgumentException(String.format(
+              "The property compression can not be %s when format is %s!", compression.name(), format.name()));
+
     requireNonNull(destination, "The property destination can not be null!");
     switch (destination) {
       case LOCAL:
@@ -214,8 +548,17 @@ public class ArchivingProperties extends JobProperties<ArchivingProperties> impl
         break;
 
       case HDFS:
+      case HDFS_STREAMING:
+        if (hdfsReplication > Short.MAX_VALUE)
+          throw new IllegalArgumentException("The property hdfsReplication must be less than " + Short.MAX_VALUE + "!");
         hdfsProperties()
-                .orElseThrow(() -> new IllegalArgumentException("HDFS related properties must be set if the destination is " + HDFS.name()))
+                .orElseThrow(() -> new IllegalArgumentException("HDFS related properties must be set if the destination is " + destination.name()))
+                .validate();
+        break;
+
+      case S3:
+        s3Properties()
+                .orElseThrow(() -> new IllegalArgumentException("S3 related properties must be set if the destination is " + destination.name()))
                 .validate();
     }
 
@@ -228,6 +571,22 @@ public class ArchivingProperties extends JobProperties<ArchivingProperties> impl
     ArchivingProperties archivingProperties = new ArchivingProperties();
     archivingProperties.setReadBlockSize(getIntJobParameter(jobParameters, "readBlockSize", readBlockSize));
     archivingProperties.setWriteBlockSize(getIntJobParameter(jobParameters, "writeBlockSize", writeBlockSize));
+    String rolloverSizeText = jobParameters.getString("rolloverSize");
+    archivingProperties.setRolloverSize(isBlank(rolloverSizeText) ? rolloverSize : Long.parseLong(rolloverSizeText));
+    archivingProperties.setRolloverSizeUncompressed(Boolean.parseBoolean(jobParameters.getString("rolloverSizeUncompressed", Boolean.toString(rolloverSizeUncompressed))));
+    archivingProperties.setRolloverInterval(toDuration(jobParameters.getString("rolloverInterval", DurationToStringConverter.toString(rolloverInterval))));
+    archivingProperties.setRolloverOnTimeBucket(Boolean.parseBoolean(jobParameters.getString("rolloverOnTimeBucket", Boolean.toString(rolloverOnTimeBucket))));
+    archivingProperties.setCheckpointInterval(toDuration(jobParameters.getString("checkpointInterval", DurationToStringConverter.toString(checkpointInterval))));
+    archivingProperties.setReadMode(ReadMode.valueOf(jobParameters.getString("readMode", readMode.name())));
+    archivingProperties.setPrefetchDepth(getIntJobParameter(jobParameters, "prefetchDepth", prefetchDepth));
+    archivingProperties.setPartitionMode(PartitionMode.valueOf(jobParameters.getString("partitionMode", partitionMode.name())));
+    archivingProperties.setPartitionCount(getIntJobParameter(jobParameters, "partitionCount", partitionCount));
+    archivingProperties.setPartitionConcurrency(getIntJobParameter(jobParameters, "partitionConcurrency", partitionConcurrency));
+    archivingProperties.setMaxInFlightFiles(getIntJobParameter(jobParameters, "maxInFlightFiles", maxInFlightFiles));
+    archivingProperties.setFormat(ArchiveFormat.valueOf(jobParameters.getString("format", format.name())));
+    archivingProperties.setCompression(Compression.valueOf(jobParameters.getString("compression", compression.name())));
+    archivingProperties.setCompressionLevel(getIntJobParameter(jobParameters, "compressionLevel", compressionLevel));
+    archivingProperties.setCompressionThreads(getIntJobParameter(jobParameters, "compressionThreads", compressionThreads));
     archivingProperties.setDestination(ExportDestination.valueOf(jobParameters.getString("destination", destination.name())));
     archivingProperties.setLocalDestinationDirectory(jobParameters.getString("localDestinationDirectory", localDestinationDirectory));
     archivingProperties.setFileNameSuffixColumn(jobParameters.getString("fileNameSuffixColumn", fileNameSuffixColumn));
@@ -237,6 +596,16 @@ public class ArchivingProperties extends JobProperties<ArchivingProperties> impl
     archivingProperties.setHdfsFilePermission(toFsPermission(jobParameters.getString("hdfsFilePermission", FsPermissionToStringConverter.toString(hdfsFilePermission))));
     archivingProperties.setHdfsKerberosPrincipal(jobParameters.getString("hdfsKerberosPrincipal", hdfsKerberosPrincipal));
     archivingProperties.setHdfsKerberosKeytabPath(jobParameters.getString("hdfsKerberosKeytabPath", hdfsKerberosKeytabPath));
+    archivingProperties.setHdfsReplication(getIntJobParameter(jobParameters, "hdfsReplication", hdfsReplication));
+    String hdfsBlockSizeText = jobParameters.getString("hdfsBlockSize");
+    archivingProperties.setHdfsBlockSize(isBlank(hdfsBlockSizeText) ? hdfsBlockSize : Long.parseLong(hdfsBlockSizeText));
+    archivingProperties.setS3Endpoint(jobParameters.getString("s3Endpoint", s3Endpoint));
+    archivingProperties.setS3Region(jobParameters.getString("s3Region", s3Region));
+    archivingProperties.setS3BucketName(jobParameters.getString("s3BucketName", s3BucketName));
+    archivingProperties.setS3KeyPrefix(jobParameters.getString("s3KeyPrefix", s3KeyPrefix));
+    archivingProperties.setS3PartSize(getIntJobParameter(jobParameters, "s3PartSize", s3PartSize));
+    archivingProperties.setS3UploadThreads(getIntJobParameter(jobParameters, "s3UploadThreads", s3UploadThreads));
+    archivingProperties.setS3MaxRetries(getIntJobParameter(jobParameters, "s3MaxRetries", s3MaxRetries));
     archivingProperties.setSolr(solr.merge(jobParameters));
     archivingProperties.setStart(jobParameters.getString("start"));
     archivingProperties.setEnd(jobParameters.getString("end"));
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Post-processes the completed files (compress, upload, delete archived documents) on background threads
+ * so reading can continue meanwhile. At most maxInFlightFiles files are processed at the same time:
+ * {@link #onCompleted(WriteCompletedEvent)} blocks until a slot is released.
+ */
+public class AsyncItemWriterListener implements ItemWriterListener, Closeable {
+  private static final Logger logger = LogManager.getLogger(AsyncItemWriterListener.class);
+  private static final AtomicInteger threadCounter = new AtomicInteger();
+
+  private final ItemWriterListener itemWriterListener;
+  private final int maxInFlightFiles;
+  private final Semaphore inFlightFiles;
+  private final Deque<Future<?>> processing = new ArrayDeque<>();
+  private ExecutorService executorService;
+
+  public AsyncItemWriterListener(ItemWriterListener itemWriterListener, int maxInFlightFiles) {
+    this.itemWriterListener = itemWriterListener;
+    this.maxInFlightFiles = maxInFlightFiles;
+    this.inFlightFiles = new Semaphore(maxInFlightFiles);
+  }
+
+  @Override
+  public void onCompleted(WriteCompletedEvent event) {
+    try {
+      inFlightFiles.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for post-processing of previous files", e);
+    }
+
+    try {
+      processing.add(executorService().submit(() -> {
+        try {
+          itemWriterListener.onCompleted(event);
+        } finally {
+          inFlightFiles.release();
+        }
+      }));
+    } catch (RejectedExecutionException e) {
+      inFlightFiles.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Removes the oldest file from the in-flight files if its post-processing is finished.
+   * Files are removed in the order they were completed by the writer.
+   * @param wait wait for the post-processing of the oldest file if it is still in progress
+   * @return true if the oldest file was post-processed successfully, false if there are no in-flight files or
+   * the oldest one is still in progress and wait is false
+   */
+  public boolean pollProcessed(boolean wait) {
+    Future<?> future = processing.peek();
+    if (future == null || (!wait && !future.isDone()))
+      return false;
+
+    processing.poll();
+    try {
+      future.get();
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for post-processing of file", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException)
+        throw (RuntimeException) e.getCause();
+      if (e.getCause() instanceof Error)
+        throw (Error) e.getCause();
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  public int getInFlightCount() {
+    return processing.size();
+  }
+
+  private ExecutorService executorService() {
+    if (executorService == null) {
+      executorService = Executors.newFixedThreadPool(maxInFlightFiles, runnable -> {
+        Thread thread = new Thread(runnable, "archive-post-processing-" + threadCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return executorService;
+  }
+
+  @Override
+  public void close() {
+    if (executorService == null)
+      return;
+
+    if (!processing.isEmpty())
+      logger.warn("Closing post-processing while {} files are in flight", processing.size());
+    processing.clear();
+    executorService.shutdown();
+    executorService = null;
+  }
+}
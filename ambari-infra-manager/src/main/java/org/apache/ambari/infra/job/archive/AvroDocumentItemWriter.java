@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.apache.ambari.infra.job.archive.ArchiveSchema.OTHER_FIELDS;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CheckedOutputStream;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.hadoop.util.PureJavaCrc32C;
+
+/**
+ * Writes the documents to an Avro data file which can be queried directly from Hive or Spark.
+ * The fields of the records are the columns of the {@link ArchiveSchema}: integer fields are stored as long, floating
+ * point fields as double, boolean fields as boolean, date fields as long holding the milliseconds since the epoch and
+ * the rest as string.
+ */
+public class AvroDocumentItemWriter implements DocumentItemWriter {
+  public static final String SOLR_FIELD_NAME = "solr_field_name";
+  private static final Schema NULL_SCHEMA = Schema.create(Schema.Type.NULL);
+  private static final Schema STRING_SCHEMA = Schema.create(Schema.Type.STRING);
+
+  private final ArchiveFile outFile;
+  private final ItemWriterListener itemWriterListener;
+  private final ArchiveSchema archiveSchema;
+  private final Schema schema;
+  private final DataFileWriter<GenericRecord> dataFileWriter;
+  private final CountingOutputStream writtenBytes;
+  private final CheckedOutputStream checksum;
+  private final GenericDatumWriter<GenericRecord> uncompressedDatumWriter;
+  private final CountingOutputStream uncompressedBytes = new CountingOutputStream(NullOutputStream.NULL_OUTPUT_STREAM);
+  private BinaryEncoder uncompressedEncoder = null;
+  private Document firstDocument = null;
+  private Document lastDocument = null;
+  private int documentCount = 0;
+
+  public AvroDocumentItemWriter(File outFile, ArchiveSchema archiveSchema, CodecFactory codecFactory, ItemWriterListener itemWriterListener) {
+    this(new LocalArchiveFile(outFile), archiveSchema, codecFactory, itemWriterListener);
+  }
+
+  public AvroDocumentItemWriter(ArchiveFile outFile, ArchiveSchema archiveSchema, CodecFactory codecFactory, ItemWriterListener itemWriterListener) {
+    this.outFile = outFile;
+    this.itemWriterListener = itemWriterListener;
+    this.archiveSchema = archiveSchema;
+    List<Schema.Field> fields = new ArrayList<>();
+    for (ArchiveSchema.Column column : archiveSchema.getColumns()) {
+      Schema.Field field = new Schema.Field(column.getName(),
+              Schema.createUnion(Arrays.asList(NULL_SCHEMA, schema(column.getType()))),
+              column.getType() == ArchiveSchema.ColumnType.TIMESTAMP ? "milliseconds since the epoch" : null, null);
+      field.addProp(SOLR_FIELD_NAME, column.getSolrName());
+      fields.add(field);
+    }
+    fields.add(new Schema.Field(OTHER_FIELDS, Schema.createMap(STRING_SCHEMA), null, null));
+    this.schema = Schema.createRecord("SolrDocument", null, "org.apache.ambari.infra.archive", false);
+    this.schema.setFields(fields);
+    this.uncompressedDatumWriter = new GenericDatumWriter<>(schema);
+
+    this.dataFileWriter = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(schema));
+    this.dataFileWriter.setCodec(codecFactory);
+    try {
+      this.writtenBytes = new CountingOutputStream(checksum = new CheckedOutputStream(outFile.create(), new PureJavaCrc32C()));
+      this.dataFileWriter.create(schema, writtenBytes);
+    } catch (IOException e) {
+      IOUtils.closeQuietly(dataFileWriter);
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static Schema schema(ArchiveSchema.ColumnType columnType) {
+    switch (columnType) {
+      case LONG:
+      case TIMESTAMP:
+        return Schema.create(Schema.Type.LONG);
+      case DOUBLE:
+        return Schema.create(Schema.Type.DOUBLE);
+      case BOOLEAN:
+        return Schema.create(Schema.Type.BOOLEAN);
+      default:
+        return STRING_SCHEMA;
+    }
+  }
+
+  public static CodecFactory codecFactory(Compression compression, int level) {
+    switch (compression) {
+      case GZIP:
+      case PARALLEL_GZIP:
+        return CodecFactory.deflateCodec(level < 0 ? CodecFactory.DEFAULT_DEFLATE_LEVEL : level);
+      case BZIP2:
+        return CodecFactory.bzip2Codec();
+      default:
+        return CodecFactory.nullCodec();
+    }
+  }
+
+  @Override
+  public void write(Document document) {
+    Map<String, String> otherFields = new HashMap<>();
+    Object[] values = archiveSchema.toColumnValues(document, otherFields);
+    GenericData.Record record = new GenericData.Record(schema);
+    for (int i = 0; i < values.length; ++i)
+      record.put(i, values[i]);
+    record.put(values.length, otherFields);
+
+    try {
+      dataFileWriter.append(record);
+      // the data file writer compresses whole blocks: the records are encoded once more to count their size
+      uncompressedEncoder = EncoderFactory.get().directBinaryEncoder(uncompressedBytes, uncompressedEncoder);
+      uncompressedDatumWriter.write(record, uncompressedEncoder);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    if (firstDocument == null)
+      firstDocument = document;
+    lastDocument = document;
+    ++documentCount;
+  }
+
+  @Override
+  public long getWrittenByteCount() {
+    return writtenBytes.getByteCount();
+  }
+
+  /**
+   * @return the size of the records in Avro binary encoding before they are compressed by the codec
+   */
+  @Override
+  public long getUncompressedByteCount() {
+    return uncompressedBytes.getByteCount();
+  }
+
+  @Override
+  public void revert() {
+    IOUtils.closeQuietly(dataFileWriter);
+    outFile.delete();
+  }
+
+  @Override
+  public void close() {
+    try {
+      dataFileWriter.close();
+      File completedFile = outFile.complete();
+      if (itemWriterListener != null)
+        itemWriterListener.onCompleted(new WriteCompletedEvent(
+                completedFile, firstDocument, lastDocument, documentCount, writtenBytes.getByteCount(), checksum.getChecksum().getValue()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
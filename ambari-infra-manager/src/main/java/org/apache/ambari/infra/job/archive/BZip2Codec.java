@@ -18,27 +18,32 @@
  */
 package org.apache.ambari.infra.job.archive;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.UncheckedIOException;
+import java.io.OutputStream;
 
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
-import org.apache.commons.io.IOUtils;
 
-public class BZip2Compressor extends AbstractFileAction {
+public class BZip2Codec implements CompressionCodec {
+  private final int blockSize;
+
+  public BZip2Codec() {
+    this(BZip2CompressorOutputStream.MAX_BLOCKSIZE);
+  }
+
+  /**
+   * @param blockSize 1..9 the block size in 100k units: greater value gives better compression ratio
+   */
+  public BZip2Codec(int blockSize) {
+    this.blockSize = blockSize;
+  }
+
+  @Override
+  public String getFileExtension() {
+    return ".bz2";
+  }
+
   @Override
-  protected File onPerform(File inputFile) {
-    File bz2File = new File(inputFile.getParent(), inputFile.getName() + ".bz2");
-    try (BZip2CompressorOutputStream bZip2CompressorOutputStream = new BZip2CompressorOutputStream(new FileOutputStream(bz2File))) {
-      try (FileInputStream fileInputStream = new FileInputStream(inputFile)) {
-        IOUtils.copy(fileInputStream, bZip2CompressorOutputStream);
-      }
-    }
-    catch (IOException ex) {
-      throw new UncheckedIOException(ex);
-    }
-    return bz2File;
+  public OutputStream compress(OutputStream outputStream) throws IOException {
+    return new BZip2CompressorOutputStream(outputStream, blockSize);
   }
 }
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the archived ranges and deletes up to deleteBatchSize ranges with a single delete by query request.
+ * The ranges are OR-ed instead of merged to one wider range because with asynchronous post-processing they may
+ * arrive out of order. If deleteCommitWithin is set Solr commits the deletions in the background and only one hard
+ * commit is issued when the step finishes.
+ * The collected ranges are also deleted before the exporter persists a checkpoint, so the ranges behind the
+ * persisted reader position are never left in the index if the job is killed.
+ */
+public class BatchingDocumentWiper implements DocumentWiper {
+  private final SolrDAO solrDAO;
+  private final int deleteBatchSize;
+  private final int deleteCommitWithin;
+  private final List<String> pendingDeleteQueries = new ArrayList<>();
+  private boolean uncommitted = false;
+
+  public BatchingDocumentWiper(SolrDAO solrDAO, int deleteBatchSize, int deleteCommitWithin) {
+    this.solrDAO = solrDAO;
+    this.deleteBatchSize = deleteBatchSize;
+    this.deleteCommitWithin = deleteCommitWithin;
+  }
+
+  @Override
+  public synchronized void delete(Document firstDocument, Document lastDocument) {
+    pendingDeleteQueries.add(solrDAO.deleteQuery(firstDocument, lastDocument));
+    if (pendingDeleteQueries.size() >= deleteBatchSize)
+      deletePending();
+  }
+
+  @Override
+  public synchronized void beforeCheckpoint() {
+    deletePending();
+  }
+
+  @Override
+  public synchronized void flush() {
+    deletePending();
+    if (uncommitted) {
+      solrDAO.commit();
+      uncommitted = false;
+    }
+  }
+
+  private void deletePending() {
+    if (pendingDeleteQueries.isEmpty())
+      return;
+    solrDAO.delete(pendingDeleteQueries, deleteCommitWithin);
+    pendingDeleteQueries.clear();
+    uncommitted = deleteCommitWithin > 0;
+  }
+}
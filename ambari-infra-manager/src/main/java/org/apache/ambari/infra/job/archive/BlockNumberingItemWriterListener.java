@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+/**
+ * Numbers the completed blocks in the order they are written, before the post-processing of the files can
+ * reorder them. The block number is stored in the manifest so a restart can detect gaps.
+ */
+public class BlockNumberingItemWriterListener implements ItemWriterListener {
+  private final ItemWriterListener itemWriterListener;
+  private long nextBlock = 0;
+
+  public BlockNumberingItemWriterListener(ItemWriterListener itemWriterListener) {
+    this.itemWriterListener = itemWriterListener;
+  }
+
+  @Override
+  public void onCompleted(WriteCompletedEvent event) {
+    itemWriterListener.onCompleted(event.withBlock(nextBlock++));
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static java.util.Arrays.asList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rolls over when any of the policies does.
+ */
+public class CompositeRolloverPolicy implements RolloverPolicy {
+
+  private final List<RolloverPolicy> policies;
+
+  public CompositeRolloverPolicy(RolloverPolicy... policies) {
+    this.policies = new ArrayList<>(asList(policies));
+  }
+
+  public void add(RolloverPolicy policy) {
+    policies.add(policy);
+  }
+
+  @Override
+  public void opened(Document firstDocument) {
+    for (RolloverPolicy policy : policies)
+      policy.opened(firstDocument);
+  }
+
+  @Override
+  public boolean shouldRollover(DocumentItemWriter writer, int writtenCount, Document nextDocument) {
+    for (RolloverPolicy policy : policies) {
+      if (policy.shouldRollover(writer, writtenCount, nextDocument))
+        return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import org.apache.ambari.infra.job.CursorIterator;
+import org.apache.ambari.infra.job.CursorObjectSource;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reads documents block by block using solr cursors (cursorMark). The position stored in the execution context is the
+ * cursor mark of the block containing the last read document and the index of that document within the block.
+ */
+public class CursorDocumentItemReader extends AbstractDocumentItemReader<CursorIterator<Document>> {
+
+  public final static String CURSOR_MARK = "cursor-mark";
+  public final static String CURSOR_OFFSET = "cursor-offset";
+
+  private final CursorObjectSource<Document> documentSource;
+
+  private String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+  private int skip = 0;
+  private String currentCursorMark = null;
+  private int currentOffset = 0;
+
+  public CursorDocumentItemReader(CursorObjectSource<Document> documentSource, int readBlockSize) {
+    super(readBlockSize);
+    this.documentSource = documentSource;
+    setName(ClassUtils.getShortName(CursorDocumentItemReader.class));
+  }
+
+  @Override
+  protected CursorIterator<Document> openFirstBlock(int readBlockSize) {
+    return documentSource.open(cursorMark, readBlockSize);
+  }
+
+  @Override
+  protected int getFirstBlockOffset() {
+    return skip;
+  }
+
+  @Override
+  protected CursorIterator<Document> openNextBlock(CursorIterator<Document> finishedIterator, int readBlockSize) {
+    String nextCursorMark = finishedIterator.getNextCursorMark();
+    if (nextCursorMark == null || nextCursorMark.equals(cursorMark))
+      return null;
+    cursorMark = nextCursorMark;
+    return documentSource.open(cursorMark, readBlockSize);
+  }
+
+  @Override
+  protected void afterRead(Document document, int offset) {
+    if (document == null) {
+      currentCursorMark = null;
+      return;
+    }
+    currentCursorMark = cursorMark;
+    currentOffset = offset;
+  }
+
+  @Override
+  protected void restorePosition(ExecutionContext executionContext) {
+    currentCursorMark = null;
+    cursorMark = executionContext.getString(CURSOR_MARK, CursorMarkParams.CURSOR_MARK_START);
+    skip = executionContext.getInt(CURSOR_OFFSET, 0);
+  }
+
+  /**
+   * Saves the position of the last read document: it is not written yet so it should be read again after restart.
+   */
+  @Override
+  protected void storePosition(ExecutionContext executionContext) {
+    if (currentCursorMark == null)
+      return;
+    executionContext.putString(CURSOR_MARK, currentCursorMark);
+    executionContext.putInt(CURSOR_OFFSET, currentOffset);
+  }
+}
@@ -42,6 +42,16 @@ public class Document {
     return value == null ? null : value.toString();
   }
 
+  /**
+   * @return a document which contains only the specified fields of this one
+   */
+  public Document select(String... fields) {
+    Map<String, Object> selectedFields = new HashMap<>(fields.length * 4 / 3 + 1);
+    for (String field : fields)
+      selectedFields.put(field, fieldMap.get(field));
+    return new Document(selectedFields);
+  }
+
   @JsonAnyGetter
   public Map<String, Object> getFieldMap() {
     return fieldMap;
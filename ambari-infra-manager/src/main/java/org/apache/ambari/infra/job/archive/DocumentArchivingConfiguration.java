@@ -18,19 +18,30 @@
  */
 package org.apache.ambari.infra.job.archive;
 
+import static org.apache.ambari.infra.job.DryRunConfiguration.dryRunFlow;
 import static org.apache.ambari.infra.job.JobsPropertyMap.PARAMETERS_CONTEXT_KEY;
+import static org.apache.ambari.infra.job.archive.DocumentArchivingPartitioner.PARTITION_END;
+import static org.apache.ambari.infra.job.archive.DocumentArchivingPartitioner.PARTITION_SHARD;
+import static org.apache.ambari.infra.job.archive.DocumentArchivingPartitioner.PARTITION_START;
 import static org.apache.ambari.infra.job.archive.SolrQueryBuilder.computeEnd;
 import static org.apache.commons.lang.StringUtils.isBlank;
 
 import java.io.File;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
 
 import javax.inject.Inject;
 
 import org.apache.ambari.infra.conf.InfraManagerDataConfig;
+import org.apache.ambari.infra.conf.security.S3Secrets;
 import org.apache.ambari.infra.job.AbstractJobsConfiguration;
 import org.apache.ambari.infra.job.JobContextRepository;
 import org.apache.ambari.infra.job.JobScheduler;
 import org.apache.ambari.infra.job.ObjectSource;
+import org.apache.ambari.infra.job.PrefetchingObjectSource;
+import org.apache.ambari.infra.job.CloudSolrClientCache;
+import org.apache.avro.file.CodecFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.batch.core.Job;
@@ -41,10 +52,18 @@ import org.springframework.batch.core.configuration.annotation.StepBuilderFactor
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.configuration.support.JobRegistryBeanPostProcessor;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
 
 @Configuration
 public class DocumentArchivingConfiguration extends AbstractJobsConfiguration<ArchivingProperties, ArchivingProperties> {
@@ -53,6 +72,8 @@ public class DocumentArchivingConfiguration extends AbstractJobsConfiguration<Ar
 
   private final StepBuilderFactory steps;
   private final Step exportStep;
+  private final JobExecutionDecider dryRunDecider;
+  private final Step estimateStep;
 
   @Inject
   public DocumentArchivingConfiguration(
@@ -61,42 +82,75 @@ public class DocumentArchivingConfiguration extends AbstractJobsConfiguration<Ar
           StepBuilderFactory steps,
           JobBuilderFactory jobs,
           @Qualifier("exportStep") Step exportStep,
+          @Qualifier("dryRunDecider") JobExecutionDecider dryRunDecider,
+          @Qualifier("estimateStep") Step estimateStep,
           JobRegistryBeanPostProcessor jobRegistryBeanPostProcessor) {
     super(jobsPropertyMap.getSolrDataArchiving(), scheduler, jobs, jobRegistryBeanPostProcessor);
     this.exportStep = exportStep;
+    this.dryRunDecider = dryRunDecider;
+    this.estimateStep = estimateStep;
     this.steps = steps;
   }
 
   @Override
   protected Job buildJob(JobBuilder jobBuilder) {
-    return jobBuilder.start(exportStep).build();
+    return jobBuilder.start(dryRunFlow("exportFlow", dryRunDecider, estimateStep, exportStep)).end().build();
   }
 
   @Bean
   @JobScope
-  public Step exportStep(DocumentExporter documentExporter) {
+  public Step exportStep(DocumentExporter documentExporter,
+                         @Qualifier("exportPartitionStep") Step exportPartitionStep,
+                         @Value("#{jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties parameters,
+                         CloudSolrClientCache cloudSolrClientCache) {
+    if (parameters.getPartitionMode() == PartitionMode.NONE) {
+      return steps.get("export")
+              .tasklet(documentExporter)
+              .build();
+    }
+
+    SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("archiving-");
+    taskExecutor.setConcurrencyLimit(parameters.getPartitionConcurrency());
     return steps.get("export")
+            .partitioner("exportPartition", new DocumentArchivingPartitioner(
+                    parameters.getPartitionMode(),
+                    parameters.getStart(),
+                    computeEnd(parameters.getEnd(), parameters.getTtl()),
+                    new SolrDAO(cloudSolrClientCache, parameters.getSolr())))
+            .step(exportPartitionStep)
+            .gridSize(parameters.getPartitionCount())
+            .taskExecutor(taskExecutor)
+            .build();
+  }
+
+  @Bean
+  public Step exportPartitionStep(DocumentExporter documentExporter) {
+    return steps.get("exportPartition")
             .tasklet(documentExporter)
             .build();
   }
 
   @Bean
   @StepScope
-  public DocumentExporter documentExporter(DocumentItemReader documentItemReader,
+  public DocumentExporter documentExporter(ItemStreamReader<Document> documentItemReader,
                                            @Value("#{stepExecution.jobExecution.jobId}") String jobId,
+                                           @Value("#{stepExecution.jobExecution.id}") Long jobExecutionId,
                                            @Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties parameters,
                                            InfraManagerDataConfig infraManagerDataConfig,
                                            @Value("#{jobParameters[end]}") String intervalEnd,
+                                           @Value("#{stepExecution.executionContext.get('" + PARTITION_SHARD + "')}") String shard,
                                            DocumentWiper documentWiper,
-                                           JobContextRepository jobContextRepository) {
+                                           JobContextRepository jobContextRepository,
+                                           HdfsFileSystem hdfsFileSystem,
+                                           S3ObjectStore s3ObjectStore,
+                                           ArchiveManifest archiveManifest,
+                                           SolrDAO solrDAO) {
 
     File baseDir = new File(infraManagerDataConfig.getDataFolder(), "exporting");
-    CompositeFileAction fileAction = new CompositeFileAction(new BZip2Compressor());
+    CompositeFileAction fileAction = new CompositeFileAction();
     switch (parameters.getDestination()) {
       case HDFS:
-        org.apache.hadoop.conf.Configuration conf = new org.apache.hadoop.conf.Configuration();
-        fileAction.add(new HdfsUploader(conf,
-                parameters.hdfsProperties().orElseThrow(() -> new IllegalStateException("HDFS properties are not provided!"))));
+        fileAction.add(new HdfsUploader(hdfsFileSystem));
         break;
       case LOCAL:
         baseDir = new File(parameters.getLocalDestinationDirectory());
@@ -104,7 +158,11 @@ public class DocumentArchivingConfiguration extends AbstractJobsConfiguration<Ar
     }
 
     FileNameSuffixFormatter fileNameSuffixFormatter = FileNameSuffixFormatter.from(parameters);
-    LocalItemWriterListener itemWriterListener = new LocalItemWriterListener(fileAction, documentWiper);
+    LocalItemWriterListener localItemWriterListener = new LocalItemWriterListener(
+            fileAction, documentWiper, archiveManifest, parameters.getSolr().getSortColumn(), jobExecutionId);
+    AsyncItemWriterListener postProcessor = parameters.getMaxInFlightFiles() > 0 ?
+            new AsyncItemWriterListener(localItemWriterListener, parameters.getMaxInFlightFiles()) : null;
+    ItemWriterListener itemWriterListener = new BlockNumberingItemWriterListener(postProcessor != null ? postProcessor : localItemWriterListener);
     File destinationDirectory = new File(
             baseDir,
             String.format("%s_%s_%s",
@@ -112,17 +170,48 @@ public class DocumentArchivingConfiguration extends AbstractJobsConfiguration<Ar
                     jobId,
                     isBlank(intervalEnd) ? "" : fileNameSuffixFormatter.format(intervalEnd)));
     logger.info("Destination directory path={}", destinationDirectory);
-    if (!destinationDirectory.exists()) {
+    if (isLocalFileDestination(parameters.getDestination()) && !destinationDirectory.exists()) {
       if (!destinationDirectory.mkdirs()) {
         logger.warn("Unable to create directory {}", destinationDirectory);
       }
     }
 
+    // a time bucket is split into several files by the other rollover policies
+    Function<Document, String> fileNameSuffix = parameters.isRolloverOnTimeBucket() ?
+            document -> fileNameSuffixFormatter.format(document) + "_-_" +
+                    fileNameSuffixFormatter.formatBlockKey(document, parameters.getSolr().getSortColumn()) :
+            fileNameSuffixFormatter::format;
+    String filePrefix = isBlank(shard) ? parameters.getSolr().getCollection() : parameters.getSolr().getCollection() + "_" + shard;
+    DocumentDestination documentDestination;
+    if (parameters.getFormat() == ArchiveFormat.AVRO) {
+      ArchiveSchema archiveSchema = solrDAO.getArchiveSchema();
+      CodecFactory codecFactory = AvroDocumentItemWriter.codecFactory(parameters.getCompression(), parameters.getCompressionLevel());
+      documentDestination = firstDocument -> new AvroDocumentItemWriter(
+              archiveFile(parameters.getDestination(), hdfsFileSystem, s3ObjectStore,
+                      outFile(filePrefix, destinationDirectory, fileNameSuffix.apply(firstDocument), ".avro")),
+              archiveSchema, codecFactory, itemWriterListener);
+    }
+    else if (parameters.getFormat() == ArchiveFormat.PARQUET) {
+      ArchiveSchema archiveSchema = solrDAO.getArchiveSchema();
+      documentDestination = firstDocument -> new ParquetDocumentItemWriter(
+              archiveFile(parameters.getDestination(), hdfsFileSystem, s3ObjectStore,
+                      outFile(filePrefix, destinationDirectory, fileNameSuffix.apply(firstDocument), ".parquet")),
+              archiveSchema, parameters.getCompression(), parameters.getCompressionLevel(), itemWriterListener);
+    }
+    else {
+      CompressionCodec compressionCodec = parameters.compressionCodec().orElse(null);
+      String fileExtension = ".json" + (compressionCodec == null ? "" : compressionCodec.getFileExtension());
+      documentDestination = firstDocument -> new LocalDocumentItemWriter(
+              archiveFile(parameters.getDestination(), hdfsFileSystem, s3ObjectStore,
+                      outFile(filePrefix, destinationDirectory, fileNameSuffix.apply(firstDocument), fileExtension)),
+              compressionCodec, itemWriterListener);
+    }
+
     return new DocumentExporter(
             documentItemReader,
-            firstDocument -> new LocalDocumentItemWriter(
-                    outFile(parameters.getSolr().getCollection(), destinationDirectory, fileNameSuffixFormatter.format(firstDocument)), itemWriterListener),
-            parameters.getWriteBlockSize(), jobContextRepository);
+            documentDestination,
+            parameters.rolloverPolicy(), jobContextRepository, postProcessor, documentWiper,
+            parameters.getCheckpointInterval() == null ? Duration.ZERO : parameters.getCheckpointInterval());
   }
 
   @Bean
@@ -131,33 +220,110 @@ public class DocumentArchivingConfiguration extends AbstractJobsConfiguration<Ar
                                      SolrDAO solrDAO) {
     if (isBlank(parameters.getSolr().getDeleteQueryText()))
       return NOT_DELETE;
+    if (parameters.getSolr().getDeleteBatchSize() > 1 || parameters.getSolr().getDeleteCommitWithin() > 0)
+      return new BatchingDocumentWiper(solrDAO, parameters.getSolr().getDeleteBatchSize(), parameters.getSolr().getDeleteCommitWithin());
     return solrDAO;
   }
 
   @Bean
   @StepScope
-  public SolrDAO solrDAO(@Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties parameters) {
-    return new SolrDAO(parameters.getSolr());
+  public SolrDAO solrDAO(@Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties parameters,
+                         @Value("#{stepExecution.executionContext.get('" + PARTITION_SHARD + "')}") String shard,
+                         CloudSolrClientCache cloudSolrClientCache) {
+    return new SolrDAO(cloudSolrClientCache, parameters.getSolr(), shard);
   }
 
-  private File outFile(String collection, File directoryPath, String suffix) {
-    File file = new File(directoryPath, String.format("%s_-_%s.json", collection, suffix));
-    logger.info("Exporting to temp file {}", file.getAbsolutePath());
-    return file;
+  private File outFile(String collection, File directoryPath, String suffix, String fileExtension) {
+    return new File(directoryPath, String.format("%s_-_%s%s", collection, suffix, fileExtension));
+  }
+
+  private boolean isLocalFileDestination(ExportDestination destination) {
+    return destination == ExportDestination.LOCAL || destination == ExportDestination.HDFS;
+  }
+
+  private ArchiveFile archiveFile(ExportDestination destination, HdfsFileSystem hdfsFileSystem, S3ObjectStore s3ObjectStore, File outFile) {
+    if (destination == ExportDestination.HDFS_STREAMING)
+      return new HdfsArchiveFile(hdfsFileSystem, outFile.getName());
+    if (destination == ExportDestination.S3)
+      return new S3ArchiveFile(s3ObjectStore, outFile.getName());
+
+    logger.info("Exporting to temp file {}", outFile.getAbsolutePath());
+    return new LocalArchiveFile(outFile);
   }
 
   @Bean
   @StepScope
-  public DocumentItemReader reader(ObjectSource<Document> documentSource,
-                                   @Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties properties) {
-    return new DocumentItemReader(documentSource, properties.getReadBlockSize());
+  public HdfsFileSystem hdfsFileSystem(@Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties parameters) {
+    return new HdfsFileSystem(new org.apache.hadoop.conf.Configuration(),
+            parameters.hdfsProperties().orElseThrow(() -> new IllegalStateException("HDFS properties are not provided!")));
+  }
+
+  @Bean
+  @StepScope
+  public ArchiveManifest archiveManifest(@Value("#{stepExecution.jobExecution.jobInstance.jobName}") String jobName,
+                                         @Value("#{stepExecution.jobExecution.jobInstance.instanceId}") Long jobInstanceId,
+                                         @Value("#{stepExecution.stepName}") String stepName,
+                                         InfraManagerDataConfig infraManagerDataConfig) {
+    // executions of the same job instance share the manifest: a restart continues after the last recorded block
+    return new ArchiveManifest(ArchiveManifest.manifestFile(
+            new File(infraManagerDataConfig.getDataFolder(), ArchiveManifest.MANIFEST_FOLDER), jobName, jobInstanceId, stepName));
+  }
+
+  @Bean
+  @StepScope
+  public S3ObjectStore s3ObjectStore(@Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties parameters,
+                                     S3Secrets s3Secrets) {
+    return new S3ObjectStore(
+            parameters.s3Properties().orElseThrow(() -> new IllegalStateException("S3 properties are not provided!")),
+            credentialsProvider(s3Secrets));
+  }
+
+  private AWSCredentialsProvider credentialsProvider(S3Secrets s3Secrets) {
+    Optional<String> accessKey = s3Secrets.getAccessKey().get();
+    Optional<String> secretKey = s3Secrets.getSecretKey().get();
+    if (accessKey.isPresent() && secretKey.isPresent())
+      return new AWSStaticCredentialsProvider(new BasicAWSCredentials(accessKey.get(), secretKey.get()));
+    // instance profile, shared credentials file, etc.
+    return DefaultAWSCredentialsProviderChain.getInstance();
+  }
+
+  @Bean
+  @StepScope
+  public ItemStreamReader<Document> reader(ObjectSource<Document> documentSource,
+                                           @Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties properties,
+                                           @Value("#{stepExecution.executionContext.get('" + PARTITION_START + "')}") String partitionStart,
+                                           @Value("#{stepExecution.executionContext.get('" + PARTITION_END + "')}") String partitionEnd,
+                                           SolrDAO solrDAO,
+                                           ArchiveManifest archiveManifest) {
+    if (properties.getReadMode() == ReadMode.CURSOR) {
+      return new CursorDocumentItemReader(
+              new SolrCursorDocumentSource(solrDAO, start(properties, partitionStart), end(properties, partitionEnd)),
+              properties.getReadBlockSize());
+    }
+    return new DocumentItemReader(documentSource, properties.getReadBlockSize(), properties.getSolr().getSortColumn(), archiveManifest);
   }
 
   @Bean
   @StepScope
   public ObjectSource<Document> documentSource(@Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") ArchivingProperties parameters,
-                                               SolrDAO solrDAO) {
+                                               @Value("#{stepExecution.executionContext.get('" + PARTITION_START + "')}") String partitionStart,
+                                               @Value("#{stepExecution.executionContext.get('" + PARTITION_END + "')}") String partitionEnd,
+                                               SolrDAO solrDAO,
+                                               CloudSolrClientCache cloudSolrClientCache) {
+    if (parameters.getReadMode() == ReadMode.EXPORT)
+      return new SolrExportDocumentSource(cloudSolrClientCache, parameters.getSolr(), start(parameters, partitionStart), end(parameters, partitionEnd));
+
+    SolrDocumentSource solrDocumentSource = new SolrDocumentSource(solrDAO, start(parameters, partitionStart), end(parameters, partitionEnd));
+    if (parameters.getPrefetchDepth() > 0)
+      return new PrefetchingObjectSource<>(solrDocumentSource, parameters.getPrefetchDepth());
+    return solrDocumentSource;
+  }
+
+  private String start(ArchivingProperties parameters, String partitionStart) {
+    return partitionStart != null ? partitionStart : parameters.getStart();
+  }
 
-    return new SolrDocumentSource(solrDAO, parameters.getStart(), computeEnd(parameters.getEnd(), parameters.getTtl()));
+  private String end(ArchivingProperties parameters, String partitionEnd) {
+    return partitionEnd != null ? partitionEnd : computeEnd(parameters.getEnd(), parameters.getTtl());
   }
 }
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.apache.ambari.infra.job.archive.SolrQueryBuilder.computeEnd;
+
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.apache.ambari.infra.job.JobEstimate;
+import org.apache.ambari.infra.job.JobEstimator;
+import org.apache.ambari.infra.job.CloudSolrClientCache;
+import org.apache.ambari.infra.job.SolrEstimationDAO;
+import org.springframework.batch.core.JobParameters;
+
+@Named
+public class DocumentArchivingEstimator implements JobEstimator {
+  // in case of partitioning the history of the export step contains the aggregated read count of the partitions
+  static final String EXPORT_STEP_NAME = "export";
+
+  private final DocumentArchivingPropertyMap documentArchivingPropertyMap;
+  private final CloudSolrClientCache cloudSolrClientCache;
+
+  @Inject
+  public DocumentArchivingEstimator(DocumentArchivingPropertyMap documentArchivingPropertyMap, CloudSolrClientCache cloudSolrClientCache) {
+    this.documentArchivingPropertyMap = documentArchivingPropertyMap;
+    this.cloudSolrClientCache = cloudSolrClientCache;
+  }
+
+  @Override
+  public boolean canEstimate(String jobName) {
+    Map<String, ArchivingProperties> propertyMap = documentArchivingPropertyMap.getSolrDataArchiving();
+    return propertyMap != null && propertyMap.containsKey(jobName);
+  }
+
+  @Override
+  public JobEstimate estimate(String jobName, JobParameters jobParameters) {
+    ArchivingProperties parameters = documentArchivingPropertyMap.getSolrDataArchiving().get(jobName).merge(jobParameters);
+    parameters.validate();
+
+    SolrProperties solrProperties = parameters.getSolr();
+    JobEstimate estimate = new SolrEstimationDAO(cloudSolrClientCache, solrProperties.getZooKeeperConnectionString(), solrProperties.getCollection())
+            .estimate(solrProperties.toQueryBuilder()
+                    .setInterval(parameters.getStart(), computeEnd(parameters.getEnd(), parameters.getTtl()))
+                    .build());
+    estimate.setJobName(jobName);
+    estimate.setFileCount(fileCount(estimate, parameters));
+    estimate.setHistoryStepName(EXPORT_STEP_NAME);
+    return estimate;
+  }
+
+  static long fileCount(JobEstimate estimate, ArchivingProperties parameters) {
+    if (parameters.getPartitionMode() != PartitionMode.SHARD)
+      return fileCount(estimate.getDocumentCount(), parameters.getWriteBlockSize());
+
+    // every shard partition writes its own files
+    long fileCount = 0;
+    for (long shardDocumentCount : estimate.getDocumentCountPerShard().values())
+      fileCount += fileCount(shardDocumentCount, parameters.getWriteBlockSize());
+    return fileCount;
+  }
+
+  private static long fileCount(long documentCount, int writeBlockSize) {
+    return (documentCount + writeBlockSize - 1) / writeBlockSize;
+  }
+}
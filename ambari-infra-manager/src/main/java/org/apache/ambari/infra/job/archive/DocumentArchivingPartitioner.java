@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * Splits the archiving interval into partitions: one per shard or one per time slice.
+ * The partition specific values are stored in the step execution context of the partitions.
+ */
+public class DocumentArchivingPartitioner implements Partitioner {
+  private static final Logger logger = LogManager.getLogger(DocumentArchivingPartitioner.class);
+
+  public static final String PARTITION_START = "partitionStart";
+  public static final String PARTITION_END = "partitionEnd";
+  public static final String PARTITION_SHARD = "partitionShard";
+
+  private final PartitionMode partitionMode;
+  private final String start;
+  private final String end;
+  private final SolrDAO solrDAO;
+
+  public DocumentArchivingPartitioner(PartitionMode partitionMode, String start, String end, SolrDAO solrDAO) {
+    this.partitionMode = partitionMode;
+    this.start = start;
+    this.end = end;
+    this.solrDAO = solrDAO;
+  }
+
+  @Override
+  public Map<String, ExecutionContext> partition(int gridSize) {
+    switch (partitionMode) {
+      case SHARD:
+        return partitionByShard();
+      case TIME:
+        return partitionByTime(gridSize);
+      default:
+        return singlePartition();
+    }
+  }
+
+  private Map<String, ExecutionContext> partitionByShard() {
+    List<String> shards = solrDAO.getShardNames();
+    Map<String, ExecutionContext> partitions = new HashMap<>();
+    for (String shard : shards) {
+      ExecutionContext executionContext = executionContext(start, end);
+      executionContext.putString(PARTITION_SHARD, shard);
+      partitions.put("partition_" + shard, executionContext);
+    }
+    logger.info("Archiving interval [{} TO {}] is split into {} shard partitions", start, end, partitions.size());
+    return partitions;
+  }
+
+  private Map<String, ExecutionContext> partitionByTime(int gridSize) {
+    if (isBlank(start) || "*".equals(start) || isBlank(end) || "*".equals(end) || gridSize <= 1) {
+      logger.warn("Unable to split interval [{} TO {}] to {} time slices. Start and end must be specified.", start, end, gridSize);
+      return singlePartition();
+    }
+
+    List<TimeInterval> slices = TimeInterval.split(start, end, gridSize);
+    Map<String, ExecutionContext> partitions = new HashMap<>();
+    for (int i = 0; i < slices.size(); ++i)
+      partitions.put("partition" + i, executionContext(slices.get(i).getStart(), slices.get(i).getEnd()));
+    logger.info("Archiving interval [{} TO {}] is split into {} time slices", start, end, partitions.size());
+    return partitions;
+  }
+
+  private Map<String, ExecutionContext> singlePartition() {
+    Map<String, ExecutionContext> partitions = new HashMap<>();
+    partitions.put("partition0", executionContext(start, end));
+    return partitions;
+  }
+
+  private ExecutionContext executionContext(String start, String end) {
+    ExecutionContext executionContext = new ExecutionContext();
+    if (start != null)
+      executionContext.putString(PARTITION_START, start);
+    if (end != null)
+      executionContext.putString(PARTITION_END, end);
+    return executionContext;
+  }
+}
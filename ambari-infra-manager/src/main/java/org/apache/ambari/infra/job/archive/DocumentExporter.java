@@ -18,6 +18,11 @@
  */
 package org.apache.ambari.infra.job.archive;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+
 import org.apache.ambari.infra.job.JobContextRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -39,14 +44,33 @@ public class DocumentExporter implements Tasklet, StepExecutionListener {
   private boolean complete = false;
   private final ItemStreamReader<Document> documentReader;
   private final DocumentDestination documentDestination;
-  private final int writeBlockSize;
+  private final RolloverPolicy rolloverPolicy;
   private final JobContextRepository jobContextRepository;
+  private final AsyncItemWriterListener postProcessor;
+  private final DocumentWiper documentWiper;
+  private final long checkpointIntervalNanos;
+  private final Deque<ExecutionContext> pendingCheckpoints = new ArrayDeque<>();
+  private long lastPersistedNanos;
 
-  public DocumentExporter(ItemStreamReader<Document> documentReader, DocumentDestination documentDestination, int writeBlockSize, JobContextRepository jobContextRepository) {
+  /**
+   * @param rolloverPolicy     decides when the current file is closed and a new one is opened
+   * @param postProcessor      if specified the written files are post-processed asynchronously by this listener and
+   *                           the reader position is persisted only after the post-processing of the file is finished
+   * @param documentWiper      if specified it is flushed when the step stops writing files and its postponed deletions
+   *                           are sent before every persisted checkpoint
+   * @param checkpointInterval the reader position is persisted at most once in this interval. The position is always
+   *                           persisted when the step stops or fails, a crash may export the last files again.
+   */
+  public DocumentExporter(ItemStreamReader<Document> documentReader, DocumentDestination documentDestination, RolloverPolicy rolloverPolicy,
+                          JobContextRepository jobContextRepository, AsyncItemWriterListener postProcessor, DocumentWiper documentWiper,
+                          Duration checkpointInterval) {
+    this.checkpointIntervalNanos = checkpointInterval.toNanos();
     this.documentReader = documentReader;
     this.documentDestination = documentDestination;
-    this.writeBlockSize = writeBlockSize;
+    this.rolloverPolicy = rolloverPolicy;
     this.jobContextRepository = jobContextRepository;
+    this.postProcessor = postProcessor;
+    this.documentWiper = documentWiper;
   }
 
   @Override
@@ -69,49 +93,134 @@ public class DocumentExporter implements Tasklet, StepExecutionListener {
     StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
     ExecutionContext executionContext = stepExecution.getExecutionContext();
     documentReader.open(executionContext);
+    lastPersistedNanos = System.nanoTime();
 
     DocumentItemWriter writer = null;
     int writtenCount = 0;
     try {
       Document document;
       while ((document = documentReader.read()) != null) {
-        if (writer != null && writtenCount >= writeBlockSize) {
-          stepExecution = jobContextRepository.getStepExecution(stepExecution.getJobExecutionId(), stepExecution.getId());
-          if (stepExecution.isTerminateOnly()) {
+        // the read count of the history is used for projecting the duration of the next executions
+        contribution.incrementReadCount();
+        if (writer != null && rolloverPolicy.shouldRollover(writer, writtenCount, document)) {
+          if (jobContextRepository.isStopRequested(stepExecution)) {
             logger.info("Received stop signal.");
             writer.revert();
             writer = null;
+            awaitPostProcessing(stepExecution, executionContext);
+            flushDocumentWiper();
             return RepeatStatus.CONTINUABLE;
           }
 
           writer.close();
           writer = null;
           writtenCount = 0;
-          documentReader.update(executionContext);
-          jobContextRepository.updateExecutionContext(stepExecution);
+          checkpoint(stepExecution, executionContext);
         }
 
-        if (writer == null)
+        if (writer == null) {
           writer = documentDestination.open(document);
+          rolloverPolicy.opened(document);
+        }
 
         writer.write(document);
         ++writtenCount;
       }
+
+      if (writer != null) {
+        writer.close();
+        writer = null;
+        if (postProcessor != null)
+          checkpoint(stepExecution, executionContext);
+      }
+      awaitPostProcessing(stepExecution, executionContext);
+      flushDocumentWiper();
     }
     catch (Exception e) {
       if (writer != null) {
         writer.revert();
         writer = null;
       }
+      discardPostProcessing(e);
+      try {
+        // the ranges already archived and checkpointed must be deleted
+        flushDocumentWiper();
+      }
+      catch (RuntimeException flushException) {
+        e.addSuppressed(flushException);
+      }
       throw e;
     }
     finally {
-      if (writer != null)
-        writer.close();
+      pendingCheckpoints.clear();
+      if (postProcessor != null)
+        postProcessor.close();
       documentReader.close();
     }
 
     complete = true;
     return RepeatStatus.FINISHED;
   }
+
+  private void checkpoint(StepExecution stepExecution, ExecutionContext executionContext) {
+    if (postProcessor == null) {
+      documentReader.update(executionContext);
+      persistCheckpoint(stepExecution);
+      return;
+    }
+
+    ExecutionContext checkpoint = new ExecutionContext();
+    documentReader.update(checkpoint);
+    pendingCheckpoints.add(checkpoint);
+    while (postProcessor.pollProcessed(false))
+      commitCheckpoint(stepExecution, executionContext);
+  }
+
+  private void awaitPostProcessing(StepExecution stepExecution, ExecutionContext executionContext) {
+    if (postProcessor == null)
+      return;
+
+    while (postProcessor.pollProcessed(true))
+      commitCheckpoint(stepExecution, executionContext);
+  }
+
+  // the checkpoint must not advance beyond a failed block: in-flight files are waited for but not committed
+  private void discardPostProcessing(Exception cause) {
+    if (postProcessor == null)
+      return;
+
+    while (postProcessor.getInFlightCount() > 0) {
+      try {
+        postProcessor.pollProcessed(true);
+      }
+      catch (RuntimeException e) {
+        cause.addSuppressed(e);
+      }
+    }
+  }
+
+  private void flushDocumentWiper() {
+    if (documentWiper != null)
+      documentWiper.flush();
+  }
+
+  private void commitCheckpoint(StepExecution stepExecution, ExecutionContext executionContext) {
+    ExecutionContext checkpoint = pendingCheckpoints.poll();
+    if (checkpoint == null)
+      return;
+    for (Map.Entry<String, Object> entry : checkpoint.entrySet())
+      executionContext.put(entry.getKey(), entry.getValue());
+    persistCheckpoint(stepExecution);
+  }
+
+  // the step persists the execution context when the tasklet returns or fails: only the intermediate checkpoints are throttled
+  private void persistCheckpoint(StepExecution stepExecution) {
+    long now = System.nanoTime();
+    if (now - lastPersistedNanos < checkpointIntervalNanos)
+      return;
+    if (documentWiper != null)
+      documentWiper.beforeCheckpoint();
+    jobContextRepository.updateExecutionContext(stepExecution);
+    lastPersistedNanos = now;
+  }
 }
@@ -20,82 +20,75 @@ package org.apache.ambari.infra.job.archive;
 
 import org.apache.ambari.infra.job.CloseableIterator;
 import org.apache.ambari.infra.job.ObjectSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.batch.item.ExecutionContext;
-import org.springframework.batch.item.ItemStreamException;
-import org.springframework.batch.item.support.AbstractItemStreamItemReader;
-import org.springframework.batch.repeat.CompletionPolicy;
-import org.springframework.batch.repeat.RepeatContext;
-import org.springframework.batch.repeat.RepeatStatus;
-import org.springframework.batch.repeat.context.RepeatContextSupport;
 import org.springframework.util.ClassUtils;
 
-public class DocumentItemReader extends AbstractItemStreamItemReader<Document> implements CompletionPolicy {
+public class DocumentItemReader extends AbstractDocumentItemReader<CloseableIterator<Document>> {
+
+  private static final Logger logger = LogManager.getLogger(DocumentItemReader.class);
 
   public final static String POSITION = "last-read";
 
   private final ObjectSource<Document> documentSource;
-  private final int readBlockSize;
+  private final String[] positionFields;
+  private final ArchiveManifest manifest;
 
-  private CloseableIterator<Document> documentIterator = null;
-  private int count = 0;
-  private boolean eof = false;
   private Document current = null;
   private Document previous = null;
 
   public DocumentItemReader(ObjectSource<Document> documentSource, int readBlockSize) {
-    this.documentSource = documentSource;
-    this.readBlockSize = readBlockSize;
-    setName(ClassUtils.getShortName(DocumentItemReader.class));
+    this(documentSource, readBlockSize, null);
   }
 
-  @Override
-  public Document read() throws Exception {
-    if (documentIterator == null)
-      openStream();
-    Document next = getNext();
-    if (next == null && count > readBlockSize) {
-      openStream();
-      next = getNext();
-    }
-    eof = next == null;
-    if (eof && documentIterator != null)
-      documentIterator.close();
+  /**
+   * @param positionFields if specified only these fields of the last read document are stored as position: the
+   *                       fields referenced by the filter query (the sort columns) are enough to continue reading
+   */
+  public DocumentItemReader(ObjectSource<Document> documentSource, int readBlockSize, String[] positionFields) {
+    this(documentSource, readBlockSize, positionFields, null);
+  }
 
-    previous = current;
-    current = next;
-    return current;
+  /**
+   * @param manifest if specified and it has entries, reading continues after the last document of the last block
+   *                 recorded without gap: the blocks written after the last persisted checkpoint are not exported
+   *                 again but a block which failed while a later one was recorded is
+   */
+  public DocumentItemReader(ObjectSource<Document> documentSource, int readBlockSize, String[] positionFields, ArchiveManifest manifest) {
+    super(readBlockSize);
+    this.documentSource = documentSource;
+    this.positionFields = positionFields;
+    this.manifest = manifest;
+    setName(ClassUtils.getShortName(DocumentItemReader.class));
   }
 
-  private Document getNext() {
-    ++count;
-    return documentIterator.next();
+  @Override
+  protected CloseableIterator<Document> openFirstBlock(int readBlockSize) {
+    return documentSource.open(current, readBlockSize);
   }
 
-  private void openStream() {
-    closeStream();
-    documentIterator = documentSource.open(current, readBlockSize);
-    count = 0;
+  @Override
+  protected CloseableIterator<Document> openNextBlock(CloseableIterator<Document> finishedIterator, int readBlockSize) {
+    return documentSource.open(current, readBlockSize);
   }
 
-  private void closeStream() {
-    if (documentIterator == null)
-      return;
-    try {
-      documentIterator.close();
-    }
-    catch (Exception e) {
-      throw new RuntimeException(e);
-    }
-    documentIterator = null;
+  @Override
+  protected void afterRead(Document document, int offset) {
+    previous = current;
+    current = document;
   }
 
   @Override
-  public void open(ExecutionContext executionContext) {
-    super.open(executionContext);
+  protected void restorePosition(ExecutionContext executionContext) {
     current = null;
     previous = null;
-    eof = false;
-    documentIterator = null;
+    if (manifest != null && manifest.getResumeEntry().isPresent()) {
+      ManifestEntry resumeEntry = manifest.getResumeEntry().get();
+      logger.info("Continue reading after the block {} of the manifest", resumeEntry.getFile());
+      current = resumeEntry.getLastDocument();
+      return;
+    }
     if (!executionContext.containsKey(POSITION))
       return;
 
@@ -103,35 +96,14 @@ public class DocumentItemReader extends AbstractItemStreamItemReader<Document> i
   }
 
   @Override
-  public void update(ExecutionContext executionContext) throws ItemStreamException {
-    super.update(executionContext);
+  protected void storePosition(ExecutionContext executionContext) {
     if (previous != null)
-      executionContext.put(POSITION, previous);
-  }
-
-  @Override
-  public void close() {
-    closeStream();
-  }
-
-  @Override
-  public boolean isComplete(RepeatContext context, RepeatStatus result) {
-    return eof;
+      executionContext.put(POSITION, position(previous));
   }
 
-  @Override
-  public boolean isComplete(RepeatContext context) {
-    return eof;
-  }
-
-  @Override
-  public RepeatContext start(RepeatContext parent) {
-    return new RepeatContextSupport(parent);
-  }
-
-  @Override
-  public void update(RepeatContext context) {
-    if (eof)
-      context.setCompleteOnly();
+  private Document position(Document document) {
+    if (positionFields == null || positionFields.length == 0)
+      return document;
+    return document.select(positionFields);
   }
 }
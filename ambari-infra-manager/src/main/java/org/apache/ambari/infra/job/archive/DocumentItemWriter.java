@@ -22,4 +22,14 @@ public interface DocumentItemWriter {
   void write(Document document);
   void revert();
   void close();
+
+  /**
+   * @return the number of bytes written to the file so far
+   */
+  long getWrittenByteCount();
+
+  /**
+   * @return the number of bytes written so far before compression
+   */
+  long getUncompressedByteCount();
 }
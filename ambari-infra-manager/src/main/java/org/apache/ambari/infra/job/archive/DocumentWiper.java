@@ -20,4 +20,17 @@ package org.apache.ambari.infra.job.archive;
 
 public interface DocumentWiper {
   void delete(Document firstDocument, Document lastDocument);
+
+  /**
+   * Deletes the ranges which deletion was postponed. Called when the export step stops writing files.
+   */
+  default void flush() {
+  }
+
+  /**
+   * Sends the postponed deletions to Solr. Called before the reader position is persisted: a restarted job does not
+   * archive the ranges behind the persisted position again, so their deletion must not be lost.
+   */
+  default void beforeCheckpoint() {
+  }
 }
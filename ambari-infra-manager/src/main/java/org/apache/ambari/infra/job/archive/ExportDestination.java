@@ -20,5 +20,13 @@ package org.apache.ambari.infra.job.archive;
 
 public enum ExportDestination {
   LOCAL,
-  HDFS
+  HDFS,
+  /**
+   * The files are written directly to HDFS without a local copy.
+   */
+  HDFS_STREAMING,
+  /**
+   * The files are uploaded to an S3 (or S3 compatible) bucket in parts while they are written.
+   */
+  S3
 }
@@ -60,4 +60,22 @@ public class FileNameSuffixFormatter {
     OffsetDateTime date = OffsetDateTime.parse(value, SOLR_DATETIME_FORMATTER);
     return date.format(dateFormat);
   }
+
+  /**
+   * Identifies a block by the key of its first document: several blocks of the same time bucket get different
+   * names while exporting the same block again reuses its name.
+   */
+  public String formatBlockKey(Document document, String... keyColumns) {
+    requireNonNull(document, "Can not format block key: input document is null!");
+
+    StringBuilder blockKey = new StringBuilder();
+    for (String keyColumn : keyColumns) {
+      if (isBlank(document.getString(keyColumn)))
+        throw new IllegalArgumentException("The specified document does not have a column " + keyColumn + " or it's value is blank!");
+      if (blockKey.length() > 0)
+        blockKey.append('_');
+      blockKey.append(document.getString(keyColumn).replaceAll("[^A-Za-z0-9.-]", "-"));
+    }
+    return blockKey.toString();
+  }
 }
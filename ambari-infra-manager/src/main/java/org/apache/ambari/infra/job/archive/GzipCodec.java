@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
+
+public class GzipCodec implements CompressionCodec {
+  private final int level;
+
+  public GzipCodec(int level) {
+    this.level = level;
+  }
+
+  @Override
+  public String getFileExtension() {
+    return ".gz";
+  }
+
+  @Override
+  public OutputStream compress(OutputStream outputStream) throws IOException {
+    GzipParameters parameters = new GzipParameters();
+    parameters.setCompressionLevel(level);
+    return new GzipCompressorOutputStream(outputStream, parameters);
+  }
+}
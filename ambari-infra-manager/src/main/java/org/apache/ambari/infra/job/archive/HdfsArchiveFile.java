@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * File written directly to HDFS. The content is streamed to a temporary file which is renamed when completed.
+ */
+public class HdfsArchiveFile implements ArchiveFile {
+  private final HdfsFileSystem hdfsFileSystem;
+  private final String fileName;
+
+  public HdfsArchiveFile(HdfsFileSystem hdfsFileSystem, String fileName) {
+    this.hdfsFileSystem = hdfsFileSystem;
+    this.fileName = fileName;
+  }
+
+  @Override
+  public OutputStream create() throws IOException {
+    return hdfsFileSystem.create(fileName);
+  }
+
+  @Override
+  public File complete() throws IOException {
+    return new File(hdfsFileSystem.commit(fileName).toUri().getPath());
+  }
+
+  @Override
+  public void delete() {
+    hdfsFileSystem.abort(fileName);
+  }
+}
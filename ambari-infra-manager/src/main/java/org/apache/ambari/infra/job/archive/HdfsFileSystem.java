@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Connection to the HDFS directory of an archiving or restoring step. The user is logged in and the file system
+ * instance is created once and shared by all the files of the step.
+ */
+public class HdfsFileSystem implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(HdfsFileSystem.class);
+
+  private static final String TEMP_FILE_PREFIX = ".";
+  private static final String TEMP_FILE_SUFFIX = ".inprogress";
+
+  private final HdfsProperties properties;
+  private final UserGroupInformation userGroupInformation;
+  private final FileSystem fileSystem;
+
+  public HdfsFileSystem(Configuration configuration, HdfsProperties properties) {
+    this.properties = properties;
+
+    if (new ClassPathResource("core-site.xml").exists()) {
+      LOG.info("Hdfs core-site.xml is found in the classpath.");
+    }
+    else {
+      LOG.warn("Hdfs core-site.xml is not found in the classpath. Using defaults.");
+    }
+    if (new ClassPathResource("hdfs-site.xml").exists()) {
+      LOG.info("Hdfs hdfs-site.xml is found in the classpath.");
+    }
+    else {
+      LOG.warn("Hdfs hdfs-site.xml is not found in the classpath. Using defaults.");
+    }
+    if (isNotBlank(properties.getHdfsEndpoint())) {
+      LOG.info("Hdfs endpoint is defined in Infra Manager properties. Setting fs.defaultFS to {}", properties.getHdfsEndpoint());
+      configuration.set("fs.defaultFS", properties.getHdfsEndpoint());
+    }
+
+    try {
+      UserGroupInformation.setConfiguration(configuration);
+      if ("kerberos".equalsIgnoreCase(configuration.get("hadoop.security.authentication")))
+        userGroupInformation = UserGroupInformation.loginUserFromKeytabAndReturnUGI(
+                properties.getHdfsKerberosPrincipal(), properties.getHdfsKerberosKeytabPath());
+      else
+        userGroupInformation = UserGroupInformation.getCurrentUser();
+      fileSystem = doAs(() -> FileSystem.newInstance(configuration));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Creates the temporary file of the specified file in the destination directory.
+   */
+  public FSDataOutputStream create(String fileName) throws IOException {
+    Path tempPath = tempPath(fileName);
+    LOG.info("Writing to hdfs temp file {}", tempPath);
+    return doAs(() -> fileSystem.create(tempPath, true,
+            fileSystem.getConf().getInt("io.file.buffer.size", 4096),
+            properties.getHdfsReplication() > 0 ? properties.getHdfsReplication() : fileSystem.getDefaultReplication(tempPath),
+            properties.getHdfsBlockSize() > 0 ? properties.getHdfsBlockSize() : fileSystem.getDefaultBlockSize(tempPath)));
+  }
+
+  /**
+   * Moves the written temporary file to its final location.
+   * @return the path of the file in the destination directory
+   */
+  public Path commit(String fileName) throws IOException {
+    Path tempPath = tempPath(fileName);
+    Path destination = destination(fileName);
+    return doAs(() -> {
+      if (fileSystem.exists(destination))
+        throw new UnsupportedOperationException(String.format("File '%s' already exists!", destination));
+      if (!fileSystem.rename(tempPath, destination))
+        throw new IOException(String.format("Unable to rename '%s' to '%s'", tempPath, destination));
+      fileSystem.setPermission(destination, properties.getHdfsFilePermission());
+      return destination;
+    });
+  }
+
+  public void abort(String fileName) {
+    Path tempPath = tempPath(fileName);
+    try {
+      doAs(() -> fileSystem.delete(tempPath, false));
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Unable to delete hdfs temp file {}", tempPath, e);
+    }
+  }
+
+  public Path copyFromLocalFile(File inputFile) throws IOException {
+    Path destination = destination(inputFile.getName());
+    return doAs(() -> {
+      if (fileSystem.exists(destination))
+        throw new UnsupportedOperationException(String.format("File '%s' already exists!", destination));
+      fileSystem.copyFromLocalFile(new Path(inputFile.getAbsolutePath()), destination);
+      fileSystem.setPermission(destination, properties.getHdfsFilePermission());
+      return destination;
+    });
+  }
+
+  /**
+   * Lists the names of the committed files of the directory: the temporary files are skipped.
+   */
+  public List<String> listFileNames() throws IOException {
+    return doAs(() -> {
+      List<String> fileNames = new ArrayList<>();
+      for (FileStatus fileStatus : fileSystem.listStatus(new Path(properties.getHdfsDestinationDirectory()))) {
+        String fileName = fileStatus.getPath().getName();
+        if (fileStatus.isFile() && !(fileName.startsWith(TEMP_FILE_PREFIX) && fileName.endsWith(TEMP_FILE_SUFFIX)))
+          fileNames.add(fileName);
+      }
+      return fileNames;
+    });
+  }
+
+  public InputStream open(String fileName) throws IOException {
+    return doAs(() -> fileSystem.open(destination(fileName)));
+  }
+
+  private Path destination(String fileName) {
+    return new Path(properties.getHdfsDestinationDirectory(), fileName);
+  }
+
+  private Path tempPath(String fileName) {
+    return new Path(properties.getHdfsDestinationDirectory(), TEMP_FILE_PREFIX + fileName + TEMP_FILE_SUFFIX);
+  }
+
+  private <T> T doAs(PrivilegedExceptionAction<T> action) throws IOException {
+    try {
+      // the ticket of a long running step may expire
+      if (userGroupInformation.isFromKeytab())
+        userGroupInformation.checkTGTAndReloginFromKeytab();
+      return userGroupInformation.doAs(action);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    fileSystem.close();
+  }
+}
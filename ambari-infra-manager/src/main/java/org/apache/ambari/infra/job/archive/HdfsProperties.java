@@ -31,13 +31,26 @@ public class HdfsProperties {
   private final FsPermission hdfsFilePermission;
   private final String hdfsKerberosPrincipal;
   private final String hdfsKerberosKeytabPath;
+  private final short hdfsReplication;
+  private final long hdfsBlockSize;
 
   public HdfsProperties(String hdfsEndpoint, String hdfsDestinationDirectory, FsPermission hdfsFilePermission, String hdfsKerberosPrincipal, String hdfsKerberosKeytabPath) {
+    this(hdfsEndpoint, hdfsDestinationDirectory, hdfsFilePermission, hdfsKerberosPrincipal, hdfsKerberosKeytabPath, (short) 0, 0);
+  }
+
+  /**
+   * @param hdfsReplication replication of the written files, the default of the file system is used if it is 0
+   * @param hdfsBlockSize block size of the written files, the default of the file system is used if it is 0
+   */
+  public HdfsProperties(String hdfsEndpoint, String hdfsDestinationDirectory, FsPermission hdfsFilePermission, String hdfsKerberosPrincipal, String hdfsKerberosKeytabPath,
+                        short hdfsReplication, long hdfsBlockSize) {
     this.hdfsEndpoint = hdfsEndpoint;
     this.hdfsDestinationDirectory = hdfsDestinationDirectory;
     this.hdfsFilePermission = hdfsFilePermission == null ? new FsPermission(DEFAULT_FILE_PERMISSION) : hdfsFilePermission;
     this.hdfsKerberosPrincipal = hdfsKerberosPrincipal;
     this.hdfsKerberosKeytabPath = hdfsKerberosKeytabPath;
+    this.hdfsReplication = hdfsReplication;
+    this.hdfsBlockSize = hdfsBlockSize;
   }
 
   public String getHdfsEndpoint() {
@@ -60,6 +73,14 @@ public class HdfsProperties {
     return hdfsKerberosKeytabPath;
   }
 
+  public short getHdfsReplication() {
+    return hdfsReplication;
+  }
+
+  public long getHdfsBlockSize() {
+    return hdfsBlockSize;
+  }
+
   @Override
   public String toString() {
     return "HdfsProperties{" +
@@ -68,6 +89,8 @@ public class HdfsProperties {
             ", hdfsFilePermission=" + hdfsFilePermission +
             ", hdfsKerberosPrincipal='" + hdfsKerberosPrincipal + '\'' +
             ", hdfsKerberosKeytabPath='" + hdfsKerberosKeytabPath + '\'' +
+            ", hdfsReplication=" + hdfsReplication +
+            ", hdfsBlockSize=" + hdfsBlockSize +
             '}';
   }
 
@@ -80,5 +103,9 @@ public class HdfsProperties {
 
     if (isBlank(hdfsKerberosPrincipal) && isNotBlank(hdfsKerberosKeytabPath))
       throw new IllegalArgumentException("The property hdfsKerberosKeytabPath is specified but hdfsKerberosPrincipal is blank!");
+    if (hdfsReplication < 0)
+      throw new IllegalArgumentException("The property hdfsReplication can not be negative!");
+    if (hdfsBlockSize < 0)
+      throw new IllegalArgumentException("The property hdfsBlockSize can not be negative!");
   }
 }
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Rolls over when the file has been open for longer than the interval. It limits the size of the work lost
+ * when a slow export is stopped or fails.
+ */
+public class IntervalRolloverPolicy implements RolloverPolicy {
+  private final Duration interval;
+  private final Clock clock;
+  private Instant openedAt;
+
+  public IntervalRolloverPolicy(Duration interval) {
+    this(interval, Clock.systemUTC());
+  }
+
+  public IntervalRolloverPolicy(Duration interval, Clock clock) {
+    this.interval = interval;
+    this.clock = clock;
+  }
+
+  @Override
+  public void opened(Document firstDocument) {
+    openedAt = clock.instant();
+  }
+
+  @Override
+  public boolean shouldRollover(DocumentItemWriter writer, int writtenCount, Document nextDocument) {
+    return openedAt != null && !clock.instant().isBefore(openedAt.plus(interval));
+  }
+}
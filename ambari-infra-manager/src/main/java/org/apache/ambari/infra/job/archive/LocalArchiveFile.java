@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+public class LocalArchiveFile implements ArchiveFile {
+  private static final Logger logger = LogManager.getLogger(LocalArchiveFile.class);
+
+  private final File file;
+
+  public LocalArchiveFile(File file) {
+    this.file = file;
+  }
+
+  @Override
+  public OutputStream create() throws IOException {
+    return new BufferedOutputStream(new FileOutputStream(file));
+  }
+
+  @Override
+  public File complete() {
+    return file;
+  }
+
+  @Override
+  public void delete() {
+    if (!file.delete())
+      logger.warn("File {} was not deleted. Exists: {}", file.getAbsolutePath(), file.exists());
+  }
+}
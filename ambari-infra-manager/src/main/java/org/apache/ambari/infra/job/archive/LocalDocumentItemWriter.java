@@ -18,41 +18,58 @@
  */
 package org.apache.ambari.infra.job.archive;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
-import java.io.UnsupportedEncodingException;
+import java.util.List;
+import java.util.zip.CheckedOutputStream;
 
 import org.apache.commons.io.IOUtils;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.hadoop.util.PureJavaCrc32C;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class LocalDocumentItemWriter implements DocumentItemWriter {
-  private static final Logger logger = LogManager.getLogger(LocalDocumentItemWriter.class);
-
   private static final ObjectMapper json = new ObjectMapper();
-  private static final String ENCODING = "UTF-8";
 
-  private final File outFile;
-  private final BufferedWriter bufferedWriter;
+  private final ArchiveFile outFile;
+  private final JsonGenerator jsonGenerator;
   private final ItemWriterListener itemWriterListener;
+  private final CountingOutputStream writtenBytes;
+  private final CheckedOutputStream checksum;
+  private final CountingOutputStream uncompressedBytes;
   private Document firstDocument = null;
   private Document lastDocument = null;
+  private int documentCount = 0;
 
   public LocalDocumentItemWriter(File outFile, ItemWriterListener itemWriterListener) {
+    this(outFile, null, itemWriterListener);
+  }
+
+  /**
+   * @param compressionCodec if specified the documents are compressed while written to the outFile
+   */
+  public LocalDocumentItemWriter(File outFile, CompressionCodec compressionCodec, ItemWriterListener itemWriterListener) {
+    this(new LocalArchiveFile(outFile), compressionCodec, itemWriterListener);
+  }
+
+  public LocalDocumentItemWriter(ArchiveFile outFile, CompressionCodec compressionCodec, ItemWriterListener itemWriterListener) {
     this.itemWriterListener = itemWriterListener;
     this.outFile = outFile;
+    OutputStream outputStream = null;
     try {
-      this.bufferedWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outFile), ENCODING));
-    } catch (UnsupportedEncodingException e) {
-      throw new RuntimeException(e);
-    } catch (FileNotFoundException e) {
+      outputStream = writtenBytes = new CountingOutputStream(checksum = new CheckedOutputStream(outFile.create(), new PureJavaCrc32C()));
+      if (compressionCodec != null)
+        outputStream = compressionCodec.compress(outputStream);
+      outputStream = uncompressedBytes = new CountingOutputStream(outputStream);
+      this.jsonGenerator = json.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+      this.jsonGenerator.setRootValueSeparator(null);
+    } catch (IOException e) {
+      IOUtils.closeQuietly(outputStream);
       throw new UncheckedIOException(e);
     }
   }
@@ -60,32 +77,92 @@ public class LocalDocumentItemWriter implements DocumentItemWriter {
   @Override
   public void write(Document document) {
     try {
-      bufferedWriter.write(json.writeValueAsString(document));
-      bufferedWriter.newLine();
+      writeDocument(document);
 
       if (firstDocument == null)
         firstDocument = document;
 
       lastDocument = document;
+      ++documentCount;
     }
     catch (IOException e) {
       throw new UncheckedIOException(e);
     }
   }
 
+  /**
+   * Streams the fields of the document to the generator of the file: no String, map or serializer lookup per
+   * document. Values of other types than the ones produced by {@link SolrDocumentIterator} are written by the
+   * {@link ObjectMapper}.
+   */
+  private void writeDocument(Document document) throws IOException {
+    jsonGenerator.writeStartObject();
+    // forEach does not wrap the entries of the unmodifiable field map
+    document.getFieldMap().forEach((name, value) -> {
+      try {
+        jsonGenerator.writeFieldName(name);
+        writeValue(value);
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    jsonGenerator.writeEndObject();
+    jsonGenerator.writeRaw('\n');
+  }
+
+  private void writeValue(Object value) throws IOException {
+    if (value == null) {
+      jsonGenerator.writeNull();
+    }
+    else if (value instanceof String) {
+      jsonGenerator.writeString((String) value);
+    }
+    else if (value instanceof Integer) {
+      jsonGenerator.writeNumber((Integer) value);
+    }
+    else if (value instanceof Long) {
+      jsonGenerator.writeNumber((Long) value);
+    }
+    else if (value instanceof Float || value instanceof Double || value instanceof Boolean) {
+      // the json archives store these as strings
+      jsonGenerator.writeString(value.toString());
+    }
+    else if (value instanceof List) {
+      jsonGenerator.writeStartArray();
+      for (Object element : (List<?>) value)
+        writeValue(element);
+      jsonGenerator.writeEndArray();
+    }
+    else {
+      jsonGenerator.writeObject(value);
+    }
+  }
+
+  @Override
+  public long getWrittenByteCount() {
+    return writtenBytes.getByteCount();
+  }
+
+  @Override
+  public long getUncompressedByteCount() {
+    return uncompressedBytes.getByteCount();
+  }
+
   @Override
   public void revert() {
-    IOUtils.closeQuietly(bufferedWriter);
-    if (!outFile.delete())
-      logger.warn("File {} was not deleted. Exists: {}", outFile.getAbsolutePath(), outFile.exists());
+    IOUtils.closeQuietly(jsonGenerator);
+    outFile.delete();
   }
 
   @Override
   public void close() {
     try {
-      bufferedWriter.close();
+      jsonGenerator.close();
+      File completedFile = outFile.complete();
       if (itemWriterListener != null)
-        itemWriterListener.onCompleted(new WriteCompletedEvent(outFile, firstDocument, lastDocument));
+        itemWriterListener.onCompleted(new WriteCompletedEvent(
+                completedFile, firstDocument, lastDocument, documentCount, writtenBytes.getByteCount(), checksum.getChecksum().getValue()));
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
@@ -18,19 +18,52 @@
  */
 package org.apache.ambari.infra.job.archive;
 
+import java.io.File;
+
 public class LocalItemWriterListener implements ItemWriterListener {
   private final FileAction fileAction;
   private final DocumentWiper documentWiper;
+  private final ArchiveManifest manifest;
+  private final String[] keyFields;
+  private final Long jobExecutionId;
 
   public LocalItemWriterListener(FileAction fileAction, DocumentWiper documentWiper) {
+    this(fileAction, documentWiper, null, null, null);
+  }
+
+  /**
+   * @param manifest if specified the block is recorded after the file action succeeded and before the documents
+   *                 are deleted
+   * @param keyFields the fields of the first and last documents stored in the manifest
+   */
+  public LocalItemWriterListener(FileAction fileAction, DocumentWiper documentWiper, ArchiveManifest manifest, String[] keyFields, Long jobExecutionId) {
     this.fileAction = fileAction;
     this.documentWiper = documentWiper;
+    this.manifest = manifest;
+    this.keyFields = keyFields;
+    this.jobExecutionId = jobExecutionId;
   }
 
 
   @Override
   public void onCompleted(WriteCompletedEvent event) {
-    fileAction.perform(event.getOutFile());
+    File file = fileAction.perform(event.getOutFile());
+    if (manifest != null)
+      manifest.record(new ManifestEntry(
+              file.getPath(),
+              key(event.getFirstDocument()),
+              key(event.getLastDocument()),
+              event.getDocumentCount(),
+              event.getByteCount(),
+              event.getCrc32c(),
+              jobExecutionId,
+              event.getBlock()));
     documentWiper.delete(event.getFirstDocument(), event.getLastDocument());
   }
+
+  private Document key(Document document) {
+    if (keyFields == null || keyFields.length == 0)
+      return document;
+    return document.select(keyFields);
+  }
 }
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * Writes the LZ4 frame format readable by the lz4 command line tool. The framed LZ4 encoder of commons-compress is not
+ * used: in version 1.18 it fails on inputs spanning multiple blocks.
+ */
+public class Lz4Codec implements CompressionCodec {
+  private final int level;
+
+  /**
+   * @param level 0 or -1 selects the fast compressor, higher levels the high compression one
+   */
+  public Lz4Codec(int level) {
+    this.level = level;
+  }
+
+  @Override
+  public String getFileExtension() {
+    return ".lz4";
+  }
+
+  @Override
+  public OutputStream compress(OutputStream outputStream) throws IOException {
+    LZ4Factory factory = LZ4Factory.fastestInstance();
+    LZ4Compressor compressor = level > 0 ? factory.highCompressor(level) : factory.fastCompressor();
+    return new LZ4FrameOutputStream(outputStream, LZ4FrameOutputStream.BLOCKSIZE.SIZE_4MB, -1L, compressor,
+            XXHashFactory.fastestInstance().hash32(), LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE,
+            LZ4FrameOutputStream.FLG.Bits.CONTENT_CHECKSUM);
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+/**
+ * A block which was written to the destination: the key fields of its first and last documents, the number of
+ * documents and the size and CRC32C checksum of the file.
+ */
+public class ManifestEntry {
+  private String file;
+  private Document firstDocument;
+  private Document lastDocument;
+  private int documentCount;
+  private long byteCount;
+  private String crc32c;
+  private Long jobExecutionId;
+  private Long block;
+
+  public ManifestEntry() {
+  }
+
+  public ManifestEntry(String file, Document firstDocument, Document lastDocument, int documentCount, long byteCount, long crc32c, Long jobExecutionId) {
+    this(file, firstDocument, lastDocument, documentCount, byteCount, crc32c, jobExecutionId, null);
+  }
+
+  /**
+   * @param block the sequence number of the block in the job execution: the blocks may be recorded out of order
+   */
+  public ManifestEntry(String file, Document firstDocument, Document lastDocument, int documentCount, long byteCount, long crc32c,
+                       Long jobExecutionId, Long block) {
+    this.file = file;
+    this.firstDocument = firstDocument;
+    this.lastDocument = lastDocument;
+    this.documentCount = documentCount;
+    this.byteCount = byteCount;
+    this.crc32c = Long.toHexString(crc32c);
+    this.jobExecutionId = jobExecutionId;
+    this.block = block;
+  }
+
+  public String getFile() {
+    return file;
+  }
+
+  public void setFile(String file) {
+    this.file = file;
+  }
+
+  public Document getFirstDocument() {
+    return firstDocument;
+  }
+
+  public void setFirstDocument(Document firstDocument) {
+    this.firstDocument = firstDocument;
+  }
+
+  public Document getLastDocument() {
+    return lastDocument;
+  }
+
+  public void setLastDocument(Document lastDocument) {
+    this.lastDocument = lastDocument;
+  }
+
+  public int getDocumentCount() {
+    return documentCount;
+  }
+
+  public void setDocumentCount(int documentCount) {
+    this.documentCount = documentCount;
+  }
+
+  public long getByteCount() {
+    return byteCount;
+  }
+
+  public void setByteCount(long byteCount) {
+    this.byteCount = byteCount;
+  }
+
+  public String getCrc32c() {
+    return crc32c;
+  }
+
+  public void setCrc32c(String crc32c) {
+    this.crc32c = crc32c;
+  }
+
+  public Long getJobExecutionId() {
+    return jobExecutionId;
+  }
+
+  public void setJobExecutionId(Long jobExecutionId) {
+    this.jobExecutionId = jobExecutionId;
+  }
+
+  public Long getBlock() {
+    return block;
+  }
+
+  public void setBlock(Long block) {
+    this.block = block;
+  }
+}
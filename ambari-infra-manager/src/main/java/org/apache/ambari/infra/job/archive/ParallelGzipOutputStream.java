@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Splits the written data to fixed size blocks and compresses them concurrently. Each block is written as a separate
+ * gzip member in the original order: the result is a valid multi-member gzip file which can be read by any gzip
+ * decompressor.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+  private final OutputStream outputStream;
+  private final int level;
+  private final int blockSize;
+  private final int maxPendingBlocks;
+  private final ExecutorService executorService;
+  private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+  private byte[] buffer;
+  private int count = 0;
+  private boolean memberWritten = false;
+  private boolean closed = false;
+
+  public ParallelGzipOutputStream(OutputStream outputStream, int level, int threads, int blockSize) {
+    this.outputStream = outputStream;
+    this.level = level;
+    this.blockSize = blockSize;
+    this.maxPendingBlocks = threads * 2;
+    this.buffer = new byte[blockSize];
+    this.executorService = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "parallel-gzip");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    buffer[count++] = (byte) b;
+    if (count == blockSize)
+      submitBlock();
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      int length = Math.min(len, blockSize - count);
+      System.arraycopy(b, off, buffer, count, length);
+      count += length;
+      off += length;
+      len -= length;
+      if (count == blockSize)
+        submitBlock();
+    }
+  }
+
+  private void submitBlock() throws IOException {
+    byte[] block = buffer;
+    int length = count;
+    buffer = new byte[blockSize];
+    count = 0;
+    pendingBlocks.add(executorService.submit(() -> compress(block, length)));
+    while (pendingBlocks.size() > maxPendingBlocks)
+      writeBlock(pendingBlocks.poll());
+  }
+
+  private byte[] compress(byte[] block, int length) throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 4 + 64);
+    try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed) {{ def.setLevel(level); }}) {
+      gzipOutputStream.write(block, 0, length);
+    }
+    return compressed.toByteArray();
+  }
+
+  private void writeBlock(Future<byte[]> pendingBlock) throws IOException {
+    try {
+      outputStream.write(pendingBlock.get());
+      memberWritten = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while compressing block");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException)
+        throw (IOException) e.getCause();
+      throw new IOException(e.getCause());
+    }
+  }
+
+  /**
+   * Writes the blocks already compressed. The partially filled block is kept in the buffer until close.
+   */
+  @Override
+  public void flush() throws IOException {
+    while (!pendingBlocks.isEmpty() && pendingBlocks.peek().isDone())
+      writeBlock(pendingBlocks.poll());
+    outputStream.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed)
+      return;
+    closed = true;
+
+    try {
+      if (count > 0 || (!memberWritten && pendingBlocks.isEmpty()))
+        submitBlock();
+      while (!pendingBlocks.isEmpty())
+        writeBlock(pendingBlocks.poll());
+    }
+    finally {
+      executorService.shutdownNow();
+      outputStream.close();
+    }
+  }
+}
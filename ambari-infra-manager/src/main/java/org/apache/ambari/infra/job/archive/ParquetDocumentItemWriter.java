@@ -0,0 +1,341 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.apache.ambari.infra.job.archive.ArchiveSchema.OTHER_FIELDS;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CheckedOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.compress.zlib.ZlibCompressor;
+import org.apache.hadoop.io.compress.zlib.ZlibFactory;
+import org.apache.hadoop.util.PureJavaCrc32C;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.codec.ZstandardCodec;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Types;
+
+/**
+ * Writes the documents to a Parquet file: the values are stored column by column with dictionary encoding and the
+ * pages are compressed by the configured codec. The columns are the columns of the {@link ArchiveSchema}: integer
+ * fields are stored as int64, floating point fields as double, boolean fields as boolean, date fields as int64
+ * timestamp in milliseconds and the rest as UTF-8 strings.
+ */
+public class ParquetDocumentItemWriter implements DocumentItemWriter {
+  private final ArchiveFile outFile;
+  private final ItemWriterListener itemWriterListener;
+  private final CountingOutputStream writtenBytes;
+  private final CheckedOutputStream checksum;
+  private final DocumentWriteSupport writeSupport;
+  private final ParquetWriter<Document> parquetWriter;
+  private Document firstDocument = null;
+  private Document lastDocument = null;
+  private int documentCount = 0;
+
+  public ParquetDocumentItemWriter(File outFile, ArchiveSchema archiveSchema, Compression compression, int compressionLevel,
+                                   ItemWriterListener itemWriterListener) {
+    this(new LocalArchiveFile(outFile), archiveSchema, compression, compressionLevel, itemWriterListener);
+  }
+
+  public ParquetDocumentItemWriter(ArchiveFile outFile, ArchiveSchema archiveSchema, Compression compression, int compressionLevel,
+                                   ItemWriterListener itemWriterListener) {
+    this.outFile = outFile;
+    this.itemWriterListener = itemWriterListener;
+    this.writeSupport = new DocumentWriteSupport(archiveSchema);
+    Configuration configuration = new Configuration();
+    if (compressionLevel >= 0) {
+      configuration.setInt(ZstandardCodec.PARQUET_COMPRESS_ZSTD_LEVEL, compressionLevel);
+      if (compressionLevel <= 9)
+        ZlibFactory.setCompressionLevel(configuration, ZlibCompressor.CompressionLevel.values()[compressionLevel]);
+    }
+    try {
+      this.writtenBytes = new CountingOutputStream(checksum = new CheckedOutputStream(outFile.create(), new PureJavaCrc32C()));
+      this.parquetWriter = new Builder(new StreamOutputFile(writtenBytes), writeSupport)
+              .withConf(configuration)
+              .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+              .withCompressionCodec(compressionCodecName(compression))
+              .withDictionaryEncoding(true)
+              .build();
+    } catch (IOException e) {
+      outFile.delete();
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public static CompressionCodecName compressionCodecName(Compression compression) {
+    switch (compression) {
+      case NONE:
+        return CompressionCodecName.UNCOMPRESSED;
+      case GZIP:
+      case PARALLEL_GZIP:
+        return CompressionCodecName.GZIP;
+      case ZSTD:
+        return CompressionCodecName.ZSTD;
+      default:
+        throw new IllegalArgumentException(String.format("Compression %s is not supported by Parquet", compression.name()));
+    }
+  }
+
+  @Override
+  public void write(Document document) {
+    try {
+      parquetWriter.write(document);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    if (firstDocument == null)
+      firstDocument = document;
+    lastDocument = document;
+    ++documentCount;
+  }
+
+  /**
+   * @return the size of the flushed row groups plus the estimated size of the buffered one
+   */
+  @Override
+  public long getWrittenByteCount() {
+    return parquetWriter.getDataSize();
+  }
+
+  /**
+   * @return the size of the values in Parquet plain encoding before they are encoded and compressed by column
+   */
+  @Override
+  public long getUncompressedByteCount() {
+    return writeSupport.plainByteCount;
+  }
+
+  @Override
+  public void revert() {
+    IOUtils.closeQuietly(writtenBytes);
+    outFile.delete();
+  }
+
+  @Override
+  public void close() {
+    try {
+      parquetWriter.close();
+      File completedFile = outFile.complete();
+      if (itemWriterListener != null)
+        itemWriterListener.onCompleted(new WriteCompletedEvent(
+                completedFile, firstDocument, lastDocument, documentCount, writtenBytes.getByteCount(), checksum.getChecksum().getValue()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static class Builder extends ParquetWriter.Builder<Document, Builder> {
+    private final DocumentWriteSupport writeSupport;
+
+    private Builder(OutputFile outputFile, DocumentWriteSupport writeSupport) {
+      super(outputFile);
+      this.writeSupport = writeSupport;
+    }
+
+    @Override
+    protected Builder self() {
+      return this;
+    }
+
+    @Override
+    protected WriteSupport<Document> getWriteSupport(Configuration conf) {
+      return writeSupport;
+    }
+  }
+
+  private static class DocumentWriteSupport extends WriteSupport<Document> {
+    private final ArchiveSchema archiveSchema;
+    private final MessageType messageType;
+    private RecordConsumer recordConsumer;
+    private long plainByteCount = 0;
+
+    private DocumentWriteSupport(ArchiveSchema archiveSchema) {
+      this.archiveSchema = archiveSchema;
+      Types.MessageTypeBuilder builder = Types.buildMessage();
+      for (ArchiveSchema.Column column : archiveSchema.getColumns()) {
+        switch (column.getType()) {
+          case LONG:
+            builder.optional(PrimitiveType.PrimitiveTypeName.INT64).named(column.getName());
+            break;
+          case DOUBLE:
+            builder.optional(PrimitiveType.PrimitiveTypeName.DOUBLE).named(column.getName());
+            break;
+          case BOOLEAN:
+            builder.optional(PrimitiveType.PrimitiveTypeName.BOOLEAN).named(column.getName());
+            break;
+          case TIMESTAMP:
+            builder.optional(PrimitiveType.PrimitiveTypeName.INT64)
+                    .as(LogicalTypeAnnotation.timestampType(true, LogicalTypeAnnotation.TimeUnit.MILLIS)).named(column.getName());
+            break;
+          default:
+            builder.optional(PrimitiveType.PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named(column.getName());
+        }
+      }
+      this.messageType = builder.optionalGroup().as(LogicalTypeAnnotation.mapType())
+              .repeatedGroup()
+              .required(PrimitiveType.PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("key")
+              .optional(PrimitiveType.PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("value")
+              .named("key_value")
+              .named(OTHER_FIELDS)
+              .named("SolrDocument");
+    }
+
+    @Override
+    public WriteContext init(Configuration configuration) {
+      return new WriteContext(messageType, new HashMap<>());
+    }
+
+    @Override
+    public void prepareForWrite(RecordConsumer recordConsumer) {
+      this.recordConsumer = recordConsumer;
+    }
+
+    @Override
+    public void write(Document document) {
+      Map<String, String> otherFields = new HashMap<>();
+      Object[] values = archiveSchema.toColumnValues(document, otherFields);
+      List<ArchiveSchema.Column> columns = archiveSchema.getColumns();
+      recordConsumer.startMessage();
+      for (int i = 0; i < values.length; ++i) {
+        if (values[i] == null)
+          continue;
+        String name = columns.get(i).getName();
+        recordConsumer.startField(name, i);
+        switch (columns.get(i).getType()) {
+          case LONG:
+          case TIMESTAMP:
+            recordConsumer.addLong((Long) values[i]);
+            plainByteCount += Long.BYTES;
+            break;
+          case DOUBLE:
+            recordConsumer.addDouble((Double) values[i]);
+            plainByteCount += Double.BYTES;
+            break;
+          case BOOLEAN:
+            recordConsumer.addBoolean((Boolean) values[i]);
+            plainByteCount += 1;
+            break;
+          default:
+            addString((String) values[i]);
+        }
+        recordConsumer.endField(name, i);
+      }
+      if (!otherFields.isEmpty()) {
+        recordConsumer.startField(OTHER_FIELDS, values.length);
+        recordConsumer.startGroup();
+        recordConsumer.startField("key_value", 0);
+        for (Map.Entry<String, String> entry : otherFields.entrySet()) {
+          recordConsumer.startGroup();
+          recordConsumer.startField("key", 0);
+          addString(entry.getKey());
+          recordConsumer.endField("key", 0);
+          recordConsumer.startField("value", 1);
+          addString(entry.getValue());
+          recordConsumer.endField("value", 1);
+          recordConsumer.endGroup();
+        }
+        recordConsumer.endField("key_value", 0);
+        recordConsumer.endGroup();
+        recordConsumer.endField(OTHER_FIELDS, values.length);
+      }
+      recordConsumer.endMessage();
+    }
+
+    private void addString(String value) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      recordConsumer.addBinary(Binary.fromConstantByteArray(bytes));
+      plainByteCount += Integer.BYTES + bytes.length;
+    }
+  }
+
+  /**
+   * Parquet file on top of the stream of the archive file: the position is the number of bytes written to the stream.
+   */
+  private static class StreamOutputFile implements OutputFile {
+    private final CountingOutputStream outputStream;
+
+    private StreamOutputFile(CountingOutputStream outputStream) {
+      this.outputStream = outputStream;
+    }
+
+    @Override
+    public PositionOutputStream create(long blockSizeHint) {
+      return new PositionOutputStream() {
+        @Override
+        public long getPos() {
+          return outputStream.getByteCount();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+          outputStream.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+          outputStream.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+          outputStream.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+          outputStream.close();
+        }
+      };
+    }
+
+    @Override
+    public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+      return create(blockSizeHint);
+    }
+
+    @Override
+    public boolean supportsBlockSize() {
+      return false;
+    }
+
+    @Override
+    public long defaultBlockSize() {
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+/**
+ * Decides when the file being written is closed and the next document is written to a new file.
+ */
+public interface RolloverPolicy {
+  /**
+   * Called when a new file is opened for the firstDocument.
+   */
+  default void opened(Document firstDocument) {
+  }
+
+  /**
+   * @param writer the writer of the current file
+   * @param writtenCount the number of documents written to the current file
+   * @param nextDocument the document which is written next
+   */
+  boolean shouldRollover(DocumentItemWriter writer, int writtenCount, Document nextDocument);
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Object uploaded to S3 while it is written. It becomes visible when it is completed.
+ */
+public class S3ArchiveFile implements ArchiveFile {
+  private final S3ObjectStore s3ObjectStore;
+  private final String fileName;
+  private S3MultipartOutputStream outputStream;
+
+  public S3ArchiveFile(S3ObjectStore s3ObjectStore, String fileName) {
+    this.s3ObjectStore = s3ObjectStore;
+    this.fileName = fileName;
+  }
+
+  @Override
+  public OutputStream create() {
+    outputStream = s3ObjectStore.create(fileName);
+    return outputStream;
+  }
+
+  @Override
+  public File complete() throws IOException {
+    outputStream.complete();
+    return new File(s3ObjectStore.key(fileName));
+  }
+
+  @Override
+  public void delete() {
+    if (outputStream != null)
+      outputStream.abort();
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+
+/**
+ * Uploads the written bytes as the parts of a multipart upload while the rest of the object is still being written.
+ * At most uploadThreads parts are buffered or uploaded at the same time. The object becomes visible only when the
+ * upload is completed; closing the stream does not complete it. Objects smaller than one part are uploaded with a
+ * single put request.
+ */
+public class S3MultipartOutputStream extends OutputStream {
+  private static final Logger logger = LogManager.getLogger(S3MultipartOutputStream.class);
+
+  private final AmazonS3 s3;
+  private final String bucketName;
+  private final String key;
+  private final int partSize;
+  private final ExecutorService executorService;
+  private final Semaphore inFlightParts;
+  private final List<Future<PartETag>> parts = new ArrayList<>();
+  private byte[] buffer;
+  private int count;
+  private String uploadId;
+  private boolean closed;
+
+  public S3MultipartOutputStream(AmazonS3 s3, String bucketName, String key, int partSize, int maxInFlightParts, ExecutorService executorService) {
+    this.s3 = s3;
+    this.bucketName = bucketName;
+    this.key = key;
+    this.partSize = partSize;
+    this.executorService = executorService;
+    this.inFlightParts = new Semaphore(maxInFlightParts);
+    this.buffer = new byte[partSize];
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    buffer[count++] = (byte) b;
+    if (count == partSize)
+      uploadPart();
+  }
+
+  @Override
+  public void write(byte[] bytes, int offset, int length) throws IOException {
+    ensureOpen();
+    while (length > 0) {
+      int copied = Math.min(length, partSize - count);
+      System.arraycopy(bytes, offset, buffer, count, copied);
+      count += copied;
+      offset += copied;
+      length -= copied;
+      if (count == partSize)
+        uploadPart();
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed)
+      throw new IOException("Stream is closed: " + key);
+  }
+
+  private void uploadPart() throws IOException {
+    if (uploadId == null) {
+      uploadId = s3.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucketName, key)).getUploadId();
+      logger.info("Multipart upload {} of s3://{}/{} is initiated", uploadId, bucketName, key);
+    }
+
+    try {
+      inFlightParts.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for part uploads of " + key);
+    }
+
+    byte[] data = buffer;
+    int length = count;
+    int partNumber = parts.size() + 1;
+    try {
+      parts.add(executorService.submit(() -> {
+        try {
+          return s3.uploadPart(new UploadPartRequest()
+                  .withBucketName(bucketName)
+                  .withKey(key)
+                  .withUploadId(uploadId)
+                  .withPartNumber(partNumber)
+                  .withInputStream(new ByteArrayInputStream(data, 0, length))
+                  .withPartSize(length)).getPartETag();
+        }
+        finally {
+          inFlightParts.release();
+        }
+      }));
+    }
+    catch (RuntimeException e) {
+      inFlightParts.release();
+      throw e;
+    }
+    buffer = new byte[partSize];
+    count = 0;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+  }
+
+  /**
+   * Uploads the remaining bytes and completes the upload: the object becomes visible.
+   */
+  public void complete() throws IOException {
+    closed = true;
+    if (uploadId == null) {
+      ObjectMetadata objectMetadata = new ObjectMetadata();
+      objectMetadata.setContentLength(count);
+      s3.putObject(new PutObjectRequest(bucketName, key, new ByteArrayInputStream(buffer, 0, count), objectMetadata));
+      buffer = null;
+      return;
+    }
+
+    if (count > 0)
+      uploadPart();
+    buffer = null;
+    List<PartETag> partETags = new ArrayList<>(parts.size());
+    try {
+      for (Future<PartETag> part : parts)
+        partETags.add(part.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      abort();
+      throw new InterruptedIOException("Interrupted while waiting for part uploads of " + key);
+    } catch (ExecutionException e) {
+      abort();
+      throw new IOException("Unable to upload part of " + key, e.getCause());
+    }
+    try {
+      s3.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, key, uploadId, partETags));
+    } catch (RuntimeException e) {
+      abort();
+      throw new IOException("Unable to complete multipart upload of " + key, e);
+    }
+    logger.info("Multipart upload {} of s3://{}/{} is completed with {} parts", uploadId, bucketName, key, partETags.size());
+  }
+
+  /**
+   * Discards the uploaded parts.
+   */
+  public void abort() {
+    closed = true;
+    buffer = null;
+    for (Future<PartETag> part : parts)
+      part.cancel(true);
+    if (uploadId == null)
+      return;
+
+    try {
+      s3.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, key, uploadId));
+    } catch (RuntimeException e) {
+      logger.warn("Unable to abort multipart upload {} of s3://{}/{}", uploadId, bucketName, key, e);
+    }
+  }
+}
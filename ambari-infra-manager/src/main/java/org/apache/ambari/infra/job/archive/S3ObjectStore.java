@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.apache.commons.lang.StringUtils.isNotBlank;
+
+import java.io.Closeable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+
+/**
+ * S3 bucket of an archiving step. The client and the part upload threads are shared by all the files written by
+ * the step. Failed requests are retried by the client with exponential backoff.
+ */
+public class S3ObjectStore implements Closeable {
+  private static final Logger logger = LogManager.getLogger(S3ObjectStore.class);
+
+  private final AmazonS3 s3;
+  private final S3Properties properties;
+  private final ExecutorService executorService;
+
+  public S3ObjectStore(S3Properties properties, AWSCredentialsProvider credentialsProvider) {
+    this(buildClient(properties, credentialsProvider), properties);
+  }
+
+  S3ObjectStore(AmazonS3 s3, S3Properties properties) {
+    this.s3 = s3;
+    this.properties = properties;
+    this.executorService = Executors.newFixedThreadPool(properties.getS3UploadThreads());
+  }
+
+  private static AmazonS3 buildClient(S3Properties properties, AWSCredentialsProvider credentialsProvider) {
+    AmazonS3ClientBuilder clientBuilder = AmazonS3ClientBuilder.standard()
+            .withCredentials(credentialsProvider)
+            .withClientConfiguration(new ClientConfiguration()
+                    .withRetryPolicy(PredefinedRetryPolicies.getDefaultRetryPolicyWithCustomMaxRetries(properties.getS3MaxRetries())));
+    if (isNotBlank(properties.getS3Endpoint())) {
+      logger.info("Using S3 compatible endpoint {}", properties.getS3Endpoint());
+      clientBuilder.withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(properties.getS3Endpoint(), properties.getS3Region()))
+              .withPathStyleAccessEnabled(true);
+    }
+    else if (isNotBlank(properties.getS3Region())) {
+      clientBuilder.withRegion(properties.getS3Region());
+    }
+    return clientBuilder.build();
+  }
+
+  /**
+   * The key of the object is derived from the file name only, so writing the same block again overwrites the object
+   * instead of creating a new one.
+   */
+  public S3MultipartOutputStream create(String fileName) {
+    String key = key(fileName);
+    logger.info("Uploading to s3://{}/{}", properties.getS3BucketName(), key);
+    return new S3MultipartOutputStream(s3, properties.getS3BucketName(), key,
+            properties.getS3PartSize(), properties.getS3UploadThreads(), executorService);
+  }
+
+  public String key(String fileName) {
+    return properties.getS3KeyPrefix() + fileName;
+  }
+
+  @Override
+  public void close() {
+    executorService.shutdownNow();
+    s3.shutdown();
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+public class S3Properties {
+  // the minimum size of a part of a multipart upload except the last one
+  public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+  private final String s3Endpoint;
+  private final String s3Region;
+  private final String s3BucketName;
+  private final String s3KeyPrefix;
+  private final int s3PartSize;
+  private final int s3UploadThreads;
+  private final int s3MaxRetries;
+
+  public S3Properties(String s3Endpoint, String s3Region, String s3BucketName, String s3KeyPrefix, int s3PartSize, int s3UploadThreads, int s3MaxRetries) {
+    this.s3Endpoint = s3Endpoint;
+    this.s3Region = s3Region;
+    this.s3BucketName = s3BucketName;
+    this.s3KeyPrefix = s3KeyPrefix == null ? "" : s3KeyPrefix;
+    this.s3PartSize = s3PartSize;
+    this.s3UploadThreads = s3UploadThreads;
+    this.s3MaxRetries = s3MaxRetries;
+  }
+
+  /**
+   * Endpoint of an S3 compatible object store. The AWS endpoint of the region is used if it is not specified.
+   */
+  public String getS3Endpoint() {
+    return s3Endpoint;
+  }
+
+  public String getS3Region() {
+    return s3Region;
+  }
+
+  public String getS3BucketName() {
+    return s3BucketName;
+  }
+
+  public String getS3KeyPrefix() {
+    return s3KeyPrefix;
+  }
+
+  public int getS3PartSize() {
+    return s3PartSize;
+  }
+
+  public int getS3UploadThreads() {
+    return s3UploadThreads;
+  }
+
+  public int getS3MaxRetries() {
+    return s3MaxRetries;
+  }
+
+  @Override
+  public String toString() {
+    return "S3Properties{" +
+            "s3Endpoint='" + s3Endpoint + '\'' +
+            ", s3Region='" + s3Region + '\'' +
+            ", s3BucketName='" + s3BucketName + '\'' +
+            ", s3KeyPrefix='" + s3KeyPrefix + '\'' +
+            ", s3PartSize=" + s3PartSize +
+            ", s3UploadThreads=" + s3UploadThreads +
+            ", s3MaxRetries=" + s3MaxRetries +
+            '}';
+  }
+
+  public void validate() {
+    if (isBlank(s3BucketName))
+      throw new IllegalArgumentException("The property s3BucketName can not be null or empty string!");
+    if (s3PartSize < MIN_PART_SIZE)
+      throw new IllegalArgumentException("The property s3PartSize must be at least " + MIN_PART_SIZE + "!");
+    if (s3UploadThreads <= 0)
+      throw new IllegalArgumentException("The property s3UploadThreads must be greater than 0!");
+    if (s3MaxRetries < 0)
+      throw new IllegalArgumentException("The property s3MaxRetries can not be negative!");
+  }
+}
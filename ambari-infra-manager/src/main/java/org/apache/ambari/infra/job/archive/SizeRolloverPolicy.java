@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+/**
+ * Rolls over when the size of the file reaches maxBytes. The writers and the compression codecs buffer the
+ * output so the files may be slightly larger.
+ */
+public class SizeRolloverPolicy implements RolloverPolicy {
+  private final long maxBytes;
+  private final boolean uncompressed;
+
+  /**
+   * @param uncompressed if true the size of the documents before compression is compared to maxBytes instead of the
+   *                     size of the file
+   */
+  public SizeRolloverPolicy(long maxBytes, boolean uncompressed) {
+    this.maxBytes = maxBytes;
+    this.uncompressed = uncompressed;
+  }
+
+  @Override
+  public boolean shouldRollover(DocumentItemWriter writer, int writtenCount, Document nextDocument) {
+    return (uncompressed ? writer.getUncompressedByteCount() : writer.getWrittenByteCount()) >= maxBytes;
+  }
+}
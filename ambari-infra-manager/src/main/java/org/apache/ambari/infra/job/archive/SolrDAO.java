@@ -18,32 +18,65 @@
  */
 package org.apache.ambari.infra.job.archive;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.stream.Collectors;
 
+import org.apache.ambari.infra.job.CloudSolrClientCache;
 import org.apache.ambari.infra.job.SolrDAOBase;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.solr.client.solrj.SolrQuery;
-import org.apache.solr.client.solrj.SolrServerException;
-import org.apache.solr.client.solrj.impl.CloudSolrClient;
-import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.request.schema.SchemaRequest;
+import org.apache.solr.common.params.CursorMarkParams;
 
 public class SolrDAO extends SolrDAOBase implements DocumentWiper {
   private static final Logger logger = LogManager.getLogger(SolrDAO.class);
 
   private final SolrProperties queryProperties;
+  private final String shard;
+  private final boolean multivaluedFieldsAsLists;
 
-  public SolrDAO(SolrProperties queryProperties) {
-    super(queryProperties.getZooKeeperConnectionString(), queryProperties.getCollection());
+  public SolrDAO(CloudSolrClientCache cloudSolrClientCache, SolrProperties queryProperties) {
+    this(cloudSolrClientCache, queryProperties, null);
+  }
+
+  /**
+   * @param shard if specified queries are sent to the leader of this shard only and are not distributed
+   */
+  public SolrDAO(CloudSolrClientCache cloudSolrClientCache, SolrProperties queryProperties, String shard) {
+    this(cloudSolrClientCache, queryProperties, shard, false);
+  }
+
+  /**
+   * @param multivaluedFieldsAsLists if set the queried documents keep the values of multivalued fields as lists
+   */
+  public SolrDAO(CloudSolrClientCache cloudSolrClientCache, SolrProperties queryProperties, String shard, boolean multivaluedFieldsAsLists) {
+    super(cloudSolrClientCache, queryProperties.getZooKeeperConnectionString(), queryProperties.getCollection());
     this.queryProperties = queryProperties;
+    this.shard = shard;
+    this.multivaluedFieldsAsLists = multivaluedFieldsAsLists;
   }
 
   @Override
   public void delete(Document firstDocument, Document lastDocument) {
-    delete(new SolrParametrizedString(queryProperties.getDeleteQueryText())
+    delete(deleteQuery(firstDocument, lastDocument));
+  }
+
+  public String deleteQuery(Document firstDocument, Document lastDocument) {
+    return new SolrParametrizedString(queryProperties.getDeleteQueryText())
             .set("start", firstDocument.getFieldMap())
-            .set("end", lastDocument.getFieldMap()).toString());
+            .set("end", lastDocument.getFieldMap()).toString();
+  }
+
+  /**
+   * Deletes the union of the specified ranges with one request.
+   */
+  public void delete(List<String> deleteQueries, int commitWithin) {
+    if (deleteQueries.isEmpty())
+      return;
+    String deleteQuery = deleteQueries.size() == 1 ? deleteQueries.get(0) :
+            deleteQueries.stream().map(query -> "(" + query + ")").collect(Collectors.joining(" OR "));
+    delete(deleteQuery, commitWithin);
   }
 
   public SolrDocumentIterator query(String start, String end, Document subIntervalFrom, int rows) {
@@ -55,14 +88,26 @@ public class SolrDAO extends SolrDAOBase implements DocumentWiper {
 
     logger.info("Executing solr query {}", query.toLocalParamsString());
 
-    try {
-      CloudSolrClient client = createClient();
-      QueryResponse response = client.query(query);
-      return new SolrDocumentIterator(response, client);
-    } catch (SolrServerException e) {
-      throw new RuntimeException(e);
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    }
+    return query(query);
+  }
+
+  public SolrDocumentIterator query(String start, String end, String cursorMark, int rows) {
+    SolrQuery query = queryProperties.toQueryBuilder()
+            .setInterval(start, end)
+            .build();
+    query.setRows(rows);
+    query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+
+    logger.info("Executing solr query {}", query.toLocalParamsString());
+
+    return query(query);
+  }
+
+  public ArchiveSchema getArchiveSchema() {
+    return ArchiveSchema.from(execute(client -> new SchemaRequest().process(client, getDefaultCollection())).getSchemaRepresentation());
+  }
+
+  private SolrDocumentIterator query(SolrQuery query) {
+    return new SolrDocumentIterator(execute(client -> query(client, query, shard)), multivaluedFieldsAsLists);
   }
 }
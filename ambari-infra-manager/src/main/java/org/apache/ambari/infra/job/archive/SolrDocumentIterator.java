@@ -18,36 +18,43 @@
  */
 package org.apache.ambari.infra.job.archive;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.TimeZone;
+import java.util.Map;
+import java.util.stream.Collectors;
 
-import org.apache.ambari.infra.job.CloseableIterator;
-import org.apache.solr.client.solrj.impl.CloudSolrClient;
+import org.apache.ambari.infra.job.CursorIterator;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 
-public class SolrDocumentIterator implements CloseableIterator<Document> {
+public class SolrDocumentIterator implements CursorIterator<Document> {
 
   public static final String SOLR_DATE_FORMAT_TEXT = "yyyy-MM-dd'T'HH:mm:ss.SSSX";
-  private static final DateFormat SOLR_DATE_FORMAT = new SimpleDateFormat(SOLR_DATE_FORMAT_TEXT);
+  // DateTimeFormatter is immutable and thread safe: it can be shared by the partitions and prefetch threads
+  private static final DateTimeFormatter SOLR_DATE_FORMATTER = DateTimeFormatter.ofPattern(SOLR_DATE_FORMAT_TEXT).withZone(ZoneOffset.UTC);
 
-  static {
-    SOLR_DATE_FORMAT.setTimeZone(TimeZone.getTimeZone("UTC"));
-  }
+  private static final long SECONDS_PER_DAY = 24 * 60 * 60;
 
   private final Iterator<SolrDocument> documentIterator;
-  private final CloudSolrClient client;
+  private final String nextCursorMark;
+  private final boolean multivaluedFieldsAsLists;
 
+  public SolrDocumentIterator(QueryResponse response) {
+    this(response, false);
+  }
 
-  public SolrDocumentIterator(QueryResponse response, CloudSolrClient client) {
+  /**
+   * @param multivaluedFieldsAsLists if set the values of multivalued fields are kept as lists of converted values
+   *                                 otherwise they are flattened to one string like in the archives
+   */
+  public SolrDocumentIterator(QueryResponse response, boolean multivaluedFieldsAsLists) {
     documentIterator = response.getResults().iterator();
-    this.client = client;
+    nextCursorMark = response.getNextCursorMark();
+    this.multivaluedFieldsAsLists = multivaluedFieldsAsLists;
   }
 
   @Override
@@ -55,37 +62,80 @@ public class SolrDocumentIterator implements CloseableIterator<Document> {
     if (!documentIterator.hasNext())
       return null;
     
+    // the values are converted in place: the fields of the response document are not copied to a new map
     SolrDocument document = documentIterator.next();
-    HashMap<String, Object> fieldMap = new HashMap<>();
-    for (String key : document.getFieldNames()) {
-      fieldMap.put(key, convertFieldValue(document.get(key)));
+    for (Map.Entry<String, Object> field : document) {
+      Object value = field.getValue();
+      Object convertedValue = multivaluedFieldsAsLists && value instanceof Collection ?
+              ((Collection<?>) value).stream().map(SolrDocumentIterator::convertFieldValue).collect(Collectors.toList()) :
+              convertFieldValue(value);
+      if (convertedValue != value)
+        field.setValue(convertedValue);
     }
 
-    return new Document(fieldMap);
+    return new Document(document);
   }
 
-  private Object convertFieldValue(Object value) {
+  static Object convertFieldValue(Object value) {
     if (value == null) {
       return null;
     }
-    else if (value instanceof Date) {
-      return SOLR_DATE_FORMAT.format(value);
-    }
-    else if (value instanceof Integer || value instanceof Long) {
+    else if (value instanceof String || value instanceof Integer || value instanceof Long ||
+            value instanceof Float || value instanceof Double || value instanceof Boolean) {
       return value;
     }
+    else if (value instanceof Date) {
+      return formatDate((Date) value);
+    }
     else {
       return value.toString();
     }
   }
 
+  /**
+   * Formats the date like {@link #SOLR_DATE_FORMATTER} without allocating the temporal objects and the builder of
+   * the formatter: the date fields are the most expensive part of converting a document.
+   */
+  static String formatDate(Date date) {
+    long epochSecond = Math.floorDiv(date.getTime(), 1000);
+    LocalDate day = LocalDate.ofEpochDay(Math.floorDiv(epochSecond, SECONDS_PER_DAY));
+    if (day.getYear() < 0 || day.getYear() > 9999)
+      return SOLR_DATE_FORMATTER.format(date.toInstant());
+
+    int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+    char[] text = new char[24];
+    digits(text, 0, day.getYear(), 4);
+    text[4] = '-';
+    digits(text, 5, day.getMonthValue(), 2);
+    text[7] = '-';
+    digits(text, 8, day.getDayOfMonth(), 2);
+    text[10] = 'T';
+    digits(text, 11, secondOfDay / 3600, 2);
+    text[13] = ':';
+    digits(text, 14, secondOfDay / 60 % 60, 2);
+    text[16] = ':';
+    digits(text, 17, secondOfDay % 60, 2);
+    text[19] = '.';
+    digits(text, 20, (int) Math.floorMod(date.getTime(), 1000), 3);
+    text[23] = 'Z';
+    return new String(text);
+  }
+
+  private static void digits(char[] text, int offset, int value, int length) {
+    for (int i = offset + length - 1; i >= offset; --i) {
+      text[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+  }
+
   @Override
   public void close() {
-    try {
-      client.close();
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    }
+    // the solr client is shared, it is closed by CloudSolrClientCache
+  }
+
+  @Override
+  public String getNextCursorMark() {
+    return nextCursorMark;
   }
 
   @Override
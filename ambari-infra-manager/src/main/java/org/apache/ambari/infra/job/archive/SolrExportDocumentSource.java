@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.apache.ambari.infra.job.CloseableIterator;
+import org.apache.ambari.infra.job.CloudSolrClientCache;
+import org.apache.ambari.infra.job.ObjectSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.impl.CloudSolrClient;
+import org.apache.solr.client.solrj.io.SolrClientCache;
+import org.apache.solr.client.solrj.io.stream.CloudSolrStream;
+import org.apache.solr.client.solrj.io.stream.StreamContext;
+import org.apache.solr.common.params.CommonParams;
+
+/**
+ * Streams the documents sorted by the configured sort columns from the /export handler of every shard.
+ * Only docValues fields can be exported, the exported fields have to be listed in solr.exportColumn.
+ * The whole interval is streamed in one request: the rows parameter is ignored.
+ * The cluster state is read using the shared client of the ZooKeeper ensemble.
+ */
+public class SolrExportDocumentSource implements ObjectSource<Document>, Closeable {
+  private static final Logger logger = LogManager.getLogger(SolrExportDocumentSource.class);
+
+  private final SolrProperties queryProperties;
+  private final String start;
+  private final String end;
+  private final SharedCloudSolrClientCache solrClientCache;
+
+  public SolrExportDocumentSource(CloudSolrClientCache cloudSolrClientCache, SolrProperties queryProperties, String start, String end) {
+    this.queryProperties = queryProperties;
+    this.start = start;
+    this.end = end;
+    this.solrClientCache = new SharedCloudSolrClientCache(cloudSolrClientCache);
+  }
+
+  @Override
+  public CloseableIterator<Document> open(Document current, int rows) {
+    SolrQuery query = queryProperties.toQueryBuilder()
+            .setInterval(start, end)
+            .setDocument(current)
+            .build();
+    query.set(CommonParams.QT, "/export");
+    query.set(CommonParams.WT, CommonParams.JAVABIN);
+    query.setFields(queryProperties.getExportColumn());
+
+    logger.info("Executing solr export {}", query.toLocalParamsString());
+
+    try {
+      CloudSolrStream stream = new CloudSolrStream(
+              queryProperties.getZooKeeperConnectionString(), queryProperties.getCollection(), query);
+      StreamContext streamContext = new StreamContext();
+      streamContext.setSolrClientCache(solrClientCache);
+      stream.setStreamContext(streamContext);
+      stream.open();
+      return new SolrTupleIterator(stream);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    solrClientCache.close();
+  }
+
+  /**
+   * Cache of the solr stream API which returns the shared client of the ZooKeeper ensemble instead of creating its
+   * own one. The shared client is released when the document source is closed.
+   */
+  private static class SharedCloudSolrClientCache extends SolrClientCache {
+    private final CloudSolrClientCache cloudSolrClientCache;
+    private CloudSolrClientCache.CachedClient cachedClient = null;
+
+    private SharedCloudSolrClientCache(CloudSolrClientCache cloudSolrClientCache) {
+      this.cloudSolrClientCache = cloudSolrClientCache;
+    }
+
+    @Override
+    public synchronized CloudSolrClient getCloudSolrClient(String zkHost) {
+      if (cachedClient == null)
+        cachedClient = cloudSolrClientCache.acquire(zkHost);
+      return cachedClient.getClient();
+    }
+
+    @Override
+    public synchronized void close() {
+      super.close();
+      if (cachedClient == null)
+        return;
+      cachedClient.release();
+      cachedClient = null;
+    }
+  }
+}
@@ -31,7 +31,10 @@ public class SolrProperties {
   private String queryText;
   private String filterQueryText;
   private String[] sortColumn;
+  private String[] exportColumn;
   private String deleteQueryText;
+  private int deleteBatchSize = 1;
+  private int deleteCommitWithin;
 
   public String getZooKeeperConnectionString() {
     return zooKeeperConnectionString;
@@ -73,6 +76,14 @@ public class SolrProperties {
     this.sortColumn = sortColumn;
   }
 
+  public String[] getExportColumn() {
+    return exportColumn;
+  }
+
+  public void setExportColumn(String[] exportColumn) {
+    this.exportColumn = exportColumn;
+  }
+
   public String getDeleteQueryText() {
     return deleteQueryText;
   }
@@ -81,6 +92,22 @@ public class SolrProperties {
     this.deleteQueryText = deleteQueryText;
   }
 
+  public int getDeleteBatchSize() {
+    return deleteBatchSize;
+  }
+
+  public void setDeleteBatchSize(int deleteBatchSize) {
+    this.deleteBatchSize = deleteBatchSize;
+  }
+
+  public int getDeleteCommitWithin() {
+    return deleteCommitWithin;
+  }
+
+  public void setDeleteCommitWithin(int deleteCommitWithin) {
+    this.deleteCommitWithin = deleteCommitWithin;
+  }
+
   public SolrQueryBuilder toQueryBuilder() {
     return new SolrQueryBuilder().
             setQueryText(queryText)
@@ -94,6 +121,12 @@ public class SolrProperties {
 
     if (isBlank(collection))
       throw new IllegalArgumentException("The property collection can not be null or empty string!");
+
+    if (deleteBatchSize <= 0)
+      throw new IllegalArgumentException("The property deleteBatchSize must be greater than 0!");
+
+    if (deleteCommitWithin < 0)
+      throw new IllegalArgumentException("The property deleteCommitWithin can not be negative!");
   }
 
   public SolrProperties merge(JobParameters jobParameters) {
@@ -103,21 +136,33 @@ public class SolrProperties {
     solrProperties.setQueryText(jobParameters.getString("queryText", queryText));
     solrProperties.setFilterQueryText(jobParameters.getString("filterQueryText", filterQueryText));
     solrProperties.setDeleteQueryText(jobParameters.getString("deleteQueryText", deleteQueryText));
+    solrProperties.setDeleteBatchSize(getIntJobParameter(jobParameters, "deleteBatchSize", deleteBatchSize));
+    solrProperties.setDeleteCommitWithin(getIntJobParameter(jobParameters, "deleteCommitWithin", deleteCommitWithin));
+    solrProperties.setSortColumn(getStringArray(jobParameters, "sortColumn", sortColumn));
+    solrProperties.setExportColumn(getStringArray(jobParameters, "exportColumn", exportColumn));
+    return solrProperties;
+  }
 
-    String sortValue;
-    List<String> sortColumns = new ArrayList<>();
+  private String[] getStringArray(JobParameters jobParameters, String name, String[] defaultValue) {
+    String value;
+    List<String> values = new ArrayList<>();
     int i = 0;
-    while ((sortValue = jobParameters.getString(String.format("sortColumn[%d]", i))) != null) {
-      sortColumns.add(sortValue);
+    while ((value = jobParameters.getString(String.format("%s[%d]", name, i))) != null) {
+      values.add(value);
       ++i;
     }
-    if (!sortColumns.isEmpty()) {
-      solrProperties.setSortColumn(sortColumns.toArray(new String[0]));
+    if (!values.isEmpty()) {
+      return values.toArray(new String[0]);
     }
     else {
-      solrProperties.setSortColumn(sortColumn);
+      return defaultValue;
     }
+  }
 
-    return solrProperties;
+  private int getIntJobParameter(JobParameters jobParameters, String parameterName, int defaultValue) {
+    String valueText = jobParameters.getString(parameterName);
+    if (isBlank(valueText))
+      return defaultValue;
+    return Integer.parseInt(valueText);
   }
 }
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.apache.ambari.infra.job.archive.SolrDocumentIterator.convertFieldValue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ambari.infra.job.CloseableIterator;
+import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.stream.TupleStream;
+
+public class SolrTupleIterator implements CloseableIterator<Document> {
+
+  private final TupleStream tupleStream;
+  private Tuple next = null;
+
+  public SolrTupleIterator(TupleStream tupleStream) {
+    this.tupleStream = tupleStream;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return !fetch().EOF;
+  }
+
+  @Override
+  public Document next() {
+    Tuple tuple = fetch();
+    if (tuple.EOF)
+      return null;
+    next = null;
+
+    Map<String, Object> fieldMap = new HashMap<>();
+    for (Map.Entry<Object, Object> field : tuple.getFields().entrySet()) {
+      fieldMap.put(field.getKey().toString(), convertFieldValue(field.getValue()));
+    }
+    return new Document(fieldMap);
+  }
+
+  private Tuple fetch() {
+    if (next != null)
+      return next;
+    try {
+      next = tupleStream.read();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (next.EXCEPTION)
+      throw new IllegalStateException("Solr stream returned an error: " + next.getException());
+    return next;
+  }
+
+  @Override
+  public void close() {
+    try {
+      tupleStream.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+/**
+ * Rolls over when the file name suffix of the next document differs from the suffix of the current file: every
+ * file contains the documents of one time bucket defined by fileNameSuffixDateFormat (e.g. yyyy-MM-dd'T'HH for
+ * hourly files).
+ */
+public class TimeBucketRolloverPolicy implements RolloverPolicy {
+  private final FileNameSuffixFormatter fileNameSuffixFormatter;
+  private String currentBucket;
+
+  public TimeBucketRolloverPolicy(FileNameSuffixFormatter fileNameSuffixFormatter) {
+    this.fileNameSuffixFormatter = fileNameSuffixFormatter;
+  }
+
+  @Override
+  public void opened(Document firstDocument) {
+    currentBucket = fileNameSuffixFormatter.format(firstDocument);
+  }
+
+  @Override
+  public boolean shouldRollover(DocumentItemWriter writer, int writtenCount, Document nextDocument) {
+    return !fileNameSuffixFormatter.format(nextDocument).equals(currentBucket);
+  }
+}
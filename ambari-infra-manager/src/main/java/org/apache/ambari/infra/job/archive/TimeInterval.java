@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.apache.ambari.infra.job.archive.FileNameSuffixFormatter.SOLR_DATETIME_FORMATTER;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Interval of Solr date time values. Both ends are inclusive like in a Solr range query.
+ */
+public class TimeInterval {
+
+  /**
+   * Splits the interval into at most count sub-intervals of equal length. The sub-intervals cover the whole interval
+   * and do not overlap; the last one is truncated to the end of the interval.
+   */
+  public static List<TimeInterval> split(String start, String end, int count) {
+    OffsetDateTime startDateTime = OffsetDateTime.parse(start, SOLR_DATETIME_FORMATTER);
+    OffsetDateTime endDateTime = OffsetDateTime.parse(end, SOLR_DATETIME_FORMATTER);
+    long lengthMillis = Math.max(1, (Duration.between(startDateTime, endDateTime).toMillis() + count) / count);
+
+    List<TimeInterval> intervals = new ArrayList<>(count);
+    OffsetDateTime intervalStart = startDateTime;
+    while (!intervalStart.isAfter(endDateTime)) {
+      OffsetDateTime intervalEnd = intervalStart.plus(Duration.ofMillis(lengthMillis - 1));
+      if (intervalEnd.isAfter(endDateTime))
+        intervalEnd = endDateTime;
+      intervals.add(new TimeInterval(SOLR_DATETIME_FORMATTER.format(intervalStart), SOLR_DATETIME_FORMATTER.format(intervalEnd)));
+      intervalStart = intervalEnd.plus(Duration.ofMillis(1));
+    }
+    return intervals;
+  }
+
+  private final String start;
+  private final String end;
+
+  public TimeInterval(String start, String end) {
+    this.start = start;
+    this.end = end;
+  }
+
+  public String getStart() {
+    return start;
+  }
+
+  public String getEnd() {
+    return end;
+  }
+
+  @Override
+  public String toString() {
+    return "[" + start + " TO " + end + "]";
+  }
+}
@@ -24,11 +24,34 @@ public class WriteCompletedEvent {
   private final File outFile;
   private final Document firstDocument;
   private final Document lastDocument;
+  private final int documentCount;
+  private final long byteCount;
+  private final long crc32c;
+  private final Long block;
 
   public WriteCompletedEvent(File outFile, Document firstDocument, Document lastDocument) {
+    this(outFile, firstDocument, lastDocument, 0, 0, 0);
+  }
+
+  public WriteCompletedEvent(File outFile, Document firstDocument, Document lastDocument, int documentCount, long byteCount, long crc32c) {
+    this(outFile, firstDocument, lastDocument, documentCount, byteCount, crc32c, null);
+  }
+
+  private WriteCompletedEvent(File outFile, Document firstDocument, Document lastDocument, int documentCount, long byteCount, long crc32c, Long block) {
     this.outFile = outFile;
     this.firstDocument = firstDocument;
     this.lastDocument = lastDocument;
+    this.documentCount = documentCount;
+    this.byteCount = byteCount;
+    this.crc32c = crc32c;
+    this.block = block;
+  }
+
+  /**
+   * @return a copy of this event with the sequence number of the block in the job execution
+   */
+  public WriteCompletedEvent withBlock(long block) {
+    return new WriteCompletedEvent(outFile, firstDocument, lastDocument, documentCount, byteCount, crc32c, block);
   }
 
   public File getOutFile() {
@@ -42,4 +65,26 @@ public class WriteCompletedEvent {
   public Document getLastDocument() {
     return lastDocument;
   }
+
+  public int getDocumentCount() {
+    return documentCount;
+  }
+
+  public long getByteCount() {
+    return byteCount;
+  }
+
+  /**
+   * @return the CRC32C checksum of the file
+   */
+  public long getCrc32c() {
+    return crc32c;
+  }
+
+  /**
+   * @return the sequence number of the block in the job execution or null if the blocks are not numbered
+   */
+  public Long getBlock() {
+    return block;
+  }
 }
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.github.luben.zstd.ZstdOutputStream;
+
+public class ZstdCodec implements CompressionCodec {
+  public static final int DEFAULT_LEVEL = 3;
+
+  private final int level;
+  private final int threads;
+
+  /**
+   * @param threads if greater than 1 the input is split into jobs which are compressed in parallel by zstd itself
+   */
+  public ZstdCodec(int level, int threads) {
+    this.level = level;
+    this.threads = threads;
+  }
+
+  @Override
+  public String getFileExtension() {
+    return ".zst";
+  }
+
+  @Override
+  public OutputStream compress(OutputStream outputStream) throws IOException {
+    ZstdOutputStream zstdOutputStream = new ZstdOutputStream(outputStream, level < 0 ? DEFAULT_LEVEL : level);
+    if (threads > 1)
+      zstdOutputStream.setWorkers(threads);
+    return zstdOutputStream;
+  }
+}
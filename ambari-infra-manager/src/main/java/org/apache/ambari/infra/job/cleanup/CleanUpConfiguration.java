@@ -20,11 +20,15 @@ package org.apache.ambari.infra.job.cleanup;
 
 import static org.apache.ambari.infra.job.JobsPropertyMap.PARAMETERS_CONTEXT_KEY;
 
+import java.io.File;
+
 import javax.inject.Inject;
 
+import org.apache.ambari.infra.conf.InfraManagerDataConfig;
 import org.apache.ambari.infra.job.InfraJobExecutionDao;
 import org.apache.ambari.infra.job.JobPropertiesHolder;
 import org.apache.ambari.infra.job.JobScheduler;
+import org.apache.ambari.infra.job.archive.ArchiveManifest;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
@@ -73,7 +77,10 @@ public class CleanUpConfiguration {
   @StepScope
   protected TaskHistoryWiper taskHistoryWiper(
           InfraJobExecutionDao infraJobExecutionDao,
+          InfraManagerDataConfig infraManagerDataConfig,
           @Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") CleanUpProperties cleanUpProperties) {
-    return new TaskHistoryWiper(infraJobExecutionDao, cleanUpProperties.getTtl());
+    return new TaskHistoryWiper(infraJobExecutionDao, cleanUpProperties.getTtl(),
+            cleanUpProperties.getBatchSize(), cleanUpProperties.getPause(),
+            new File(infraManagerDataConfig.getDataFolder(), ArchiveManifest.MANIFEST_FOLDER));
   }
 }
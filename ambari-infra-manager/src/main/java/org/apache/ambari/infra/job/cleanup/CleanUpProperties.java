@@ -20,8 +20,11 @@ package org.apache.ambari.infra.job.cleanup;
 
 import static org.apache.ambari.infra.json.StringToDurationConverter.toDuration;
 
+import static org.apache.commons.lang.StringUtils.isBlank;
+
 import java.time.Duration;
 
+import org.apache.ambari.infra.job.InfraJobExecutionDao;
 import org.apache.ambari.infra.job.JobProperties;
 import org.apache.ambari.infra.job.Validatable;
 import org.apache.ambari.infra.json.DurationToStringConverter;
@@ -40,6 +43,10 @@ public class CleanUpProperties extends JobProperties<CleanUpProperties> implemen
   @JsonSerialize(converter = DurationToStringConverter.class)
   @JsonDeserialize(converter = StringToDurationConverter.class)
   private Duration ttl;
+  private int batchSize = InfraJobExecutionDao.DEFAULT_BATCH_SIZE;
+  @JsonSerialize(converter = DurationToStringConverter.class)
+  @JsonDeserialize(converter = StringToDurationConverter.class)
+  private Duration pause = Duration.ZERO;
 
   protected CleanUpProperties() {
     setEnabled(true);
@@ -53,15 +60,44 @@ public class CleanUpProperties extends JobProperties<CleanUpProperties> implemen
     this.ttl = ttl;
   }
 
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public Duration getPause() {
+    return pause;
+  }
+
+  public void setPause(Duration pause) {
+    this.pause = pause;
+  }
+
   @Override
   public void validate() {
+    if (batchSize < 1)
+      throw new IllegalArgumentException("The property batchSize must be greater than 0!");
 
+    if (pause != null && pause.isNegative())
+      throw new IllegalArgumentException("The property pause can not be negative!");
   }
 
   @Override
   public CleanUpProperties merge(JobParameters jobParameters) {
     CleanUpProperties cleanUpProperties = new CleanUpProperties();
     cleanUpProperties.setTtl(toDuration(jobParameters.getString("ttl", DurationToStringConverter.toString(ttl))));
+    cleanUpProperties.setBatchSize(getIntJobParameter(jobParameters, "batchSize", batchSize));
+    cleanUpProperties.setPause(toDuration(jobParameters.getString("pause", DurationToStringConverter.toString(pause))));
     return cleanUpProperties;
   }
+
+  private int getIntJobParameter(JobParameters jobParameters, String parameterName, int defaultValue) {
+    String valueText = jobParameters.getString(parameterName);
+    if (isBlank(valueText))
+      return defaultValue;
+    return Integer.parseInt(valueText);
+  }
 }
@@ -18,28 +18,60 @@
  */
 package org.apache.ambari.infra.job.cleanup;
 
+import java.io.File;
+import java.io.IOException;
 import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.ambari.infra.job.InfraJobExecutionDao;
+import org.apache.ambari.infra.job.InfraJobExecutionDao.JobExecutionKey;
+import org.apache.ambari.infra.job.archive.ArchiveManifest;
+import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.lang.NonNull;
 
+/**
+ * Deletes the history of the jobs older than ttl. Every execution deletes one batch of job executions in its own
+ * transaction, so the job database is never locked for long and a stopped or failed clean up can be restarted:
+ * the deleted batches are not selected again. The number of deleted rows by table is accumulated in the step
+ * execution context. When the last batch is deleted the job instances left without execution are deleted in batches
+ * too, then the archive manifests of the job instances which are no longer in the job repository.
+ */
 public class TaskHistoryWiper implements Tasklet {
 
   private static final Logger logger = LogManager.getLogger(TaskHistoryWiper.class);
   private static final Duration MINIMUM_TTL = Duration.ofHours(1);
+  public static final String OLDER_THAN = "olderThan";
+  public static final String DELETED_ROWS_PREFIX = "deleted.";
+  public static final String DELETED_MANIFESTS = "deletedManifests";
 
   private final InfraJobExecutionDao infraJobExecutionDao;
   private final Duration ttl;
+  private final int batchSize;
+  private final Duration pause;
+  private final File manifestFolder;
 
   public TaskHistoryWiper(InfraJobExecutionDao infraJobExecutionDao, Duration ttl) {
+    this(infraJobExecutionDao, ttl, InfraJobExecutionDao.DEFAULT_BATCH_SIZE, Duration.ZERO, null);
+  }
+
+  /**
+   * @param manifestFolder folder of the archive manifests or null if the manifests should not be deleted
+   */
+  public TaskHistoryWiper(InfraJobExecutionDao infraJobExecutionDao, Duration ttl, int batchSize, Duration pause, File manifestFolder) {
     this.infraJobExecutionDao = infraJobExecutionDao;
+    this.manifestFolder = manifestFolder;
     if (ttl == null || ttl.compareTo(MINIMUM_TTL) < 0) {
       logger.info("The ttl value ({}) less than the minimum required. Using the minimum ({}) instead", ttl, MINIMUM_TTL);
       this.ttl = MINIMUM_TTL;
@@ -47,11 +79,71 @@ public class TaskHistoryWiper implements Tasklet {
     else {
       this.ttl = ttl;
     }
+    this.batchSize = batchSize;
+    this.pause = pause == null ? Duration.ZERO : pause;
   }
 
   @Override
-  public RepeatStatus execute(@NonNull StepContribution contribution, @NonNull ChunkContext chunkContext) {
-    infraJobExecutionDao.deleteJobExecutions(OffsetDateTime.now().minus(ttl));
-    return RepeatStatus.FINISHED;
+  public RepeatStatus execute(@NonNull StepContribution contribution, @NonNull ChunkContext chunkContext) throws InterruptedException {
+    ExecutionContext executionContext = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+    // the limit is kept for the whole step, a restarted step continues with the same one
+    if (!executionContext.containsKey(OLDER_THAN))
+      executionContext.putString(OLDER_THAN, OffsetDateTime.now().minus(ttl).toString());
+    OffsetDateTime olderThan = OffsetDateTime.parse(executionContext.getString(OLDER_THAN));
+
+    List<JobExecutionKey> jobExecutions = infraJobExecutionDao.findJobExecutionsOlderThan(olderThan, batchSize);
+    if (!jobExecutions.isEmpty()) {
+      Map<String, Integer> deletedRows = infraJobExecutionDao.deleteJobExecutions(jobExecutions);
+      for (Map.Entry<String, Integer> tableDeletedRows : deletedRows.entrySet()) {
+        String key = DELETED_ROWS_PREFIX + tableDeletedRows.getKey();
+        executionContext.putLong(key, executionContext.getLong(key, 0) + tableDeletedRows.getValue());
+      }
+      contribution.incrementWriteCount(jobExecutions.size());
+      logger.info("Deleted job executions older than {}: {}", olderThan, deletedRows);
+    }
+
+    if (jobExecutions.size() < batchSize) {
+      int deletedJobInstances = infraJobExecutionDao.deleteJobInstancesWithoutExecution(batchSize);
+      String key = DELETED_ROWS_PREFIX + "JOB_INSTANCE";
+      executionContext.putLong(key, executionContext.getLong(key, 0) + deletedJobInstances);
+      if (deletedJobInstances > 0)
+        logger.info("Deleted {} job instances without execution", deletedJobInstances);
+      executionContext.putLong(DELETED_MANIFESTS, executionContext.getLong(DELETED_MANIFESTS, 0) + deleteManifestsOfDeletedJobInstances());
+      return RepeatStatus.FINISHED;
+    }
+
+    if (!pause.isZero())
+      Thread.sleep(pause.toMillis());
+    return RepeatStatus.CONTINUABLE;
+  }
+
+  private int deleteManifestsOfDeletedJobInstances() {
+    if (manifestFolder == null)
+      return 0;
+    File[] jobInstanceFolders = manifestFolder.listFiles(file -> file.isDirectory() && file.getName().matches("\\d+"));
+    if (jobInstanceFolders == null)
+      return 0;
+
+    int deletedCount = 0;
+    for (int i = 0; i < jobInstanceFolders.length; i += batchSize) {
+      List<Long> jobInstanceIds = Arrays.stream(jobInstanceFolders, i, Math.min(jobInstanceFolders.length, i + batchSize))
+              .map(folder -> Long.parseLong(folder.getName()))
+              .collect(Collectors.toList());
+      Set<Long> existingJobInstanceIds = infraJobExecutionDao.findExistingJobInstanceIds(jobInstanceIds);
+      for (Long jobInstanceId : jobInstanceIds) {
+        if (existingJobInstanceIds.contains(jobInstanceId))
+          continue;
+        try {
+          FileUtils.deleteDirectory(ArchiveManifest.jobInstanceFolder(manifestFolder, jobInstanceId));
+          ++deletedCount;
+        }
+        catch (IOException e) {
+          logger.warn("Unable to delete the archive manifests of job instance " + jobInstanceId, e);
+        }
+      }
+    }
+    if (deletedCount > 0)
+      logger.info("Deleted the archive manifests of {} deleted job instances", deletedCount);
+    return deletedCount;
   }
 }
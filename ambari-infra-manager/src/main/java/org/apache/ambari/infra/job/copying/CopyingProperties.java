@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.copying;
+
+import static java.util.Objects.requireNonNull;
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ambari.infra.job.JobProperties;
+import org.apache.ambari.infra.job.Validatable;
+import org.apache.ambari.infra.job.archive.SolrProperties;
+import org.springframework.batch.core.JobParameters;
+
+public class CopyingProperties extends JobProperties<CopyingProperties> implements Validatable {
+  private SolrProperties solr;
+  private String start;
+  private String end;
+  private String targetZooKeeperConnectionString;
+  private String targetCollection;
+  private String[] includeFields;
+  private String[] excludeFields;
+  private int readBlockSize = 1000;
+  private int writeBatchSize = 1000;
+  private int partitionConcurrency = 4;
+  private int commitWithin;
+
+  /**
+   * Source of the documents. The sortColumn must contain the unique key of the collection because the documents are
+   * read using cursors.
+   */
+  public SolrProperties getSolr() {
+    return solr;
+  }
+
+  public void setSolr(SolrProperties solr) {
+    this.solr = solr;
+  }
+
+  public String getStart() {
+    return start;
+  }
+
+  public void setStart(String start) {
+    this.start = start;
+  }
+
+  public String getEnd() {
+    return end;
+  }
+
+  public void setEnd(String end) {
+    this.end = end;
+  }
+
+  /**
+   * ZooKeeper ensemble of the target cluster. Defaults to the one of the source collection.
+   */
+  public String getTargetZooKeeperConnectionString() {
+    return targetZooKeeperConnectionString;
+  }
+
+  public void setTargetZooKeeperConnectionString(String targetZooKeeperConnectionString) {
+    this.targetZooKeeperConnectionString = targetZooKeeperConnectionString;
+  }
+
+  public String getTargetCollection() {
+    return targetCollection;
+  }
+
+  public void setTargetCollection(String targetCollection) {
+    this.targetCollection = targetCollection;
+  }
+
+  /**
+   * If specified only these fields are copied.
+   */
+  public String[] getIncludeFields() {
+    return includeFields;
+  }
+
+  public void setIncludeFields(String[] includeFields) {
+    this.includeFields = includeFields;
+  }
+
+  /**
+   * These fields are not copied.
+   */
+  public String[] getExcludeFields() {
+    return excludeFields;
+  }
+
+  public void setExcludeFields(String[] excludeFields) {
+    this.excludeFields = excludeFields;
+  }
+
+  public int getReadBlockSize() {
+    return readBlockSize;
+  }
+
+  public void setReadBlockSize(int readBlockSize) {
+    this.readBlockSize = readBlockSize;
+  }
+
+  /**
+   * The number of documents sent to the target collection in one update request.
+   */
+  public int getWriteBatchSize() {
+    return writeBatchSize;
+  }
+
+  public void setWriteBatchSize(int writeBatchSize) {
+    this.writeBatchSize = writeBatchSize;
+  }
+
+  /**
+   * The number of shards read in parallel. Each shard reader has at most one update request in flight.
+   */
+  public int getPartitionConcurrency() {
+    return partitionConcurrency;
+  }
+
+  public void setPartitionConcurrency(int partitionConcurrency) {
+    this.partitionConcurrency = partitionConcurrency;
+  }
+
+  /**
+   * If greater than 0 the copied documents are committed by Solr within this many milliseconds.
+   * The target collection is committed at the end of the job in any case.
+   */
+  public int getCommitWithin() {
+    return commitWithin;
+  }
+
+  public void setCommitWithin(int commitWithin) {
+    this.commitWithin = commitWithin;
+  }
+
+  public String targetZooKeeperConnectionString() {
+    return isBlank(targetZooKeeperConnectionString) ? solr.getZooKeeperConnectionString() : targetZooKeeperConnectionString;
+  }
+
+  @Override
+  public void validate() {
+    requireNonNull(solr, "No solr query was specified for copying job!");
+    solr.validate();
+    if (solr.getSortColumn() == null || solr.getSortColumn().length == 0)
+      throw new IllegalArgumentException("The property solr.sortColumn can not be empty!");
+
+    if (isBlank(targetCollection))
+      throw new IllegalArgumentException("The property targetCollection can not be null or empty string!");
+    if (targetZooKeeperConnectionString().equals(solr.getZooKeeperConnectionString()) && targetCollection.equals(solr.getCollection()))
+      throw new IllegalArgumentException("The target collection must be different from the source collection!");
+
+    if (readBlockSize <= 0)
+      throw new IllegalArgumentException("The property readBlockSize must be greater than 0!");
+    if (writeBatchSize <= 0)
+      throw new IllegalArgumentException("The property writeBatchSize must be greater than 0!");
+    if (partitionConcurrency <= 0)
+      throw new IllegalArgumentException("The property partitionConcurrency must be greater than 0!");
+    if (commitWithin < 0)
+      throw new IllegalArgumentException("The property commitWithin can not be negative!");
+  }
+
+  @Override
+  public CopyingProperties merge(JobParameters jobParameters) {
+    CopyingProperties copyingProperties = new CopyingProperties();
+    copyingProperties.setSolr(solr.merge(jobParameters));
+    copyingProperties.setStart(jobParameters.getString("start"));
+    copyingProperties.setEnd(jobParameters.getString("end"));
+    copyingProperties.setTargetZooKeeperConnectionString(jobParameters.getString("targetZooKeeperConnectionString", targetZooKeeperConnectionString));
+    copyingProperties.setTargetCollection(jobParameters.getString("targetCollection", targetCollection));
+    copyingProperties.setIncludeFields(getStringArray(jobParameters, "includeFields", includeFields));
+    copyingProperties.setExcludeFields(getStringArray(jobParameters, "excludeFields", excludeFields));
+    copyingProperties.setReadBlockSize(getIntJobParameter(jobParameters, "readBlockSize", readBlockSize));
+    copyingProperties.setWriteBatchSize(getIntJobParameter(jobParameters, "writeBatchSize", writeBatchSize));
+    copyingProperties.setPartitionConcurrency(getIntJobParameter(jobParameters, "partitionConcurrency", partitionConcurrency));
+    copyingProperties.setCommitWithin(getIntJobParameter(jobParameters, "commitWithin", commitWithin));
+    return copyingProperties;
+  }
+
+  private String[] getStringArray(JobParameters jobParameters, String name, String[] defaultValue) {
+    String value;
+    List<String> values = new ArrayList<>();
+    int i = 0;
+    while ((value = jobParameters.getString(String.format("%s[%d]", name, i))) != null) {
+      values.add(value);
+      ++i;
+    }
+    if (!values.isEmpty()) {
+      return values.toArray(new String[0]);
+    }
+    else {
+      return defaultValue;
+    }
+  }
+
+  private int getIntJobParameter(JobParameters jobParameters, String parameterName, int defaultValue) {
+    String valueText = jobParameters.getString(parameterName);
+    if (isBlank(valueText))
+      return defaultValue;
+    return Integer.parseInt(valueText);
+  }
+}
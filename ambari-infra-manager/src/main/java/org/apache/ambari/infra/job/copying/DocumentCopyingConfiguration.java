@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.copying;
+
+import static org.apache.ambari.infra.job.JobsPropertyMap.PARAMETERS_CONTEXT_KEY;
+import static org.apache.ambari.infra.job.archive.DocumentArchivingPartitioner.PARTITION_SHARD;
+
+import javax.inject.Inject;
+
+import org.apache.ambari.infra.job.AbstractJobsConfiguration;
+import org.apache.ambari.infra.job.JobScheduler;
+import org.apache.ambari.infra.job.CloudSolrClientCache;
+import org.apache.ambari.infra.job.archive.CursorDocumentItemReader;
+import org.apache.ambari.infra.job.archive.Document;
+import org.apache.ambari.infra.job.archive.DocumentArchivingPartitioner;
+import org.apache.ambari.infra.job.archive.PartitionMode;
+import org.apache.ambari.infra.job.archive.SolrCursorDocumentSource;
+import org.apache.ambari.infra.job.archive.SolrDAO;
+import org.apache.solr.common.SolrInputDocument;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.JobScope;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.configuration.support.JobRegistryBeanPostProcessor;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+@Configuration
+public class DocumentCopyingConfiguration extends AbstractJobsConfiguration<CopyingProperties, CopyingProperties> {
+
+  private final StepBuilderFactory steps;
+  private final Step copyStep;
+  private final Step commitTargetStep;
+
+  @Inject
+  public DocumentCopyingConfiguration(
+          DocumentCopyingPropertyMap documentCopyingPropertyMap,
+          JobScheduler scheduler,
+          StepBuilderFactory steps,
+          JobBuilderFactory jobs,
+          JobRegistryBeanPostProcessor jobRegistryBeanPostProcessor,
+          @Qualifier("copyStep") Step copyStep,
+          @Qualifier("commitTargetStep") Step commitTargetStep) {
+    super(documentCopyingPropertyMap.getSolrDataCopying(), scheduler, jobs, jobRegistryBeanPostProcessor);
+    this.steps = steps;
+    this.copyStep = copyStep;
+    this.commitTargetStep = commitTargetStep;
+  }
+
+  @Override
+  protected Job buildJob(JobBuilder jobBuilder) {
+    return jobBuilder.start(copyStep).next(commitTargetStep).build();
+  }
+
+  @Bean
+  @JobScope
+  public Step copyStep(@Qualifier("copyPartitionStep") Step copyPartitionStep,
+                       @Value("#{jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") CopyingProperties parameters,
+                       CloudSolrClientCache cloudSolrClientCache) {
+    SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("copying-");
+    taskExecutor.setConcurrencyLimit(parameters.getPartitionConcurrency());
+    return steps.get("copy")
+            .partitioner("copyPartition", new DocumentArchivingPartitioner(
+                    PartitionMode.SHARD,
+                    parameters.getStart(),
+                    parameters.getEnd(),
+                    new SolrDAO(cloudSolrClientCache, parameters.getSolr())))
+            .step(copyPartitionStep)
+            .taskExecutor(taskExecutor)
+            .build();
+  }
+
+  @Bean
+  @JobScope
+  public Step copyPartitionStep(CursorDocumentItemReader copyReader,
+                                SolrDocumentItemWriter copyWriter,
+                                @Value("#{jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") CopyingProperties parameters) {
+    return steps.get("copyPartition")
+            .<Document, SolrInputDocument>chunk(parameters.getWriteBatchSize())
+            .reader(copyReader)
+            .processor(new FieldProjection(parameters.getIncludeFields(), parameters.getExcludeFields()))
+            .writer(copyWriter)
+            .build();
+  }
+
+  @Bean
+  @StepScope
+  public CursorDocumentItemReader copyReader(
+          @Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") CopyingProperties parameters,
+          @Value("#{stepExecution.executionContext.get('" + PARTITION_SHARD + "')}") String shard,
+          CloudSolrClientCache cloudSolrClientCache) {
+    return new CursorDocumentItemReader(
+            new SolrCursorDocumentSource(new SolrDAO(cloudSolrClientCache, parameters.getSolr(), shard, true), parameters.getStart(), parameters.getEnd()),
+            parameters.getReadBlockSize());
+  }
+
+  @Bean
+  @StepScope
+  public SolrDocumentItemWriter copyWriter(
+          @Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") CopyingProperties parameters,
+          CloudSolrClientCache cloudSolrClientCache) {
+    return solrDocumentItemWriter(parameters, cloudSolrClientCache);
+  }
+
+  @Bean
+  @JobScope
+  public Step commitTargetStep(
+          @Value("#{jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") CopyingProperties parameters,
+          CloudSolrClientCache cloudSolrClientCache) {
+    SolrDocumentItemWriter writer = solrDocumentItemWriter(parameters, cloudSolrClientCache);
+    return steps.get("commitTarget")
+            .tasklet((contribution, chunkContext) -> {
+              writer.commit();
+              return RepeatStatus.FINISHED;
+            })
+            .build();
+  }
+
+  private SolrDocumentItemWriter solrDocumentItemWriter(CopyingProperties parameters, CloudSolrClientCache cloudSolrClientCache) {
+    return new SolrDocumentItemWriter(cloudSolrClientCache,
+            parameters.targetZooKeeperConnectionString(), parameters.getTargetCollection(), parameters.getCommitWithin());
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.copying;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ambari.infra.job.archive.Document;
+import org.apache.solr.common.SolrInputDocument;
+import org.springframework.batch.item.ItemProcessor;
+
+/**
+ * Converts the read documents to input documents of the target collection keeping the included and dropping the
+ * excluded fields.
+ */
+public class FieldProjection implements ItemProcessor<Document, SolrInputDocument> {
+  // the version of the source document would fail the optimistic concurrency check of the update
+  private static final String VERSION_FIELD = "_version_";
+
+  private final Set<String> includeFields;
+  private final Set<String> excludeFields;
+
+  /**
+   * @param includeFields if null or empty all fields are included
+   */
+  public FieldProjection(String[] includeFields, String[] excludeFields) {
+    this.includeFields = toSet(includeFields);
+    this.excludeFields = toSet(excludeFields);
+  }
+
+  private static Set<String> toSet(String[] fields) {
+    return fields == null ? Collections.emptySet() : new HashSet<>(Arrays.asList(fields));
+  }
+
+  @Override
+  public SolrInputDocument process(Document document) {
+    SolrInputDocument inputDocument = new SolrInputDocument();
+    for (Map.Entry<String, Object> field : document.getFieldMap().entrySet()) {
+      if (VERSION_FIELD.equals(field.getKey()) || excludeFields.contains(field.getKey()))
+        continue;
+      if (!includeFields.isEmpty() && !includeFields.contains(field.getKey()))
+        continue;
+      inputDocument.addField(field.getKey(), field.getValue());
+    }
+    return inputDocument;
+  }
+}
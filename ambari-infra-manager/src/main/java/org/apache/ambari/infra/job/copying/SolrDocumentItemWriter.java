@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.copying;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ambari.infra.job.CloudSolrClientCache;
+import org.apache.ambari.infra.job.SolrDAOBase;
+import org.apache.solr.common.SolrInputDocument;
+import org.springframework.batch.item.ItemWriter;
+
+/**
+ * Adds the documents of a chunk to the target collection with one update request. The shared client routes the
+ * documents to the leaders of their shards.
+ */
+public class SolrDocumentItemWriter extends SolrDAOBase implements ItemWriter<SolrInputDocument> {
+
+  private final int commitWithin;
+
+  /**
+   * @param commitWithin if greater than 0 the documents are committed by Solr within this many milliseconds
+   */
+  public SolrDocumentItemWriter(CloudSolrClientCache cloudSolrClientCache, String zooKeeperConnectionString, String collection, int commitWithin) {
+    super(cloudSolrClientCache, zooKeeperConnectionString, collection);
+    this.commitWithin = commitWithin;
+  }
+
+  @Override
+  public void write(List<? extends SolrInputDocument> documents) {
+    if (documents.isEmpty())
+      return;
+    add(new ArrayList<>(documents));
+  }
+
+  protected void add(List<SolrInputDocument> documents) {
+    execute(client -> client.add(getDefaultCollection(), documents, commitWithin > 0 ? commitWithin : -1));
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.deleting;
+
+import static org.apache.ambari.infra.job.JobsPropertyMap.PARAMETERS_CONTEXT_KEY;
+
+import org.apache.ambari.infra.job.CloudSolrClientCache;
+import org.apache.ambari.infra.job.SolrSchemaDAO;
+import org.apache.ambari.infra.job.archive.ArchiveSchema;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+
+/**
+ * Checks the filter field of the deleting job parameters in the Solr schema. The sub-ranges are time intervals, so a
+ * job which splits the interval into sub-ranges can only filter by a date field.
+ * Must be registered after the listener which puts the parameters into the job execution context.
+ */
+public class DeletingParametersValidator implements JobExecutionListener {
+
+  private final CloudSolrClientCache cloudSolrClientCache;
+
+  public DeletingParametersValidator(CloudSolrClientCache cloudSolrClientCache) {
+    this.cloudSolrClientCache = cloudSolrClientCache;
+  }
+
+  @Override
+  public void beforeJob(JobExecution jobExecution) {
+    DeletingProperties parameters = (DeletingProperties) jobExecution.getExecutionContext().get(PARAMETERS_CONTEXT_KEY);
+    if (parameters == null || parameters.getSubRangeCount() <= 1)
+      return;
+
+    String fieldTypeClass = getFieldTypeClass(parameters);
+    if (ArchiveSchema.ColumnType.of(fieldTypeClass) != ArchiveSchema.ColumnType.TIMESTAMP) {
+      IllegalArgumentException ex = new IllegalArgumentException(String.format(
+              "The filter field %s of collection %s must be a date field to split the interval into sub-ranges but its type is %s!",
+              parameters.getFilterField(), parameters.getCollection(), fieldTypeClass));
+      jobExecution.stop();
+      jobExecution.setExitStatus(new ExitStatus(ExitStatus.FAILED.getExitCode(), ex.getMessage()));
+      throw ex;
+    }
+  }
+
+  protected String getFieldTypeClass(DeletingProperties parameters) {
+    return new SolrSchemaDAO(cloudSolrClientCache, parameters.getZooKeeperConnectionString(), parameters.getCollection())
+            .getFieldTypeClass(parameters.getFilterField());
+  }
+
+  @Override
+  public void afterJob(JobExecution jobExecution) {
+
+  }
+}
@@ -18,10 +18,13 @@
  */
 package org.apache.ambari.infra.job.deleting;
 
+import static org.apache.ambari.infra.job.archive.FileNameSuffixFormatter.SOLR_DATETIME_FORMATTER;
 import static org.apache.ambari.infra.json.StringToDurationConverter.toDuration;
 import static org.apache.commons.lang.StringUtils.isBlank;
 
 import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 
 import org.apache.ambari.infra.job.JobProperties;
 import org.apache.ambari.infra.job.Validatable;
@@ -41,6 +44,10 @@ public class DeletingProperties extends JobProperties<DeletingProperties> implem
   @JsonSerialize(converter = DurationToStringConverter.class)
   @JsonDeserialize(converter = StringToDurationConverter.class)
   private Duration ttl;
+  private int subRangeCount = 1;
+  private int deleteConcurrency = 1;
+  private boolean shardRouted;
+  private double maxDeletesPerSecond;
 
   public String getZooKeeperConnectionString() {
     return zooKeeperConnectionString;
@@ -90,6 +97,38 @@ public class DeletingProperties extends JobProperties<DeletingProperties> implem
     this.ttl = ttl;
   }
 
+  public int getSubRangeCount() {
+    return subRangeCount;
+  }
+
+  public void setSubRangeCount(int subRangeCount) {
+    this.subRangeCount = subRangeCount;
+  }
+
+  public int getDeleteConcurrency() {
+    return deleteConcurrency;
+  }
+
+  public void setDeleteConcurrency(int deleteConcurrency) {
+    this.deleteConcurrency = deleteConcurrency;
+  }
+
+  public boolean isShardRouted() {
+    return shardRouted;
+  }
+
+  public void setShardRouted(boolean shardRouted) {
+    this.shardRouted = shardRouted;
+  }
+
+  public double getMaxDeletesPerSecond() {
+    return maxDeletesPerSecond;
+  }
+
+  public void setMaxDeletesPerSecond(double maxDeletesPerSecond) {
+    this.maxDeletesPerSecond = maxDeletesPerSecond;
+  }
+
   @Override
   public void validate() {
     if (isBlank(zooKeeperConnectionString))
@@ -100,6 +139,28 @@ public class DeletingProperties extends JobProperties<DeletingProperties> implem
 
     if (isBlank(filterField))
       throw new IllegalArgumentException("The property filterField can not be null or empty string!");
+    if (subRangeCount <= 0)
+      throw new IllegalArgumentException("The property subRangeCount must be greater than 0!");
+    if (subRangeCount > 1) {
+      validateDateTime("start", start);
+      validateDateTime("end", end);
+    }
+    if (deleteConcurrency <= 0)
+      throw new IllegalArgumentException("The property deleteConcurrency must be greater than 0!");
+    if (maxDeletesPerSecond < 0)
+      throw new IllegalArgumentException("The property maxDeletesPerSecond can not be negative!");
+  }
+
+  private void validateDateTime(String propertyName, String value) {
+    if (isBlank(value) || "*".equals(value))
+      return;
+    try {
+      OffsetDateTime.parse(value, SOLR_DATETIME_FORMATTER);
+    }
+    catch (DateTimeParseException ex) {
+      throw new IllegalArgumentException(String.format(
+              "The property %s must be a date time like 2018-07-01T00:00:00.000Z when subRangeCount is greater than 1!", propertyName), ex);
+    }
   }
 
   @Override
@@ -111,6 +172,18 @@ public class DeletingProperties extends JobProperties<DeletingProperties> implem
     deletingProperties.setStart(jobParameters.getString("start", "*"));
     deletingProperties.setEnd(jobParameters.getString("end", "*"));
     deletingProperties.setTtl(toDuration(jobParameters.getString("ttl", DurationToStringConverter.toString(ttl))));
+    deletingProperties.setSubRangeCount(getIntJobParameter(jobParameters, "subRangeCount", subRangeCount));
+    deletingProperties.setDeleteConcurrency(getIntJobParameter(jobParameters, "deleteConcurrency", deleteConcurrency));
+    deletingProperties.setShardRouted(Boolean.parseBoolean(jobParameters.getString("shardRouted", Boolean.toString(shardRouted))));
+    String maxDeletesPerSecondText = jobParameters.getString("maxDeletesPerSecond");
+    deletingProperties.setMaxDeletesPerSecond(isBlank(maxDeletesPerSecondText) ? maxDeletesPerSecond : Double.parseDouble(maxDeletesPerSecondText));
     return deletingProperties;
   }
+
+  private int getIntJobParameter(JobParameters jobParameters, String parameterName, int defaultValue) {
+    String valueText = jobParameters.getString(parameterName);
+    if (isBlank(valueText))
+      return defaultValue;
+    return Integer.parseInt(valueText);
+  }
 }
@@ -18,12 +18,17 @@
  */
 package org.apache.ambari.infra.job.deleting;
 
+import static org.apache.ambari.infra.job.DryRunConfiguration.dryRunFlow;
 import static org.apache.ambari.infra.job.JobsPropertyMap.PARAMETERS_CONTEXT_KEY;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import javax.inject.Inject;
 
 import org.apache.ambari.infra.job.AbstractJobsConfiguration;
 import org.apache.ambari.infra.job.JobScheduler;
+import org.apache.ambari.infra.job.CloudSolrClientCache;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
@@ -32,16 +37,21 @@ import org.springframework.batch.core.configuration.annotation.StepBuilderFactor
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.configuration.support.JobRegistryBeanPostProcessor;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 @Configuration
 public class DocumentDeletingConfiguration extends AbstractJobsConfiguration<DeletingProperties, DeletingProperties> {
 
   private final StepBuilderFactory steps;
   private final Step deleteStep;
+  private final JobExecutionDecider dryRunDecider;
+  private final Step estimateStep;
+  private final CloudSolrClientCache cloudSolrClientCache;
 
   @Inject
   public DocumentDeletingConfiguration(
@@ -50,15 +60,22 @@ public class DocumentDeletingConfiguration extends AbstractJobsConfiguration<Del
           StepBuilderFactory steps,
           JobBuilderFactory jobs,
           JobRegistryBeanPostProcessor jobRegistryBeanPostProcessor,
-          @Qualifier("deleteStep") Step deleteStep) {
+          @Qualifier("deleteStep") Step deleteStep,
+          @Qualifier("dryRunDecider") JobExecutionDecider dryRunDecider,
+          @Qualifier("estimateStep") Step estimateStep,
+          CloudSolrClientCache cloudSolrClientCache) {
     super(documentDeletingPropertyMap.getSolrDataDeleting(), scheduler, jobs, jobRegistryBeanPostProcessor);
     this.steps = steps;
     this.deleteStep = deleteStep;
+    this.dryRunDecider = dryRunDecider;
+    this.estimateStep = estimateStep;
+    this.cloudSolrClientCache = cloudSolrClientCache;
   }
 
   @Override
   protected Job buildJob(JobBuilder jobBuilder) {
-    return jobBuilder.start(deleteStep).build();
+    return jobBuilder.listener(new DeletingParametersValidator(cloudSolrClientCache))
+            .start(dryRunFlow("deleteFlow", dryRunDecider, estimateStep, deleteStep)).end().build();
   }
 
   @Bean
@@ -72,7 +89,20 @@ public class DocumentDeletingConfiguration extends AbstractJobsConfiguration<Del
   @Bean
   @StepScope
   public DocumentWiperTasklet documentWiperTasklet(
-          @Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") DeletingProperties parameters) {
-    return new DocumentWiperTasklet(parameters);
+          @Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") DeletingProperties parameters,
+          CloudSolrClientCache cloudSolrClientCache,
+          @Qualifier("documentDeletingExecutor") ExecutorService documentDeletingExecutor) {
+    return new DocumentWiperTasklet(cloudSolrClientCache, parameters, documentDeletingExecutor);
+  }
+
+  /**
+   * Threads of the parallel sub-range deletes shared by the executions of the deleting jobs. Each execution limits its
+   * own concurrency to its deleteConcurrency parameter.
+   */
+  @Bean(destroyMethod = "shutdownNow")
+  public ExecutorService documentDeletingExecutor() {
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("deleting-");
+    threadFactory.setDaemon(true);
+    return Executors.newCachedThreadPool(threadFactory);
   }
 }
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.deleting;
+
+import static org.apache.ambari.infra.job.archive.SolrQueryBuilder.computeEnd;
+
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.apache.ambari.infra.job.JobEstimate;
+import org.apache.ambari.infra.job.JobEstimator;
+import org.apache.ambari.infra.job.CloudSolrClientCache;
+import org.apache.ambari.infra.job.SolrEstimationDAO;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.springframework.batch.core.JobParameters;
+
+@Named
+public class DocumentDeletingEstimator implements JobEstimator {
+  static final String DELETE_STEP_NAME = "delete";
+
+  private final DocumentDeletingPropertyMap documentDeletingPropertyMap;
+  private final CloudSolrClientCache cloudSolrClientCache;
+
+  @Inject
+  public DocumentDeletingEstimator(DocumentDeletingPropertyMap documentDeletingPropertyMap, CloudSolrClientCache cloudSolrClientCache) {
+    this.documentDeletingPropertyMap = documentDeletingPropertyMap;
+    this.cloudSolrClientCache = cloudSolrClientCache;
+  }
+
+  @Override
+  public boolean canEstimate(String jobName) {
+    Map<String, DeletingProperties> propertyMap = documentDeletingPropertyMap.getSolrDataDeleting();
+    return propertyMap != null && propertyMap.containsKey(jobName);
+  }
+
+  @Override
+  public JobEstimate estimate(String jobName, JobParameters jobParameters) {
+    DeletingProperties parameters = documentDeletingPropertyMap.getSolrDataDeleting().get(jobName).merge(jobParameters);
+    parameters.validate();
+
+    String deleteQuery = new DocumentWiperTasklet.SubRange(parameters.getStart(), computeEnd(parameters.getEnd(), parameters.getTtl()))
+            .toDeleteQuery(parameters.getFilterField());
+    JobEstimate estimate = new SolrEstimationDAO(cloudSolrClientCache, parameters.getZooKeeperConnectionString(), parameters.getCollection())
+            .estimate(new SolrQuery(deleteQuery));
+    estimate.setJobName(jobName);
+    estimate.setHistoryStepName(DELETE_STEP_NAME);
+    return estimate;
+  }
+}
@@ -18,34 +18,240 @@
  */
 package org.apache.ambari.infra.job.deleting;
 
+import static org.apache.ambari.infra.job.archive.FileNameSuffixFormatter.SOLR_DATETIME_FORMATTER;
 import static org.apache.ambari.infra.job.archive.SolrQueryBuilder.computeEnd;
+import static org.apache.commons.lang.StringUtils.isBlank;
 
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.apache.ambari.infra.job.CloudSolrClientCache;
 import org.apache.ambari.infra.job.SolrDAOBase;
+import org.apache.ambari.infra.job.archive.TimeInterval;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.SolrDocumentList;
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.lang.NonNull;
 
+import com.google.common.util.concurrent.RateLimiter;
+
+/**
+ * Deletes the documents of the configured interval. The interval can be split into sub-ranges which are deleted in
+ * parallel, optionally by restricting the deletes to one shard at a time. Every execution deletes the next
+ * deleteConcurrency sub-ranges, commits and stores the end of the last deleted sub-range in the step execution
+ * context so a restarted job continues from there.
+ */
 public class DocumentWiperTasklet extends SolrDAOBase implements Tasklet {
+  private static final Logger logger = LogManager.getLogger(DocumentWiperTasklet.class);
+
+  public static final String DELETE_END = "deleteEnd";
+  public static final String LAST_DELETED_END = "lastDeletedEnd";
+
   private final DeletingProperties parameters;
+  private final RateLimiter rateLimiter;
+  private final ExecutorService executorService;
+  private List<SubRange> subRanges;
+  private int nextSubRange;
 
-  public DocumentWiperTasklet(DeletingProperties deletingProperties) {
-    super(deletingProperties.getZooKeeperConnectionString(), deletingProperties.getCollection());
+  public DocumentWiperTasklet(CloudSolrClientCache cloudSolrClientCache, DeletingProperties deletingProperties, ExecutorService executorService) {
+    super(cloudSolrClientCache, deletingProperties.getZooKeeperConnectionString(), deletingProperties.getCollection());
     parameters = deletingProperties;
+    rateLimiter = deletingProperties.getMaxDeletesPerSecond() > 0 ? RateLimiter.create(deletingProperties.getMaxDeletesPerSecond()) : null;
+    this.executorService = executorService;
   }
 
   @Override
-  public RepeatStatus execute(@NonNull StepContribution contribution, @NonNull ChunkContext chunkContext) {
-    delete(String.format("%s:[%s TO %s]",
-            parameters.getFilterField(),
-            getValue(parameters.getStart()),
-            getValue(computeEnd(parameters.getEnd(), parameters.getTtl()))));
-    return RepeatStatus.FINISHED;
+  public RepeatStatus execute(@NonNull StepContribution contribution, @NonNull ChunkContext chunkContext) throws Exception {
+    ExecutionContext executionContext = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+    if (subRanges == null)
+      subRanges = subRanges(executionContext);
+
+    if (nextSubRange >= subRanges.size())
+      return RepeatStatus.FINISHED;
+
+    List<SubRange> round = subRanges.subList(nextSubRange, Math.min(subRanges.size(), nextSubRange + parameters.getDeleteConcurrency()));
+    if (subRanges.size() == 1 && !parameters.isShardRouted()) {
+      acquire();
+      delete(round.get(0).toDeleteQuery(parameters.getFilterField()));
+    }
+    else {
+      deleteInParallel(round);
+      commit();
+    }
+
+    nextSubRange += round.size();
+    SubRange lastDeleted = round.get(round.size() - 1);
+    if (lastDeleted.end != null)
+      executionContext.putString(LAST_DELETED_END, lastDeleted.end);
+    contribution.incrementWriteCount(round.size());
+    logger.info("Deleted {} of {} sub-ranges, last deleted sub-range {}", nextSubRange, subRanges.size(), lastDeleted);
+    return nextSubRange < subRanges.size() ? RepeatStatus.CONTINUABLE : RepeatStatus.FINISHED;
+  }
+
+  private void deleteInParallel(List<SubRange> round) throws Exception {
+    List<String> shards = parameters.isShardRouted() ? getShardNames() : Collections.singletonList(null);
+    List<Runnable> deletes = new ArrayList<>(round.size() * shards.size());
+    for (SubRange subRange : round) {
+      String deleteQuery = subRange.toDeleteQuery(parameters.getFilterField());
+      for (String shard : shards) {
+        deletes.add(() -> {
+          acquire();
+          deleteSubRange(shard, deleteQuery);
+        });
+      }
+    }
+
+    // the executor is shared: at most deleteConcurrency workers take the deletes of this round from a queue
+    Queue<Runnable> queue = new ConcurrentLinkedQueue<>(deletes);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < Math.min(deletes.size(), parameters.getDeleteConcurrency()); ++i)
+      futures.add(executorService.submit(() -> deleteAll(queue)));
+    try {
+      for (Future<?> future : futures)
+        waitFor(future);
+    }
+    finally {
+      queue.clear();
+    }
+  }
+
+  private void deleteAll(Queue<Runnable> queue) {
+    Runnable delete;
+    while ((delete = queue.poll()) != null) {
+      try {
+        delete.run();
+      }
+      catch (RuntimeException e) {
+        queue.clear();
+        throw e;
+      }
+    }
+  }
+
+  private void waitFor(Future<?> future) throws Exception {
+    try {
+      future.get();
+    }
+    catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception)
+        throw (Exception) e.getCause();
+      throw e;
+    }
+  }
+
+  /**
+   * Deletes one sub-range without committing.
+   * @param shard if not null the delete is executed on this shard only
+   */
+  protected void deleteSubRange(String shard, String deleteQuery) {
+    if (shard != null) {
+      deleteOnShard(shard, deleteQuery);
+      return;
+    }
+
+    execute(client -> {
+      logger.info("Executing solr delete by query {}", deleteQuery);
+      client.deleteByQuery(getDefaultCollection(), deleteQuery);
+      return null;
+    });
+  }
+
+  private void acquire() {
+    if (rateLimiter != null)
+      rateLimiter.acquire();
   }
 
-  private String getValue(String value) {
+  private List<SubRange> subRanges(ExecutionContext executionContext) {
+    // the end is fixed at the first execution: a restarted job must not extend the interval computed from the ttl
+    String end = executionContext.getString(DELETE_END, null);
+    if (end == null) {
+      end = computeEnd(parameters.getEnd(), parameters.getTtl());
+      if (end == null)
+        end = "*";
+      executionContext.putString(DELETE_END, end);
+    }
+
+    String start = parameters.getStart();
+    String lastDeletedEnd = executionContext.getString(LAST_DELETED_END, null);
+    if (lastDeletedEnd != null) {
+      start = SOLR_DATETIME_FORMATTER.format(OffsetDateTime.parse(lastDeletedEnd, SOLR_DATETIME_FORMATTER).plus(Duration.ofMillis(1)));
+      logger.info("Resuming deletion after the last deleted sub-range ending at {}", lastDeletedEnd);
+    }
+
+    if (parameters.getSubRangeCount() <= 1)
+      return Collections.singletonList(new SubRange(start, end));
+
+    if ("*".equals(end)) {
+      logger.warn("Unable to split interval [{} TO {}] to {} sub-ranges. The end of the interval must be specified.", start, end, parameters.getSubRangeCount());
+      return Collections.singletonList(new SubRange(start, end));
+    }
+
+    if (isBlank(start) || "*".equals(start)) {
+      start = findFirstValue(end);
+      if (start == null) {
+        logger.info("No documents found to delete until {}", end);
+        return Collections.emptyList();
+      }
+    }
+
+    return TimeInterval.split(start, end, parameters.getSubRangeCount()).stream()
+            .map(interval -> new SubRange(interval.getStart(), interval.getEnd()))
+            .collect(Collectors.toList());
+  }
+
+  protected String findFirstValue(String end) {
+    SolrQuery query = new SolrQuery("*:*");
+    query.setFilterQueries(String.format("%s:[* TO %s]", parameters.getFilterField(), escape(end)));
+    query.setFields(parameters.getFilterField());
+    query.setSort(parameters.getFilterField(), SolrQuery.ORDER.asc);
+    query.setRows(1);
+    SolrDocumentList results = execute(client -> client.query(getDefaultCollection(), query)).getResults();
+    if (results.isEmpty())
+      return null;
+    Object value = results.get(0).getFieldValue(parameters.getFilterField());
+    if (value instanceof Date)
+      return SOLR_DATETIME_FORMATTER.format(((Date) value).toInstant().atOffset(ZoneOffset.UTC));
+    return value.toString();
+  }
+
+  private static String escape(String value) {
     return "*".equals(value) ? value : ClientUtils.escapeQueryChars(value);
   }
+
+  static class SubRange {
+    private final String start;
+    private final String end;
+
+    SubRange(String start, String end) {
+      this.start = isBlank(start) ? "*" : start;
+      this.end = isBlank(end) || "*".equals(end) ? null : end;
+    }
+
+    String toDeleteQuery(String filterField) {
+      return String.format("%s:[%s TO %s]", filterField, escape(start), escape(end == null ? "*" : end));
+    }
+
+    @Override
+    public String toString() {
+      return "[" + start + " TO " + (end == null ? "*" : end) + "]";
+    }
+  }
 }
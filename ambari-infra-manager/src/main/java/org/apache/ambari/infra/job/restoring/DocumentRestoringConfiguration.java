@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.restoring;
+
+import static org.apache.ambari.infra.job.JobsPropertyMap.PARAMETERS_CONTEXT_KEY;
+
+import java.io.File;
+
+import javax.inject.Inject;
+
+import org.apache.ambari.infra.job.AbstractJobsConfiguration;
+import org.apache.ambari.infra.job.JobScheduler;
+import org.apache.ambari.infra.job.CloudSolrClientCache;
+import org.apache.ambari.infra.job.archive.HdfsFileSystem;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.JobScope;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.configuration.support.JobRegistryBeanPostProcessor;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class DocumentRestoringConfiguration extends AbstractJobsConfiguration<RestoringProperties, RestoringProperties> {
+
+  private final StepBuilderFactory steps;
+  private final Step restoreStep;
+
+  @Inject
+  public DocumentRestoringConfiguration(
+          DocumentRestoringPropertyMap documentRestoringPropertyMap,
+          JobScheduler scheduler,
+          StepBuilderFactory steps,
+          JobBuilderFactory jobs,
+          JobRegistryBeanPostProcessor jobRegistryBeanPostProcessor,
+          @Qualifier("restoreStep") Step restoreStep) {
+    super(documentRestoringPropertyMap.getSolrDataRestoring(), scheduler, jobs, jobRegistryBeanPostProcessor);
+    this.steps = steps;
+    this.restoreStep = restoreStep;
+  }
+
+  @Override
+  protected Job buildJob(JobBuilder jobBuilder) {
+    return jobBuilder.start(restoreStep).build();
+  }
+
+  @Bean
+  @JobScope
+  public Step restoreStep(DocumentRestoringTasklet tasklet) {
+    return steps.get("restore")
+            .tasklet(tasklet)
+            .build();
+  }
+
+  @Bean
+  @StepScope
+  public DocumentRestoringTasklet documentRestoringTasklet(
+          @Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") RestoringProperties parameters,
+          CloudSolrClientCache cloudSolrClientCache,
+          ArchiveSource archiveSource,
+          MeterRegistry meterRegistry) {
+    return new DocumentRestoringTasklet(cloudSolrClientCache, parameters, archiveSource,
+            meterRegistry.counter("infra.manager.restore.documents", "collection", parameters.getCollection()));
+  }
+
+  @Bean
+  @StepScope
+  public ArchiveSource archiveSource(
+          @Value("#{stepExecution.jobExecution.executionContext.get('" + PARAMETERS_CONTEXT_KEY + "')}") RestoringProperties parameters) {
+    if (parameters.getSource() == RestoreSource.HDFS)
+      return new HdfsArchiveSource(new HdfsFileSystem(new org.apache.hadoop.conf.Configuration(), parameters.hdfsProperties()));
+    return new LocalArchiveSource(new File(parameters.getSourceDirectory()));
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.restoring;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.ambari.infra.job.CloudSolrClientCache;
+import org.apache.ambari.infra.job.SolrDAOBase;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.common.SolrInputDocument;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.lang.NonNull;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import io.micrometer.core.instrument.Counter;
+
+/**
+ * Indexes the documents of archive files into a collection. The files are processed in name order: every execution
+ * restores the next workerCount files in parallel and stores the name of the last restored file in the step
+ * execution context so a restarted job continues with the next file. Re-adding a document of a partially restored
+ * file overwrites it, so restarting is safe.
+ */
+public class DocumentRestoringTasklet extends SolrDAOBase implements Tasklet {
+  private static final Logger logger = LogManager.getLogger(DocumentRestoringTasklet.class);
+
+  public static final String LAST_RESTORED_FILE = "lastRestoredFile";
+  // the version of the archived document would fail the optimistic concurrency check of the update
+  private static final String VERSION_FIELD = "_version_";
+  private static final ObjectReader documentReader = new ObjectMapper().readerFor(Map.class);
+
+  private final RestoringProperties parameters;
+  private final ArchiveSource archiveSource;
+  private final Counter restoredDocumentCounter;
+  private List<String> fileNames;
+  private int nextFile;
+
+  public DocumentRestoringTasklet(CloudSolrClientCache cloudSolrClientCache, RestoringProperties restoringProperties,
+                                  ArchiveSource archiveSource, Counter restoredDocumentCounter) {
+    super(cloudSolrClientCache, restoringProperties.getZooKeeperConnectionString(), restoringProperties.getCollection());
+    this.parameters = restoringProperties;
+    this.archiveSource = archiveSource;
+    this.restoredDocumentCounter = restoredDocumentCounter;
+  }
+
+  @Override
+  public RepeatStatus execute(@NonNull StepContribution contribution, @NonNull ChunkContext chunkContext) throws Exception {
+    ExecutionContext executionContext = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+    if (fileNames == null)
+      fileNames = fileNames(executionContext.getString(LAST_RESTORED_FILE, null));
+
+    if (nextFile >= fileNames.size())
+      return RepeatStatus.FINISHED;
+
+    List<String> round = fileNames.subList(nextFile, Math.min(fileNames.size(), nextFile + parameters.getWorkerCount()));
+    long startNanos = System.nanoTime();
+    long documentCount = restoreInParallel(round);
+    nextFile += round.size();
+    boolean finished = nextFile >= fileNames.size();
+    if (parameters.getCommitPolicy() == CommitPolicy.ROUND || (finished && parameters.getCommitPolicy() == CommitPolicy.END))
+      commit();
+
+    executionContext.putString(LAST_RESTORED_FILE, round.get(round.size() - 1));
+    contribution.incrementWriteCount(Math.toIntExact(documentCount));
+    double seconds = (System.nanoTime() - startNanos) / 1e9;
+    logger.info("Restored {} of {} files, {} documents in {} s ({} docs/sec)",
+            nextFile, fileNames.size(), documentCount, String.format("%.1f", seconds), Math.round(documentCount / Math.max(seconds, 1e-3)));
+    return finished ? RepeatStatus.FINISHED : RepeatStatus.CONTINUABLE;
+  }
+
+  private List<String> fileNames(String lastRestoredFile) throws IOException {
+    Pattern fileNamePattern = Pattern.compile(parameters.getFileNamePattern());
+    List<String> fileNames = archiveSource.listFileNames().stream()
+            .filter(fileName -> fileNamePattern.matcher(fileName).matches())
+            .filter(fileName -> lastRestoredFile == null || fileName.compareTo(lastRestoredFile) > 0)
+            .sorted()
+            .collect(Collectors.toList());
+    if (lastRestoredFile != null)
+      logger.info("Resuming restore after file {}", lastRestoredFile);
+    logger.info("{} files to restore into collection {}", fileNames.size(), getDefaultCollection());
+    return fileNames;
+  }
+
+  private long restoreInParallel(List<String> round) throws Exception {
+    if (round.size() == 1)
+      return restore(round.get(0));
+
+    ExecutorService executorService = Executors.newFixedThreadPool(round.size());
+    try {
+      List<Future<Long>> futures = new ArrayList<>(round.size());
+      for (String fileName : round)
+        futures.add(executorService.submit(() -> restore(fileName)));
+      long documentCount = 0;
+      for (Future<Long> future : futures)
+        documentCount += waitFor(future);
+      return documentCount;
+    }
+    finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  private long waitFor(Future<Long> future) throws Exception {
+    try {
+      return future.get();
+    }
+    catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception)
+        throw (Exception) e.getCause();
+      throw e;
+    }
+  }
+
+  private long restore(String fileName) throws IOException {
+    logger.info("Restoring file {}", fileName);
+    long documentCount = 0;
+    try (InputStream inputStream = decompress(fileName, new BufferedInputStream(archiveSource.open(fileName)));
+         MappingIterator<Map<String, Object>> documents = documentReader.readValues(inputStream)) {
+      List<SolrInputDocument> batch = new ArrayList<>(parameters.getBatchSize());
+      while (documents.hasNext()) {
+        batch.add(toSolrInputDocument(documents.next()));
+        if (batch.size() >= parameters.getBatchSize()) {
+          documentCount += index(batch);
+          batch = new ArrayList<>(parameters.getBatchSize());
+        }
+      }
+      if (!batch.isEmpty())
+        documentCount += index(batch);
+    }
+    return documentCount;
+  }
+
+  private InputStream decompress(String fileName, InputStream inputStream) throws IOException {
+    try {
+      if (fileName.endsWith(".gz"))
+        return new GZIPInputStream(inputStream);
+      if (fileName.endsWith(".bz2"))
+        return new BZip2CompressorInputStream(inputStream, true);
+      return inputStream;
+    }
+    catch (IOException | RuntimeException e) {
+      inputStream.close();
+      throw e;
+    }
+  }
+
+  private SolrInputDocument toSolrInputDocument(Map<String, Object> fieldMap) {
+    SolrInputDocument document = new SolrInputDocument();
+    for (Map.Entry<String, Object> field : fieldMap.entrySet()) {
+      if (!VERSION_FIELD.equals(field.getKey()))
+        document.addField(field.getKey(), field.getValue());
+    }
+    return document;
+  }
+
+  private int index(List<SolrInputDocument> batch) {
+    add(batch);
+    restoredDocumentCounter.increment(batch.size());
+    return batch.size();
+  }
+
+  /**
+   * Adds a batch of documents to the collection without committing.
+   */
+  protected void add(List<SolrInputDocument> documents) {
+    execute(client -> client.add(getDefaultCollection(), documents, parameters.getCommitWithin() > 0 ? parameters.getCommitWithin() : -1));
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.restoring;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.apache.ambari.infra.job.archive.HdfsFileSystem;
+
+public class HdfsArchiveSource implements ArchiveSource {
+  private final HdfsFileSystem hdfsFileSystem;
+
+  public HdfsArchiveSource(HdfsFileSystem hdfsFileSystem) {
+    this.hdfsFileSystem = hdfsFileSystem;
+  }
+
+  @Override
+  public List<String> listFileNames() throws IOException {
+    return hdfsFileSystem.listFileNames();
+  }
+
+  @Override
+  public InputStream open(String fileName) throws IOException {
+    return hdfsFileSystem.open(fileName);
+  }
+
+  @Override
+  public void close() throws IOException {
+    hdfsFileSystem.close();
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.restoring;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LocalArchiveSource implements ArchiveSource {
+  private final File directory;
+
+  public LocalArchiveSource(File directory) {
+    this.directory = directory;
+  }
+
+  @Override
+  public List<String> listFileNames() throws IOException {
+    File[] files = directory.listFiles(File::isFile);
+    if (files == null)
+      throw new FileNotFoundException("Unable to list directory " + directory);
+    List<String> fileNames = new ArrayList<>(files.length);
+    for (File file : files)
+      fileNames.add(file.getName());
+    return fileNames;
+  }
+
+  @Override
+  public InputStream open(String fileName) throws IOException {
+    return new FileInputStream(new File(directory, fileName));
+  }
+
+  @Override
+  public void close() {
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.restoring;
+
+import static java.util.Objects.requireNonNull;
+import static org.apache.commons.lang.StringUtils.isBlank;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.apache.ambari.infra.job.JobProperties;
+import org.apache.ambari.infra.job.Validatable;
+import org.apache.ambari.infra.job.archive.HdfsProperties;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.springframework.batch.core.JobParameters;
+
+public class RestoringProperties extends JobProperties<RestoringProperties> implements Validatable {
+  private String zooKeeperConnectionString;
+  private String collection;
+  private RestoreSource source = RestoreSource.LOCAL;
+  private String sourceDirectory;
+  private String fileNamePattern = ".*\\.json(\\.gz|\\.bz2)?";
+  private String hdfsEndpoint;
+  private String hdfsKerberosPrincipal;
+  private String hdfsKerberosKeytabPath;
+  private int batchSize = 1000;
+  private int workerCount = 4;
+  private int commitWithin;
+  private CommitPolicy commitPolicy = CommitPolicy.END;
+
+  public String getZooKeeperConnectionString() {
+    return zooKeeperConnectionString;
+  }
+
+  public void setZooKeeperConnectionString(String zooKeeperConnectionString) {
+    this.zooKeeperConnectionString = zooKeeperConnectionString;
+  }
+
+  public String getCollection() {
+    return collection;
+  }
+
+  public void setCollection(String collection) {
+    this.collection = collection;
+  }
+
+  public RestoreSource getSource() {
+    return source;
+  }
+
+  public void setSource(RestoreSource source) {
+    this.source = source;
+  }
+
+  /**
+   * Local or HDFS directory which contains the archive files.
+   */
+  public String getSourceDirectory() {
+    return sourceDirectory;
+  }
+
+  public void setSourceDirectory(String sourceDirectory) {
+    this.sourceDirectory = sourceDirectory;
+  }
+
+  /**
+   * Regular expression of the names of the files to restore. The files are decompressed based on their extension.
+   */
+  public String getFileNamePattern() {
+    return fileNamePattern;
+  }
+
+  public void setFileNamePattern(String fileNamePattern) {
+    this.fileNamePattern = fileNamePattern;
+  }
+
+  public String getHdfsEndpoint() {
+    return hdfsEndpoint;
+  }
+
+  public void setHdfsEndpoint(String hdfsEndpoint) {
+    this.hdfsEndpoint = hdfsEndpoint;
+  }
+
+  public String getHdfsKerberosPrincipal() {
+    return hdfsKerberosPrincipal;
+  }
+
+  public void setHdfsKerberosPrincipal(String hdfsKerberosPrincipal) {
+    this.hdfsKerberosPrincipal = hdfsKerberosPrincipal;
+  }
+
+  public String getHdfsKerberosKeytabPath() {
+    return hdfsKerberosKeytabPath;
+  }
+
+  public void setHdfsKerberosKeytabPath(String hdfsKerberosKeytabPath) {
+    this.hdfsKerberosKeytabPath = hdfsKerberosKeytabPath;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * The number of files restored in parallel.
+   */
+  public int getWorkerCount() {
+    return workerCount;
+  }
+
+  public void setWorkerCount(int workerCount) {
+    this.workerCount = workerCount;
+  }
+
+  /**
+   * If greater than 0 the added documents are committed by Solr within this many milliseconds.
+   */
+  public int getCommitWithin() {
+    return commitWithin;
+  }
+
+  public void setCommitWithin(int commitWithin) {
+    this.commitWithin = commitWithin;
+  }
+
+  public CommitPolicy getCommitPolicy() {
+    return commitPolicy;
+  }
+
+  public void setCommitPolicy(CommitPolicy commitPolicy) {
+    this.commitPolicy = commitPolicy;
+  }
+
+  public HdfsProperties hdfsProperties() {
+    return new HdfsProperties(
+            hdfsEndpoint,
+            sourceDirectory,
+            FsPermission.getFileDefault(),
+            hdfsKerberosPrincipal,
+            hdfsKerberosKeytabPath,
+            (short) 0,
+            0);
+  }
+
+  @Override
+  public void validate() {
+    if (isBlank(zooKeeperConnectionString))
+      throw new IllegalArgumentException("The property zooKeeperConnectionString can not be null or empty string!");
+
+    if (isBlank(collection))
+      throw new IllegalArgumentException("The property collection can not be null or empty string!");
+
+    requireNonNull(source, "The property source can not be null!");
+    if (isBlank(sourceDirectory))
+      throw new IllegalArgumentException("The property sourceDirectory can not be null or empty string!");
+    if (source == RestoreSource.HDFS)
+      hdfsProperties().validate();
+
+    if (isBlank(fileNamePattern))
+      throw new IllegalArgumentException("The property fileNamePattern can not be null or empty string!");
+    try {
+      Pattern.compile(fileNamePattern);
+    }
+    catch (PatternSyntaxException e) {
+      throw new IllegalArgumentException("The property fileNamePattern is not a valid regular expression!", e);
+    }
+
+    if (batchSize <= 0)
+      throw new IllegalArgumentException("The property batchSize must be greater than 0!");
+    if (workerCount <= 0)
+      throw new IllegalArgumentException("The property workerCount must be greater than 0!");
+    if (commitWithin < 0)
+      throw new IllegalArgumentException("The property commitWithin can not be negative!");
+    requireNonNull(commitPolicy, "The property commitPolicy can not be null!");
+  }
+
+  @Override
+  public RestoringProperties merge(JobParameters jobParameters) {
+    RestoringProperties restoringProperties = new RestoringProperties();
+    restoringProperties.setZooKeeperConnectionString(jobParameters.getString("zooKeeperConnectionString", zooKeeperConnectionString));
+    restoringProperties.setCollection(jobParameters.getString("collection", collection));
+    restoringProperties.setSource(RestoreSource.valueOf(jobParameters.getString("source", source.name())));
+    restoringProperties.setSourceDirectory(jobParameters.getString("sourceDirectory", sourceDirectory));
+    restoringProperties.setFileNamePattern(jobParameters.getString("fileNamePattern", fileNamePattern));
+    restoringProperties.setHdfsEndpoint(jobParameters.getString("hdfsEndpoint", hdfsEndpoint));
+    restoringProperties.setHdfsKerberosPrincipal(jobParameters.getString("hdfsKerberosPrincipal", hdfsKerberosPrincipal));
+    restoringProperties.setHdfsKerberosKeytabPath(jobParameters.getString("hdfsKerberosKeytabPath", hdfsKerberosKeytabPath));
+    restoringProperties.setBatchSize(getIntJobParameter(jobParameters, "batchSize", batchSize));
+    restoringProperties.setWorkerCount(getIntJobParameter(jobParameters, "workerCount", workerCount));
+    restoringProperties.setCommitWithin(getIntJobParameter(jobParameters, "commitWithin", commitWithin));
+    restoringProperties.setCommitPolicy(CommitPolicy.valueOf(jobParameters.getString("commitPolicy", commitPolicy.name())));
+    return restoringProperties;
+  }
+
+  private int getIntJobParameter(JobParameters jobParameters, String parameterName, int defaultValue) {
+    String valueText = jobParameters.getString(parameterName);
+    if (isBlank(valueText))
+      return defaultValue;
+    return Integer.parseInt(valueText);
+  }
+}
@@ -28,10 +28,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.apache.ambari.infra.job.InfraJobExecutionDao;
+import org.apache.ambari.infra.job.JobEstimate;
+import org.apache.ambari.infra.job.JobEstimator;
+import org.apache.ambari.infra.job.StopSignal;
 import org.apache.ambari.infra.model.ExecutionContextResponse;
 import org.apache.ambari.infra.model.JobExecutionDetailsResponse;
 import org.apache.ambari.infra.model.JobExecutionInfoResponse;
@@ -78,6 +83,18 @@ public class JobManager implements Jobs {
   @Inject
   private JobExplorer jobExplorer;
 
+  @Inject
+  private List<JobEstimator> jobEstimators;
+
+  @Inject
+  private StopSignal stopSignal;
+
+  @Inject
+  private StepExecutionHistoryCache stepExecutionHistoryCache;
+
+  @Inject
+  private InfraJobExecutionDao infraJobExecutionDao;
+
   public Set<String> getAllJobNames() {
     return jobOperator.getJobNames();
   }
@@ -114,12 +131,38 @@ public class JobManager implements Jobs {
   public void stopAndAbandon(Long jobExecutionId) throws NoSuchJobExecutionException, JobExecutionAlreadyRunningException {
     try {
       jobService.stop(jobExecutionId);
+      stopSignal.request(jobExecutionId);
     } catch (JobExecutionNotRunningException e) {
       logger.warn(String.format("Job is not running jobExecutionId=%d", jobExecutionId), e.getMessage());
     }
     jobService.abandon(jobExecutionId);
   }
 
+  /**
+   * Estimate the amount of work of a job with the specified parameters without launching it.
+   * The duration is projected from the throughput of the previous executions.
+   */
+  @Override
+  public JobEstimate estimate(String jobName, JobParameters jobParameters) throws NoSuchJobException {
+    JobEstimator jobEstimator = jobEstimators.stream()
+            .filter(estimator -> estimator.canEstimate(jobName))
+            .findFirst()
+            .orElseThrow(() -> new NoSuchJobException("Estimation is not supported by job " + jobName));
+    JobEstimate estimate = jobEstimator.estimate(jobName, jobParameters);
+    estimate.setProjectedDurationMillis(stepExecutionHistoryCache.get(jobName, estimate.getHistoryStepName(), this::computeHistory)
+            .withHistory(stepExecutionHistory -> projectDuration(estimate, stepExecutionHistory)));
+    return estimate;
+  }
+
+  static Long projectDuration(JobEstimate estimate, StepExecutionHistory stepExecutionHistory) {
+    if (stepExecutionHistory.getCount() == 0)
+      return null;
+    double durationPerRead = stepExecutionHistory.getDurationPerRead().getMean();
+    if (durationPerRead > 0)
+      return Math.round(estimate.getDocumentCount() * durationPerRead);
+    return Math.round(stepExecutionHistory.getDuration().getMean());
+  }
+
   /**
    * Get all executions ids that mapped to specific job name,
    */
@@ -131,7 +174,12 @@ public class JobManager implements Jobs {
    * Stop all running job executions and returns with the number of stopped jobs.
    */
   public Integer stopAllJobs() {
-    return jobService.stopAll();
+    Integer stoppedCount = jobService.stopAll();
+    for (String jobName : jobOperator.getJobNames()) {
+      for (JobExecution jobExecution : jobExplorer.findRunningJobExecutions(jobName))
+        stopSignal.request(jobExecution.getId());
+    }
+    return stoppedCount;
   }
 
   /**
@@ -155,6 +203,8 @@ public class JobManager implements Jobs {
     JobExecution jobExecution;
     if (JobOperationParams.JobStopOrAbandonOperationParam.STOP.equals(operation)) {
       jobExecution = jobService.stop(jobExecutionId);
+      // the status is persisted by the job service, the running steps are notified in memory
+      stopSignal.request(jobExecutionId);
     } else if (JobOperationParams.JobStopOrAbandonOperationParam.ABANDON.equals(operation)) {
       jobExecution = jobService.abandon(jobExecutionId);
     } else {
@@ -198,21 +248,27 @@ public class JobManager implements Jobs {
   public List<JobInfo> getAllJobs(int start, int pageSize) {
     List<JobInfo> jobs = new ArrayList<>();
     Collection<String> names = jobService.listJobs(start, pageSize);
+    Map<String, Integer> counts = infraJobExecutionDao.countJobExecutionsByJobName();
     for (String name : names) {
-      int count = 0;
-      try {
-        count = jobService.countJobExecutionsForJob(name);
-      }
-      catch (NoSuchJobException e) {
-        // shouldn't happen
-      }
+      // launchable and incrementable are looked up in the job registry
       boolean launchable = jobService.isLaunchable(name);
       boolean incrementable = jobService.isIncrementable(name);
-      jobs.add(new JobInfo(name, count, null, launchable, incrementable));
+      jobs.add(new JobInfo(name, counts.getOrDefault(name, 0), null, launchable, incrementable));
     }
     return jobs;
   }
 
+  /**
+   * Changes when a job execution is launched, updated or deleted, or the registered jobs change.
+   * @param jobName the fingerprint covers the executions of this job only, or of all jobs if null
+   */
+  public String getFingerprint(String jobName) {
+    String fingerprint = infraJobExecutionDao.fingerprint(jobName);
+    if (jobName != null)
+      return fingerprint;
+    return fingerprint + "-" + Integer.toHexString(new TreeSet<>(jobOperator.getJobNames()).hashCode());
+  }
+
   /**
    * Get all executions for unique job instance.
    */
@@ -228,24 +284,27 @@ public class JobManager implements Jobs {
 
   /**
    * Get job details for a specific job. (paged)
+   * @param beforeJobInstanceId if not null the instances with lower id are listed starting from the first one
+   *                            (keyset pagination) and start is ignored
    */
-  public List<JobInstanceDetailsResponse> getJobDetails(String jobName, int page, int size) throws NoSuchJobException {
-    List<JobInstanceDetailsResponse> jobInstanceResponses = Lists.newArrayList();
-    Collection<JobInstance> jobInstances = jobService.listJobInstances(jobName, page, size);
+  public List<JobInstanceDetailsResponse> getJobDetails(String jobName, Long beforeJobInstanceId, int start, int size) throws NoSuchJobException {
+    Map<JobInstance, List<JobExecution>> jobInstances = infraJobExecutionDao.findJobInstancesWithExecutions(
+            jobName, beforeJobInstanceId, beforeJobInstanceId == null ? start : 0, size);
+    // a page past the last instance of a historic job is empty
+    if (jobInstances.isEmpty() && !jobOperator.getJobNames().contains(jobName) && !infraJobExecutionDao.jobInstanceExists(jobName))
+      throw new NoSuchJobException("No Job with that name either current or historic: [" + jobName + "]");
 
     boolean launchable = jobService.isLaunchable(jobName);
     boolean incrementable = jobService.isIncrementable(jobName);
 
-    for (JobInstance jobInstance: jobInstances) {
+    List<JobInstanceDetailsResponse> jobInstanceResponses = Lists.newArrayList();
+    for (Map.Entry<JobInstance, List<JobExecution>> jobInstance : jobInstances.entrySet()) {
       List<JobExecutionInfoResponse> executionInfoResponses = Lists.newArrayList();
-      Collection<JobExecution> jobExecutions = jobService.getJobExecutionsForJobInstance(jobName, jobInstance.getId());
-      if (jobExecutions != null) {
-        for (JobExecution jobExecution : jobExecutions) {
-          executionInfoResponses.add(new JobExecutionInfoResponse(jobExecution));
-        }
+      for (JobExecution jobExecution : jobInstance.getValue()) {
+        executionInfoResponses.add(new JobExecutionInfoResponse(jobExecution));
       }
       jobInstanceResponses.add(new JobInstanceDetailsResponse(
-              new JobInfo(jobName, executionInfoResponses.size(), jobInstance.getInstanceId(), launchable, incrementable),
+              new JobInfo(jobName, executionInfoResponses.size(), jobInstance.getKey().getInstanceId(), launchable, incrementable),
               executionInfoResponses));
     }
     return unmodifiableList(jobInstanceResponses);
@@ -277,26 +336,26 @@ public class JobManager implements Jobs {
   public StepExecutionProgressResponse getStepExecutionProgress(Long jobExecutionId, Long stepExecutionId) throws NoSuchStepExecutionException, NoSuchJobExecutionException {
     StepExecution stepExecution = jobService.getStepExecution(jobExecutionId, stepExecutionId);
     StepExecutionInfoResponse stepExecutionInfoResponse = new StepExecutionInfoResponse(stepExecution);
-    String stepName = stepExecution.getStepName();
-    if (stepName.contains(":partition")) {
-      stepName = stepName.replaceAll("(:partition).*", "$1*");
-    }
     String jobName = stepExecution.getJobExecution().getJobInstance().getJobName();
-    StepExecutionHistory stepExecutionHistory = computeHistory(jobName, stepName);
-    StepExecutionProgress stepExecutionProgress = new StepExecutionProgress(stepExecution, stepExecutionHistory);
+    StepExecutionStatistics stepExecutionStatistics = stepExecutionHistoryCache.get(jobName, stepExecution.getStepName(), this::computeHistory);
+    StepExecutionProgress stepExecutionProgress = stepExecutionStatistics.withHistory(
+            stepExecutionHistory -> new StepExecutionProgress(stepExecution, stepExecutionHistory));
 
-    return new StepExecutionProgressResponse(stepExecutionProgress, stepExecutionHistory, stepExecutionInfoResponse);
+    return new StepExecutionProgressResponse(stepExecutionProgress, stepExecutionStatistics.snapshot(), stepExecutionInfoResponse);
 
   }
 
-  private StepExecutionHistory computeHistory(String jobName, String stepName) {
+  /**
+   * Scans all the executions of a step. Use {@link StepExecutionHistoryCache} instead.
+   */
+  private StepExecutionStatistics computeHistory(String jobName, String stepName) {
     int total = jobService.countStepExecutionsForStep(jobName, stepName);
-    StepExecutionHistory stepExecutionHistory = new StepExecutionHistory(stepName);
+    StepExecutionStatistics stepExecutionStatistics = new StepExecutionStatistics(stepName);
     for (int i = 0; i < total; i += 1000) {
       for (StepExecution stepExecution : jobService.listStepExecutionsForStep(jobName, stepName, i, 1000)) {
-        stepExecutionHistory.append(stepExecution);
+        stepExecutionStatistics.append(stepExecution);
       }
     }
-    return stepExecutionHistory;
+    return stepExecutionStatistics;
   }
 }
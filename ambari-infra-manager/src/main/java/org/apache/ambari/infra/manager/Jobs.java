@@ -20,6 +20,7 @@ package org.apache.ambari.infra.manager;
 
 import java.util.Optional;
 
+import org.apache.ambari.infra.job.JobEstimate;
 import org.apache.ambari.infra.model.JobExecutionInfoResponse;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
@@ -41,4 +42,6 @@ public interface Jobs {
   Optional<JobExecution> lastRun(String jobName) throws NoSuchJobException, NoSuchJobExecutionException;
 
   void stopAndAbandon(Long jobExecution) throws NoSuchJobExecutionException, JobExecutionAlreadyRunningException;
+
+  JobEstimate estimate(String jobName, JobParameters params) throws NoSuchJobException;
 }
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.manager;
+
+import java.util.Date;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.BiFunction;
+
+import javax.inject.Named;
+
+import org.apache.ambari.infra.job.cleanup.CleanUpConfiguration;
+
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.lang.NonNull;
+
+/**
+ * Keeps the execution history statistics of the steps in memory. The history of a step is computed from the job
+ * repository when it is requested first and it is updated with every finished step execution afterwards, so the
+ * progress and estimate requests do not scan the step executions again.
+ * The cache is registered as listener of every step by {@link StepExecutionHistoryListenerRegistrar}.
+ */
+@Named
+public class StepExecutionHistoryCache implements StepExecutionListener {
+
+  private final ConcurrentMap<String, Future<StepExecutionStatistics>> histories = new ConcurrentHashMap<>();
+
+  /**
+   * The history is loaded by the first requesting thread outside of the map: the concurrent requests of the same
+   * history wait for it, the requests of other histories and the step listener callbacks are not blocked.
+   * @param historyLoader computes the history of a step from the job repository if it is not cached yet.
+   *                      Parameters: job name, step name
+   */
+  public StepExecutionStatistics get(String jobName, String stepName, BiFunction<String, String, StepExecutionStatistics> historyLoader) {
+    String historyStepName = historyStepName(stepName);
+    String key = key(jobName, historyStepName);
+    Future<StepExecutionStatistics> history = histories.get(key);
+    if (history == null) {
+      FutureTask<StepExecutionStatistics> loader = new FutureTask<>(() -> historyLoader.apply(jobName, historyStepName));
+      history = histories.putIfAbsent(key, loader);
+      if (history == null) {
+        history = loader;
+        loader.run();
+      }
+    }
+
+    try {
+      return history.get();
+    }
+    catch (ExecutionException e) {
+      // a failed load is not cached: the next request tries again
+      histories.remove(key, history);
+      if (e.getCause() instanceof RuntimeException)
+        throw (RuntimeException) e.getCause();
+      throw new IllegalStateException(e.getCause());
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * The executions of the partitions of a step are collected into one history: stepName:partition*
+   */
+  public static String historyStepName(String stepName) {
+    if (stepName.contains(":partition"))
+      return stepName.replaceAll("(:partition).*", "$1*");
+    return stepName;
+  }
+
+  private String key(String jobName, String historyStepName) {
+    return jobName + "/" + historyStepName;
+  }
+
+  @Override
+  public void beforeStep(@NonNull StepExecution stepExecution) {
+    // the histories are loaded again from the job repository while the clean-up deletes executions
+    if (isCleanUp(stepExecution))
+      histories.clear();
+  }
+
+  @Override
+  public ExitStatus afterStep(@NonNull StepExecution stepExecution) {
+    if (isCleanUp(stepExecution)) {
+      // the histories loaded during the deletion may contain executions deleted afterwards
+      if (stepExecution.getWriteCount() > 0)
+        histories.clear();
+      return null;
+    }
+
+    // a not cached history is computed later from the job repository which will contain this execution too
+    // a history being loaded may or may not contain this execution: it is dropped and loaded again on the next request
+    String jobName = stepExecution.getJobExecution().getJobInstance().getJobName();
+    histories.computeIfPresent(key(jobName, historyStepName(stepExecution.getStepName())), (key, history) -> {
+      StepExecutionStatistics stepExecutionStatistics = loaded(history);
+      if (stepExecutionStatistics == null)
+        return null;
+      stepExecutionStatistics.append(finished(stepExecution));
+      return history;
+    });
+    return null;
+  }
+
+  private StepExecutionStatistics loaded(Future<StepExecutionStatistics> history) {
+    if (!history.isDone())
+      return null;
+    try {
+      return history.get();
+    }
+    catch (ExecutionException | InterruptedException | CancellationException e) {
+      return null;
+    }
+  }
+
+  private boolean isCleanUp(StepExecution stepExecution) {
+    return CleanUpConfiguration.JOB_NAME.equals(stepExecution.getJobExecution().getJobInstance().getJobName());
+  }
+
+  /**
+   * The end time of the step execution is set after the listeners are called but history skips the unfinished
+   * executions.
+   */
+  private StepExecution finished(StepExecution stepExecution) {
+    if (stepExecution.getEndTime() != null)
+      return stepExecution;
+
+    StepExecution finished = new StepExecution(stepExecution.getStepName(), stepExecution.getJobExecution(), stepExecution.getId());
+    finished.setStartTime(stepExecution.getStartTime());
+    finished.setEndTime(new Date());
+    finished.setCommitCount(stepExecution.getCommitCount());
+    finished.setRollbackCount(stepExecution.getRollbackCount());
+    finished.setReadCount(stepExecution.getReadCount());
+    finished.setWriteCount(stepExecution.getWriteCount());
+    finished.setFilterCount(stepExecution.getFilterCount());
+    finished.setReadSkipCount(stepExecution.getReadSkipCount());
+    finished.setWriteSkipCount(stepExecution.getWriteSkipCount());
+    finished.setProcessSkipCount(stepExecution.getProcessSkipCount());
+    return finished;
+  }
+}
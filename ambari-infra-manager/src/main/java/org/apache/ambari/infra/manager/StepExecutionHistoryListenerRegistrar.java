@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.manager;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.batch.core.step.AbstractStep;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.lang.NonNull;
+
+/**
+ * Registers the {@link StepExecutionHistoryCache} as listener of every step bean including the partition workers.
+ */
+@Named
+public class StepExecutionHistoryListenerRegistrar implements BeanPostProcessor {
+
+  private final StepExecutionHistoryCache stepExecutionHistoryCache;
+
+  @Inject
+  public StepExecutionHistoryListenerRegistrar(StepExecutionHistoryCache stepExecutionHistoryCache) {
+    this.stepExecutionHistoryCache = stepExecutionHistoryCache;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(@NonNull Object bean, String beanName) {
+    // the job and step scoped steps are registered when their target is created in the scope
+    if (bean instanceof AbstractStep && !AopUtils.isAopProxy(bean))
+      ((AbstractStep) bean).registerStepExecutionListener(stepExecutionHistoryCache);
+    return bean;
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.manager;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+import org.apache.ambari.infra.model.StepExecutionHistoryResponse;
+import org.springframework.batch.admin.history.CumulativeHistory;
+import org.springframework.batch.admin.history.StepExecutionHistory;
+import org.springframework.batch.core.StepExecution;
+
+/**
+ * Execution history statistics of a step: the cumulative history of Spring Batch Admin, the documents read per
+ * second and the duration percentiles of the {@value #DURATION_SAMPLE_SIZE} most recently finished executions.
+ * The statistics are updated by the step listener threads and read by the request threads: every access is
+ * synchronized and the responses are built from a snapshot.
+ */
+public class StepExecutionStatistics {
+  static final int DURATION_SAMPLE_SIZE = 1000;
+
+  private final StepExecutionHistory stepExecutionHistory;
+  private final CumulativeHistory docsPerSecond = new CumulativeHistory();
+  // end time and duration of the most recent executions, the earliest ending is at the head
+  private final PriorityQueue<long[]> recentDurations = new PriorityQueue<>(Comparator.comparingLong(sample -> sample[0]));
+
+  public StepExecutionStatistics(String stepName) {
+    stepExecutionHistory = new StepExecutionHistory(stepName);
+  }
+
+  /**
+   * The unfinished executions are skipped like in {@link StepExecutionHistory}.
+   */
+  public synchronized void append(StepExecution stepExecution) {
+    if (stepExecution.getStartTime() == null || stepExecution.getEndTime() == null)
+      return;
+    stepExecutionHistory.append(stepExecution);
+    long endTime = stepExecution.getEndTime().getTime();
+    long duration = endTime - stepExecution.getStartTime().getTime();
+    // the history is loaded from the job repository in descending order
+    if (recentDurations.size() < DURATION_SAMPLE_SIZE) {
+      recentDurations.add(new long[] {endTime, duration});
+    }
+    else if (recentDurations.peek()[0] < endTime) {
+      recentDurations.poll();
+      recentDurations.add(new long[] {endTime, duration});
+    }
+    if (duration > 0)
+      docsPerSecond.append(stepExecution.getReadCount() * 1000.0 / duration);
+  }
+
+  /**
+   * Applies the function to the history while no execution can be appended to it.
+   */
+  public synchronized <T> T withHistory(Function<StepExecutionHistory, T> function) {
+    return function.apply(stepExecutionHistory);
+  }
+
+  public synchronized StepExecutionHistoryResponse snapshot() {
+    long[] durations = recentDurations.stream().mapToLong(sample -> sample[1]).sorted().toArray();
+    return new StepExecutionHistoryResponse(stepExecutionHistory, docsPerSecond,
+            percentile(durations, 50), percentile(durations, 90), percentile(durations, 99));
+  }
+
+  // nearest rank
+  private static Long percentile(long[] sortedValues, int percent) {
+    if (sortedValues.length == 0)
+      return null;
+    int rank = (int) Math.ceil(percent / 100.0 * sortedValues.length);
+    return sortedValues[Math.max(rank, 1) - 1];
+  }
+}
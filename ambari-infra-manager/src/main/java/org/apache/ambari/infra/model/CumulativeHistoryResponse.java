@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.model;
+
+import org.springframework.batch.admin.history.CumulativeHistory;
+
+public class CumulativeHistoryResponse {
+  private final int count;
+  private final double mean;
+  private final double standardDeviation;
+  private final double min;
+  private final double max;
+
+  public CumulativeHistoryResponse(CumulativeHistory cumulativeHistory) {
+    this.count = cumulativeHistory.getCount();
+    this.mean = cumulativeHistory.getMean();
+    this.standardDeviation = cumulativeHistory.getStandardDeviation();
+    this.min = cumulativeHistory.getMin();
+    this.max = cumulativeHistory.getMax();
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public double getMean() {
+    return mean;
+  }
+
+  public double getStandardDeviation() {
+    return standardDeviation;
+  }
+
+  public double getMin() {
+    return min;
+  }
+
+  public double getMax() {
+    return max;
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.ambari.infra.model;
 
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
 
 public class JobRequest extends PageRequest {
 
@@ -27,6 +28,9 @@ public class JobRequest extends PageRequest {
   @PathParam("jobName")
   private String jobName;
 
+  @QueryParam("before")
+  private Long before;
+
   public String getJobName() {
     return jobName;
   }
@@ -34,4 +38,12 @@ public class JobRequest extends PageRequest {
   public void setJobName(String jobName) {
     this.jobName = jobName;
   }
+
+  public Long getBefore() {
+    return before;
+  }
+
+  public void setBefore(Long before) {
+    this.before = before;
+  }
 }
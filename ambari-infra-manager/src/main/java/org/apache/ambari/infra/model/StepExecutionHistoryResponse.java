@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.model;
+
+import org.springframework.batch.admin.history.CumulativeHistory;
+import org.springframework.batch.admin.history.StepExecutionHistory;
+
+/**
+ * Copy of the execution history statistics of a step: it contains the fields of {@link StepExecutionHistory} and
+ * the documents read per second and the duration percentiles.
+ */
+public class StepExecutionHistoryResponse {
+  private final String stepName;
+  private final int count;
+  private final CumulativeHistoryResponse commitCount;
+  private final CumulativeHistoryResponse rollbackCount;
+  private final CumulativeHistoryResponse readCount;
+  private final CumulativeHistoryResponse writeCount;
+  private final CumulativeHistoryResponse filterCount;
+  private final CumulativeHistoryResponse readSkipCount;
+  private final CumulativeHistoryResponse writeSkipCount;
+  private final CumulativeHistoryResponse processSkipCount;
+  // milliseconds
+  private final CumulativeHistoryResponse duration;
+  private final CumulativeHistoryResponse durationPerRead;
+  private final CumulativeHistoryResponse docsPerSecond;
+  // duration percentiles of the recent executions in milliseconds
+  private final Long durationP50;
+  private final Long durationP90;
+  private final Long durationP99;
+
+  public StepExecutionHistoryResponse(StepExecutionHistory stepExecutionHistory, CumulativeHistory docsPerSecond,
+                                      Long durationP50, Long durationP90, Long durationP99) {
+    this.stepName = stepExecutionHistory.getStepName();
+    this.count = stepExecutionHistory.getCount();
+    this.commitCount = new CumulativeHistoryResponse(stepExecutionHistory.getCommitCount());
+    this.rollbackCount = new CumulativeHistoryResponse(stepExecutionHistory.getRollbackCount());
+    this.readCount = new CumulativeHistoryResponse(stepExecutionHistory.getReadCount());
+    this.writeCount = new CumulativeHistoryResponse(stepExecutionHistory.getWriteCount());
+    this.filterCount = new CumulativeHistoryResponse(stepExecutionHistory.getFilterCount());
+    this.readSkipCount = new CumulativeHistoryResponse(stepExecutionHistory.getReadSkipCount());
+    this.writeSkipCount = new CumulativeHistoryResponse(stepExecutionHistory.getWriteSkipCount());
+    this.processSkipCount = new CumulativeHistoryResponse(stepExecutionHistory.getProcessSkipCount());
+    this.duration = new CumulativeHistoryResponse(stepExecutionHistory.getDuration());
+    this.durationPerRead = new CumulativeHistoryResponse(stepExecutionHistory.getDurationPerRead());
+    this.docsPerSecond = new CumulativeHistoryResponse(docsPerSecond);
+    this.durationP50 = durationP50;
+    this.durationP90 = durationP90;
+    this.durationP99 = durationP99;
+  }
+
+  public String getStepName() {
+    return stepName;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public CumulativeHistoryResponse getCommitCount() {
+    return commitCount;
+  }
+
+  public CumulativeHistoryResponse getRollbackCount() {
+    return rollbackCount;
+  }
+
+  public CumulativeHistoryResponse getReadCount() {
+    return readCount;
+  }
+
+  public CumulativeHistoryResponse getWriteCount() {
+    return writeCount;
+  }
+
+  public CumulativeHistoryResponse getFilterCount() {
+    return filterCount;
+  }
+
+  public CumulativeHistoryResponse getReadSkipCount() {
+    return readSkipCount;
+  }
+
+  public CumulativeHistoryResponse getWriteSkipCount() {
+    return writeSkipCount;
+  }
+
+  public CumulativeHistoryResponse getProcessSkipCount() {
+    return processSkipCount;
+  }
+
+  public CumulativeHistoryResponse getDuration() {
+    return duration;
+  }
+
+  public CumulativeHistoryResponse getDurationPerRead() {
+    return durationPerRead;
+  }
+
+  public CumulativeHistoryResponse getDocsPerSecond() {
+    return docsPerSecond;
+  }
+
+  public Long getDurationP50() {
+    return durationP50;
+  }
+
+  public Long getDurationP90() {
+    return durationP90;
+  }
+
+  public Long getDurationP99() {
+    return durationP99;
+  }
+}
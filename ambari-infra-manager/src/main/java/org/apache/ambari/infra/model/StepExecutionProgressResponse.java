@@ -18,7 +18,6 @@
  */
 package org.apache.ambari.infra.model;
 
-import org.springframework.batch.admin.history.StepExecutionHistory;
 import org.springframework.batch.admin.web.StepExecutionProgress;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -27,12 +26,12 @@ public class StepExecutionProgressResponse {
 
   private final StepExecutionProgress stepExecutionProgress;
 
-  private final StepExecutionHistory stepExecutionHistory;
+  private final StepExecutionHistoryResponse stepExecutionHistory;
 
   @JsonProperty("stepExecution")
   private final StepExecutionInfoResponse stepExecutionInfoResponse;
 
-  public StepExecutionProgressResponse(StepExecutionProgress stepExecutionProgress, StepExecutionHistory stepExecutionHistory,
+  public StepExecutionProgressResponse(StepExecutionProgress stepExecutionProgress, StepExecutionHistoryResponse stepExecutionHistory,
                                        StepExecutionInfoResponse stepExecutionInfoResponse) {
     this.stepExecutionProgress = stepExecutionProgress;
     this.stepExecutionHistory = stepExecutionHistory;
@@ -43,7 +42,7 @@ public class StepExecutionProgressResponse {
     return stepExecutionProgress;
   }
 
-  public StepExecutionHistory getStepExecutionHistory() {
+  public StepExecutionHistoryResponse getStepExecutionHistory() {
     return stepExecutionHistory;
   }
 
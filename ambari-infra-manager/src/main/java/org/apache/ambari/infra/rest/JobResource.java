@@ -32,7 +32,13 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 
+import org.apache.ambari.infra.job.JobEstimate;
 import org.apache.ambari.infra.manager.JobManager;
 import org.apache.ambari.infra.model.ExecutionContextResponse;
 import org.apache.ambari.infra.model.JobExecutionDetailsResponse;
@@ -52,6 +58,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.batch.admin.service.NoSuchStepExecutionException;
 import org.springframework.batch.admin.web.JobInfo;
+import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
 import org.springframework.batch.core.JobParametersInvalidException;
 import org.springframework.batch.core.launch.JobExecutionNotRunningException;
@@ -81,9 +88,14 @@ public class JobResource {
 
   @GET
   @Produces({"application/json"})
-  @ApiOperation("Get all jobs")
-  public List<JobInfo> getAllJobs(@BeanParam @Valid PageRequest request) {
-    return jobManager.getAllJobs(request.getPage(), request.getSize());
+  @ApiOperation(value = "Get all jobs", response = JobInfo.class, responseContainer = "List",
+          notes = "Supports conditional requests: If-None-Match with the ETag of the previous response returns 304 if no job execution has changed.")
+  public Response getAllJobs(@BeanParam @Valid PageRequest request, @Context Request httpRequest) {
+    EntityTag entityTag = new EntityTag(jobManager.getFingerprint(null), true);
+    Response.ResponseBuilder notModified = httpRequest.evaluatePreconditions(entityTag);
+    if (notModified != null)
+      return notModified.build();
+    return Response.ok(jobManager.getAllJobs(request.getPage(), request.getSize())).tag(entityTag).build();
   }
 
   @POST
@@ -94,18 +106,28 @@ public class JobResource {
     throws JobParametersInvalidException, NoSuchJobException, JobExecutionAlreadyRunningException,
     JobRestartException, JobInstanceAlreadyCompleteException {
 
-    String jobName = request.getJobName();
+    return jobManager.launchJob(request.getJobName(), toJobParameters(request));
+  }
+
+  @GET
+  @Produces({"application/json"})
+  @Path("{jobName}/estimate")
+  @ApiOperation("Estimate the number of documents, bytes, files and the duration of a job without launching it.")
+  public JobEstimate estimateJob(@BeanParam @Valid JobInstanceStartRequest request) throws NoSuchJobException {
+    return jobManager.estimate(request.getJobName(), toJobParameters(request));
+  }
+
+  private JobParameters toJobParameters(JobInstanceStartRequest request) {
     String params = request.getParams();
     JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
     if (params != null) {
-      logger.info("Parsing parameters of job {} '{}'", jobName, params);
+      logger.info("Parsing parameters of job {} '{}'", request.getJobName(), params);
       Splitter.on(',')
               .trimResults()
               .withKeyValueSeparator(Splitter.on('=').limit(2).trimResults())
               .split(params).forEach(jobParametersBuilder::addString);
     }
-
-    return jobManager.launchJob(jobName, jobParametersBuilder.toJobParameters());
+    return jobParametersBuilder.toJobParameters();
   }
 
   @GET
@@ -119,9 +141,25 @@ public class JobResource {
   @GET
   @Produces({"application/json"})
   @Path("{jobName}/info")
-  @ApiOperation("Get job details by job name.")
-  public List<JobInstanceDetailsResponse> getJobDetails(@BeanParam @Valid JobRequest jobRequest) throws NoSuchJobException {
-    return jobManager.getJobDetails(jobRequest.getJobName(), jobRequest.getPage(), jobRequest.getSize());
+  @ApiOperation(value = "Get job details by job name.", response = JobInstanceDetailsResponse.class, responseContainer = "List",
+          notes = "The latest job instances are listed first. The next page is requested with before=<the last jobInstanceId of the page>, " +
+                  "its address is sent in the Link header (rel=next). Supports conditional requests: If-None-Match with the ETag " +
+                  "of the previous response returns 304 if no execution of the job has changed.")
+  public Response getJobDetails(@BeanParam @Valid JobRequest jobRequest, @Context Request httpRequest, @Context UriInfo uriInfo)
+          throws NoSuchJobException {
+    EntityTag entityTag = new EntityTag(jobManager.getFingerprint(jobRequest.getJobName()), true);
+    Response.ResponseBuilder notModified = httpRequest.evaluatePreconditions(entityTag);
+    if (notModified != null)
+      return notModified.build();
+
+    List<JobInstanceDetailsResponse> jobDetails = jobManager.getJobDetails(
+            jobRequest.getJobName(), jobRequest.getBefore(), jobRequest.getPage(), jobRequest.getSize());
+    Response.ResponseBuilder responseBuilder = Response.ok(jobDetails).tag(entityTag);
+    if (!jobDetails.isEmpty() && jobDetails.size() >= jobRequest.getSize()) {
+      Long lastJobInstanceId = jobDetails.get(jobDetails.size() - 1).getJobInfo().getJobInstanceId();
+      responseBuilder.link(uriInfo.getRequestUriBuilder().replaceQueryParam("page").replaceQueryParam("before", lastJobInstanceId).build(), "next");
+    }
+    return responseBuilder.build();
   }
 
   @GET
@@ -0,0 +1,26 @@
+-- Licensed to the Apache Software Foundation (ASF) under one or more
+-- contributor license agreements.  See the NOTICE file distributed with
+-- this work for additional information regarding copyright ownership.
+-- The ASF licenses this file to You under the Apache License, Version 2.0
+-- (the "License"); you may not use this file except in compliance with
+-- the License.  You may obtain a copy of the License at
+--
+--     http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+
+-- Foreign keys are not indexed by SQLite and PostgreSQL.
+-- Job execution listing by job name and the lookup of the executions of an instance
+CREATE INDEX IF NOT EXISTS BATCH_JOB_EXEC_INSTANCE_IDX ON BATCH_JOB_EXECUTION (JOB_INSTANCE_ID);
+-- Clean up of old executions
+CREATE INDEX IF NOT EXISTS BATCH_JOB_EXEC_CREATE_TIME_IDX ON BATCH_JOB_EXECUTION (CREATE_TIME);
+-- Running executions (END_TIME IS NULL) and listing by status
+CREATE INDEX IF NOT EXISTS BATCH_JOB_EXEC_END_TIME_IDX ON BATCH_JOB_EXECUTION (END_TIME);
+CREATE INDEX IF NOT EXISTS BATCH_JOB_EXEC_STATUS_IDX ON BATCH_JOB_EXECUTION (STATUS);
+-- Job parameters and step executions of a job execution
+CREATE INDEX IF NOT EXISTS BATCH_JOB_EXEC_PARAMS_EXEC_IDX ON BATCH_JOB_EXECUTION_PARAMS (JOB_EXECUTION_ID);
+CREATE INDEX IF NOT EXISTS BATCH_STEP_EXEC_JOB_EXEC_IDX ON BATCH_STEP_EXECUTION (JOB_EXECUTION_ID);
@@ -0,0 +1,19 @@
+-- Licensed to the Apache Software Foundation (ASF) under one or more
+-- contributor license agreements.  See the NOTICE file distributed with
+-- this work for additional information regarding copyright ownership.
+-- The ASF licenses this file to You under the Apache License, Version 2.0
+-- (the "License"); you may not use this file except in compliance with
+-- the License.  You may obtain a copy of the License at
+--
+--     http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+
+-- Fingerprint of the job listings: the latest update of all executions
+CREATE INDEX IF NOT EXISTS BATCH_JOB_EXEC_LAST_UPDATED_IDX ON BATCH_JOB_EXECUTION (LAST_UPDATED);
+-- Fingerprint of the listing of one job: the latest update of the executions of its instances without reading the rows
+CREATE INDEX IF NOT EXISTS BATCH_JOB_EXEC_INST_UPDATED_IDX ON BATCH_JOB_EXECUTION (JOB_INSTANCE_ID, LAST_UPDATED);
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.conf.batch;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.sqlite.SQLiteConfig;
+
+public class InfraManagerBatchConfigTest {
+
+  private File dbFile;
+  private BasicDataSource dataSource;
+
+  @Before
+  public void setUp() throws Exception {
+    dbFile = File.createTempFile("InfraManagerBatchConfigTest", ".db");
+    SQLiteConfig sqLiteConfig = new SQLiteConfig();
+    sqLiteConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+    sqLiteConfig.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+    sqLiteConfig.setBusyTimeout("5000");
+    dataSource = InfraManagerBatchConfig.pooledDataSource(
+            JobRepositoryDatabase.SQLITE.getDriverClassName(), JobRepositoryDatabase.SQLITE.url(dbFile.getAbsolutePath()), "test", "test",
+            sqLiteConfig.toProperties(), 2, 1000);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    dataSource.close();
+    for (String suffix : new String[] {"", "-wal", "-shm"})
+      new File(dbFile.getAbsolutePath() + suffix).delete();
+  }
+
+  @Test
+  public void testPragmasAreAppliedOnPooledConnections() throws Exception {
+    try (Connection connection = dataSource.getConnection()) {
+      assertThat(pragma(connection, "journal_mode"), is("wal"));
+      assertThat(pragma(connection, "synchronous"), is("1"));
+      assertThat(pragma(connection, "busy_timeout"), is("5000"));
+    }
+    assertThat(dataSource.getNumIdle(), is(1));
+  }
+
+  @Test
+  public void testReaderIsNotBlockedByUncommittedWrite() throws Exception {
+    try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE checkpoint (id INTEGER PRIMARY KEY, value TEXT)");
+      statement.execute("INSERT INTO checkpoint VALUES (1, 'committed')");
+    }
+
+    try (Connection writer = dataSource.getConnection(); Connection reader = dataSource.getConnection()) {
+      writer.setAutoCommit(false);
+      try (Statement statement = writer.createStatement()) {
+        statement.execute("UPDATE checkpoint SET value = 'uncommitted' WHERE id = 1");
+      }
+
+      long start = System.nanoTime();
+      try (Statement statement = reader.createStatement(); ResultSet resultSet = statement.executeQuery("SELECT value FROM checkpoint WHERE id = 1")) {
+        resultSet.next();
+        assertThat(resultSet.getString(1), is("committed"));
+      }
+      assertThat((System.nanoTime() - start) / 1_000_000 < 1000, is(true));
+      writer.rollback();
+    }
+  }
+
+  @Test
+  public void testStepTransactionTakesNoConnectionUntilItWrites() throws Exception {
+    BasicDataSource singleConnectionPool = InfraManagerBatchConfig.pooledDataSource(
+            JobRepositoryDatabase.SQLITE.getDriverClassName(), JobRepositoryDatabase.SQLITE.url(dbFile.getAbsolutePath()), "test", "test",
+            new SQLiteConfig().toProperties(), 1, 1000);
+    try {
+      JdbcTemplate jdbcTemplate = new JdbcTemplate(new LazyConnectionDataSourceProxy(singleConnectionPool));
+      jdbcTemplate.execute("CREATE TABLE checkpoint (id INTEGER PRIMARY KEY, value TEXT)");
+      DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(jdbcTemplate.getDataSource());
+      TransactionTemplate stepTransaction = new TransactionTemplate(transactionManager);
+      TransactionTemplate checkpointTransaction = new TransactionTemplate(transactionManager);
+      checkpointTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+      stepTransaction.execute(status -> {
+        checkpointTransaction.execute(checkpointStatus -> jdbcTemplate.update("INSERT INTO checkpoint VALUES (1, 'checkpoint')"));
+        assertThat(singleConnectionPool.getNumActive(), is(0));
+        return jdbcTemplate.update("INSERT INTO checkpoint VALUES (2, 'step')");
+      });
+
+      assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM checkpoint", Integer.class), is(2));
+    }
+    finally {
+      singleConnectionPool.close();
+    }
+  }
+
+  private String pragma(Connection connection, String name) throws SQLException {
+    try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery("PRAGMA " + name)) {
+      resultSet.next();
+      return resultSet.getString(1);
+    }
+  }
+}
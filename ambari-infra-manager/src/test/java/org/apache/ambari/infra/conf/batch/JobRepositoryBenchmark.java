@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.conf.batch;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.springframework.batch.admin.service.JdbcSearchableJobExecutionDao;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.sqlite.SQLiteConfig;
+
+/**
+ * Manual benchmark measuring the latency of job checkpoints and of the job execution listing used by the REST API while
+ * several jobs are running. Each job runs its checkpoints in their own transactions within a step transaction which
+ * persists the step execution at the end, like the tasklets do. It compares the former unpooled rollback journal setup
+ * with the pooled WAL setup of {@link InfraManagerBatchConfig}.
+ * It is not executed by the build. Run the main method with the test classpath: the optional arguments are the number
+ * of concurrent jobs, the number of checkpoints per job and the size of the connection pool.
+ */
+public class JobRepositoryBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int jobCount = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+    int checkpointCount = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    int poolSize = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+    File unpooledDbFile = File.createTempFile("JobRepositoryBenchmark", ".db");
+    DriverManagerDataSource unpooled = new DriverManagerDataSource("jdbc:sqlite:" + unpooledDbFile.getAbsolutePath());
+    unpooled.setDriverClassName("org.sqlite.JDBC");
+    run("unpooled, rollback journal", unpooled, new ResourcelessTransactionManager(), jobCount, checkpointCount);
+    delete(unpooledDbFile);
+
+    File pooledDbFile = File.createTempFile("JobRepositoryBenchmark", ".db");
+    SQLiteConfig sqLiteConfig = new SQLiteConfig();
+    sqLiteConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+    sqLiteConfig.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+    sqLiteConfig.setBusyTimeout("10000");
+    BasicDataSource pooled = InfraManagerBatchConfig.pooledDataSource(
+            JobRepositoryDatabase.SQLITE.getDriverClassName(), JobRepositoryDatabase.SQLITE.url(pooledDbFile.getAbsolutePath()), null, null,
+            sqLiteConfig.toProperties(), poolSize, 30000);
+    DataSource lazyPooled = new LazyConnectionDataSourceProxy(pooled);
+    run("pooled, WAL", lazyPooled, new DataSourceTransactionManager(lazyPooled), jobCount, checkpointCount);
+    pooled.close();
+    delete(pooledDbFile);
+  }
+
+  private static void run(String name, DataSource dataSource, PlatformTransactionManager transactionManager,
+                          int jobCount, int checkpointCount) throws Exception {
+    new SchemaMigrator(dataSource, JobRepositoryDatabase.SQLITE, false).migrate();
+
+    JobRepositoryFactoryBean factory = new JobRepositoryFactoryBean();
+    factory.setDataSource(dataSource);
+    factory.setTransactionManager(transactionManager);
+    factory.setSerializer(new Jackson2ExecutionContextStringSerializer());
+    factory.afterPropertiesSet();
+    JobRepository jobRepository = transactionManager instanceof DataSourceTransactionManager ?
+            InfraManagerBatchConfig.retryingOnBusy(factory.getObject()) : factory.getObject();
+
+    TransactionTemplate stepTransaction = new TransactionTemplate(transactionManager);
+    TransactionTemplate checkpointTransaction = new TransactionTemplate(transactionManager);
+    // the former setup joined the step transaction: a resourceless transaction can not be suspended
+    if (transactionManager instanceof DataSourceTransactionManager)
+      checkpointTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+    JdbcSearchableJobExecutionDao jobExecutionDao = new JdbcSearchableJobExecutionDao();
+    jobExecutionDao.setJdbcTemplate(new JdbcTemplate(dataSource));
+    jobExecutionDao.setDataSource(dataSource);
+    jobExecutionDao.afterPropertiesSet();
+
+    List<Long> checkpointNanos = Collections.synchronizedList(new ArrayList<>());
+    List<Long> listingNanos = Collections.synchronizedList(new ArrayList<>());
+    AtomicInteger failures = new AtomicInteger();
+    CountDownLatch jobsFinished = new CountDownLatch(jobCount);
+    ExecutorService executorService = Executors.newFixedThreadPool(jobCount + 1);
+    List<Future<?>> futures = new ArrayList<>();
+
+    long start = System.nanoTime();
+    for (int i = 0; i < jobCount; ++i) {
+      String jobName = "job" + i;
+      futures.add(executorService.submit(() -> {
+        try {
+          JobExecution jobExecution = jobRepository.createJobExecution(jobName, new JobParametersBuilder().addString("name", jobName).toJobParameters());
+          StepExecution stepExecution = jobExecution.createStepExecution("export");
+          jobRepository.add(stepExecution);
+          stepTransaction.execute(status -> {
+            for (int checkpoint = 0; checkpoint < checkpointCount; ++checkpoint) {
+              stepExecution.getExecutionContext().putInt("checkpoint", checkpoint);
+              stepExecution.getExecutionContext().putString("lastDocument", "{\"logtime\":\"2018-07-01T10:00:00.000Z\",\"id\":\"" + checkpoint + "\"}");
+              long checkpointStart = System.nanoTime();
+              try {
+                checkpointTransaction.execute(checkpointStatus -> {
+                  jobRepository.updateExecutionContext(stepExecution);
+                  return null;
+                });
+                checkpointNanos.add(System.nanoTime() - checkpointStart);
+              }
+              catch (RuntimeException e) {
+                failures.incrementAndGet();
+              }
+            }
+            stepExecution.setWriteCount(checkpointCount);
+            jobRepository.update(stepExecution);
+            return null;
+          });
+        }
+        catch (Exception e) {
+          // the job could not be started or the state of the step could not be persisted
+          failures.incrementAndGet();
+        }
+        finally {
+          jobsFinished.countDown();
+        }
+        return null;
+      }));
+    }
+    futures.add(executorService.submit(() -> {
+      while (!jobsFinished.await(10, TimeUnit.MILLISECONDS)) {
+        long listingStart = System.nanoTime();
+        try {
+          jobExecutionDao.getJobExecutions(0, 20);
+          jobExecutionDao.countJobExecutions();
+          listingNanos.add(System.nanoTime() - listingStart);
+        }
+        catch (RuntimeException e) {
+          failures.incrementAndGet();
+        }
+      }
+      return null;
+    }));
+    for (Future<?> future : futures)
+      future.get();
+    executorService.shutdown();
+
+    System.out.println(String.format("%-28s %6.1f s  checkpoint %s  listing %s  failures %d",
+            name, (System.nanoTime() - start) / 1e9, percentiles(checkpointNanos), percentiles(listingNanos), failures.get()));
+  }
+
+  private static String percentiles(List<Long> nanos) {
+    if (nanos.isEmpty())
+      return "n/a";
+    List<Long> sorted = new ArrayList<>(nanos);
+    Collections.sort(sorted);
+    return String.format("p50 %6.2f ms p99 %7.2f ms",
+            sorted.get(sorted.size() / 2) / 1e6, sorted.get(Math.min(sorted.size() - 1, sorted.size() * 99 / 100)) / 1e6);
+  }
+
+  private static void delete(File dbFile) {
+    for (String suffix : new String[] {"", "-wal", "-shm", "-journal"})
+      new File(dbFile.getAbsolutePath() + suffix).delete();
+  }
+}
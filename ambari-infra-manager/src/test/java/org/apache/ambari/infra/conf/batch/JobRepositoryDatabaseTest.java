@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.conf.batch;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import org.apache.ambari.infra.job.InfraJobExecutionDao;
+import org.apache.commons.dbcp.BasicDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.sqlite.SQLiteConfig;
+
+/**
+ * Runs the schema migrations and a job against each job repository backend. SQLite and H2 use a temporary file.
+ * PostgreSQL is tested only if a server is specified by the infra-manager.test.postgresql.url system property, for
+ * example jdbc:postgresql://localhost:5432/infra_manager with the postgres service of the docker-compose environment.
+ * Its content is dropped.
+ */
+@RunWith(Parameterized.class)
+public class JobRepositoryDatabaseTest {
+  private static final String POSTGRESQL_URL = System.getProperty("infra-manager.test.postgresql.url");
+
+  @Parameterized.Parameters(name = "{0}")
+  public static Collection<JobRepositoryDatabase> databases() {
+    return asList(JobRepositoryDatabase.values());
+  }
+
+  private final JobRepositoryDatabase database;
+  private File dbFile;
+  private BasicDataSource connectionPool;
+  private DataSource dataSource;
+  private JdbcTemplate jdbcTemplate;
+
+  public JobRepositoryDatabaseTest(JobRepositoryDatabase database) {
+    this.database = database;
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    Properties connectionProperties = new Properties();
+    String url;
+    if (database == JobRepositoryDatabase.POSTGRESQL) {
+      assumeTrue("infra-manager.test.postgresql.url is not specified", POSTGRESQL_URL != null);
+      url = POSTGRESQL_URL;
+    }
+    else {
+      dbFile = File.createTempFile("JobRepositoryDatabaseTest", ".db");
+      url = database.url(dbFile.getAbsolutePath());
+      if (database == JobRepositoryDatabase.SQLITE) {
+        SQLiteConfig sqLiteConfig = new SQLiteConfig();
+        sqLiteConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        sqLiteConfig.setBusyTimeout("5000");
+        connectionProperties = sqLiteConfig.toProperties();
+      }
+    }
+    connectionPool = InfraManagerBatchConfig.pooledDataSource(database.getDriverClassName(), url,
+            System.getProperty("infra-manager.test.db.username", "admin"), System.getProperty("infra-manager.test.db.password", "admin"),
+            connectionProperties, 2, 5000);
+    dataSource = new LazyConnectionDataSourceProxy(connectionPool);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    new SchemaMigrator(dataSource, database, true).afterPropertiesSet();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (connectionPool != null)
+      connectionPool.close();
+    if (dbFile != null) {
+      for (File file : dbFile.getParentFile().listFiles((dir, name) -> name.startsWith(dbFile.getName())))
+        file.delete();
+    }
+  }
+
+  @Test
+  public void testMigrate() throws Exception {
+    SchemaMigrator schemaMigrator = new SchemaMigrator(dataSource, database, false);
+    schemaMigrator.migrate();
+
+    assertThat(schemaMigrator.getCurrentVersion(), is(3));
+    assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + SchemaMigrator.VERSION_TABLE, Integer.class), is(3));
+    assertThat(indexNames("BATCH_JOB_EXECUTION"), hasItems("BATCH_JOB_EXEC_INSTANCE_IDX", "BATCH_JOB_EXEC_CREATE_TIME_IDX",
+            "BATCH_JOB_EXEC_END_TIME_IDX", "BATCH_JOB_EXEC_STATUS_IDX", "BATCH_JOB_EXEC_LAST_UPDATED_IDX", "BATCH_JOB_EXEC_INST_UPDATED_IDX"));
+    assertThat(indexNames("BATCH_STEP_EXECUTION"), hasItems("BATCH_STEP_EXEC_JOB_EXEC_IDX"));
+  }
+
+  @Test
+  public void testExistingRepositoryIsBaselined() throws Exception {
+    new SchemaMigrator(dataSource, database, true).afterPropertiesSet();
+    jdbcTemplate.execute("DROP TABLE " + SchemaMigrator.VERSION_TABLE);
+    ResourceDatabasePopulator databasePopulator = new ResourceDatabasePopulator(
+            new ClassPathResource(String.format("org/springframework/batch/core/schema-drop-%s.sql", database.getPlatform())),
+            new ClassPathResource(String.format("org/springframework/batch/core/schema-%s.sql", database.getPlatform())));
+    databasePopulator.setIgnoreFailedDrops(true);
+    databasePopulator.execute(dataSource);
+    jdbcTemplate.update("INSERT INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY) VALUES (1, 0, 'archive', 'key')");
+
+    SchemaMigrator schemaMigrator = new SchemaMigrator(dataSource, database, false);
+    schemaMigrator.migrate();
+
+    assertThat(schemaMigrator.getCurrentVersion(), is(3));
+    assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BATCH_JOB_INSTANCE", Integer.class), is(1));
+  }
+
+  @Test
+  public void testLaunchJob() throws Exception {
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+    JobRepositoryFactoryBean factory = new JobRepositoryFactoryBean();
+    factory.setDataSource(dataSource);
+    factory.setTransactionManager(transactionManager);
+    factory.setSerializer(new Jackson2ExecutionContextStringSerializer());
+    factory.afterPropertiesSet();
+    JobRepository jobRepository = InfraManagerBatchConfig.retryingOnBusy(factory.getObject());
+
+    TransactionTemplate checkpointTransaction = new TransactionTemplate(transactionManager);
+    checkpointTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    Job job = new JobBuilderFactory(jobRepository).get("archive_test")
+            .start(new StepBuilderFactory(jobRepository, transactionManager).get("export")
+                    .tasklet((contribution, chunkContext) -> {
+                      StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+                      stepExecution.getExecutionContext().putString("lastDocument", "{\"id\":\"1\"}");
+                      checkpointTransaction.execute(status -> {
+                        jobRepository.updateExecutionContext(stepExecution);
+                        return null;
+                      });
+                      contribution.incrementWriteCount(1);
+                      return RepeatStatus.FINISHED;
+                    }).build())
+            .build();
+    SimpleJobLauncher jobLauncher = new SimpleJobLauncher();
+    jobLauncher.setJobRepository(jobRepository);
+    jobLauncher.afterPropertiesSet();
+
+    JobExecution jobExecution = jobLauncher.run(job, new JobParametersBuilder().addString("start", "2018-07-01T10:00:00.000Z").toJobParameters());
+
+    assertThat(jobExecution.getStatus(), is(BatchStatus.COMPLETED));
+    assertThat(jdbcTemplate.queryForObject("SELECT WRITE_COUNT FROM BATCH_STEP_EXECUTION WHERE JOB_EXECUTION_ID = ?",
+            Integer.class, jobExecution.getId()), is(1));
+    assertThat(jdbcTemplate.queryForObject("SELECT SHORT_CONTEXT FROM BATCH_STEP_EXECUTION_CONTEXT", String.class).contains("lastDocument"), is(true));
+
+    InfraJobExecutionDao infraJobExecutionDao = new InfraJobExecutionDao(jdbcTemplate, new TransactionTemplate(transactionManager));
+    assertThat(infraJobExecutionDao.jobInstanceExists("archive_test"), is(true));
+    assertThat(infraJobExecutionDao.countJobExecutionsByJobName().get("archive_test"), is(1));
+    assertThat(infraJobExecutionDao.findJobInstancesWithExecutions("archive_test", Long.MAX_VALUE, 0, 10).size(), is(1));
+    assertThat(infraJobExecutionDao.fingerprint("archive_test").startsWith(jobExecution.getId() + "-"), is(true));
+    assertThat(infraJobExecutionDao.fingerprint("archive_test").startsWith(jobExecution.getId() + "-0-"), is(not(true)));
+
+    infraJobExecutionDao.deleteJobExecutions(OffsetDateTime.now().plusHours(1));
+
+    assertThat(infraJobExecutionDao.jobInstanceExists("archive_test"), is(false));
+  }
+
+  private List<String> indexNames(String tableName) throws Exception {
+    List<String> indexNames = new ArrayList<>();
+    try (Connection connection = dataSource.getConnection()) {
+      // unquoted identifiers are stored in lower case by PostgreSQL
+      for (String name : new String[] {tableName, tableName.toLowerCase()}) {
+        try (ResultSet indexes = connection.getMetaData().getIndexInfo(null, null, name, false, false)) {
+          while (indexes.next()) {
+            if (indexes.getString("INDEX_NAME") != null)
+              indexNames.add(indexes.getString("INDEX_NAME").toUpperCase());
+          }
+        }
+      }
+    }
+    return indexNames;
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.conf.batch;
+
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+public class SchemaMigratorTest {
+
+  private File dbFile;
+  private DriverManagerDataSource dataSource;
+  private JdbcTemplate jdbcTemplate;
+
+  @Before
+  public void setUp() throws Exception {
+    dbFile = File.createTempFile("SchemaMigratorTest", ".db");
+    dataSource = new DriverManagerDataSource(JobRepositoryDatabase.SQLITE.url(dbFile.getAbsolutePath()));
+    dataSource.setDriverClassName(JobRepositoryDatabase.SQLITE.getDriverClassName());
+    jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  @After
+  public void tearDown() {
+    dbFile.delete();
+  }
+
+  @Test
+  public void testMigrateEmptyDatabase() throws Exception {
+    SchemaMigrator schemaMigrator = new SchemaMigrator(dataSource, JobRepositoryDatabase.SQLITE, false);
+    schemaMigrator.migrate();
+
+    assertThat(schemaMigrator.getCurrentVersion(), is(3));
+    assertThat(versionCount(), is(3));
+    assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BATCH_JOB_EXECUTION", Integer.class), is(0));
+    assertThat(indexNames(), hasItems("BATCH_JOB_EXEC_INSTANCE_IDX", "BATCH_JOB_EXEC_CREATE_TIME_IDX", "BATCH_STEP_EXEC_JOB_EXEC_IDX",
+            "BATCH_JOB_EXEC_LAST_UPDATED_IDX", "BATCH_JOB_EXEC_INST_UPDATED_IDX"));
+  }
+
+  @Test
+  public void testMigrationsAreAppliedOnce() throws Exception {
+    SchemaMigrator schemaMigrator = new SchemaMigrator(dataSource, JobRepositoryDatabase.SQLITE, false);
+    schemaMigrator.migrate();
+    schemaMigrator.migrate();
+
+    assertThat(versionCount(), is(3));
+  }
+
+  @Test
+  public void testExistingRepositoryIsBaselined() throws Exception {
+    new ResourceDatabasePopulator(new ClassPathResource("org/springframework/batch/core/schema-sqlite.sql")).execute(dataSource);
+    jdbcTemplate.update("INSERT INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY) VALUES (1, 0, 'archive', 'key')");
+
+    SchemaMigrator schemaMigrator = new SchemaMigrator(dataSource, JobRepositoryDatabase.SQLITE, false);
+    schemaMigrator.migrate();
+
+    assertThat(schemaMigrator.getCurrentVersion(), is(3));
+    assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BATCH_JOB_INSTANCE", Integer.class), is(1));
+    assertThat(indexNames(), hasItems("BATCH_JOB_EXEC_INSTANCE_IDX"));
+  }
+
+  @Test
+  public void testDropOnStartupRecreatesTheRepository() throws Exception {
+    new SchemaMigrator(dataSource, JobRepositoryDatabase.SQLITE, false).migrate();
+    jdbcTemplate.update("INSERT INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY) VALUES (1, 0, 'archive', 'key')");
+
+    new SchemaMigrator(dataSource, JobRepositoryDatabase.SQLITE, true).afterPropertiesSet();
+
+    assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BATCH_JOB_INSTANCE", Integer.class), is(0));
+    assertThat(versionCount(), is(3));
+  }
+
+  private int versionCount() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + SchemaMigrator.VERSION_TABLE, Integer.class);
+  }
+
+  private List<String> indexNames() {
+    return jdbcTemplate.queryForList("SELECT name FROM sqlite_master WHERE type = 'index'", String.class);
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CloudSolrClientCacheTest {
+
+  private CloudSolrClientCache cloudSolrClientCache;
+
+  @Before
+  public void setUp() {
+    cloudSolrClientCache = new CloudSolrClientCache(new SimpleMeterRegistry());
+  }
+
+  @After
+  public void tearDown() {
+    cloudSolrClientCache.close();
+  }
+
+  @Test
+  public void testAcquireReturnsTheSameClientForTheSameEnsemble() {
+    CloudSolrClientCache.CachedClient client = cloudSolrClientCache.acquire("zk1:2181,zk2:2181/solr");
+    CloudSolrClientCache.CachedClient client2 = cloudSolrClientCache.acquire("zk2:2181,zk1:2181/solr");
+
+    assertThat(client2, is(sameInstance(client)));
+    assertThat(cloudSolrClientCache.getCreatedCount(), is(1.0));
+    assertThat(cloudSolrClientCache.getCacheHitCount(), is(1.0));
+  }
+
+  @Test
+  public void testAcquireReturnsDifferentClientsForDifferentChroots() {
+    CloudSolrClientCache.CachedClient client = cloudSolrClientCache.acquire("zk1:2181/solr");
+    CloudSolrClientCache.CachedClient client2 = cloudSolrClientCache.acquire("zk1:2181/infra-solr");
+
+    assertThat(client2, is(not(sameInstance(client))));
+    assertThat(cloudSolrClientCache.getCreatedCount(), is(2.0));
+  }
+
+  @Test
+  public void testAcquireCreatesNewClientAfterInvalidate() {
+    CloudSolrClientCache.CachedClient client = cloudSolrClientCache.acquire("zk1:2181");
+    client.invalidate();
+    client.release();
+    CloudSolrClientCache.CachedClient client2 = cloudSolrClientCache.acquire("zk1:2181");
+
+    assertThat(client2, is(not(sameInstance(client))));
+    assertThat(cloudSolrClientCache.getCreatedCount(), is(2.0));
+    assertThat(cloudSolrClientCache.getCacheHitCount(), is(0.0));
+  }
+
+  @Test
+  public void testInvalidatedClientIsClosedWhenTheLastUserReleasesIt() {
+    CloudSolrClientCache.CachedClient client = cloudSolrClientCache.acquire("zk1:2181");
+    cloudSolrClientCache.acquire("zk1:2181");
+
+    client.invalidate();
+    client.release();
+    assertThat(client.isClosed(), is(false));
+
+    client.release();
+    assertThat(client.isClosed(), is(true));
+  }
+
+  @Test
+  public void testReleasedClientIsNotClosedWhileItIsCached() {
+    CloudSolrClientCache.CachedClient client = cloudSolrClientCache.acquire("zk1:2181");
+    client.release();
+
+    assertThat(client.isClosed(), is(false));
+    assertThat(cloudSolrClientCache.acquire("zk1:2181"), is(sameInstance(client)));
+  }
+
+  @Test
+  public void testIsConnectionFailure() {
+    assertThat(SolrDAOBase.isConnectionFailure(new SolrServerException("IOException occurred when talking to server", new ConnectException())), is(true));
+    assertThat(SolrDAOBase.isConnectionFailure(new SocketTimeoutException()), is(true));
+    assertThat(SolrDAOBase.isConnectionFailure(new SolrServerException("No live SolrServers available to handle this request",
+            new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Server error"))), is(false));
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ambari.infra.conf.batch.JobRepositoryDatabase;
+import org.apache.ambari.infra.conf.batch.SchemaMigrator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class InfraJobExecutionDaoTest {
+
+  private File dbFile;
+  private JobRepository jobRepository;
+  private InfraJobExecutionDao infraJobExecutionDao;
+
+  @Before
+  public void setUp() throws Exception {
+    dbFile = File.createTempFile("InfraJobExecutionDaoTest", ".db");
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(JobRepositoryDatabase.SQLITE.url(dbFile.getAbsolutePath()));
+    dataSource.setDriverClassName(JobRepositoryDatabase.SQLITE.getDriverClassName());
+    new SchemaMigrator(dataSource, JobRepositoryDatabase.SQLITE, false).migrate();
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+    JobRepositoryFactoryBean jobRepositoryFactoryBean = new JobRepositoryFactoryBean();
+    jobRepositoryFactoryBean.setDataSource(dataSource);
+    jobRepositoryFactoryBean.setTransactionManager(transactionManager);
+    jobRepositoryFactoryBean.afterPropertiesSet();
+    jobRepository = jobRepositoryFactoryBean.getObject();
+    infraJobExecutionDao = new InfraJobExecutionDao(new JdbcTemplate(dataSource), new TransactionTemplate(transactionManager));
+  }
+
+  @After
+  public void tearDown() {
+    dbFile.delete();
+  }
+
+  @Test
+  public void testJobInstancesAreListedWithTheirExecutionsAndParameters() throws Exception {
+    JobExecution first = failedJobExecution("archive", "first");
+    JobExecution restarted = jobRepository.createJobExecution("archive", first.getJobParameters());
+    JobExecution second = jobRepository.createJobExecution("archive", parameters("second"));
+    jobRepository.createJobExecution("delete", parameters("other"));
+
+    Map<JobInstance, List<JobExecution>> jobInstances = infraJobExecutionDao.findJobInstancesWithExecutions("archive", null, 0, 10);
+
+    List<JobInstance> instances = new ArrayList<>(jobInstances.keySet());
+    assertThat(instances.size(), is(2));
+    assertThat(instances.get(0).getId(), is(second.getJobInstance().getId()));
+    assertThat(instances.get(1).getId(), is(first.getJobInstance().getId()));
+    List<JobExecution> executionsOfFirst = jobInstances.get(instances.get(1));
+    assertThat(executionsOfFirst.size(), is(2));
+    assertThat(executionsOfFirst.get(0).getId(), is(restarted.getId()));
+    assertThat(executionsOfFirst.get(1).getId(), is(first.getId()));
+    assertThat(executionsOfFirst.get(1).getStatus(), is(BatchStatus.FAILED));
+    assertThat(executionsOfFirst.get(1).getJobParameters().getString("name"), is("first"));
+    assertThat(executionsOfFirst.get(1).getJobParameters().getLong("count"), is(3L));
+  }
+
+  @Test
+  public void testJobInstancesArePagedByKey() throws Exception {
+    List<Long> jobInstanceIds = new ArrayList<>();
+    for (int i = 0; i < 5; ++i)
+      jobInstanceIds.add(jobRepository.createJobExecution("archive", parameters("job" + i)).getJobInstance().getId());
+
+    List<JobInstance> firstPage = new ArrayList<>(infraJobExecutionDao.findJobInstancesWithExecutions("archive", null, 0, 2).keySet());
+    List<JobInstance> secondPage = new ArrayList<>(infraJobExecutionDao.findJobInstancesWithExecutions(
+            "archive", firstPage.get(1).getId(), 0, 2).keySet());
+
+    assertThat(firstPage.get(0).getId(), is(jobInstanceIds.get(4)));
+    assertThat(firstPage.get(1).getId(), is(jobInstanceIds.get(3)));
+    assertThat(secondPage.get(0).getId(), is(jobInstanceIds.get(2)));
+    assertThat(secondPage.get(1).getId(), is(jobInstanceIds.get(1)));
+  }
+
+  @Test
+  public void testJobInstanceExistsIndependentlyFromPaging() throws Exception {
+    JobInstance jobInstance = jobRepository.createJobExecution("archive", parameters("first")).getJobInstance();
+
+    assertThat(infraJobExecutionDao.findJobInstancesWithExecutions("archive", jobInstance.getId(), 0, 2).isEmpty(), is(true));
+    assertThat(infraJobExecutionDao.jobInstanceExists("archive"), is(true));
+    assertThat(infraJobExecutionDao.jobInstanceExists("delete"), is(false));
+  }
+
+  @Test
+  public void testJobExecutionsAreCountedByJobName() throws Exception {
+    failedJobExecution("archive", "first");
+    jobRepository.createJobExecution("archive", parameters("first"));
+    jobRepository.createJobExecution("delete", parameters("other"));
+
+    Map<String, Integer> counts = infraJobExecutionDao.countJobExecutionsByJobName();
+
+    assertThat(counts.get("archive"), is(2));
+    assertThat(counts.get("delete"), is(1));
+  }
+
+  @Test
+  public void testFingerprintChangesWhenAnExecutionIsUpdated() throws Exception {
+    JobExecution jobExecution = jobRepository.createJobExecution("archive", parameters("first"));
+    String fingerprint = infraJobExecutionDao.fingerprint("archive");
+    String otherJobFingerprint = infraJobExecutionDao.fingerprint("delete");
+    assertThat(infraJobExecutionDao.fingerprint("archive"), is(fingerprint));
+
+    // the update time is stored in milliseconds
+    Thread.sleep(10);
+    jobExecution.setStatus(BatchStatus.STARTED);
+    jobRepository.update(jobExecution);
+
+    assertThat(infraJobExecutionDao.fingerprint("archive"), is(not(fingerprint)));
+    assertThat(infraJobExecutionDao.fingerprint("delete"), is(otherJobFingerprint));
+  }
+
+  @Test
+  public void testFingerprintChangesWhenAnExecutionIsDeleted() throws Exception {
+    JobExecution first = jobRepository.createJobExecution("archive", parameters("first"));
+    jobRepository.createJobExecution("archive", parameters("second"));
+    String fingerprint = infraJobExecutionDao.fingerprint(null);
+
+    infraJobExecutionDao.deleteJobExecutions(Collections.singletonList(
+            new InfraJobExecutionDao.JobExecutionKey(first.getId(), first.getJobInstance().getInstanceId())));
+
+    assertThat(infraJobExecutionDao.fingerprint(null), is(not(fingerprint)));
+  }
+
+  private JobExecution failedJobExecution(String jobName, String name) throws Exception {
+    JobExecution jobExecution = jobRepository.createJobExecution(jobName, parameters(name));
+    jobExecution.setStatus(BatchStatus.FAILED);
+    jobRepository.update(jobExecution);
+    return jobExecution;
+  }
+
+  private JobParameters parameters(String name) {
+    return new JobParametersBuilder().addString("name", name).addLong("count", 3L).toJobParameters();
+  }
+}
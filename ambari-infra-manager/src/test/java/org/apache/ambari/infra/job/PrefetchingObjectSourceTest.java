@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class PrefetchingObjectSourceTest {
+  private static final List<Integer> OBJECTS = new ArrayList<Integer>() {{
+    for (int i = 1000; i < 1005; ++i)
+      add(i);
+  }};
+
+  private final List<Integer> requestedPositions = new CopyOnWriteArrayList<>();
+  private PrefetchingObjectSource<Integer> prefetchingObjectSource;
+
+  @After
+  public void tearDown() {
+    prefetchingObjectSource.close();
+  }
+
+  @Test
+  public void testAllObjectsAreReturnedInOrder() throws Exception {
+    prefetchingObjectSource = new PrefetchingObjectSource<>(new ListObjectSource(), 2);
+
+    assertThat(readAll(null, 2), is(OBJECTS));
+    assertThat(requestedPositions.contains(null), is(true));
+    assertThat(requestedPositions.contains(1001), is(true));
+    assertThat(requestedPositions.contains(1003), is(true));
+  }
+
+  @Test
+  public void testBlockIsReadSynchronouslyWhenPositionDoesNotFollowTheLastBlock() throws Exception {
+    prefetchingObjectSource = new PrefetchingObjectSource<>(new ListObjectSource(), 1);
+    try (CloseableIterator<Integer> iterator = prefetchingObjectSource.open(null, 2)) {
+      assertThat(iterator.next(), is(1000));
+    }
+
+    // e.g. restart: the position is restored from the execution context
+    assertThat(readAll(Integer.valueOf(1002), 2), is(OBJECTS.subList(3, 5)));
+  }
+
+  private List<Integer> readAll(Integer position, int rows) throws Exception {
+    List<Integer> result = new ArrayList<>();
+    Integer current = position;
+    int count;
+    do {
+      count = 0;
+      try (CloseableIterator<Integer> iterator = prefetchingObjectSource.open(current, rows)) {
+        Integer next;
+        while ((next = iterator.next()) != null) {
+          result.add(next);
+          current = next;
+          ++count;
+        }
+      }
+    } while (count == rows);
+    return result;
+  }
+
+  private class ListObjectSource implements ObjectSource<Integer> {
+    @Override
+    public CloseableIterator<Integer> open(Integer current, int rows) {
+      requestedPositions.add(current);
+      int from = current == null ? 0 : OBJECTS.indexOf(current) + 1;
+      Iterator<Integer> iterator = OBJECTS.subList(from, Math.min(from + rows, OBJECTS.size())).iterator();
+      return new CloseableIterator<Integer>() {
+        @Override
+        public boolean hasNext() {
+          return iterator.hasNext();
+        }
+
+        @Override
+        public Integer next() {
+          return iterator.hasNext() ? iterator.next() : null;
+        }
+
+        @Override
+        public void close() {
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.solr.common.cloud.DocCollection;
+import org.apache.solr.common.cloud.DocRouter;
+import org.apache.solr.common.cloud.Slice;
+import org.junit.Test;
+
+public class SolrDAOBaseTest {
+
+  @Test
+  public void testRouteKeyOfCompositeIdRouterSelectsTheShardOnly() {
+    DocCollection collection = collection(DocRouter.getDocRouter("compositeId"), 5);
+
+    for (Slice slice : collection.getSlices()) {
+      String routeKey = SolrDAOBase.routeKey(collection, slice.getName());
+      assertThat(collection.getRouter().getSearchSlicesSingle(routeKey, null, collection).size(), is(1));
+      assertThat(collection.getRouter().getSearchSlicesSingle(routeKey, null, collection).iterator().next().getName(), is(slice.getName()));
+    }
+  }
+
+  @Test
+  public void testRouteKeyOfImplicitRouterIsTheShardName() {
+    DocCollection collection = collection(DocRouter.getDocRouter("implicit"), 3);
+
+    assertThat(SolrDAOBase.routeKey(collection, "shard2"), is("shard2"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRouteKeyOfUnknownShardIsNotFound() {
+    SolrDAOBase.routeKey(collection(DocRouter.getDocRouter("compositeId"), 2), "shard3");
+  }
+
+  private DocCollection collection(DocRouter router, int shardCount) {
+    List<DocRouter.Range> ranges = router.partitionRange(shardCount, router.fullRange());
+    Map<String, Slice> slices = new LinkedHashMap<>();
+    for (int i = 0; i < shardCount; ++i) {
+      Map<String, Object> properties = new LinkedHashMap<>();
+      if (ranges != null)
+        properties.put(Slice.RANGE, ranges.get(i));
+      String name = "shard" + (i + 1);
+      slices.put(name, new Slice(name, Collections.emptyMap(), properties, "audit_logs"));
+    }
+    return new DocCollection("audit_logs", slices, Collections.emptyMap(), router);
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.solr.client.solrj.request.schema.FieldTypeDefinition;
+import org.apache.solr.client.solrj.response.schema.SchemaRepresentation;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SolrSchemaDAOTest {
+
+  private SchemaRepresentation schema;
+
+  @Before
+  public void setUp() {
+    schema = new SchemaRepresentation();
+    schema.setFieldTypes(Arrays.asList(fieldType("pdate", "solr.DatePointField"), fieldType("string", "solr.StrField")));
+    schema.setFields(Arrays.asList(field("evtTime", "pdate"), field("id", "string")));
+    schema.setDynamicFields(Arrays.asList(field("*_s", "string"), field("*_time_s", "pdate"), field("ws_*", "string")));
+  }
+
+  @Test
+  public void testFieldTypeClassOfField() {
+    assertThat(SolrSchemaDAO.getFieldTypeClass(schema, "evtTime"), is("solr.DatePointField"));
+    assertThat(SolrSchemaDAO.getFieldTypeClass(schema, "id"), is("solr.StrField"));
+  }
+
+  @Test
+  public void testFieldTypeClassOfDynamicFieldIsTakenFromTheLongestMatchingPattern() {
+    assertThat(SolrSchemaDAO.getFieldTypeClass(schema, "ws_status"), is("solr.StrField"));
+    assertThat(SolrSchemaDAO.getFieldTypeClass(schema, "name_s"), is("solr.StrField"));
+    assertThat(SolrSchemaDAO.getFieldTypeClass(schema, "login_time_s"), is("solr.DatePointField"));
+  }
+
+  @Test
+  public void testFieldTypeClassOfUnknownFieldIsNull() {
+    assertThat(SolrSchemaDAO.getFieldTypeClass(schema, "unknown"), is(nullValue()));
+  }
+
+  private FieldTypeDefinition fieldType(String name, String className) {
+    FieldTypeDefinition fieldTypeDefinition = new FieldTypeDefinition();
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put("name", name);
+    attributes.put("class", className);
+    fieldTypeDefinition.setAttributes(attributes);
+    return fieldTypeDefinition;
+  }
+
+  private Map<String, Object> field(String name, String type) {
+    Map<String, Object> field = new HashMap<>();
+    field.put("name", name);
+    field.put("type", type);
+    return field;
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+import org.springframework.batch.core.JobExecution;
+
+public class StopSignalTest {
+  private final StopSignal stopSignal = new StopSignal();
+
+  @Test
+  public void testStopIsRequestedUntilTheExecutionFinishes() {
+    JobExecution jobExecution = new JobExecution(1L);
+    stopSignal.beforeJob(jobExecution);
+    assertThat(stopSignal.isRequested(1L), is(false));
+
+    stopSignal.request(1L);
+    assertThat(stopSignal.isRequested(1L), is(true));
+
+    stopSignal.afterJob(jobExecution);
+    assertThat(stopSignal.isRequested(1L), is(false));
+  }
+
+  @Test
+  public void testStopRequestOfAnExecutionNotRunningInThisProcessIsNotRetained() {
+    stopSignal.request(2L);
+    assertThat(stopSignal.isRequested(2L), is(false));
+
+    stopSignal.beforeJob(new JobExecution(2L));
+    assertThat(stopSignal.isRequested(2L), is(false));
+  }
+}
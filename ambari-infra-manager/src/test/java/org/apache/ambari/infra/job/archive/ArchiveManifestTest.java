@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.util.PureJavaCrc32C;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ArchiveManifestTest {
+
+  private File directory;
+  private File manifestFile;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("ArchiveManifestTest").toFile();
+    manifestFile = new File(new File(directory, "manifests"), "archive_1_export.manifest");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(directory);
+  }
+
+  @Test
+  public void testRecordedEntriesAreLoadedByTheNextExecution() throws Exception {
+    try (ArchiveManifest manifest = new ArchiveManifest(manifestFile)) {
+      manifest.record(new ManifestEntry("file1.json", document("1"), document("2"), 2, 100, 0xcafeL, 1L));
+      manifest.record(new ManifestEntry("file2.json", document("3"), document("4"), 2, 120, 0xbabeL, 1L));
+    }
+
+    ArchiveManifest manifest = new ArchiveManifest(manifestFile);
+    assertThat(manifest.getEntries().size(), is(2));
+    ManifestEntry lastEntry = manifest.getLastEntry().get();
+    assertThat(lastEntry.getFile(), is("file2.json"));
+    assertThat(lastEntry.getLastDocument().getString("id"), is("4"));
+    assertThat(lastEntry.getDocumentCount(), is(2));
+    assertThat(lastEntry.getByteCount(), is(120L));
+    assertThat(lastEntry.getCrc32c(), is("babe"));
+  }
+
+  @Test
+  public void testIncompleteLastLineIsIgnored() throws Exception {
+    try (ArchiveManifest manifest = new ArchiveManifest(manifestFile)) {
+      manifest.record(new ManifestEntry("file1.json", document("1"), document("2"), 2, 100, 0xcafeL, 1L));
+    }
+    Files.write(manifestFile.toPath(), "{\"file\":\"file2.j".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+    ArchiveManifest manifest = new ArchiveManifest(manifestFile);
+    assertThat(manifest.getEntries().size(), is(1));
+    assertThat(manifest.getLastEntry().get().getFile(), is("file1.json"));
+  }
+
+  @Test
+  public void testBlockIsRecordedWithChecksumBeforeDocumentsAreDeleted() throws Exception {
+    List<String> events = new ArrayList<>();
+    ArchiveManifest manifest = new ArchiveManifest(manifestFile) {
+      @Override
+      public synchronized void record(ManifestEntry entry) {
+        events.add("record");
+        super.record(entry);
+      }
+    };
+    DocumentWiper documentWiper = (firstDocument, lastDocument) -> events.add("delete");
+    LocalItemWriterListener listener = new LocalItemWriterListener(
+            inputFile -> inputFile, documentWiper, manifest, new String[] {"id"}, 1L);
+    File outFile = new File(directory, "file1.json.gz");
+    LocalDocumentItemWriter writer = new LocalDocumentItemWriter(outFile, new GzipCodec(-1), listener);
+    writer.write(document("1"));
+    writer.write(document("2"));
+    writer.close();
+    manifest.close();
+
+    assertThat(events.toString(), is("[record, delete]"));
+    ManifestEntry entry = new ArchiveManifest(manifestFile).getLastEntry().get();
+    byte[] content = Files.readAllBytes(outFile.toPath());
+    PureJavaCrc32C crc32c = new PureJavaCrc32C();
+    crc32c.update(content, 0, content.length);
+    assertThat(entry.getFile(), is(outFile.getPath()));
+    assertThat(entry.getDocumentCount(), is(2));
+    assertThat(entry.getByteCount(), is((long) content.length));
+    assertThat(entry.getCrc32c(), is(Long.toHexString(crc32c.getValue())));
+    assertThat(entry.getFirstDocument().getFieldMap().keySet().toString(), is("[id]"));
+  }
+
+  @Test
+  public void testResumeEntryIsTheLastBlockBeforeTheFirstMissingOne() throws Exception {
+    try (ArchiveManifest manifest = new ArchiveManifest(manifestFile)) {
+      manifest.record(new ManifestEntry("file0.json", document("1"), document("2"), 2, 100, 0, 1L, 0L));
+      manifest.record(new ManifestEntry("file2.json", document("5"), document("6"), 2, 100, 0, 1L, 2L));
+      manifest.record(new ManifestEntry("file1.json", document("3"), document("4"), 2, 100, 0, 1L, 1L));
+      manifest.record(new ManifestEntry("file4.json", document("9"), document("10"), 2, 100, 0, 1L, 4L));
+    }
+
+    assertThat(new ArchiveManifest(manifestFile).getResumeEntry().get().getFile(), is("file2.json"));
+  }
+
+  @Test
+  public void testResumeEntryOfThePreviousExecutionIsUsedIfTheFirstBlockOfTheLastExecutionIsMissing() throws Exception {
+    try (ArchiveManifest manifest = new ArchiveManifest(manifestFile)) {
+      manifest.record(new ManifestEntry("file0.json", document("1"), document("2"), 2, 100, 0, 1L, 0L));
+      manifest.record(new ManifestEntry("file2.json", document("5"), document("6"), 2, 100, 0, 1L, 2L));
+      manifest.record(new ManifestEntry("file3.json", document("7"), document("8"), 2, 100, 0, 2L, 1L));
+    }
+
+    assertThat(new ArchiveManifest(manifestFile).getResumeEntry().get().getFile(), is("file0.json"));
+  }
+
+  @Test
+  public void testEntriesWithoutBlockNumberAreResumedAfterTheLastOne() throws Exception {
+    try (ArchiveManifest manifest = new ArchiveManifest(manifestFile)) {
+      manifest.record(new ManifestEntry("file1.json", document("1"), document("2"), 2, 100, 0, 1L));
+      manifest.record(new ManifestEntry("file2.json", document("3"), document("4"), 2, 100, 0, 1L));
+    }
+
+    assertThat(new ArchiveManifest(manifestFile).getResumeEntry().get().getFile(), is("file2.json"));
+  }
+
+  private Document document(String id) {
+    return new Document(new HashMap<String, Object>() {{
+      put("id", id);
+      put("log_message", "Starting the service");
+    }});
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.solr.client.solrj.request.schema.FieldTypeDefinition;
+import org.apache.solr.client.solrj.response.schema.SchemaRepresentation;
+import org.junit.Test;
+
+public class ArchiveSchemaTest {
+
+  @Test
+  public void testColumnsAreTypedByTheClassOfTheFieldType() {
+    SchemaRepresentation schemaRepresentation = new SchemaRepresentation();
+    schemaRepresentation.setFieldTypes(Arrays.asList(
+            fieldType("pdate", "solr.DatePointField"),
+            fieldType("plong", "solr.LongPointField"),
+            fieldType("tdouble", "solr.TrieDoubleField"),
+            fieldType("boolean", "solr.BoolField"),
+            fieldType("string", "solr.StrField"),
+            fieldType("strings", "solr.StrField", "multiValued", true)));
+    schemaRepresentation.setFields(Arrays.asList(
+            field("logtime", "pdate"),
+            field("seq_num", "plong"),
+            field("duration", "tdouble"),
+            field("enforced", "boolean"),
+            field("@version", "string"),
+            field("tags", "strings"),
+            field("ids", "plong", "multiValued", true)));
+
+    List<ArchiveSchema.Column> columns = ArchiveSchema.from(schemaRepresentation).getColumns();
+
+    assertThat(columns.size(), is(7));
+    assertThat(columns.get(0).getType(), is(ArchiveSchema.ColumnType.TIMESTAMP));
+    assertThat(columns.get(1).getType(), is(ArchiveSchema.ColumnType.LONG));
+    assertThat(columns.get(2).getType(), is(ArchiveSchema.ColumnType.DOUBLE));
+    assertThat(columns.get(3).getType(), is(ArchiveSchema.ColumnType.BOOLEAN));
+    assertThat(columns.get(4).getType(), is(ArchiveSchema.ColumnType.STRING));
+    assertThat(columns.get(4).getSolrName(), is("@version"));
+    assertThat(columns.get(4).getName(), is("_version"));
+    assertThat(columns.get(5).getType(), is(ArchiveSchema.ColumnType.STRING));
+    assertThat(columns.get(6).getType(), is(ArchiveSchema.ColumnType.STRING));
+  }
+
+  @Test
+  public void testToColumnValuesPutsDynamicAndNotConvertibleValuesToOtherFields() {
+    ArchiveSchema archiveSchema = new ArchiveSchema(Arrays.asList(
+            new ArchiveSchema.Column("logtime", "logtime", ArchiveSchema.ColumnType.TIMESTAMP),
+            new ArchiveSchema.Column("seq_num", "seq_num", ArchiveSchema.ColumnType.LONG)));
+    Map<String, Object> fieldMap = new HashMap<>();
+    fieldMap.put("logtime", "invalid");
+    fieldMap.put("seq_num", 10);
+    fieldMap.put("ws_status", "ok");
+
+    Map<String, String> otherFields = new HashMap<>();
+    Object[] values = archiveSchema.toColumnValues(new Document(fieldMap), otherFields);
+
+    assertThat(values[0], is(nullValue()));
+    assertThat(values[1], is(10L));
+    assertThat(otherFields.size(), is(2));
+    assertThat(otherFields.get("logtime"), is("invalid"));
+    assertThat(otherFields.get("ws_status"), is("ok"));
+  }
+
+  private FieldTypeDefinition fieldType(String name, String className, Object... attributes) {
+    FieldTypeDefinition fieldTypeDefinition = new FieldTypeDefinition();
+    Map<String, Object> attributeMap = attributes(attributes);
+    attributeMap.put("name", name);
+    attributeMap.put("class", className);
+    fieldTypeDefinition.setAttributes(attributeMap);
+    return fieldTypeDefinition;
+  }
+
+  private Map<String, Object> field(String name, String type, Object... attributes) {
+    Map<String, Object> field = attributes(attributes);
+    field.put("name", name);
+    field.put("type", type);
+    return field;
+  }
+
+  private Map<String, Object> attributes(Object... keysAndValues) {
+    Map<String, Object> attributes = new HashMap<>();
+    for (int i = 0; i < keysAndValues.length; i += 2)
+      attributes.put((String) keysAndValues[i], keysAndValues[i + 1]);
+    return attributes;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class AsyncItemWriterListenerTest {
+  private AsyncItemWriterListener asyncItemWriterListener;
+
+  @After
+  public void tearDown() {
+    if (asyncItemWriterListener != null)
+      asyncItemWriterListener.close();
+  }
+
+  @Test
+  public void testFilesArePolledInCompletionOrder() throws Exception {
+    CountDownLatch firstFileReleased = new CountDownLatch(1);
+    List<File> processedFiles = new CopyOnWriteArrayList<>();
+    asyncItemWriterListener = new AsyncItemWriterListener(event -> {
+      if ("1".equals(event.getOutFile().getName())) {
+        try {
+          firstFileReleased.await();
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+      }
+      processedFiles.add(event.getOutFile());
+    }, 2);
+
+    asyncItemWriterListener.onCompleted(event("1"));
+    asyncItemWriterListener.onCompleted(event("2"));
+
+    assertThat(asyncItemWriterListener.pollProcessed(false), is(false));
+    assertThat(asyncItemWriterListener.getInFlightCount(), is(2));
+
+    firstFileReleased.countDown();
+    assertThat(asyncItemWriterListener.pollProcessed(true), is(true));
+    assertThat(asyncItemWriterListener.pollProcessed(true), is(true));
+    assertThat(asyncItemWriterListener.pollProcessed(true), is(false));
+    assertThat(processedFiles.size(), is(2));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testPostProcessingFailureIsRethrown() {
+    asyncItemWriterListener = new AsyncItemWriterListener(event -> {
+      throw new IllegalStateException("TEST");
+    }, 1);
+
+    asyncItemWriterListener.onCompleted(event("1"));
+    asyncItemWriterListener.pollProcessed(true);
+  }
+
+  @Test
+  public void testOnCompletedBlocksWhenMaxInFlightFilesReached() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    asyncItemWriterListener = new AsyncItemWriterListener(event -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+    }, 1);
+    asyncItemWriterListener.onCompleted(event("1"));
+
+    CountDownLatch secondSubmitted = new CountDownLatch(1);
+    Thread submitter = new Thread(() -> {
+      asyncItemWriterListener.onCompleted(event("2"));
+      secondSubmitted.countDown();
+    });
+    submitter.start();
+
+    submitter.join(200);
+    assertThat(secondSubmitted.getCount(), is(1L));
+
+    release.countDown();
+    submitter.join();
+    assertThat(secondSubmitted.getCount(), is(0L));
+  }
+
+  private WriteCompletedEvent event(String fileName) {
+    return new WriteCompletedEvent(new File(fileName), null, null);
+  }
+}
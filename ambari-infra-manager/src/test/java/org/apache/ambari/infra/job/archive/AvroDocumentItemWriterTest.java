@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AvroDocumentItemWriterTest {
+  private static final Document DOCUMENT = new Document(new HashMap<String, Object>() {{
+    put("id", "1");
+    put("logtime", "2018-01-01T10:20:30.123Z");
+    put("seq_num", 10L);
+    put("duration", 1.5d);
+    put("enforced", true);
+    put("@version", "1");
+  }});
+  private static final Document DOCUMENT2 = new Document(new HashMap<String, Object>() {{
+    put("id", "2");
+    put("logtime", "not a date");
+    put("seq_num", 11L);
+    put("level", "INFO");
+  }});
+
+  static final ArchiveSchema ARCHIVE_SCHEMA = new ArchiveSchema(Arrays.asList(
+          new ArchiveSchema.Column("@version", "_version", ArchiveSchema.ColumnType.STRING),
+          new ArchiveSchema.Column("duration", "duration", ArchiveSchema.ColumnType.DOUBLE),
+          new ArchiveSchema.Column("enforced", "enforced", ArchiveSchema.ColumnType.BOOLEAN),
+          new ArchiveSchema.Column("id", "id", ArchiveSchema.ColumnType.STRING),
+          new ArchiveSchema.Column("logtime", "logtime", ArchiveSchema.ColumnType.TIMESTAMP),
+          new ArchiveSchema.Column("seq_num", "seq_num", ArchiveSchema.ColumnType.LONG)));
+
+  private File outFile;
+
+  @Before
+  public void setUp() throws Exception {
+    outFile = File.createTempFile("AvroDocumentItemWriterTest", ".avro");
+  }
+
+  @After
+  public void tearDown() {
+    outFile.delete();
+  }
+
+  @Test
+  public void testWriteKeepsTypesAndAllFields() throws Exception {
+    List<WriteCompletedEvent> events = new ArrayList<>();
+    AvroDocumentItemWriter writer = new AvroDocumentItemWriter(
+            outFile, ARCHIVE_SCHEMA, AvroDocumentItemWriter.codecFactory(Compression.GZIP, -1), events::add);
+    writer.write(DOCUMENT);
+    writer.write(DOCUMENT2);
+    writer.close();
+
+    assertThat(events.size(), is(1));
+    assertThat(events.get(0).getFirstDocument(), is(DOCUMENT));
+    assertThat(events.get(0).getLastDocument(), is(DOCUMENT2));
+
+    List<GenericRecord> records = readBack();
+    assertThat(records.size(), is(2));
+    assertThat(records.get(0).get("id").toString(), is("1"));
+    assertThat(records.get(0).get("logtime"), is(1514802030123L));
+    assertThat(records.get(0).get("seq_num"), is(10L));
+    assertThat(records.get(0).get("duration"), is(1.5d));
+    assertThat(records.get(0).get("enforced"), is(true));
+    assertThat(records.get(0).get("_version").toString(), is("1"));
+    assertThat(records.get(0).getSchema().getField("_version").getProp(AvroDocumentItemWriter.SOLR_FIELD_NAME), is("@version"));
+
+    assertThat(records.get(1).get("logtime"), is(nullValue()));
+    assertThat(records.get(1).get("_version"), is(nullValue()));
+    Map<String, String> otherFields = new HashMap<>();
+    ((Map<?, ?>) records.get(1).get(ArchiveSchema.OTHER_FIELDS)).forEach((key, value) -> otherFields.put(key.toString(), value.toString()));
+    assertThat(otherFields.size(), is(2));
+    assertThat(otherFields.get("level"), is("INFO"));
+    assertThat(otherFields.get("logtime"), is("not a date"));
+  }
+
+  @Test
+  public void testUncompressedByteCountIsTheSizeOfTheEncodedRecords() {
+    AvroDocumentItemWriter writer = new AvroDocumentItemWriter(
+            outFile, ARCHIVE_SCHEMA, AvroDocumentItemWriter.codecFactory(Compression.GZIP, -1), null);
+    for (int i = 0; i < 1000; ++i)
+      writer.write(DOCUMENT);
+    long uncompressedByteCount = writer.getUncompressedByteCount();
+    writer.close();
+
+    assertThat(uncompressedByteCount > 1000 * 20, is(true));
+    assertThat(outFile.length() < uncompressedByteCount, is(true));
+  }
+
+  @Test
+  public void testRevert() {
+    AvroDocumentItemWriter writer = new AvroDocumentItemWriter(outFile, ARCHIVE_SCHEMA, CodecFactory.nullCodec(), null);
+    writer.write(DOCUMENT);
+    writer.revert();
+
+    assertThat(outFile.exists(), is(false));
+  }
+
+  private List<GenericRecord> readBack() throws Exception {
+    List<GenericRecord> records = new ArrayList<>();
+    try (DataFileReader<GenericRecord> reader = new DataFileReader<>(outFile, new GenericDatumReader<>())) {
+      for (GenericRecord record : reader)
+        records.add(record);
+    }
+    return records;
+  }
+}
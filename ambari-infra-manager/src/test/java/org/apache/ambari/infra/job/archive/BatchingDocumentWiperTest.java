@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.ambari.infra.job.CloudSolrClientCache;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BatchingDocumentWiperTest {
+  private static final Document DOCUMENT = new Document(new HashMap<String, Object>() {{ put("id", "1"); }});
+  private static final Document DOCUMENT2 = new Document(new HashMap<String, Object>() {{ put("id", "2"); }});
+  private static final Document DOCUMENT3 = new Document(new HashMap<String, Object>() {{ put("id", "3"); }});
+
+  private final List<String> deleteQueries = new ArrayList<>();
+  private int commitCount = 0;
+  private SolrDAO solrDAO;
+
+  @Before
+  public void setUp() {
+    SolrProperties solrProperties = new SolrProperties();
+    solrProperties.setZooKeeperConnectionString("localhost:2181");
+    solrProperties.setCollection("audit_logs");
+    solrProperties.setDeleteQueryText("id:[${start.id} TO ${end.id}]");
+    solrDAO = new SolrDAO(new CloudSolrClientCache(new SimpleMeterRegistry()), solrProperties) {
+      @Override
+      public void delete(List<String> queries, int commitWithin) {
+        deleteQueries.add(String.join(" OR ", queries) + " commitWithin=" + commitWithin);
+      }
+
+      @Override
+      public void commit() {
+        ++commitCount;
+      }
+    };
+  }
+
+  @Test
+  public void testRangesAreDeletedInBatches() {
+    BatchingDocumentWiper documentWiper = new BatchingDocumentWiper(solrDAO, 2, 0);
+
+    documentWiper.delete(DOCUMENT, DOCUMENT);
+    assertThat(deleteQueries.size(), is(0));
+    documentWiper.delete(DOCUMENT2, DOCUMENT2);
+    assertThat(deleteQueries.size(), is(1));
+    assertThat(deleteQueries.get(0), is("id:[1 TO 1] OR id:[2 TO 2] commitWithin=0"));
+
+    documentWiper.delete(DOCUMENT3, DOCUMENT3);
+    documentWiper.flush();
+    assertThat(deleteQueries.size(), is(2));
+    assertThat(deleteQueries.get(1), is("id:[3 TO 3] commitWithin=0"));
+    assertThat(commitCount, is(0));
+  }
+
+  @Test
+  public void testOnlyOneCommitIsIssuedAtFlushWhenCommitWithinIsSet() {
+    BatchingDocumentWiper documentWiper = new BatchingDocumentWiper(solrDAO, 1, 10000);
+
+    documentWiper.delete(DOCUMENT, DOCUMENT);
+    documentWiper.delete(DOCUMENT2, DOCUMENT3);
+    assertThat(deleteQueries.size(), is(2));
+    assertThat(deleteQueries.get(1), is("id:[2 TO 3] commitWithin=10000"));
+    assertThat(commitCount, is(0));
+
+    documentWiper.flush();
+    documentWiper.flush();
+    assertThat(commitCount, is(1));
+  }
+
+  @Test
+  public void testPendingRangesAreDeletedBeforeCheckpointWithoutCommit() {
+    BatchingDocumentWiper documentWiper = new BatchingDocumentWiper(solrDAO, 10, 10000);
+
+    documentWiper.delete(DOCUMENT, DOCUMENT);
+    documentWiper.delete(DOCUMENT2, DOCUMENT2);
+    documentWiper.beforeCheckpoint();
+    assertThat(deleteQueries.size(), is(1));
+    assertThat(deleteQueries.get(0), is("id:[1 TO 1] OR id:[2 TO 2] commitWithin=10000"));
+    assertThat(commitCount, is(0));
+
+    documentWiper.beforeCheckpoint();
+    assertThat(deleteQueries.size(), is(1));
+  }
+}
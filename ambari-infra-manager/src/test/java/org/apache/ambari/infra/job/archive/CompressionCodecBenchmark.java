@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark comparing the throughput and compression ratio of the archiving codecs on generated hadoop_logs and
+ * audit_logs like documents. It is not executed by the build: run the main method with the test classpath after
+ * test-compile, which generates the benchmark classes. The optional argument is the number of documents per block.
+ * The uncompressedBytes and compressedBytes counters are reported per second, their quotient is the compression ratio.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CompressionCodecBenchmark {
+
+  @Param({"hadoop_logs", "audit_logs"})
+  private String dataSet;
+
+  @Param({"GZIP", "PARALLEL_GZIP", "BZIP2", "ZSTD", "LZ4"})
+  private Compression compression;
+
+  @Param("100000")
+  private int documentCount;
+
+  private byte[] block;
+  private CompressionCodec codec;
+
+  @Setup
+  public void setUp() {
+    block = "hadoop_logs".equals(dataSet) ? hadoopLogs(documentCount) : auditLogs(documentCount);
+    ArchivingProperties archivingProperties = new ArchivingProperties();
+    archivingProperties.setCompression(compression);
+    codec = archivingProperties.compressionCodec().orElseThrow(IllegalStateException::new);
+  }
+
+  @Benchmark
+  public int compress(ByteCounters byteCounters) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream(block.length / 4);
+    try (OutputStream compressingOutputStream = codec.compress(outputStream)) {
+      compressingOutputStream.write(block);
+    }
+    byteCounters.uncompressedBytes += block.length;
+    byteCounters.compressedBytes += outputStream.size();
+    return outputStream.size();
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class ByteCounters {
+    public long uncompressedBytes;
+    public long compressedBytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      uncompressedBytes = 0;
+      compressedBytes = 0;
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    OptionsBuilder optionsBuilder = new OptionsBuilder();
+    optionsBuilder.include(CompressionCodecBenchmark.class.getSimpleName());
+    if (args.length > 0)
+      optionsBuilder.param("documentCount", args[0]);
+    new Runner(optionsBuilder.build()).run();
+  }
+
+  private static byte[] hadoopLogs(int documentCount) {
+    Random random = new Random(1);
+    String[] levels = {"INFO", "WARN", "ERROR", "DEBUG"};
+    String[] types = {"hdfs_namenode", "hdfs_datanode", "yarn_resourcemanager", "yarn_nodemanager"};
+    StringBuilder stringBuilder = new StringBuilder();
+    for (int i = 0; i < documentCount; ++i) {
+      stringBuilder.append(String.format(
+              "{\"id\":\"%s\",\"logtime\":\"2018-01-01T%02d:%02d:%02d.%03dZ\",\"level\":\"%s\",\"type\":\"%s\"," +
+                      "\"host\":\"c7%03d.ambari.apache.org\",\"thread_name\":\"IPC Server handler %d on 8020\"," +
+                      "\"logger_name\":\"org.apache.hadoop.hdfs.StateChange\",\"line_number\":%d," +
+                      "\"log_message\":\"BLOCK* allocate blk_%d_%d, replicas=%d for /tmp/file%d\",\"seq_num\":%d}%n",
+              new UUID(random.nextLong(), random.nextLong()), (i / 3600000) % 24, (i / 60000) % 60, (i / 1000) % 60, i % 1000,
+              levels[random.nextInt(levels.length)], types[random.nextInt(types.length)], random.nextInt(100), random.nextInt(10),
+              random.nextInt(5000), 1073741825L + i, 1001 + i, 3, random.nextInt(100000), i));
+    }
+    return stringBuilder.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static byte[] auditLogs(int documentCount) {
+    Random random = new Random(2);
+    String[] actions = {"read", "write", "getfileinfo", "listStatus", "delete"};
+    String[] users = {"hdfs", "ambari-qa", "hive", "yarn", "spark"};
+    StringBuilder stringBuilder = new StringBuilder();
+    for (int i = 0; i < documentCount; ++i) {
+      stringBuilder.append(String.format(
+              "{\"id\":\"%s\",\"evtTime\":\"2018-01-01T%02d:%02d:%02d.%03dZ\",\"repo\":\"hdfs\",\"reqUser\":\"%s\"," +
+                      "\"action\":\"%s\",\"resource\":\"/user/%s/data/part-%05d\",\"result\":%d,\"cliIP\":\"192.168.%d.%d\"," +
+                      "\"enforcer\":\"hadoop-acl\",\"seq_num\":%d}%n",
+              new UUID(random.nextLong(), random.nextLong()), (i / 3600000) % 24, (i / 60000) % 60, (i / 1000) % 60, i % 1000,
+              users[random.nextInt(users.length)], actions[random.nextInt(actions.length)], users[random.nextInt(users.length)],
+              random.nextInt(1000), random.nextInt(2), random.nextInt(256), random.nextInt(256), i));
+    }
+    return stringBuilder.toString().getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import com.github.luben.zstd.ZstdInputStream;
+
+public class CompressionCodecTest {
+  private static final String TEXT;
+
+  static {
+    StringBuilder stringBuilder = new StringBuilder();
+    for (int i = 0; i < 1000; ++i)
+      stringBuilder.append("{\"id\":\"").append(i).append("\",\"log_message\":\"Test message ").append(i).append("\"}\n");
+    TEXT = stringBuilder.toString();
+  }
+
+  @Test
+  public void testGzip() throws Exception {
+    byte[] compressed = compress(new GzipCodec(6));
+    assertThat(decompress(new GzipCompressorInputStream(new ByteArrayInputStream(compressed))), is(TEXT));
+  }
+
+  @Test
+  public void testParallelGzipWritesMultipleMembers() throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (OutputStream gzipOutputStream = new ParallelGzipOutputStream(outputStream, 6, 3, 1000)) {
+      gzipOutputStream.write(TEXT.getBytes(StandardCharsets.UTF_8));
+    }
+
+    assertThat(decompress(new GzipCompressorInputStream(new ByteArrayInputStream(outputStream.toByteArray()), true)), is(TEXT));
+  }
+
+  @Test
+  public void testParallelGzipOfEmptyInputIsValidGzip() throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    new ParallelGzipOutputStream(outputStream, 6, 2, 1000).close();
+
+    assertThat(decompress(new GzipCompressorInputStream(new ByteArrayInputStream(outputStream.toByteArray()), true)), is(""));
+  }
+
+  @Test
+  public void testBZip2() throws Exception {
+    byte[] compressed = compress(new BZip2Codec(1));
+    assertThat(decompress(new BZip2CompressorInputStream(new ByteArrayInputStream(compressed))), is(TEXT));
+  }
+
+  @Test
+  public void testZstd() throws Exception {
+    byte[] compressed = compress(new ZstdCodec(3, 1));
+    assertThat(decompress(new ZstdInputStream(new ByteArrayInputStream(compressed))), is(TEXT));
+  }
+
+  @Test
+  public void testZstdWithWorkers() throws Exception {
+    String text = repeat(TEXT, 200);
+    byte[] compressed = compress(new ZstdCodec(3, 2), text);
+    assertThat(decompress(new ZstdInputStream(new ByteArrayInputStream(compressed))), is(text));
+  }
+
+  @Test
+  public void testLz4() throws Exception {
+    byte[] compressed = compress(new Lz4Codec(-1));
+    assertThat(decompress(new FramedLZ4CompressorInputStream(new ByteArrayInputStream(compressed))), is(TEXT));
+  }
+
+  @Test
+  public void testLz4HighCompressionOfMultipleBlocks() throws Exception {
+    String text = repeat(TEXT, 200);
+    byte[] compressed = compress(new Lz4Codec(9), text);
+    assertThat(decompress(new FramedLZ4CompressorInputStream(new ByteArrayInputStream(compressed))), is(text));
+  }
+
+  private String repeat(String text, int count) {
+    StringBuilder stringBuilder = new StringBuilder();
+    for (int i = 0; i < count; ++i)
+      stringBuilder.append(i).append(text);
+    return stringBuilder.toString();
+  }
+
+  private byte[] compress(CompressionCodec compressionCodec) throws IOException {
+    return compress(compressionCodec, TEXT);
+  }
+
+  private byte[] compress(CompressionCodec compressionCodec, String text) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (OutputStream compressingOutputStream = compressionCodec.compress(outputStream)) {
+      compressingOutputStream.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+    return outputStream.toByteArray();
+  }
+
+  private String decompress(InputStream inputStream) throws IOException {
+    try (InputStream in = inputStream) {
+      return IOUtils.toString(in, StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.apache.ambari.infra.job.JobEstimate;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DocumentArchivingEstimatorTest {
+
+  private JobEstimate estimate;
+  private ArchivingProperties archivingProperties;
+
+  @Before
+  public void setUp() {
+    estimate = new JobEstimate();
+    estimate.getDocumentCountPerShard().put("shard1", 1500L);
+    estimate.getDocumentCountPerShard().put("shard2", 1000L);
+    estimate.getDocumentCountPerShard().put("shard3", 0L);
+    estimate.setDocumentCount(2500);
+    archivingProperties = new ArchivingProperties();
+    archivingProperties.setWriteBlockSize(1000);
+  }
+
+  @Test
+  public void testFileCountIsComputedFromTheTotalDocumentCount() {
+    archivingProperties.setPartitionMode(PartitionMode.NONE);
+    assertThat(DocumentArchivingEstimator.fileCount(estimate, archivingProperties), is(3L));
+  }
+
+  @Test
+  public void testFileCountIsComputedPerShardWhenPartitionedByShard() {
+    archivingProperties.setPartitionMode(PartitionMode.SHARD);
+    assertThat(DocumentArchivingEstimator.fileCount(estimate, archivingProperties), is(3L));
+    estimate.getDocumentCountPerShard().put("shard3", 1L);
+    assertThat(DocumentArchivingEstimator.fileCount(estimate, archivingProperties), is(4L));
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.apache.ambari.infra.job.archive.DocumentArchivingPartitioner.PARTITION_END;
+import static org.apache.ambari.infra.job.archive.DocumentArchivingPartitioner.PARTITION_START;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+public class DocumentArchivingPartitionerTest {
+
+  @Test
+  public void testEachTimeSliceIsAPartition() {
+    DocumentArchivingPartitioner partitioner = new DocumentArchivingPartitioner(
+            PartitionMode.TIME, "2018-01-01T00:00:00.000Z", "2018-01-01T00:00:03.999Z", null);
+
+    Map<String, ExecutionContext> partitions = partitioner.partition(4);
+
+    assertThat(partitions.size(), is(4));
+    assertPartition(partitions.get("partition0"), "2018-01-01T00:00:00.000Z", "2018-01-01T00:00:00.999Z");
+    assertPartition(partitions.get("partition1"), "2018-01-01T00:00:01.000Z", "2018-01-01T00:00:01.999Z");
+    assertPartition(partitions.get("partition2"), "2018-01-01T00:00:02.000Z", "2018-01-01T00:00:02.999Z");
+    assertPartition(partitions.get("partition3"), "2018-01-01T00:00:03.000Z", "2018-01-01T00:00:03.999Z");
+  }
+
+  @Test
+  public void testTimePartitioningFallsBackToSinglePartitionWhenStartIsNotSpecified() {
+    DocumentArchivingPartitioner partitioner = new DocumentArchivingPartitioner(
+            PartitionMode.TIME, null, "2018-01-01T00:00:03.999Z", null);
+
+    Map<String, ExecutionContext> partitions = partitioner.partition(4);
+
+    assertThat(partitions.size(), is(1));
+    assertThat(partitions.get("partition0").containsKey(PARTITION_START), is(false));
+    assertThat(partitions.get("partition0").getString(PARTITION_END), is("2018-01-01T00:00:03.999Z"));
+  }
+
+  private void assertPartition(ExecutionContext executionContext, String start, String end) {
+    assertThat(executionContext.getString(PARTITION_START), is(start));
+    assertThat(executionContext.getString(PARTITION_END), is(end));
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.util.NamedList;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Manual benchmark measuring the documents per second and the bytes allocated per document on the Solr response to
+ * archive file path: {@link SolrDocumentIterator} conversion and {@link LocalDocumentItemWriter} serialization.
+ * It is not executed by the build. Run the main method with the test classpath: the optional argument is the number
+ * of documents per block.
+ */
+public class DocumentConversionBenchmark {
+  private static final int ITERATIONS = 10;
+
+  public static void main(String[] args) throws Exception {
+    int documentCount = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+    ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    File outFile = File.createTempFile("DocumentConversionBenchmark", ".json");
+    outFile.deleteOnExit();
+
+    for (int i = 0; i < ITERATIONS; ++i) {
+      // the field values of the response are converted in place: every iteration needs a new one
+      QueryResponse response = response(documentCount);
+      long allocatedBefore = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      long start = System.nanoTime();
+
+      SolrDocumentIterator iterator = new SolrDocumentIterator(response);
+      LocalDocumentItemWriter writer = new LocalDocumentItemWriter(outFile, null);
+      Document document;
+      while ((document = iterator.next()) != null)
+        writer.write(document);
+      writer.close();
+
+      double seconds = (System.nanoTime() - start) / 1e9;
+      long allocated = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedBefore;
+      System.out.println(String.format("iteration %2d: %10.0f docs/s %8d bytes allocated/doc",
+              i, documentCount / seconds, allocated / documentCount));
+    }
+  }
+
+  private static QueryResponse response(int documentCount) {
+    SolrDocumentList solrDocumentList = new SolrDocumentList();
+    long now = System.currentTimeMillis();
+    for (int i = 0; i < documentCount; ++i) {
+      SolrDocument solrDocument = new SolrDocument();
+      solrDocument.setField("id", "c6401.ambari.apache.org_" + i);
+      solrDocument.setField("logtime", new Date(now + i));
+      solrDocument.setField("evtTime", new Date(now + i));
+      solrDocument.setField("level", "INFO");
+      solrDocument.setField("type", "hdfs_namenode");
+      solrDocument.setField("host", "c6401.ambari.apache.org");
+      solrDocument.setField("logger_name", "org.apache.hadoop.hdfs.StateChange");
+      solrDocument.setField("line_number", 1234);
+      solrDocument.setField("seq_num", (long) i);
+      solrDocument.setField("log_message", "BLOCK* allocate blk_" + (1073741825L + i) + " replicas=3 for /tmp/file" + i);
+      solrDocumentList.add(solrDocument);
+    }
+    NamedList<Object> namedList = new NamedList<>();
+    namedList.add("response", solrDocumentList);
+    return new QueryResponse(namedList, null);
+  }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.ambari.infra.job.archive;
 
+import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -26,7 +27,12 @@ import static org.hamcrest.core.Is.is;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.ambari.infra.job.JobContextRepository;
 import org.easymock.EasyMockRunner;
@@ -71,6 +77,8 @@ public class DocumentExporterTest extends EasyMockSupport {
   private DocumentItemWriter documentItemWriter3;
   @Mock
   private JobContextRepository jobContextRepository;
+  @Mock
+  private DocumentWiper documentWiper;
 
   private ChunkContext chunkContext;
   private static final Document DOCUMENT = new Document(new HashMap<String, Object>() {{ put("id", "1"); }});
@@ -82,7 +90,8 @@ public class DocumentExporterTest extends EasyMockSupport {
   }
 
   private DocumentExporter documentExporter(int writeBlockSize) {
-    return new DocumentExporter(reader, documentDestination, writeBlockSize, jobContextRepository);
+    return new DocumentExporter(reader, documentDestination, new DocumentCountRolloverPolicy(writeBlockSize),
+            jobContextRepository, null, null, Duration.ZERO);
   }
 
   private ChunkContext chunkContext(boolean terminate) {
@@ -137,7 +146,7 @@ public class DocumentExporterTest extends EasyMockSupport {
     expect(reader.read()).andReturn(DOCUMENT_3);
     documentItemWriter.close(); expectLastCall();
     jobContextRepository.updateExecutionContext(chunkContext.getStepContext().getStepExecution());
-    expect(jobContextRepository.getStepExecution(JOB_EXECUTION_ID, STEP_EXECUTION_ID)).andReturn(chunkContext.getStepContext().getStepExecution());
+    expect(jobContextRepository.isStopRequested(chunkContext.getStepContext().getStepExecution())).andReturn(false);
     expect(documentDestination.open(DOCUMENT_3)).andReturn(documentItemWriter2);
     documentItemWriter2.write(DOCUMENT_3); expectLastCall();
     expect(reader.read()).andReturn(null);
@@ -178,7 +187,6 @@ public class DocumentExporterTest extends EasyMockSupport {
 
   @Test
   public void testStopAndRestartExportsAllDocuments() throws Exception {
-    ChunkContext stoppingChunkContext = chunkContext(true);
     DocumentExporter documentExporter = documentExporter(1);
 
     reader.open(executionContext(chunkContext)); expectLastCall();
@@ -187,7 +195,7 @@ public class DocumentExporterTest extends EasyMockSupport {
     expect(documentDestination.open(DOCUMENT)).andReturn(documentItemWriter);
     documentItemWriter.write(DOCUMENT); expectLastCall();
     expect(reader.read()).andReturn(DOCUMENT_2);
-    expect(jobContextRepository.getStepExecution(JOB_EXECUTION_ID, STEP_EXECUTION_ID)).andReturn(chunkContext.getStepContext().getStepExecution());
+    expect(jobContextRepository.isStopRequested(chunkContext.getStepContext().getStepExecution())).andReturn(false);
     documentItemWriter.close(); expectLastCall();
     reader.update(executionContext(this.chunkContext));
     jobContextRepository.updateExecutionContext(this.chunkContext.getStepContext().getStepExecution());
@@ -195,7 +203,7 @@ public class DocumentExporterTest extends EasyMockSupport {
     expect(documentDestination.open(DOCUMENT_2)).andReturn(documentItemWriter2);
     documentItemWriter2.write(DOCUMENT_2); expectLastCall();
     expect(reader.read()).andReturn(DOCUMENT_3);
-    expect(jobContextRepository.getStepExecution(JOB_EXECUTION_ID, STEP_EXECUTION_ID)).andReturn(stoppingChunkContext.getStepContext().getStepExecution());
+    expect(jobContextRepository.isStopRequested(chunkContext.getStepContext().getStepExecution())).andReturn(true);
     documentItemWriter2.revert(); expectLastCall();
     reader.close(); expectLastCall();
 
@@ -214,4 +222,113 @@ public class DocumentExporterTest extends EasyMockSupport {
     repeatStatus = documentExporter.execute(ANY_STEP_CONTRIBUTION, this.chunkContext);
     assertThat(repeatStatus, is(RepeatStatus.FINISHED));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testCheckpointsArePersistedAfterAsyncPostProcessingFinished() throws Exception {
+    List<Document> processedDocuments = new ArrayList<>();
+    AsyncItemWriterListener postProcessor = new AsyncItemWriterListener(event -> processedDocuments.add(event.getFirstDocument()), 1);
+    DocumentExporter documentExporter = new DocumentExporter(reader, documentDestination, new DocumentCountRolloverPolicy(1),
+            jobContextRepository, postProcessor, null, Duration.ZERO);
+    StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+
+    reader.open(executionContext(chunkContext)); expectLastCall();
+    expect(reader.read()).andReturn(DOCUMENT);
+    expect(documentDestination.open(DOCUMENT)).andReturn(documentItemWriter);
+    documentItemWriter.write(DOCUMENT); expectLastCall();
+    expect(reader.read()).andReturn(DOCUMENT_2);
+    expect(jobContextRepository.isStopRequested(stepExecution)).andReturn(false);
+    documentItemWriter.close(); expectLastCall().andAnswer(() -> {
+      postProcessor.onCompleted(new WriteCompletedEvent(null, DOCUMENT, DOCUMENT));
+      return null;
+    });
+    reader.update(anyObject(ExecutionContext.class)); expectLastCall().times(2);
+    expect(documentDestination.open(DOCUMENT_2)).andReturn(documentItemWriter2);
+    documentItemWriter2.write(DOCUMENT_2); expectLastCall();
+    expect(reader.read()).andReturn(null);
+    documentItemWriter2.close(); expectLastCall().andAnswer(() -> {
+      postProcessor.onCompleted(new WriteCompletedEvent(null, DOCUMENT_2, DOCUMENT_2));
+      return null;
+    });
+    jobContextRepository.updateExecutionContext(stepExecution); expectLastCall().times(2);
+    reader.close(); expectLastCall();
+    replayAll();
+
+    assertThat(documentExporter.execute(ANY_STEP_CONTRIBUTION, chunkContext), is(RepeatStatus.FINISHED));
+    assertThat(processedDocuments, is(Arrays.asList(DOCUMENT, DOCUMENT_2)));
+  }
+
+  @Test
+  public void testDocumentWiperIsFlushedWhenAllDocumentsAreWritten() throws Exception {
+    DocumentExporter documentExporter = new DocumentExporter(reader, documentDestination, new DocumentCountRolloverPolicy(2),
+            jobContextRepository, null, documentWiper, Duration.ZERO);
+    reader.open(executionContext(chunkContext)); expectLastCall();
+    expect(reader.read()).andReturn(DOCUMENT);
+    expect(documentDestination.open(DOCUMENT)).andReturn(documentItemWriter);
+    documentItemWriter.write(DOCUMENT); expectLastCall();
+    expect(reader.read()).andReturn(null);
+    documentItemWriter.close(); expectLastCall();
+    documentWiper.flush(); expectLastCall();
+    reader.close(); expectLastCall();
+    replayAll();
+
+    assertThat(documentExporter.execute(ANY_STEP_CONTRIBUTION, chunkContext), is(RepeatStatus.FINISHED));
+  }
+
+  @Test
+  public void testCheckpointsAreNotPersistedWithinCheckpointInterval() throws Exception {
+    DocumentExporter documentExporter = new DocumentExporter(reader, documentDestination, new DocumentCountRolloverPolicy(1),
+            jobContextRepository, null, null, Duration.ofHours(1));
+    StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+
+    reader.open(executionContext(chunkContext)); expectLastCall();
+    expect(reader.read()).andReturn(DOCUMENT);
+    expect(documentDestination.open(DOCUMENT)).andReturn(documentItemWriter);
+    documentItemWriter.write(DOCUMENT); expectLastCall();
+    expect(reader.read()).andReturn(DOCUMENT_2);
+    expect(jobContextRepository.isStopRequested(stepExecution)).andReturn(false);
+    documentItemWriter.close(); expectLastCall();
+    reader.update(executionContext(chunkContext)); expectLastCall();
+    expect(documentDestination.open(DOCUMENT_2)).andReturn(documentItemWriter2);
+    documentItemWriter2.write(DOCUMENT_2); expectLastCall();
+    expect(reader.read()).andReturn(null);
+    documentItemWriter2.close(); expectLastCall();
+    reader.close(); expectLastCall();
+    replayAll();
+
+    assertThat(documentExporter.execute(ANY_STEP_CONTRIBUTION, chunkContext), is(RepeatStatus.FINISHED));
+  }
+
+  @Test
+  public void testDocumentWiperDeletesPendingRangesBeforeCheckpointIsPersisted() throws Exception {
+    DocumentExporter documentExporter = new DocumentExporter(reader, documentDestination, new DocumentCountRolloverPolicy(1),
+            jobContextRepository, null, documentWiper, Duration.ZERO);
+    StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+
+    reader.open(executionContext(chunkContext)); expectLastCall();
+    expect(reader.read()).andReturn(DOCUMENT);
+    expect(documentDestination.open(DOCUMENT)).andReturn(documentItemWriter);
+    documentItemWriter.write(DOCUMENT); expectLastCall();
+    expect(reader.read()).andReturn(DOCUMENT_2);
+    expect(jobContextRepository.isStopRequested(stepExecution)).andReturn(false);
+    documentItemWriter.close(); expectLastCall();
+    reader.update(executionContext(chunkContext)); expectLastCall();
+    AtomicBoolean pendingRangesDeleted = new AtomicBoolean(false);
+    documentWiper.beforeCheckpoint(); expectLastCall().andAnswer(() -> {
+      pendingRangesDeleted.set(true);
+      return null;
+    });
+    jobContextRepository.updateExecutionContext(stepExecution); expectLastCall().andAnswer(() -> {
+      assertThat(pendingRangesDeleted.get(), is(true));
+      return null;
+    });
+    expect(documentDestination.open(DOCUMENT_2)).andReturn(documentItemWriter2);
+    documentItemWriter2.write(DOCUMENT_2); expectLastCall();
+    expect(reader.read()).andReturn(null);
+    documentItemWriter2.close(); expectLastCall();
+    documentWiper.flush(); expectLastCall();
+    reader.close(); expectLastCall();
+    replayAll();
+
+    assertThat(documentExporter.execute(ANY_STEP_CONTRIBUTION, chunkContext), is(RepeatStatus.FINISHED));
+  }
+}
@@ -19,16 +19,21 @@
 
 package org.apache.ambari.infra.job.archive;
 
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.newCapture;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertThat;
 
+import java.io.File;
 import java.util.HashMap;
 
 import org.apache.ambari.infra.job.CloseableIterator;
 import org.apache.ambari.infra.job.ObjectSource;
+import org.easymock.Capture;
 import org.easymock.EasyMockRunner;
 import org.easymock.EasyMockSupport;
 import org.easymock.Mock;
@@ -196,4 +201,51 @@ public class DocumentItemReaderTest extends EasyMockSupport {
     assertThat(documentItemReader.read(), is(DOCUMENT_3));
     documentItemReader.close();
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testOnlyPositionFieldsAreStored() throws Exception {
+    Document document = new Document(new HashMap<String, Object>() {{
+      put("id", "1");
+      put("logtime", "2014-09-01T10:00:00.000Z");
+      put("log_message", "Starting the service");
+    }});
+    DocumentItemReader documentItemReader = new DocumentItemReader(documentSource, READ_BLOCK_SIZE, new String[] {"logtime", "id"});
+    expect(documentSource.open(null, 2)).andReturn(documentIterator);
+    expect(documentIterator.next()).andReturn(document);
+    expect(documentIterator.next()).andReturn(DOCUMENT_2);
+    documentIterator.close(); expectLastCall();
+    replayAll();
+
+    ExecutionContext executionContext = new ExecutionContext();
+    documentItemReader.open(executionContext);
+    documentItemReader.read();
+    documentItemReader.read();
+    documentItemReader.update(executionContext);
+    documentItemReader.close();
+
+    Document position = (Document) executionContext.get(DocumentItemReader.POSITION);
+    assertThat(position.getFieldMap().size(), is(2));
+    assertThat(position.getString("id"), is("1"));
+    assertThat(position.getString("logtime"), is("2014-09-01T10:00:00.000Z"));
+  }
+
+  @Test
+  public void testContinueAfterTheLastBlockOfTheManifest() throws Exception {
+    File manifestFile = File.createTempFile("DocumentItemReaderTest", ".manifest");
+    manifestFile.deleteOnExit();
+    try (ArchiveManifest manifest = new ArchiveManifest(manifestFile)) {
+      manifest.record(new ManifestEntry("file1.json", DOCUMENT, DOCUMENT_2, 2, 100, 0, 1L));
+    }
+    DocumentItemReader documentItemReader = new DocumentItemReader(documentSource, READ_BLOCK_SIZE, null, new ArchiveManifest(manifestFile));
+    Capture<Document> position = newCapture();
+    expect(documentSource.open(capture(position), eq(2))).andReturn(documentIterator);
+    expect(documentIterator.next()).andReturn(DOCUMENT_3);
+    replayAll();
+
+    ExecutionContext executionContext = new ExecutionContext();
+    executionContext.put(DocumentItemReader.POSITION, DOCUMENT);
+    documentItemReader.open(executionContext);
+    assertThat(documentItemReader.read(), is(DOCUMENT_3));
+    assertThat(position.getValue().getString("id"), is("2"));
+  }
+}
@@ -55,4 +55,18 @@ public class FileNameSuffixFormatterTest {
   public void testFormatWhenDateFormatIsSpecifiedAFormattedValueReturned() throws Exception {
     assertThat(formatter.format(new Document(new HashMap<String, Object>() {{ put("logtime", "2017-12-15T10:12:33.453Z"); }})), is("2017-12-15T10-12-33-453Z"));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testFormatBlockKeyJoinsTheKeyColumnValuesAndReplacesCharactersNotAllowedInFileNames() throws Exception {
+    Document document = new Document(new HashMap<String, Object>() {{
+      put("logtime", "2017-12-15T10:12:33.453Z");
+      put("id", "host/1:2");
+    }});
+    assertThat(formatter.formatBlockKey(document, "logtime", "id"), is("2017-12-15T10-12-33.453Z_host-1-2"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFormatBlockKeyWhenKeyColumnDoesNotExistsInTheDocumentThrowingException() throws Exception {
+    formatter.formatBlockKey(new Document(new HashMap<>()), "id");
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The tests use the local file system implementation of Hadoop: the HDFS client API is the same.
+ */
+public class HdfsFileSystemTest {
+
+  private static final Document DOCUMENT = new Document(new HashMap<String, Object>() {{ put("id", "1"); }});
+  private static final Document DOCUMENT2 = new Document(new HashMap<String, Object>() {{ put("id", "2"); }});
+
+  private File destinationDirectory;
+  private HdfsFileSystem hdfsFileSystem;
+
+  @Before
+  public void setUp() throws Exception {
+    destinationDirectory = Files.createTempDirectory("HdfsFileSystemTest").toFile();
+    hdfsFileSystem = new HdfsFileSystem(new Configuration(), new HdfsProperties(
+            "file:///", destinationDirectory.getAbsolutePath(), new FsPermission("640"), null, null, (short) 1, 1024 * 1024));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    hdfsFileSystem.close();
+    FileUtils.deleteDirectory(destinationDirectory);
+  }
+
+  @Test
+  public void testFileIsRenamedWhenCompleted() throws Exception {
+    LocalDocumentItemWriter writer = new LocalDocumentItemWriter(
+            new HdfsArchiveFile(hdfsFileSystem, "audit_logs_1.json.gz"), new GzipCodec(-1), null);
+    writer.write(DOCUMENT);
+    writer.write(DOCUMENT2);
+    assertThat(new File(destinationDirectory, "audit_logs_1.json.gz").exists(), is(false));
+    assertThat(new File(destinationDirectory, ".audit_logs_1.json.gz.inprogress").exists(), is(true));
+
+    writer.close();
+
+    File file = new File(destinationDirectory, "audit_logs_1.json.gz");
+    assertThat(file.exists(), is(true));
+    assertThat(new File(destinationDirectory, ".audit_logs_1.json.gz.inprogress").exists(), is(false));
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+            new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8))) {
+      assertThat(reader.readLine(), is("{\"id\":\"1\"}"));
+      assertThat(reader.readLine(), is("{\"id\":\"2\"}"));
+    }
+  }
+
+  @Test
+  public void testTempFileIsDeletedWhenReverted() throws Exception {
+    LocalDocumentItemWriter writer = new LocalDocumentItemWriter(
+            new HdfsArchiveFile(hdfsFileSystem, "audit_logs_1.json"), null, null);
+    writer.write(DOCUMENT);
+
+    writer.revert();
+
+    assertThat(new File(destinationDirectory, ".audit_logs_1.json.inprogress").exists(), is(false));
+    assertThat(new File(destinationDirectory, "audit_logs_1.json").exists(), is(false));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testExistingFileIsNotOverwritten() throws Exception {
+    FileUtils.write(new File(destinationDirectory, "audit_logs_1.json"), "existing", StandardCharsets.UTF_8);
+    LocalDocumentItemWriter writer = new LocalDocumentItemWriter(
+            new HdfsArchiveFile(hdfsFileSystem, "audit_logs_1.json"), null, null);
+    writer.write(DOCUMENT);
+
+    writer.close();
+  }
+}
@@ -19,19 +19,28 @@
 
 package org.apache.ambari.infra.job.archive;
 
+import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.cmp;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.LogicalOperator.EQUAL;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
 import org.apache.commons.io.FileUtils;
 import org.easymock.EasyMockRunner;
 import org.easymock.EasyMockSupport;
@@ -86,6 +95,31 @@ public class LocalDocumentItemWriterTest extends EasyMockSupport {
     assertThat(documentList.get(2).getString("id"), is(DOCUMENT3.getString("id")));
   }
 
+  @Test
+  public void testWriteKeepsTheJsonTypesOfTheFieldValues() throws Exception {
+    itemWriterListener.onCompleted(anyObject()); expectLastCall();
+    replayAll();
+
+    localDocumentItemWriter.write(new Document(new HashMap<String, Object>() {{
+      put("id", "1");
+      put("seq_num", 10L);
+      put("duration", 1.5d);
+      put("enforced", true);
+      put("tags", Arrays.asList("a", "b"));
+      put("empty", null);
+    }}));
+    localDocumentItemWriter.close();
+
+    Map<?, ?> fields = OBJECT_MAPPER.readValue(FileUtils.readFileToString(outFile), Map.class);
+    assertThat(fields.get("id"), is("1"));
+    assertThat(fields.get("seq_num"), is(10));
+    assertThat(fields.get("duration"), is("1.5"));
+    assertThat(fields.get("enforced"), is("true"));
+    assertThat(fields.get("tags"), is(Arrays.asList("a", "b")));
+    assertThat(fields.containsKey("empty"), is(true));
+    assertThat(fields.get("empty"), is(nullValue()));
+  }
+
   private Comparator<WriteCompletedEvent> writeCompletedEventEqualityComparator() {
     return (o1, o2) -> {
       if (o1.getOutFile().equals(o2.getOutFile()) &&
@@ -104,6 +138,29 @@ public class LocalDocumentItemWriterTest extends EasyMockSupport {
     return documentList;
   }
 
+  @Test
+  public void testWriteCompressed() throws Exception {
+    itemWriterListener.onCompleted(
+            cmp(new WriteCompletedEvent(outFile, DOCUMENT, DOCUMENT2), writeCompletedEventEqualityComparator(), EQUAL)); expectLastCall();
+    replayAll();
+
+    LocalDocumentItemWriter compressingItemWriter = new LocalDocumentItemWriter(outFile, new BZip2Codec(), itemWriterListener);
+    compressingItemWriter.write(DOCUMENT);
+    compressingItemWriter.write(DOCUMENT2);
+    compressingItemWriter.close();
+
+    List<Document> documentList = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+            new BZip2CompressorInputStream(new FileInputStream(outFile)), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null)
+        documentList.add(OBJECT_MAPPER.readValue(line, Document.class));
+    }
+    assertThat(documentList.size(), is(2));
+    assertThat(documentList.get(0).getString("id"), is(DOCUMENT.getString("id")));
+    assertThat(documentList.get(1).getString("id"), is(DOCUMENT2.getString("id")));
+  }
+
   @Test
   public void testRevert() throws Exception {
     replayAll();
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.apache.ambari.infra.job.archive.AvroDocumentItemWriterTest.ARCHIVE_SCHEMA;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParquetDocumentItemWriterTest {
+  private static final Document DOCUMENT = new Document(new HashMap<String, Object>() {{
+    put("id", "1");
+    put("logtime", "2018-01-01T10:20:30.123Z");
+    put("seq_num", 10L);
+    put("duration", 1.5d);
+    put("enforced", true);
+    put("@version", "1");
+  }});
+  private static final Document DOCUMENT2 = new Document(new HashMap<String, Object>() {{
+    put("id", "2");
+    put("logtime", "not a date");
+    put("seq_num", 11L);
+    put("level", "INFO");
+  }});
+
+  private File outFile;
+
+  @Before
+  public void setUp() throws Exception {
+    outFile = File.createTempFile("ParquetDocumentItemWriterTest", ".parquet");
+  }
+
+  @After
+  public void tearDown() {
+    outFile.delete();
+  }
+
+  @Test
+  public void testWriteStoresTypedColumnsAndOtherFields() throws Exception {
+    List<WriteCompletedEvent> events = new ArrayList<>();
+    ParquetDocumentItemWriter writer = new ParquetDocumentItemWriter(outFile, ARCHIVE_SCHEMA, Compression.ZSTD, -1, events::add);
+    writer.write(DOCUMENT);
+    writer.write(DOCUMENT2);
+    writer.close();
+
+    assertThat(events.size(), is(1));
+    assertThat(events.get(0).getDocumentCount(), is(2));
+    assertThat(events.get(0).getByteCount(), is(outFile.length()));
+
+    ParquetMetadata footer = readFooter();
+    assertThat(footer.getBlocks().get(0).getColumns().get(0).getCodec(), is(CompressionCodecName.ZSTD));
+    assertThat(footer.getFileMetaData().getSchema().getType("logtime").getLogicalTypeAnnotation(),
+            is(LogicalTypeAnnotation.timestampType(true, LogicalTypeAnnotation.TimeUnit.MILLIS)));
+
+    List<Group> records = readBack();
+    assertThat(records.size(), is(2));
+    assertThat(records.get(0).getString("id", 0), is("1"));
+    assertThat(records.get(0).getLong("logtime", 0), is(1514802030123L));
+    assertThat(records.get(0).getLong("seq_num", 0), is(10L));
+    assertThat(records.get(0).getDouble("duration", 0), is(1.5d));
+    assertThat(records.get(0).getBoolean("enforced", 0), is(true));
+    assertThat(records.get(0).getString("_version", 0), is("1"));
+    assertThat(records.get(0).getFieldRepetitionCount(ArchiveSchema.OTHER_FIELDS), is(0));
+
+    assertThat(records.get(1).getFieldRepetitionCount("logtime"), is(0));
+    Map<String, String> otherFields = new HashMap<>();
+    Group otherFieldsGroup = records.get(1).getGroup(ArchiveSchema.OTHER_FIELDS, 0);
+    for (int i = 0; i < otherFieldsGroup.getFieldRepetitionCount("key_value"); ++i) {
+      Group keyValue = otherFieldsGroup.getGroup("key_value", i);
+      otherFields.put(keyValue.getString("key", 0), keyValue.getString("value", 0));
+    }
+    assertThat(otherFields.size(), is(2));
+    assertThat(otherFields.get("level"), is("INFO"));
+    assertThat(otherFields.get("logtime"), is("not a date"));
+  }
+
+  @Test
+  public void testUncompressedByteCountIsTheSizeOfThePlainValues() {
+    ParquetDocumentItemWriter writer = new ParquetDocumentItemWriter(outFile, ARCHIVE_SCHEMA, Compression.GZIP, 6, null);
+    for (int i = 0; i < 1000; ++i)
+      writer.write(DOCUMENT);
+    long uncompressedByteCount = writer.getUncompressedByteCount();
+    writer.close();
+
+    // 5 + 8 + 1 + 5 + 8 + 8 bytes of plain encoded values per document: strings are prefixed by their length
+    assertThat(uncompressedByteCount, is(1000L * 35));
+    assertThat(outFile.length() < uncompressedByteCount, is(true));
+  }
+
+  @Test
+  public void testRevert() {
+    ParquetDocumentItemWriter writer = new ParquetDocumentItemWriter(outFile, ARCHIVE_SCHEMA, Compression.NONE, -1, null);
+    writer.write(DOCUMENT);
+    writer.revert();
+
+    assertThat(outFile.exists(), is(false));
+  }
+
+  private ParquetMetadata readFooter() throws Exception {
+    try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(new Path(outFile.getAbsolutePath()), new Configuration()))) {
+      return reader.getFooter();
+    }
+  }
+
+  private List<Group> readBack() throws Exception {
+    List<Group> records = new ArrayList<>();
+    try (ParquetReader<Group> reader = ParquetReader.builder(new GroupReadSupport(), new Path(outFile.getAbsolutePath())).build()) {
+      Group record;
+      while ((record = reader.read()) != null)
+        records.add(record);
+    }
+    return records;
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RolloverPolicyTest {
+
+  private File directory;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("RolloverPolicyTest").toFile();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(directory);
+  }
+
+  @Test
+  public void testDocumentCountRollover() {
+    RolloverPolicy rolloverPolicy = new DocumentCountRolloverPolicy(2);
+    assertThat(rolloverPolicy.shouldRollover(null, 1, document("1", "2014-09-01T10:00:00.000Z")), is(false));
+    assertThat(rolloverPolicy.shouldRollover(null, 2, document("1", "2014-09-01T10:00:00.000Z")), is(true));
+  }
+
+  @Test
+  public void testSizeRolloverComparesCompressedOrUncompressedSize() {
+    LocalDocumentItemWriter writer = new LocalDocumentItemWriter(new File(directory, "out.json.gz"), new GzipCodec(-1), null);
+    for (int i = 0; i < 1000; ++i)
+      writer.write(document(Integer.toString(i), "2014-09-01T10:00:00.000Z"));
+    writer.close();
+
+    assertThat(writer.getUncompressedByteCount() > 20000, is(true));
+    assertThat(writer.getWrittenByteCount() < 20000, is(true));
+    assertThat(new SizeRolloverPolicy(20000, true).shouldRollover(writer, 1000, null), is(true));
+    assertThat(new SizeRolloverPolicy(20000, false).shouldRollover(writer, 1000, null), is(false));
+  }
+
+  @Test
+  public void testIntervalRollover() {
+    MutableClock clock = new MutableClock();
+    RolloverPolicy rolloverPolicy = new IntervalRolloverPolicy(Duration.ofMinutes(10), clock);
+    rolloverPolicy.opened(document("1", "2014-09-01T10:00:00.000Z"));
+
+    clock.instant = clock.instant.plus(Duration.ofMinutes(9));
+    assertThat(rolloverPolicy.shouldRollover(null, 1, document("2", "2014-09-01T10:00:00.000Z")), is(false));
+    clock.instant = clock.instant.plus(Duration.ofMinutes(1));
+    assertThat(rolloverPolicy.shouldRollover(null, 1, document("2", "2014-09-01T10:00:00.000Z")), is(true));
+  }
+
+  @Test
+  public void testTimeBucketRolloverStartsNewFileInTheNextHour() {
+    RolloverPolicy rolloverPolicy = new TimeBucketRolloverPolicy(new FileNameSuffixFormatter("logtime", "yyyy-MM-dd'T'HH"));
+    rolloverPolicy.opened(document("1", "2014-09-01T10:00:00.000Z"));
+
+    assertThat(rolloverPolicy.shouldRollover(null, 1, document("2", "2014-09-01T10:59:59.999Z")), is(false));
+    assertThat(rolloverPolicy.shouldRollover(null, 2, document("3", "2014-09-01T11:00:00.000Z")), is(true));
+  }
+
+  @Test
+  public void testCompositeRolloverWhenAnyPolicyRollsOver() {
+    RolloverPolicy rolloverPolicy = new CompositeRolloverPolicy(
+            new DocumentCountRolloverPolicy(10),
+            new TimeBucketRolloverPolicy(new FileNameSuffixFormatter("logtime", "yyyy-MM-dd")));
+    rolloverPolicy.opened(document("1", "2014-09-01T10:00:00.000Z"));
+
+    assertThat(rolloverPolicy.shouldRollover(null, 1, document("2", "2014-09-01T23:00:00.000Z")), is(false));
+    assertThat(rolloverPolicy.shouldRollover(null, 10, document("2", "2014-09-01T23:00:00.000Z")), is(true));
+    assertThat(rolloverPolicy.shouldRollover(null, 1, document("2", "2014-09-02T00:00:00.000Z")), is(true));
+  }
+
+  private Document document(String id, String logtime) {
+    return new Document(new HashMap<String, Object>() {{
+      put("id", id);
+      put("logtime", logtime);
+      put("log_message", "Starting the service and loading the configuration of the cluster");
+    }});
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant instant = Instant.parse("2014-09-01T10:00:00Z");
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
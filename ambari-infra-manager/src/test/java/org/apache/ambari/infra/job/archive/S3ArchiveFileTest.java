@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+
+/**
+ * The tests use an in memory object store which implements the requests of a multipart upload.
+ */
+public class S3ArchiveFileTest {
+
+  private InMemoryS3 s3;
+  private S3ObjectStore s3ObjectStore;
+
+  @Before
+  public void setUp() {
+    s3 = new InMemoryS3();
+    s3ObjectStore = new S3ObjectStore(s3, new S3Properties(
+            null, null, "archives", "audit_logs/", S3Properties.MIN_PART_SIZE, 2, 3));
+  }
+
+  @After
+  public void tearDown() {
+    s3ObjectStore.close();
+  }
+
+  @Test
+  public void testSmallFileIsUploadedWithSinglePut() throws Exception {
+    byte[] content = randomBytes(1000);
+
+    File file = write(new S3ArchiveFile(s3ObjectStore, "file1.json"), content);
+
+    assertThat(file.getPath(), is("audit_logs/file1.json"));
+    assertThat(s3.multipartUploadCount.get(), is(0));
+    assertArrayEquals(content, s3.objects.get("archives/audit_logs/file1.json"));
+  }
+
+  @Test
+  public void testLargeFileIsUploadedInParts() throws Exception {
+    byte[] content = randomBytes(2 * S3Properties.MIN_PART_SIZE + 1000);
+
+    write(new S3ArchiveFile(s3ObjectStore, "file1.json"), content);
+
+    assertThat(s3.multipartUploadCount.get(), is(1));
+    assertThat(s3.uploadedPartCount.get(), is(3));
+    assertArrayEquals(content, s3.objects.get("archives/audit_logs/file1.json"));
+    assertThat(s3.uploads.isEmpty(), is(true));
+  }
+
+  @Test
+  public void testObjectIsNotVisibleBeforeCompleted() throws Exception {
+    S3ArchiveFile archiveFile = new S3ArchiveFile(s3ObjectStore, "file1.json");
+    try (OutputStream outputStream = archiveFile.create()) {
+      outputStream.write(randomBytes(S3Properties.MIN_PART_SIZE + 10));
+    }
+
+    assertThat(s3.objects.containsKey("archives/audit_logs/file1.json"), is(false));
+    archiveFile.complete();
+    assertThat(s3.objects.containsKey("archives/audit_logs/file1.json"), is(true));
+  }
+
+  @Test
+  public void testDeleteAbortsUpload() throws Exception {
+    S3ArchiveFile archiveFile = new S3ArchiveFile(s3ObjectStore, "file1.json");
+    try (OutputStream outputStream = archiveFile.create()) {
+      outputStream.write(randomBytes(S3Properties.MIN_PART_SIZE + 10));
+    }
+
+    archiveFile.delete();
+
+    assertThat(s3.objects.isEmpty(), is(true));
+    assertThat(s3.uploads.isEmpty(), is(true));
+    assertThat(s3.abortedUploadCount.get(), is(1));
+  }
+
+  @Test
+  public void testUploadingTheSameFileAgainOverwritesTheObject() throws Exception {
+    write(new S3ArchiveFile(s3ObjectStore, "file1.json"), randomBytes(100));
+    byte[] content = randomBytes(200);
+
+    write(new S3ArchiveFile(s3ObjectStore, "file1.json"), content);
+
+    assertThat(s3.objects.size(), is(1));
+    assertArrayEquals(content, s3.objects.get("archives/audit_logs/file1.json"));
+  }
+
+  private File write(ArchiveFile archiveFile, byte[] content) throws IOException {
+    try (OutputStream outputStream = archiveFile.create()) {
+      // odd sized writes cross the part boundaries
+      for (int offset = 0; offset < content.length; offset += 4093)
+        outputStream.write(content, offset, Math.min(4093, content.length - offset));
+    }
+    return archiveFile.complete();
+  }
+
+  private byte[] randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    new Random(length).nextBytes(bytes);
+    return bytes;
+  }
+
+  private static class InMemoryS3 extends AbstractAmazonS3 {
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private final AtomicInteger multipartUploadCount = new AtomicInteger();
+    private final AtomicInteger uploadedPartCount = new AtomicInteger();
+    private final AtomicInteger abortedUploadCount = new AtomicInteger();
+
+    @Override
+    public PutObjectResult putObject(PutObjectRequest putObjectRequest) {
+      objects.put(putObjectRequest.getBucketName() + "/" + putObjectRequest.getKey(), read(putObjectRequest.getInputStream()));
+      return new PutObjectResult();
+    }
+
+    @Override
+    public InitiateMultipartUploadResult initiateMultipartUpload(InitiateMultipartUploadRequest request) {
+      String uploadId = "upload" + multipartUploadCount.incrementAndGet();
+      uploads.put(uploadId, new ConcurrentHashMap<>());
+      InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+      result.setUploadId(uploadId);
+      return result;
+    }
+
+    @Override
+    public UploadPartResult uploadPart(UploadPartRequest request) {
+      uploads.get(request.getUploadId()).put(request.getPartNumber(), read(request.getInputStream()));
+      uploadedPartCount.incrementAndGet();
+      UploadPartResult result = new UploadPartResult();
+      result.setPartNumber(request.getPartNumber());
+      result.setETag("etag" + request.getPartNumber());
+      return result;
+    }
+
+    @Override
+    public CompleteMultipartUploadResult completeMultipartUpload(CompleteMultipartUploadRequest request) {
+      Map<Integer, byte[]> parts = new TreeMap<>(uploads.remove(request.getUploadId()));
+      ByteArrayOutputStream content = new ByteArrayOutputStream();
+      for (PartETag partETag : request.getPartETags())
+        content.write(parts.get(partETag.getPartNumber()), 0, parts.get(partETag.getPartNumber()).length);
+      objects.put(request.getBucketName() + "/" + request.getKey(), content.toByteArray());
+      return new CompleteMultipartUploadResult();
+    }
+
+    @Override
+    public void abortMultipartUpload(AbortMultipartUploadRequest request) {
+      uploads.remove(request.getUploadId());
+      abortedUploadCount.incrementAndGet();
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    private byte[] read(InputStream inputStream) {
+      try {
+        return IOUtils.toByteArray(inputStream);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+}
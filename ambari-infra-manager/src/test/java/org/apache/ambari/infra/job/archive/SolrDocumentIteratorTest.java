@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.util.NamedList;
+import org.junit.Test;
+
+public class SolrDocumentIteratorTest {
+
+  @Test
+  public void testNextConvertsFieldValues() {
+    SolrDocument solrDocument = new SolrDocument();
+    solrDocument.setField("id", "1");
+    solrDocument.setField("logtime", Date.from(Instant.parse("2018-01-01T10:20:30.123Z")));
+    solrDocument.setField("seq_num", 10L);
+    solrDocument.setField("line_number", 5);
+    solrDocument.setField("duration", 1.5d);
+    solrDocument.setField("enforced", true);
+    solrDocument.setField("tags", Arrays.asList("a", "b"));
+    SolrDocumentList solrDocumentList = new SolrDocumentList();
+    solrDocumentList.add(solrDocument);
+    NamedList<Object> response = new NamedList<>();
+    response.add("response", solrDocumentList);
+
+    SolrDocumentIterator iterator = new SolrDocumentIterator(new QueryResponse(response, null));
+    Document document = iterator.next();
+
+    assertThat(document.getFieldMap().get("id"), is("1"));
+    assertThat(document.getFieldMap().get("logtime"), is("2018-01-01T10:20:30.123Z"));
+    assertThat(document.getFieldMap().get("seq_num"), is(10L));
+    assertThat(document.getFieldMap().get("line_number"), is(5));
+    assertThat(document.getFieldMap().get("duration"), is(1.5d));
+    assertThat(document.getFieldMap().get("enforced"), is(true));
+    assertThat(document.getFieldMap().get("tags"), is("[a, b]"));
+    assertThat(iterator.next(), is(nullValue()));
+  }
+
+  @Test
+  public void testNextKeepsMultivaluedFieldsAsListsWhenRequested() {
+    SolrDocument solrDocument = new SolrDocument();
+    solrDocument.setField("tags", Arrays.asList("a", Date.from(Instant.parse("2018-01-01T10:20:30.123Z"))));
+    SolrDocumentList solrDocumentList = new SolrDocumentList();
+    solrDocumentList.add(solrDocument);
+    NamedList<Object> response = new NamedList<>();
+    response.add("response", solrDocumentList);
+
+    Document document = new SolrDocumentIterator(new QueryResponse(response, null), true).next();
+
+    assertThat(document.getFieldMap().get("tags"), is(Arrays.asList("a", "2018-01-01T10:20:30.123Z")));
+  }
+
+  @Test
+  public void testFormatDateFormatsLikeTheSolrDateFormatter() {
+    for (String date : new String[] {"2018-01-01T10:20:30.123Z", "2016-02-29T23:59:59.999Z", "1970-01-01T00:00:00.000Z",
+            "1969-12-31T23:59:59.001Z", "0001-01-01T00:00:00.000Z", "+10000-01-01T00:00:00.000Z"}) {
+      Instant instant = Instant.parse(date);
+      assertThat(SolrDocumentIterator.formatDate(Date.from(instant)),
+              is(FileNameSuffixFormatter.SOLR_DATETIME_FORMATTER.withZone(ZoneOffset.UTC).format(instant)));
+    }
+  }
+}
@@ -63,4 +63,20 @@ public class  SolrPropertiesTest {
     assertThat(solrParameters.getSortColumn().length, is(1));
     assertThat(solrParameters.getSortColumn()[0], is("testColumn"));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testMergeExportColumns() {
+    JobParameters jobParameters = new JobParametersBuilder()
+            .addString("exportColumn[0]", "logtime")
+            .addString("exportColumn[1]", "id")
+            .toJobParameters();
+
+    SolrProperties solrProperties = new SolrProperties();
+    solrProperties.setSortColumn(new String[] {"testColumn"});
+    SolrProperties solrParameters = solrProperties.merge(jobParameters);
+    assertThat(solrParameters.getExportColumn().length, is(2));
+    assertThat(solrParameters.getExportColumn()[0], is("logtime"));
+    assertThat(solrParameters.getExportColumn()[1], is("id"));
+    assertThat(solrParameters.getSortColumn()[0], is("testColumn"));
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.comp.StreamComparator;
+import org.apache.solr.client.solrj.io.stream.StreamContext;
+import org.apache.solr.client.solrj.io.stream.TupleStream;
+import org.apache.solr.client.solrj.io.stream.expr.Explanation;
+import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
+import org.junit.Test;
+
+public class SolrTupleIteratorTest {
+
+  @Test
+  public void testNextConvertsTupleFields() {
+    Date logtime = Date.from(OffsetDateTime.parse("2018-01-02T03:04:05.006Z").toInstant());
+    ListTupleStream tupleStream = new ListTupleStream(
+            new Tuple(new HashMap<String, Object>() {{
+              put("id", "1");
+              put("logtime", logtime);
+              put("seq_num", 10L);
+            }}),
+            Tuple.EOF());
+
+    SolrTupleIterator iterator = new SolrTupleIterator(tupleStream);
+    assertThat(iterator.hasNext(), is(true));
+    Document document = iterator.next();
+    assertThat(document.getString("id"), is("1"));
+    assertThat(document.getString("logtime"), is("2018-01-02T03:04:05.006Z"));
+    assertThat(document.getFieldMap().get("seq_num"), is(10L));
+    assertThat(iterator.hasNext(), is(false));
+    assertThat(iterator.next(), is(nullValue()));
+    iterator.close();
+    assertThat(tupleStream.closed, is(true));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNextThrowsExceptionWhenStreamReturnsError() {
+    new SolrTupleIterator(new ListTupleStream(Tuple.EXCEPTION("test", true))).next();
+  }
+
+  private static class ListTupleStream extends TupleStream {
+    private final Iterator<Tuple> tuples;
+    private boolean closed = false;
+
+    ListTupleStream(Tuple... tuples) {
+      this.tuples = asList(tuples).iterator();
+    }
+
+    @Override
+    public void setStreamContext(StreamContext context) {
+    }
+
+    @Override
+    public List<TupleStream> children() {
+      return null;
+    }
+
+    @Override
+    public void open() {
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    @Override
+    public Tuple read() {
+      return tuples.next();
+    }
+
+    @Override
+    public StreamComparator getStreamSort() {
+      return null;
+    }
+
+    @Override
+    public Explanation toExplanation(StreamFactory factory) {
+      return null;
+    }
+  }
+}
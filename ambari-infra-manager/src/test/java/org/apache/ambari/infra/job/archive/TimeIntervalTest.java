@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.archive;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class TimeIntervalTest {
+
+  @Test
+  public void testSplitCoversTheIntervalWithoutOverlapping() {
+    List<TimeInterval> intervals = TimeInterval.split("2018-01-01T00:00:00.000Z", "2018-01-01T00:00:03.999Z", 4);
+
+    assertThat(intervals.size(), is(4));
+    assertInterval(intervals.get(0), "2018-01-01T00:00:00.000Z", "2018-01-01T00:00:00.999Z");
+    assertInterval(intervals.get(1), "2018-01-01T00:00:01.000Z", "2018-01-01T00:00:01.999Z");
+    assertInterval(intervals.get(2), "2018-01-01T00:00:02.000Z", "2018-01-01T00:00:02.999Z");
+    assertInterval(intervals.get(3), "2018-01-01T00:00:03.000Z", "2018-01-01T00:00:03.999Z");
+  }
+
+  @Test
+  public void testLastIntervalIsTruncatedToTheEndOfTheInterval() {
+    List<TimeInterval> intervals = TimeInterval.split("2018-01-01T00:00:00.000Z", "2018-01-01T00:00:00.004Z", 2);
+
+    assertThat(intervals.size(), is(2));
+    assertInterval(intervals.get(0), "2018-01-01T00:00:00.000Z", "2018-01-01T00:00:00.002Z");
+    assertInterval(intervals.get(1), "2018-01-01T00:00:00.003Z", "2018-01-01T00:00:00.004Z");
+  }
+
+  @Test
+  public void testIntervalShorterThanTheCountIsSplitIntoMillisecondIntervals() {
+    List<TimeInterval> intervals = TimeInterval.split("2018-01-01T00:00:00.000Z", "2018-01-01T00:00:00.001Z", 4);
+
+    assertThat(intervals.size(), is(2));
+    assertInterval(intervals.get(0), "2018-01-01T00:00:00.000Z", "2018-01-01T00:00:00.000Z");
+    assertInterval(intervals.get(1), "2018-01-01T00:00:00.001Z", "2018-01-01T00:00:00.001Z");
+  }
+
+  private void assertInterval(TimeInterval interval, String start, String end) {
+    assertThat(interval.getStart(), is(start));
+    assertThat(interval.getEnd(), is(end));
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.cleanup;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+
+import org.apache.ambari.infra.conf.batch.JobRepositoryDatabase;
+import org.apache.ambari.infra.conf.batch.SchemaMigrator;
+import org.apache.ambari.infra.job.InfraJobExecutionDao;
+import org.apache.ambari.infra.job.archive.ArchiveManifest;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class TaskHistoryWiperTest {
+
+  private File dbFile;
+  private JdbcTemplate jdbcTemplate;
+  private InfraJobExecutionDao infraJobExecutionDao;
+  private StepExecution stepExecution;
+  private StepContribution contribution;
+  private ChunkContext chunkContext;
+
+  @Before
+  public void setUp() throws Exception {
+    dbFile = File.createTempFile("TaskHistoryWiperTest", ".db");
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(JobRepositoryDatabase.SQLITE.url(dbFile.getAbsolutePath()));
+    dataSource.setDriverClassName(JobRepositoryDatabase.SQLITE.getDriverClassName());
+    new SchemaMigrator(dataSource, JobRepositoryDatabase.SQLITE, false).migrate();
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    infraJobExecutionDao = new InfraJobExecutionDao(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+
+    stepExecution = new StepExecution("cleanUpStep", new JobExecution(100L));
+    contribution = stepExecution.createStepContribution();
+    chunkContext = new ChunkContext(new StepContext(stepExecution));
+  }
+
+  @After
+  public void tearDown() {
+    dbFile.delete();
+  }
+
+  @Test
+  public void testJobExecutionsOlderThanTtlAreDeletedInBatches() throws Exception {
+    OffsetDateTime yesterday = OffsetDateTime.now().minusDays(1);
+    for (long id = 1; id <= 4; ++id)
+      insertJobExecution(id, id, yesterday);
+    insertJobExecution(5, 4, yesterday);
+    insertJobExecution(6, 4, OffsetDateTime.now());
+
+    TaskHistoryWiper taskHistoryWiper = new TaskHistoryWiper(infraJobExecutionDao, Duration.ofHours(1), 2, Duration.ZERO, null);
+
+    assertThat(taskHistoryWiper.execute(contribution, chunkContext), is(RepeatStatus.CONTINUABLE));
+    assertThat(taskHistoryWiper.execute(contribution, chunkContext), is(RepeatStatus.CONTINUABLE));
+    assertThat(taskHistoryWiper.execute(contribution, chunkContext), is(RepeatStatus.FINISHED));
+
+    assertThat(count("BATCH_JOB_EXECUTION"), is(1));
+    assertThat(count("BATCH_JOB_EXECUTION_PARAMS"), is(1));
+    assertThat(count("BATCH_JOB_EXECUTION_CONTEXT"), is(1));
+    assertThat(count("BATCH_STEP_EXECUTION"), is(1));
+    assertThat(count("BATCH_STEP_EXECUTION_CONTEXT"), is(1));
+    assertThat(jdbcTemplate.queryForObject("SELECT JOB_INSTANCE_ID FROM BATCH_JOB_INSTANCE", Long.class), is(4L));
+
+    assertThat(contribution.getWriteCount(), is(5));
+    assertThat(deletedRows("JOB_EXECUTION"), is(5L));
+    assertThat(deletedRows("STEP_EXECUTION_CONTEXT"), is(5L));
+    assertThat(deletedRows("JOB_INSTANCE"), is(3L));
+  }
+
+  @Test
+  public void testRestartedStepUsesTheStoredLimit() throws Exception {
+    insertJobExecution(1, 1, OffsetDateTime.now().minusDays(2));
+    insertJobExecution(2, 2, OffsetDateTime.now().minusDays(1));
+    stepExecution.getExecutionContext().putString(TaskHistoryWiper.OLDER_THAN, OffsetDateTime.now().minusHours(36).toString());
+
+    TaskHistoryWiper taskHistoryWiper = new TaskHistoryWiper(infraJobExecutionDao, Duration.ofHours(1), 10, Duration.ZERO, null);
+
+    assertThat(taskHistoryWiper.execute(contribution, chunkContext), is(RepeatStatus.FINISHED));
+    assertThat(jdbcTemplate.queryForObject("SELECT JOB_EXECUTION_ID FROM BATCH_JOB_EXECUTION", Long.class), is(2L));
+  }
+
+  @Test
+  public void testNothingToDelete() throws Exception {
+    insertJobExecution(1, 1, OffsetDateTime.now());
+
+    TaskHistoryWiper taskHistoryWiper = new TaskHistoryWiper(infraJobExecutionDao, Duration.ofHours(1), 10, Duration.ZERO, null);
+
+    assertThat(taskHistoryWiper.execute(contribution, chunkContext), is(RepeatStatus.FINISHED));
+    assertThat(count("BATCH_JOB_EXECUTION"), is(1));
+    assertThat(contribution.getWriteCount(), is(0));
+  }
+
+  @Test
+  public void testJobInstancesWithoutExecutionAreDeletedInBatchesAfterTheLastBatch() throws Exception {
+    for (long id = 1; id <= 5; ++id)
+      insertJobInstance(id);
+    insertJobExecution(1, 6, OffsetDateTime.now().minusDays(1));
+    insertJobExecution(2, 7, OffsetDateTime.now());
+
+    TaskHistoryWiper taskHistoryWiper = new TaskHistoryWiper(infraJobExecutionDao, Duration.ofHours(1), 2, Duration.ZERO, null);
+
+    assertThat(taskHistoryWiper.execute(contribution, chunkContext), is(RepeatStatus.FINISHED));
+    assertThat(jdbcTemplate.queryForObject("SELECT JOB_INSTANCE_ID FROM BATCH_JOB_INSTANCE", Long.class), is(7L));
+    assertThat(deletedRows("JOB_INSTANCE"), is(6L));
+  }
+
+  @Test
+  public void testManifestsOfDeletedJobInstancesAreDeleted() throws Exception {
+    insertJobExecution(1, 1, OffsetDateTime.now().minusDays(1));
+    insertJobExecution(2, 2, OffsetDateTime.now());
+    File manifestFolder = Files.createTempDirectory("manifests").toFile();
+    try {
+      File deletedManifest = ArchiveManifest.manifestFile(manifestFolder, "archive", 1, "exportStep");
+      File keptManifest = ArchiveManifest.manifestFile(manifestFolder, "archive", 2, "exportStep");
+      File orphanManifest = ArchiveManifest.manifestFile(manifestFolder, "archive", 3, "exportStep");
+      for (File manifest : Arrays.asList(deletedManifest, keptManifest, orphanManifest))
+        FileUtils.touch(manifest);
+
+      TaskHistoryWiper taskHistoryWiper = new TaskHistoryWiper(infraJobExecutionDao, Duration.ofHours(1), 10, Duration.ZERO, manifestFolder);
+
+      assertThat(taskHistoryWiper.execute(contribution, chunkContext), is(RepeatStatus.FINISHED));
+      assertThat(deletedManifest.getParentFile().exists(), is(false));
+      assertThat(orphanManifest.getParentFile().exists(), is(false));
+      assertThat(keptManifest.exists(), is(true));
+      assertThat(stepExecution.getExecutionContext().getLong(TaskHistoryWiper.DELETED_MANIFESTS), is(2L));
+    }
+    finally {
+      FileUtils.deleteDirectory(manifestFolder);
+    }
+  }
+
+  private void insertJobInstance(long jobInstanceId) {
+    jdbcTemplate.update("INSERT OR IGNORE INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY) VALUES (?, 0, 'archive', ?)",
+            jobInstanceId, Long.toString(jobInstanceId));
+  }
+
+  private void insertJobExecution(long jobExecutionId, long jobInstanceId, OffsetDateTime createTime) {
+    Timestamp timestamp = Timestamp.from(createTime.toInstant());
+    insertJobInstance(jobInstanceId);
+    jdbcTemplate.update("INSERT INTO BATCH_JOB_EXECUTION (JOB_EXECUTION_ID, VERSION, JOB_INSTANCE_ID, CREATE_TIME) VALUES (?, 0, ?, ?)",
+            jobExecutionId, jobInstanceId, timestamp);
+    jdbcTemplate.update("INSERT INTO BATCH_JOB_EXECUTION_PARAMS (JOB_EXECUTION_ID, TYPE_CD, KEY_NAME, IDENTIFYING) VALUES (?, 'STRING', 'end', 'Y')",
+            jobExecutionId);
+    jdbcTemplate.update("INSERT INTO BATCH_JOB_EXECUTION_CONTEXT (JOB_EXECUTION_ID, SHORT_CONTEXT) VALUES (?, '{}')", jobExecutionId);
+    jdbcTemplate.update("INSERT INTO BATCH_STEP_EXECUTION (STEP_EXECUTION_ID, VERSION, STEP_NAME, JOB_EXECUTION_ID, START_TIME) VALUES (?, 0, 'step', ?, ?)",
+            jobExecutionId, jobExecutionId, timestamp);
+    jdbcTemplate.update("INSERT INTO BATCH_STEP_EXECUTION_CONTEXT (STEP_EXECUTION_ID, SHORT_CONTEXT) VALUES (?, '{}')", jobExecutionId);
+  }
+
+  private int count(String table) {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+  }
+
+  private long deletedRows(String table) {
+    return stepExecution.getExecutionContext().getLong(TaskHistoryWiper.DELETED_ROWS_PREFIX + table);
+  }
+}
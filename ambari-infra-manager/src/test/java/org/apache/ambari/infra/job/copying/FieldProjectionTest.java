@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.copying;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.apache.ambari.infra.job.archive.Document;
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.Test;
+
+public class FieldProjectionTest {
+
+  private static final Document DOCUMENT = document();
+
+  private static Document document() {
+    Map<String, Object> fieldMap = new HashMap<>();
+    fieldMap.put("id", "1");
+    fieldMap.put("logtime", "2018-07-01T10:00:00.000Z");
+    fieldMap.put("log_message", "Starting namenode");
+    fieldMap.put("tags", Arrays.asList("a", "b"));
+    fieldMap.put("_version_", 1604939339281186816L);
+    return new Document(fieldMap);
+  }
+
+  @Test
+  public void testAllFieldsAreCopiedExceptVersion() {
+    SolrInputDocument inputDocument = new FieldProjection(null, null).process(DOCUMENT);
+
+    assertThat(inputDocument.getFieldNames(), is(new HashSet<>(Arrays.asList("id", "logtime", "log_message", "tags"))));
+    assertThat(inputDocument.getFieldValues("tags"), is(Arrays.asList("a", "b")));
+  }
+
+  @Test
+  public void testOnlyIncludedFieldsAreCopied() {
+    SolrInputDocument inputDocument = new FieldProjection(new String[] {"id", "logtime", "_version_"}, null).process(DOCUMENT);
+
+    assertThat(inputDocument.getFieldNames(), is(new HashSet<>(Arrays.asList("id", "logtime"))));
+  }
+
+  @Test
+  public void testExcludedFieldsAreNotCopied() {
+    SolrInputDocument inputDocument = new FieldProjection(new String[] {"id", "log_message"}, new String[] {"log_message"}).process(DOCUMENT);
+
+    assertThat(inputDocument.getFieldNames(), is(new HashSet<>(Arrays.asList("id"))));
+  }
+}
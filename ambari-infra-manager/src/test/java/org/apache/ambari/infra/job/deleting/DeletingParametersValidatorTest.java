@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.deleting;
+
+import static org.apache.ambari.infra.job.JobsPropertyMap.PARAMETERS_CONTEXT_KEY;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+
+public class DeletingParametersValidatorTest {
+
+  private DeletingProperties parameters;
+  private JobExecution jobExecution;
+  private String fieldTypeClass;
+  private int lookupCount;
+
+  @Before
+  public void setUp() {
+    parameters = new DeletingProperties();
+    parameters.setCollection("audit_logs");
+    parameters.setFilterField("evtTime");
+    jobExecution = new JobExecution(1L);
+    jobExecution.getExecutionContext().put(PARAMETERS_CONTEXT_KEY, parameters);
+  }
+
+  private DeletingParametersValidator validator() {
+    return new DeletingParametersValidator(null) {
+      @Override
+      protected String getFieldTypeClass(DeletingProperties parameters) {
+        ++lookupCount;
+        return fieldTypeClass;
+      }
+    };
+  }
+
+  @Test
+  public void testSchemaIsNotCheckedWhenTheIntervalIsNotSplit() {
+    validator().beforeJob(jobExecution);
+
+    assertThat(lookupCount, is(0));
+  }
+
+  @Test
+  public void testSubRangesOfDateFieldAreAccepted() {
+    parameters.setSubRangeCount(4);
+    fieldTypeClass = "solr.DatePointField";
+
+    validator().beforeJob(jobExecution);
+
+    assertThat(lookupCount, is(1));
+  }
+
+  @Test
+  public void testSubRangesOfNonDateFieldFailTheJob() {
+    parameters.setSubRangeCount(4);
+    fieldTypeClass = "solr.LongPointField";
+
+    try {
+      validator().beforeJob(jobExecution);
+      fail("The job must fail when the filter field is not a date field");
+    }
+    catch (IllegalArgumentException expected) {
+      assertThat(jobExecution.getExitStatus().getExitCode(), is(ExitStatus.FAILED.getExitCode()));
+    }
+  }
+}
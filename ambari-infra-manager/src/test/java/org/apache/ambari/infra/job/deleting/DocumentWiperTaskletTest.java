@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.deleting;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.ambari.infra.job.CloudSolrClientCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class DocumentWiperTaskletTest {
+
+  private final List<String> deleteQueries = Collections.synchronizedList(new ArrayList<>());
+  private int commitCount;
+  private DeletingProperties deletingProperties;
+  private StepExecution stepExecution;
+  private ChunkContext chunkContext;
+  private StepContribution contribution;
+  private ExecutorService executorService;
+
+  @Before
+  public void setUp() {
+    deletingProperties = new DeletingProperties();
+    deletingProperties.setZooKeeperConnectionString("localhost:2181");
+    deletingProperties.setCollection("audit_logs");
+    deletingProperties.setFilterField("evtTime");
+    deletingProperties.setStart("2018-07-01T00:00:00.000Z");
+    deletingProperties.setEnd("2018-07-01T03:59:59.999Z");
+    newStepExecution();
+    executorService = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  private void newStepExecution() {
+    stepExecution = new StepExecution("delete", new JobExecution(1L));
+    chunkContext = new ChunkContext(new StepContext(stepExecution));
+    contribution = new StepContribution(stepExecution);
+  }
+
+  private DocumentWiperTasklet tasklet(List<String> shards) {
+    return new DocumentWiperTasklet(new CloudSolrClientCache(new SimpleMeterRegistry()), deletingProperties, executorService) {
+      @Override
+      protected void delete(String deleteQueryText) {
+        deleteQueries.add(deleteQueryText);
+        ++commitCount;
+      }
+
+      @Override
+      protected void deleteSubRange(String shard, String deleteQuery) {
+        deleteQueries.add(shard == null ? deleteQuery : shard + " " + deleteQuery);
+      }
+
+      @Override
+      public void commit() {
+        ++commitCount;
+      }
+
+      @Override
+      public List<String> getShardNames() {
+        return shards;
+      }
+
+      @Override
+      protected String findFirstValue(String end) {
+        return "2018-07-01T02:00:00.000Z";
+      }
+    };
+  }
+
+  @Test
+  public void testWholeIntervalIsDeletedAtOnceByDefault() throws Exception {
+    DocumentWiperTasklet tasklet = tasklet(null);
+
+    assertThat(tasklet.execute(contribution, chunkContext), is(RepeatStatus.FINISHED));
+    assertThat(deleteQueries, is(Collections.singletonList(
+            "evtTime:[2018\\-07\\-01T00\\:00\\:00.000Z TO 2018\\-07\\-01T03\\:59\\:59.999Z]")));
+    assertThat(commitCount, is(1));
+  }
+
+  @Test
+  public void testSubRangesAreDeletedOnEachShardAndCheckpointed() throws Exception {
+    deletingProperties.setSubRangeCount(4);
+    deletingProperties.setDeleteConcurrency(2);
+    deletingProperties.setShardRouted(true);
+    DocumentWiperTasklet tasklet = tasklet(Arrays.asList("shard1", "shard2"));
+
+    assertThat(tasklet.execute(contribution, chunkContext), is(RepeatStatus.CONTINUABLE));
+    assertThat(deleteQueries, containsInAnyOrder(
+            "shard1 evtTime:[2018\\-07\\-01T00\\:00\\:00.000Z TO 2018\\-07\\-01T00\\:59\\:59.999Z]",
+            "shard2 evtTime:[2018\\-07\\-01T00\\:00\\:00.000Z TO 2018\\-07\\-01T00\\:59\\:59.999Z]",
+            "shard1 evtTime:[2018\\-07\\-01T01\\:00\\:00.000Z TO 2018\\-07\\-01T01\\:59\\:59.999Z]",
+            "shard2 evtTime:[2018\\-07\\-01T01\\:00\\:00.000Z TO 2018\\-07\\-01T01\\:59\\:59.999Z]"));
+    assertThat(commitCount, is(1));
+    assertThat(stepExecution.getExecutionContext().getString(DocumentWiperTasklet.LAST_DELETED_END), is("2018-07-01T01:59:59.999Z"));
+
+    assertThat(tasklet.execute(contribution, chunkContext), is(RepeatStatus.FINISHED));
+    assertThat(deleteQueries.size(), is(8));
+    assertThat(commitCount, is(2));
+    assertThat(stepExecution.getExecutionContext().getString(DocumentWiperTasklet.LAST_DELETED_END), is("2018-07-01T03:59:59.999Z"));
+  }
+
+  @Test
+  public void testRestartedDeletionResumesAfterTheLastDeletedSubRange() throws Exception {
+    deletingProperties.setSubRangeCount(2);
+    stepExecution.getExecutionContext().putString(DocumentWiperTasklet.DELETE_END, "2018-07-01T03:59:59.999Z");
+    stepExecution.getExecutionContext().putString(DocumentWiperTasklet.LAST_DELETED_END, "2018-07-01T01:59:59.999Z");
+    DocumentWiperTasklet tasklet = tasklet(null);
+
+    assertThat(tasklet.execute(contribution, chunkContext), is(RepeatStatus.CONTINUABLE));
+    assertThat(tasklet.execute(contribution, chunkContext), is(RepeatStatus.FINISHED));
+    assertThat(deleteQueries, is(Arrays.asList(
+            "evtTime:[2018\\-07\\-01T02\\:00\\:00.000Z TO 2018\\-07\\-01T02\\:59\\:59.999Z]",
+            "evtTime:[2018\\-07\\-01T03\\:00\\:00.000Z TO 2018\\-07\\-01T03\\:59\\:59.999Z]")));
+  }
+
+  @Test
+  public void testStartOfOpenIntervalIsTheFirstDocument() throws Exception {
+    deletingProperties.setStart("*");
+    deletingProperties.setSubRangeCount(2);
+    deletingProperties.setDeleteConcurrency(2);
+    DocumentWiperTasklet tasklet = tasklet(null);
+
+    assertThat(tasklet.execute(contribution, chunkContext), is(RepeatStatus.FINISHED));
+    assertThat(deleteQueries, containsInAnyOrder(
+            "evtTime:[2018\\-07\\-01T02\\:00\\:00.000Z TO 2018\\-07\\-01T02\\:59\\:59.999Z]",
+            "evtTime:[2018\\-07\\-01T03\\:00\\:00.000Z TO 2018\\-07\\-01T03\\:59\\:59.999Z]"));
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.job.restoring;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.ambari.infra.job.CloudSolrClientCache;
+import org.apache.commons.io.FileUtils;
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class DocumentRestoringTaskletTest {
+
+  private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+  private int commitCount;
+  private File directory;
+  private RestoringProperties restoringProperties;
+  private Counter restoredDocumentCounter;
+  private StepExecution stepExecution;
+  private ChunkContext chunkContext;
+  private StepContribution contribution;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("DocumentRestoringTaskletTest").toFile();
+    writeGzip(new File(directory, "audit_logs_-_2018-07-01.json.gz"),
+            "{\"id\":\"1\",\"_version_\":1604939339281186816}\n{\"id\":\"2\"}\n{\"id\":\"3\"}\n");
+    FileUtils.writeStringToFile(new File(directory, "audit_logs_-_2018-07-02.json"),
+            "{\"id\":\"4\",\"evtTime\":\"2018-07-02T10:00:00.000Z\"}\n{\"id\":\"5\"}\n", StandardCharsets.UTF_8);
+    FileUtils.writeStringToFile(new File(directory, "notes.txt"), "not an archive", StandardCharsets.UTF_8);
+
+    restoringProperties = new RestoringProperties();
+    restoringProperties.setZooKeeperConnectionString("localhost:2181");
+    restoringProperties.setCollection("audit_logs");
+    restoringProperties.setSourceDirectory(directory.getAbsolutePath());
+    restoringProperties.setBatchSize(2);
+    restoringProperties.setWorkerCount(1);
+    restoredDocumentCounter = new SimpleMeterRegistry().counter("restored");
+    newStepExecution();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(directory);
+  }
+
+  private void writeGzip(File file, String content) throws Exception {
+    try (OutputStream outputStream = new GZIPOutputStream(new FileOutputStream(file))) {
+      outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private void newStepExecution() {
+    stepExecution = new StepExecution("restore", new JobExecution(1L));
+    chunkContext = new ChunkContext(new StepContext(stepExecution));
+    contribution = new StepContribution(stepExecution);
+  }
+
+  private DocumentRestoringTasklet tasklet() {
+    return new DocumentRestoringTasklet(new CloudSolrClientCache(new SimpleMeterRegistry()), restoringProperties,
+            new LocalArchiveSource(directory), restoredDocumentCounter) {
+      @Override
+      protected void add(List<SolrInputDocument> documents) {
+        List<String> batch = new ArrayList<>();
+        for (SolrInputDocument document : documents)
+          batch.add(document.getFieldNames().contains("_version_") ? "version" : document.getFieldValue("id").toString());
+        batches.add(batch);
+      }
+
+      @Override
+      public void commit() {
+        ++commitCount;
+      }
+    };
+  }
+
+  @Test
+  public void testFilesAreRestoredInBatchesOneRoundPerExecution() throws Exception {
+    DocumentRestoringTasklet tasklet = tasklet();
+
+    assertThat(tasklet.execute(contribution, chunkContext), is(RepeatStatus.CONTINUABLE));
+    assertThat(batches.toString(), is("[[1, 2], [3]]"));
+    assertThat(stepExecution.getExecutionContext().getString(DocumentRestoringTasklet.LAST_RESTORED_FILE), is("audit_logs_-_2018-07-01.json.gz"));
+    assertThat(commitCount, is(0));
+
+    assertThat(tasklet.execute(contribution, chunkContext), is(RepeatStatus.FINISHED));
+    assertThat(batches.toString(), is("[[1, 2], [3], [4, 5]]"));
+    assertThat(commitCount, is(1));
+    assertThat(contribution.getWriteCount(), is(5));
+    assertThat(restoredDocumentCounter.count(), is(5.0));
+  }
+
+  @Test
+  public void testFilesAreRestoredInParallel() throws Exception {
+    restoringProperties.setWorkerCount(4);
+    restoringProperties.setCommitPolicy(CommitPolicy.ROUND);
+
+    assertThat(tasklet().execute(contribution, chunkContext), is(RepeatStatus.FINISHED));
+    assertThat(batches.size(), is(3));
+    assertThat(commitCount, is(1));
+    assertThat(stepExecution.getExecutionContext().getString(DocumentRestoringTasklet.LAST_RESTORED_FILE), is("audit_logs_-_2018-07-02.json"));
+  }
+
+  @Test
+  public void testRestartContinuesWithTheNextFile() throws Exception {
+    stepExecution.getExecutionContext().putString(DocumentRestoringTasklet.LAST_RESTORED_FILE, "audit_logs_-_2018-07-01.json.gz");
+
+    assertThat(tasklet().execute(contribution, chunkContext), is(RepeatStatus.FINISHED));
+    assertThat(batches.toString(), is("[[4, 5]]"));
+  }
+
+  @Test
+  public void testNothingToRestore() throws Exception {
+    restoringProperties.setFileNamePattern(".*\\.avro");
+
+    assertThat(tasklet().execute(contribution, chunkContext), is(RepeatStatus.FINISHED));
+    assertThat(batches.isEmpty(), is(true));
+    assertThat(commitCount, is(0));
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.manager;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Date;
+
+import org.apache.ambari.infra.job.JobEstimate;
+import org.junit.Test;
+import org.springframework.batch.admin.history.StepExecutionHistory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+public class JobManagerTest {
+
+  @Test
+  public void testDurationIsNotProjectedWithoutHistory() {
+    assertThat(JobManager.projectDuration(estimate(1000), new StepExecutionHistory("export")), is(nullValue()));
+  }
+
+  @Test
+  public void testDurationIsProjectedFromTheDurationPerReadOfTheHistory() {
+    StepExecutionHistory stepExecutionHistory = new StepExecutionHistory("export");
+    stepExecutionHistory.append(stepExecution(10_000, 100));
+    stepExecutionHistory.append(stepExecution(30_000, 100));
+
+    assertThat(JobManager.projectDuration(estimate(1000), stepExecutionHistory), is(200_000L));
+  }
+
+  @Test
+  public void testMeanDurationIsProjectedWhenTheStepDoesNotCountReads() {
+    StepExecutionHistory stepExecutionHistory = new StepExecutionHistory("delete");
+    stepExecutionHistory.append(stepExecution(10_000, 0));
+    stepExecutionHistory.append(stepExecution(30_000, 0));
+
+    assertThat(JobManager.projectDuration(estimate(1000), stepExecutionHistory), is(20_000L));
+  }
+
+  private JobEstimate estimate(long documentCount) {
+    JobEstimate estimate = new JobEstimate();
+    estimate.setDocumentCount(documentCount);
+    return estimate;
+  }
+
+  private StepExecution stepExecution(long durationMillis, int readCount) {
+    StepExecution stepExecution = new StepExecution("step", new JobExecution(1L));
+    stepExecution.setStartTime(new Date(0));
+    stepExecution.setEndTime(new Date(durationMillis));
+    stepExecution.setReadCount(readCount);
+    return stepExecution;
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.manager;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+
+public class StepExecutionHistoryCacheTest {
+
+  private final StepExecutionHistoryCache stepExecutionHistoryCache = new StepExecutionHistoryCache();
+  private final AtomicInteger loadCount = new AtomicInteger();
+
+  @Test
+  public void testHistoryIsLoadedOnce() {
+    StepExecutionStatistics stepExecutionStatistics = stepExecutionHistoryCache.get("archive", "export", this::load);
+
+    assertThat(stepExecutionHistoryCache.get("archive", "export", this::load), is(sameInstance(stepExecutionStatistics)));
+    assertThat(loadCount.get(), is(1));
+  }
+
+  @Test
+  public void testFinishedStepExecutionIsAppendedToTheCachedHistory() {
+    StepExecutionStatistics stepExecutionStatistics = stepExecutionHistoryCache.get("archive", "export", this::load);
+
+    stepExecutionHistoryCache.afterStep(stepExecution("archive", "export", 100));
+
+    assertThat(stepExecutionStatistics.snapshot().getCount(), is(1));
+    assertThat(stepExecutionStatistics.snapshot().getReadCount().getMean(), is(100.0));
+  }
+
+  @Test
+  public void testExecutionsOfPartitionsAreCollectedIntoOneHistory() {
+    StepExecutionStatistics stepExecutionStatistics = stepExecutionHistoryCache.get("archive", "exportPartition:partition0", this::load);
+
+    stepExecutionHistoryCache.afterStep(stepExecution("archive", "exportPartition:partition1", 10));
+    stepExecutionHistoryCache.afterStep(stepExecution("archive", "exportPartition:partition_shard2", 30));
+
+    assertThat(stepExecutionStatistics.snapshot().getStepName(), is("exportPartition:partition*"));
+    assertThat(stepExecutionStatistics.snapshot().getCount(), is(2));
+    assertThat(loadCount.get(), is(1));
+  }
+
+  @Test
+  public void testExecutionOfNotCachedStepIsIgnored() {
+    stepExecutionHistoryCache.afterStep(stepExecution("archive", "export", 100));
+
+    assertThat(stepExecutionHistoryCache.get("archive", "export", this::load).snapshot().getCount(), is(0));
+  }
+
+  @Test
+  public void testHistoriesAreReloadedAfterCleanUp() {
+    stepExecutionHistoryCache.get("archive", "export", this::load);
+
+    stepExecutionHistoryCache.afterStep(stepExecution("clean_up", "cleanUpStep", 0, 5));
+    stepExecutionHistoryCache.get("archive", "export", this::load);
+
+    assertThat(loadCount.get(), is(2));
+  }
+
+  @Test
+  public void testHistoriesAreReloadedWhileCleanUpIsRunning() {
+    stepExecutionHistoryCache.get("archive", "export", this::load);
+
+    stepExecutionHistoryCache.beforeStep(stepExecution("clean_up", "cleanUpStep", 0, 0));
+    stepExecutionHistoryCache.get("archive", "export", this::load);
+
+    assertThat(loadCount.get(), is(2));
+  }
+
+  @Test
+  public void testLoadingHistoryDoesNotBlockOtherHistoriesAndIsSharedByConcurrentRequests() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executorService = Executors.newFixedThreadPool(2);
+    try {
+      Future<StepExecutionStatistics> first = executorService.submit(() -> stepExecutionHistoryCache.get("archive", "export", (jobName, stepName) -> {
+        loading.countDown();
+        await(release);
+        return load(jobName, stepName);
+      }));
+      loading.await();
+      Future<StepExecutionStatistics> second = executorService.submit(() -> stepExecutionHistoryCache.get("archive", "export", this::load));
+
+      assertThat(stepExecutionHistoryCache.get("archive", "delete", this::load).snapshot().getStepName(), is("delete"));
+      release.countDown();
+
+      assertThat(second.get(10, TimeUnit.SECONDS), is(sameInstance(first.get(10, TimeUnit.SECONDS))));
+      assertThat(loadCount.get(), is(2));
+    }
+    finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testHistoryBeingLoadedWhenAStepFinishesIsLoadedAgain() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      Future<StepExecutionStatistics> first = executorService.submit(() -> stepExecutionHistoryCache.get("archive", "export", (jobName, stepName) -> {
+        loading.countDown();
+        await(release);
+        return load(jobName, stepName);
+      }));
+      loading.await();
+      stepExecutionHistoryCache.afterStep(stepExecution("archive", "export", 100));
+      release.countDown();
+      first.get(10, TimeUnit.SECONDS);
+
+      stepExecutionHistoryCache.get("archive", "export", this::load);
+      assertThat(loadCount.get(), is(2));
+    }
+    finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testFailedLoadIsNotCached() {
+    try {
+      stepExecutionHistoryCache.get("archive", "export", (jobName, stepName) -> { throw new IllegalStateException("database is locked"); });
+      fail("The load failure must be thrown");
+    }
+    catch (IllegalStateException expected) {
+    }
+
+    assertThat(stepExecutionHistoryCache.get("archive", "export", this::load).snapshot().getCount(), is(0));
+    assertThat(loadCount.get(), is(1));
+  }
+
+  private void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private StepExecutionStatistics load(String jobName, String stepName) {
+    loadCount.incrementAndGet();
+    return new StepExecutionStatistics(stepName);
+  }
+
+  private StepExecution stepExecution(String jobName, String stepName, int readCount) {
+    return stepExecution(jobName, stepName, readCount, readCount);
+  }
+
+  private StepExecution stepExecution(String jobName, String stepName, int readCount, int writeCount) {
+    JobExecution jobExecution = new JobExecution(new JobInstance(1L, jobName), 1L, new JobParameters(), null);
+    StepExecution stepExecution = new StepExecution(stepName, jobExecution, 1L);
+    stepExecution.setStartTime(new Date(System.currentTimeMillis() - 1000));
+    stepExecution.setReadCount(readCount);
+    stepExecution.setWriteCount(writeCount);
+    return stepExecution;
+  }
+}
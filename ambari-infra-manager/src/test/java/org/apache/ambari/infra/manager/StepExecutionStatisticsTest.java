@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.ambari.infra.manager;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Date;
+
+import org.apache.ambari.infra.model.StepExecutionHistoryResponse;
+import org.junit.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+public class StepExecutionStatisticsTest {
+
+  private final StepExecutionStatistics stepExecutionStatistics = new StepExecutionStatistics("export");
+
+  @Test
+  public void testSnapshotOfEmptyHistory() {
+    StepExecutionHistoryResponse snapshot = stepExecutionStatistics.snapshot();
+
+    assertThat(snapshot.getCount(), is(0));
+    assertThat(snapshot.getDurationP50(), is(nullValue()));
+    assertThat(snapshot.getDocsPerSecond().getCount(), is(0));
+  }
+
+  @Test
+  public void testDurationPercentilesAndDocsPerSecond() {
+    for (int i = 1; i <= 100; ++i)
+      stepExecutionStatistics.append(stepExecution(i, i * 1000L, 1000));
+
+    StepExecutionHistoryResponse snapshot = stepExecutionStatistics.snapshot();
+    assertThat(snapshot.getCount(), is(100));
+    assertThat(snapshot.getDurationP50(), is(50_000L));
+    assertThat(snapshot.getDurationP90(), is(90_000L));
+    assertThat(snapshot.getDurationP99(), is(99_000L));
+    assertThat(snapshot.getDocsPerSecond().getMax(), is(1000.0));
+    assertThat(snapshot.getDocsPerSecond().getMin(), is(10.0));
+  }
+
+  @Test
+  public void testPercentilesAreComputedFromTheMostRecentlyFinishedExecutions() {
+    // appended in descending order like when the history is loaded from the job repository
+    for (int i = StepExecutionStatistics.DURATION_SAMPLE_SIZE * 2; i > 0; --i)
+      stepExecutionStatistics.append(stepExecution(i, i > StepExecutionStatistics.DURATION_SAMPLE_SIZE ? 1000 : 5000, 0));
+
+    StepExecutionHistoryResponse snapshot = stepExecutionStatistics.snapshot();
+    assertThat(snapshot.getCount(), is(StepExecutionStatistics.DURATION_SAMPLE_SIZE * 2));
+    assertThat(snapshot.getDurationP99(), is(1000L));
+  }
+
+  @Test
+  public void testUnfinishedExecutionIsSkipped() {
+    StepExecution stepExecution = new StepExecution("export", new JobExecution(1L));
+    stepExecution.setStartTime(new Date());
+    stepExecutionStatistics.append(stepExecution);
+
+    assertThat(stepExecutionStatistics.snapshot().getCount(), is(0));
+  }
+
+  private StepExecution stepExecution(long endTimeSeconds, long durationMillis, int readCount) {
+    StepExecution stepExecution = new StepExecution("export", new JobExecution(1L));
+    stepExecution.setEndTime(new Date(endTimeSeconds * 1_000_000));
+    stepExecution.setStartTime(new Date(endTimeSeconds * 1_000_000 - durationMillis));
+    stepExecution.setReadCount(readCount);
+    return stepExecution;
+  }
+}